@@ -0,0 +1,103 @@
+package edu.cut.smacc.jmh;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares benchmark results against a baseline. Both are JSON files of the form
+ * <pre>
+ * {"benchmarks": [{"benchmark": "edu.cut.smacc...AccessBasedListBenchmark.accessItem",
+ *                  "mode": "thrpt", "threads": 1, "params": {"items": "1000"},
+ *                  "score": 12.3, "error": 0.4, "unit": "ops/us"}, ...]}
+ * </pre>
+ * A result is a regression when it is worse than the baseline by more than the tolerance
+ * (in percent) and by more than the errors of the two scores. Higher is better for the
+ * throughput mode and lower is better for the others.
+ * <p>
+ * Usage: BaselineComparator baseline.json result.json [tolerance %]
+ */
+public class BaselineComparator {
+
+    public static final double DEFAULT_TOLERANCE = 10;
+
+    public static JSONObject toJson(RunResult result) {
+        JSONObject params = new JSONObject();
+        for (String key : result.getParams().getParamsKeys())
+            params.put(key, result.getParams().getParam(key));
+
+        Result<?> primary = result.getPrimaryResult();
+        return new JSONObject()
+                .put("benchmark", result.getParams().getBenchmark())
+                .put("mode", result.getParams().getMode().shortLabel())
+                .put("threads", result.getParams().getThreads())
+                .put("params", params)
+                .put("score", primary.getScore())
+                .put("error", Double.isNaN(primary.getScoreError()) ? 0 : primary.getScoreError())
+                .put("unit", primary.getScoreUnit());
+    }
+
+    public static JSONArray read(Path file) throws IOException {
+        return new JSONObject(Files.readString(file)).getJSONArray("benchmarks");
+    }
+
+    /**
+     * Print the comparison of every result that is in the baseline
+     *
+     * @return the number of regressions
+     */
+    public static int compare(JSONArray baseline, JSONArray results, double tolerance) {
+        Map<String, JSONObject> baselineByKey = new HashMap<>();
+        for (int i = 0; i < baseline.length(); i++)
+            baselineByKey.put(keyOf(baseline.getJSONObject(i)), baseline.getJSONObject(i));
+
+        int regressions = 0;
+        System.out.printf("%-90s %12s %12s %8s%n", "Benchmark", "Baseline", "Result", "Change");
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            JSONObject base = baselineByKey.get(keyOf(result));
+            if (base == null)
+                continue;
+
+            double baseScore = base.getDouble("score");
+            double score = result.getDouble("score");
+            double change = (baseScore == 0) ? 0 : 100 * (score - baseScore) / baseScore;
+            boolean higherIsBetter = result.getString("mode").equals("thrpt");
+            double loss = higherIsBetter ? baseScore - score : score - baseScore;
+            boolean regression = loss > baseScore * tolerance / 100
+                    && loss > base.getDouble("error") + result.getDouble("error");
+            if (regression)
+                regressions++;
+
+            System.out.printf("%-90s %12.3f %12.3f %+7.1f%% %s%n", keyOf(result), baseScore, score, change,
+                    regression ? "REGRESSION" : "");
+        }
+        System.out.println(regressions + " regression(s) with a tolerance of " + tolerance + "%");
+        return regressions;
+    }
+
+    private static String keyOf(JSONObject result) {
+        // Sorted params so that the key does not depend on the order in the file
+        Map<String, Object> params = new TreeMap<>(result.getJSONObject("params").toMap());
+        return result.getString("benchmark") + params + " " + result.getString("mode")
+                + " t=" + result.getInt("threads");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BaselineComparator baseline.json result.json [tolerance %]");
+            System.exit(1);
+        }
+        double tolerance = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        if (compare(read(Path.of(args[0])), read(Path.of(args[1])), tolerance) > 0)
+            System.exit(1);
+    }
+}
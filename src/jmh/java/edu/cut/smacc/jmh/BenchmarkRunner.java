@@ -0,0 +1,80 @@
+package edu.cut.smacc.jmh;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks once for each thread count, writes the results in the baseline format
+ * (see BaselineComparator) and optionally compares them against a baseline.
+ * <p>
+ * Usage: BenchmarkRunner [-threads 1,2,4] [-quick] [-p param=v1,v2]... [-result file] [-baseline file]
+ * [-tolerance %] [regex...]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        int[] threadCounts = {1};
+        boolean quick = false;
+        Path resultFile = Path.of("target", "jmh-result.json");
+        Path baselineFile = null;
+        double tolerance = BaselineComparator.DEFAULT_TOLERANCE;
+        List<String> includes = new ArrayList<>();
+        List<String[]> params = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads" -> {
+                    String[] counts = args[++i].split(",");
+                    threadCounts = new int[counts.length];
+                    for (int t = 0; t < counts.length; t++)
+                        threadCounts[t] = Integer.parseInt(counts[t].trim());
+                }
+                case "-quick" -> quick = true;
+                case "-p" -> params.add(args[++i].split("=", 2));
+                case "-result" -> resultFile = Path.of(args[++i]);
+                case "-baseline" -> baselineFile = Path.of(args[++i]);
+                case "-tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                default -> includes.add(args[i]);
+            }
+        }
+        if (includes.isEmpty())
+            includes.add("edu\\.cut\\.smacc\\..*Benchmark");
+
+        JSONArray results = new JSONArray();
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder().threads(threads).shouldFailOnError(true);
+            for (String include : includes)
+                options.include(include);
+            for (String[] param : params)
+                options.param(param[0], param[1].split(","));
+            if (quick)
+                options.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+                        .measurementIterations(2).measurementTime(TimeValue.seconds(1));
+
+            for (RunResult result : new Runner(options.build()).run())
+                results.put(BaselineComparator.toJson(result));
+        }
+
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        Files.writeString(resultFile, new JSONObject().put("benchmarks", results).toString(2));
+        System.out.println("Results written to " + resultFile);
+
+        if (baselineFile != null) {
+            int regressions = BaselineComparator.compare(BaselineComparator.read(baselineFile), results, tolerance);
+            if (regressions > 0)
+                System.exit(1);
+        }
+    }
+}
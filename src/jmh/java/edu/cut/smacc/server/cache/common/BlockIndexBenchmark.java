@@ -0,0 +1,64 @@
+package edu.cut.smacc.server.cache.common;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries a shared BlockIndex (which replaced MultiBlockUnifier) of a file cached in blocks,
+ * with a gap after every other block so that the file has blocks / 2 extents
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockIndexBenchmark {
+
+    @Param({"16", "1024"})
+    public int blocks;
+
+    @Param({"65536"})
+    public int blockSize;
+
+    private BlockIndex<BlockRange> index;
+    private long fileSize;
+
+    @Setup
+    public void setup() {
+        index = BlockIndex.forRanges();
+        fileSize = (long) blocks * blockSize * 3 / 2;
+        long start = 0;
+        for (int i = 0; i < blocks; i++) {
+            index.add(new BlockRange(start, start + blockSize - 1));
+            start += (i % 2 == 0) ? blockSize : 2L * blockSize;
+        }
+    }
+
+    @Benchmark
+    public BlockRange findExtent() {
+        return index.findExtent(ThreadLocalRandom.current().nextLong(fileSize));
+    }
+
+    @Benchmark
+    public boolean contains() {
+        long start = ThreadLocalRandom.current().nextLong(fileSize - blockSize);
+        return index.contains(start, start + blockSize);
+    }
+
+    @Benchmark
+    public List<BlockRange> getItems() {
+        long start = ThreadLocalRandom.current().nextLong(fileSize - 4L * blockSize);
+        return index.getItems(start, start + 4L * blockSize);
+    }
+
+    @Benchmark
+    public void replace() {
+        // Replace a block with itself, which rebuilds its extent
+        BlockRange block = index.getItems(0, 0).get(0);
+        index.replace(block, new BlockRange(block.getStart(), block.getStop()));
+    }
+}
@@ -0,0 +1,42 @@
+package edu.cut.smacc.server.cache.common;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the hex keys used for the names of the cached files
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringShortBenchmark {
+
+    @Param({"16", "256"})
+    public int keyLength;
+
+    private String key;
+    private String hex;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keyLength; i++)
+            builder.append((char) ('a' + i % 26));
+        key = builder.toString();
+        hex = StringShort.toHex(key);
+    }
+
+    @Benchmark
+    public String toHex() {
+        return StringShort.toHex(key);
+    }
+
+    @Benchmark
+    public String fromHex() {
+        return StringShort.fromHex(hex);
+    }
+}
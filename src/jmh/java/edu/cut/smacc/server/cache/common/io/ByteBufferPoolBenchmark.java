@@ -0,0 +1,46 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquires and releases buffers of a shared ByteBufferPool
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteBufferPoolBenchmark {
+
+    @Param({"4096", "1048576"})
+    public int bufferSize;
+
+    @Param({"1", "16"})
+    public int buffersPerOp;
+
+    private ByteBufferPool pool;
+
+    @State(Scope.Thread)
+    public static class Held {
+        ByteBuffer[] buffers;
+    }
+
+    @Setup
+    public void setup() {
+        pool = new ByteBufferPool(bufferSize);
+    }
+
+    @Benchmark
+    public void acquireRelease(Held held) {
+        if (held.buffers == null)
+            held.buffers = new ByteBuffer[buffersPerOp];
+        for (int i = 0; i < buffersPerOp; i++)
+            held.buffers[i] = pool.acquireByteBuffer(bufferSize);
+        for (int i = 0; i < buffersPerOp; i++)
+            pool.releaseByteBuffer(held.buffers[i]);
+    }
+}
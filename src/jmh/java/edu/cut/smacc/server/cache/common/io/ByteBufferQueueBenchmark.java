@@ -0,0 +1,53 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a block into a ByteBufferQueue, reads it back and returns its buffers to the pool,
+ * like a memory block does from creation to eviction. Each thread has its own queue (single
+ * writer) and all threads share the pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteBufferQueueBenchmark {
+
+    @Param({"4096", "65536"})
+    public int bufferSize;
+
+    @Param({"16", "256"})
+    public int buffers;
+
+    private ByteBufferPool pool;
+    private UsageStats stats;
+
+    @Setup
+    public void setup() {
+        pool = new ByteBufferPool(bufferSize);
+        stats = new UsageStats();
+    }
+
+    @Benchmark
+    public void writeReadDelete(Blackhole blackhole) {
+        ByteBufferQueue queue = new ByteBufferQueue(stats);
+        for (int i = 0; i < buffers; i++) {
+            ByteBuffer bb = pool.acquireByteBuffer(bufferSize);
+            bb.position(bb.limit());
+            queue.appendByteByffer(bb);
+        }
+
+        Iterator<ByteBuffer> iterator = queue.iterator();
+        while (iterator.hasNext())
+            blackhole.consume(iterator.next().get(0));
+
+        queue.delete(pool);
+    }
+}
@@ -0,0 +1,52 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.configuration.ServerConfigurations;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes an object into a WritableInputStream and reads it back, as the uploads to the cloud do.
+ * Each thread has its own stream and all threads share the (static) pool of the streams. The
+ * buffer size is read once per JVM, so each value runs in its own fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WritableInputStreamBenchmark {
+
+    @Param({"65536", "1048576"})
+    public int bufferSize;
+
+    @Param({"1048576", "16777216"})
+    public int length;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    private byte[] chunk;
+
+    @Setup
+    public void setup() {
+        ServerConfigurations.setServerToS3BufferSize(bufferSize);
+        chunk = new byte[chunkSize];
+    }
+
+    @Benchmark
+    public long writeRead() throws IOException {
+        WritableInputStream stream = new WritableInputStream(length);
+        for (int written = 0; written < length; written += chunkSize)
+            stream.write(chunk, 0, Math.min(chunkSize, length - written));
+
+        long total = 0;
+        int read;
+        while ((read = stream.read(chunk, 0, chunkSize)) > 0)
+            total += read;
+        stream.close();
+        return total;
+    }
+}
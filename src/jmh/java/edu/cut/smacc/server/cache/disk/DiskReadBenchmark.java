@@ -0,0 +1,111 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads hot objects of the disk tier from their block files or from their memory mappings:
+ * small random ranges and whole objects
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiskReadBenchmark {
+
+    private static final int OBJECTS = 64;
+    private static final int RANGE = 1024;
+
+    @Param({"file", "mmap"})
+    public String read;
+
+    @Param({"4096", "65536", "1048576"})
+    public int objectSize;
+
+    private File folder;
+    private DiskManager manager;
+    private DiskFile[] objects;
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("smacc-read-bench").toFile();
+        Configuration configuration = new Configuration();
+        if (read.equals("mmap"))
+            configuration.addProperty(ServerConfigurations.CACHE_DISK_MMAP_CAPACITY_KEY, (long) OBJECTS * objectSize);
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        diskSettings.put(0, new StoreSettings(new File(folder, "data").getPath() + "/",
+                new File(folder, "state").getPath() + "/", new UsageStats(Long.MAX_VALUE)));
+        new File(folder, "data").mkdirs();
+        new File(folder, "state").mkdirs();
+        manager = new DiskManager(diskSettings, configuration, notifier);
+
+        byte[] data = new byte[objectSize];
+        ThreadLocalRandom.current().nextBytes(data);
+        objects = new DiskFile[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            DiskFile file = manager.create("bucket", "object" + i);
+            MultiBlockOutputStream out = file.getOutputStream();
+            out.write(data, 0, data.length);
+            out.close();
+            file.setVersion(1);
+            file.stateComplete();
+            objects[i] = file;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.shutdown();
+        try (var paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static long drain(InputStream in, byte[] buffer) throws IOException {
+        long total = 0;
+        int r;
+        while ((r = in.read(buffer, 0, buffer.length)) > 0)
+            total += r;
+        return total;
+    }
+
+    @Benchmark
+    public long rangeRead() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DiskFile file = objects[random.nextInt(OBJECTS)];
+        long start = random.nextInt(objectSize - RANGE + 1);
+        try (InputStream in = file.getInputStream(start, start + RANGE - 1)) {
+            return drain(in, buffers.get());
+        }
+    }
+
+    @Benchmark
+    public long fullRead() throws IOException {
+        DiskFile file = objects[ThreadLocalRandom.current().nextInt(OBJECTS)];
+        try (InputStream in = file.getInputStream()) {
+            return drain(in, buffers.get());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StateType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.StringShort;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovers a disk volume of one-byte blocks from its journal (a snapshot and a log tail of a
+ * tenth of the blocks) or by scanning the volume. The scan is quadratic in the number of blocks,
+ * so compare them on small volumes, e.g. -p recovery=journal,scan -p blocks=2000
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiskRecoveryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int blocks;
+
+    @Param({"journal"})
+    public String recovery;
+
+    private File folder;
+    private StoreSettings settings;
+    private String[] names;
+    private DiskManager manager;
+
+    @Setup(Level.Trial)
+    public void createBlocks() throws IOException {
+        folder = Files.createTempDirectory("smacc-recovery-bench").toFile();
+        File data = new File(folder, "data");
+        File state = new File(folder, "state");
+        data.mkdirs();
+        state.mkdirs();
+        settings = new StoreSettings(data.getPath(), state.getPath(), new UsageStats(Long.MAX_VALUE));
+
+        String bucket = StringShort.toHex("bucket");
+        names = new String[blocks];
+        byte[] content = {1};
+        for (int i = 0; i < blocks; i++) {
+            names[i] = "1##" + bucket + "#" + StringShort.toHex("object" + i) + "-0-0";
+            Files.write(new File(data, names[i]).toPath(), content);
+            new File(state, "COMPLETE$" + names[i]).createNewFile();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void writeJournal() throws IOException {
+        String journalFolder = settings.getStateFolder() + "journal";
+        DiskJournal.discard(journalFolder);
+        if (!recovery.equals("journal"))
+            return;
+        int snapshotted = blocks - blocks / 10;
+        LinkedHashMap<String, StateType> snapshot = new LinkedHashMap<>();
+        for (int i = 0; i < snapshotted; i++)
+            snapshot.put(names[i], StateType.COMPLETE);
+        DiskJournal journal = new DiskJournal(journalFolder, Long.MAX_VALUE);
+        journal.start(snapshot);
+        for (int i = snapshotted; i < blocks; i++) {
+            String temporary = "tmp" + i;
+            journal.append(DiskJournal.Op.CREATE, temporary, null, () -> {});
+            journal.append(DiskJournal.Op.COMPLETE, temporary, names[i], () -> {});
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdown() {
+        manager.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int recover() {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.CACHE_DISK_JOURNAL_ENABLED_KEY, recovery.equals("journal"));
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        diskSettings.put(0, settings);
+        manager = new DiskManager(diskSettings, configuration, notifier);
+        return manager.initiateRecovery().size();
+    }
+}
@@ -0,0 +1,101 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes (and deletes) and reads small objects of the disk tier with each storage engine
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiskStoreBenchmark {
+
+    private static final int OBJECTS = 1000;
+
+    @Param({"file", "segment"})
+    public String engine;
+
+    @Param({"4096", "65536"})
+    public int objectSize;
+
+    private File folder;
+    private DiskManager manager;
+    private DiskFile[] objects;
+    private byte[] data;
+    private final AtomicLong keys = new AtomicLong();
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("smacc-disk-bench").toFile();
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.CACHE_DISK_STORAGE_ENGINE_KEY, engine);
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        diskSettings.put(0, new StoreSettings(new File(folder, "data").getPath() + "/",
+                new File(folder, "state").getPath() + "/", new UsageStats(Long.MAX_VALUE)));
+        new File(folder, "data").mkdirs();
+        new File(folder, "state").mkdirs();
+        manager = new DiskManager(diskSettings, configuration, notifier);
+
+        data = new byte[objectSize];
+        ThreadLocalRandom.current().nextBytes(data);
+        objects = new DiskFile[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++)
+            objects[i] = write("object" + i);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.shutdown();
+        try (var paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private DiskFile write(String key) throws IOException {
+        DiskFile file = manager.create("bucket", key);
+        MultiBlockOutputStream out = file.getOutputStream();
+        out.write(data, 0, data.length);
+        out.close();
+        file.setVersion(1);
+        file.stateComplete();
+        return file;
+    }
+
+    @Benchmark
+    public void put() throws IOException {
+        write("put" + keys.incrementAndGet()).delete();
+    }
+
+    @Benchmark
+    public long get() throws IOException {
+        DiskFile file = objects[ThreadLocalRandom.current().nextInt(OBJECTS)];
+        try (InputStream in = file.getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
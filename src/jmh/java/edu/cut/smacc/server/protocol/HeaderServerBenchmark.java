@@ -0,0 +1,71 @@
+package edu.cut.smacc.server.protocol;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses GET (with a range) and PUT request headers from memory
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderServerBenchmark {
+
+    @Param({"16", "200"})
+    public int keyLength;
+
+    private byte[] getHeader;
+    private byte[] putHeader;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] bucket = "benchmark-bucket".getBytes();
+        byte[] key = "k".repeat(keyLength).getBytes();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeObject(out, RequestType.GET, bucket, key);
+        out.writeBoolean(true);
+        out.writeLong(0);
+        out.writeLong(1048575);
+        getHeader = bytes.toByteArray();
+
+        bytes.reset();
+        writeObject(out, RequestType.PUT, bucket, key);
+        out.writeBoolean(false); // uploadAsync
+        out.writeBoolean(true);
+        out.writeLong(42);       // connection id
+        out.writeBoolean(false); // goingManual
+        out.writeBoolean(true);
+        out.writeLong(1048576);  // length
+        putHeader = bytes.toByteArray();
+    }
+
+    private static void writeObject(DataOutputStream out, RequestType type, byte[] bucket, byte[] key)
+            throws IOException {
+        out.write(type.getInt());
+        out.write(bucket.length);
+        out.write(bucket);
+        out.write(key.length);
+        out.write(key);
+    }
+
+    @Benchmark
+    public HeaderServer parseGet() throws IOException {
+        return new HeaderServer(new DataInputStream(new ByteArrayInputStream(getHeader)));
+    }
+
+    @Benchmark
+    public HeaderServer parsePut() throws IOException {
+        return new HeaderServer(new DataInputStream(new ByteArrayInputStream(putHeader)));
+    }
+}
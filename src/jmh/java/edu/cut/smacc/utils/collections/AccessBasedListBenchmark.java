@@ -0,0 +1,58 @@
+package edu.cut.smacc.utils.collections;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves random items to the head of a shared AccessBasedList, as the LRU/MRU policies do on access
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessBasedListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int items;
+
+    private CacheFile[] files;
+    private AccessBasedList<CacheFile> list;
+
+    @Setup
+    public void setup() {
+        MemoryManager manager = new MemoryManager(new StoreSettings("jmh", "jmh", new UsageStats()),
+                CachePolicyNotifier.createNotifierFromPoliciesList(List.of()));
+        files = new CacheFile[items];
+        list = new AccessBasedList<>();
+        for (int i = 0; i < items; i++) {
+            files[i] = manager.create("bucket", "key" + i);
+            list.add(files[i]);
+        }
+    }
+
+    @Benchmark
+    public void accessItem() {
+        list.accessItem(files[ThreadLocalRandom.current().nextInt(items)]);
+    }
+
+    @Benchmark
+    public CacheFile evictAndAdd() {
+        // Keeps the size of the list steady
+        synchronized (list) {
+            CacheFile lru = list.getLRUItem();
+            list.deleteItem(lru);
+            list.add(lru);
+            return lru;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.cut.smacc.utils.collections;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates the weights of random items of a shared SortedWeightedTree, as the LFU policy does on
+ * access. The tree is not thread safe, so the operations hold its monitor like the policies do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortedWeightedTreeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int items;
+
+    private CacheFile[] files;
+    private SortedWeightedTree<WeightedLFUNode<CacheFile>, CacheFile> tree;
+
+    @Setup
+    public void setup() {
+        MemoryManager manager = new MemoryManager(new StoreSettings("jmh", "jmh", new UsageStats()),
+                CachePolicyNotifier.createNotifierFromPoliciesList(List.of()));
+        files = new CacheFile[items];
+        tree = new SortedWeightedTree<>();
+        for (int i = 0; i < items; i++) {
+            files[i] = manager.create("bucket", "key" + i);
+            tree.addNode(new WeightedLFUNode<>(files[i]));
+        }
+    }
+
+    @Benchmark
+    public void updateNode() {
+        CacheFile file = files[ThreadLocalRandom.current().nextInt(items)];
+        synchronized (tree) {
+            tree.updateNode(file);
+        }
+    }
+
+    @Benchmark
+    public CacheFile evictAndAdd() {
+        synchronized (tree) {
+            CacheFile min = tree.getMinWeightItem();
+            tree.deleteNode(min);
+            tree.addNode(new WeightedLFUNode<>(min));
+            return min;
+        }
+    }
+}
@@ -459,6 +459,25 @@ public class SMACCClient implements AmazonS3 {
         }
     }
 
+    /**
+     * @return the latency percentiles of the statistics the server collects, or null on error
+     */
+    public String latenciesRequest() {
+        SmaccClientRequest request = SmaccClientRequestFactory.createLatenciesRequest();
+        try {
+            request.initiate();
+            return ((SmaccClientLatenciesRequest) request).getLatencies();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                request.close();
+            } catch (IOException e) { // ignore
+            }
+        }
+    }
+
     public void resetStatsRequest() {
         SmaccClientRequest request = SmaccClientRequestFactory.createResetStatsRequest();
         try {
@@ -53,6 +53,9 @@ public class SmaccClientCLI extends SmaccCLIBase {
     private static final String OPTION_COLLECT_STATS = """
     -cs, --collect-stats           Request the collection of SMACC server statistics""";
 
+    private static final String OPTION_COLLECT_LATENCIES = """
+    -cl, --collect-latencies       Collect the SMACC server statistics and print their latency percentiles""";
+
     private static final String OPTION_CLEAR_CACHE = """
     -cc, --clear-cache             Request the SMACC server to clear the cache""";
 
@@ -141,6 +144,11 @@ public class SmaccClientCLI extends SmaccCLIBase {
                 }
             }
             case COLLECT_STATS -> client.statsRequest();
+            case COLLECT_LATENCIES -> {
+                String latencies = client.latenciesRequest();
+                if (latencies != null)
+                    System.out.print(latencies.isEmpty() ? "No latencies recorded\n" : latencies);
+            }
             case RESET_STATS -> client.resetStatsRequest();
             case SHUTDOWN -> client.shutdownRequest();
             case CLEAR_CACHE -> client.clearCache();
@@ -233,6 +241,7 @@ public class SmaccClientCLI extends SmaccCLIBase {
             add(OPTION_LIST_CACHE);
             add(OPTION_FILE_STATUS);
             add(OPTION_COLLECT_STATS);
+            add(OPTION_COLLECT_LATENCIES);
             add(OPTION_RESET_STATS);
             add(OPTION_CLEAR_CACHE);
             add(OPTION_SHUTDOWN);
@@ -285,6 +294,8 @@ public class SmaccClientCLI extends SmaccCLIBase {
                 assignListCacheArgument();
             } else if (arg.compareToIgnoreCase("-cs") == 0 || arg.compareToIgnoreCase("--collect-stats") == 0) {
                 assignStatsArgument();
+            } else if (arg.compareToIgnoreCase("-cl") == 0 || arg.compareToIgnoreCase("--collect-latencies") == 0) {
+                assignLatenciesArgument();
             } else if (arg.compareToIgnoreCase("-rs") == 0 || arg.compareToIgnoreCase("--reset-stats") == 0) {
                 assignResetStatsArgument();
             } else if (arg.compareToIgnoreCase("-cc") == 0 || arg.compareToIgnoreCase("--clear-cache") == 0) {
@@ -344,6 +355,10 @@ public class SmaccClientCLI extends SmaccCLIBase {
             assignRequestType(edu.cut.smacc.server.protocol.RequestType.COLLECT_STATS);
         }
 
+        private void assignLatenciesArgument() {
+            assignRequestType(edu.cut.smacc.server.protocol.RequestType.COLLECT_LATENCIES);
+        }
+
         private void assignResetStatsArgument() {
             assignRequestType(edu.cut.smacc.server.protocol.RequestType.RESET_STATS);
         }
@@ -0,0 +1,64 @@
+package edu.cut.smacc.client.request;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+
+/**
+ * The connection of one request to the server: a socket of its own or a request of a session
+ */
+abstract class ServerConnection {
+
+    abstract DataInputStream getInputStream();
+
+    abstract DataOutputStream getOutputStream();
+
+    abstract void setSoTimeout(int timeoutMs) throws SocketException;
+
+    /**
+     * @return true for a request of a session
+     */
+    boolean isSession() {
+        return false;
+    }
+
+    /**
+     * Disconnect (or abandon the request of the session)
+     */
+    abstract void close();
+
+    static ServerConnection of(Socket socket) throws IOException {
+        return new SocketConnection(socket);
+    }
+
+    private static class SocketConnection extends ServerConnection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        SocketConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(socket.getInputStream());
+            this.out = new DataOutputStream(socket.getOutputStream());
+        }
+
+        DataInputStream getInputStream() {
+            return in;
+        }
+
+        DataOutputStream getOutputStream() {
+            return out;
+        }
+
+        void setSoTimeout(int timeoutMs) throws SocketException {
+            socket.setSoTimeout(timeoutMs);
+        }
+
+        void close() {
+            ServerDial.disconnect(socket);
+        }
+    }
+
+}
@@ -25,6 +25,28 @@ class ServerDial {
         return socket;
     }
 
+    /**
+     * Open the connection of a new request: a request of the session when sessions are enabled
+     * and supported by the server, otherwise a new logged-in socket
+     */
+    static ServerConnection open(BasicAWSCredentials credentials, String endPoint, String region) throws IOException {
+        if (ClientConfigurations.isClientSessionEnabled()) {
+            SmaccClientSession session = SmaccClientSession.get(credentials, endPoint, region);
+            if (session != null)
+                return session.openRequest();
+        }
+
+        Socket socket = connect();
+        try {
+            ServerConnection connection = ServerConnection.of(socket);
+            login(connection.getOutputStream(), credentials, endPoint, region);
+            return connection;
+        } catch (IOException e) {
+            disconnect(socket);
+            throw e;
+        }
+    }
+
     static void login(DataOutputStream sout, BasicAWSCredentials credentials, String endPoint, String region) throws IOException {
         sout.write(credentials.getAWSAccessKeyId().length());
         sout.write(credentials.getAWSAccessKeyId().getBytes());
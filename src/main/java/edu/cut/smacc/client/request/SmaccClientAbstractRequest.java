@@ -7,7 +7,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.Socket;
 
 /**
  * An abstract class for the common operations between client requests other than PUT & GET.
@@ -16,7 +15,7 @@ public abstract class SmaccClientAbstractRequest implements SmaccClientRequest {
 
     private static final Logger logger = LogManager.getLogger(SmaccClientAbstractRequest.class);
 
-    protected Socket socket;
+    protected ServerConnection connection;
     protected DataOutputStream sout;
     protected final BasicAWSCredentials clientCredentials;
     protected final String endPoint;
@@ -35,9 +34,8 @@ public abstract class SmaccClientAbstractRequest implements SmaccClientRequest {
         do {
             try {
                 /* Connect/Reconnect to Server */
-                socket = ServerDial.connect();
-                sout = new DataOutputStream(socket.getOutputStream());
-                ServerDial.login(sout, clientCredentials, endPoint, region);
+                connection = ServerDial.open(clientCredentials, endPoint, region);
+                sout = connection.getOutputStream();
 
                 /* Initiate the request */
                 requestSuccess = initiateRequest();
@@ -45,7 +43,7 @@ public abstract class SmaccClientAbstractRequest implements SmaccClientRequest {
                 break;
             } catch (IOException ex) {
                 logger.error("Error initiating client request: " + ex.getMessage());
-                ServerDial.disconnect(socket);
+                if (connection != null) connection.close();
                 retriesMade += 1;
                 if (retriesMade > ClientConfigurations.getServerMaxRetries()) throw new IOException(ex);
                 try {
@@ -60,7 +58,7 @@ public abstract class SmaccClientAbstractRequest implements SmaccClientRequest {
 
     @Override
     public void close() throws IOException {
-        ServerDial.disconnect(socket);
+        if (connection != null) connection.close();
     }
 
     protected abstract boolean initiateRequest() throws IOException;
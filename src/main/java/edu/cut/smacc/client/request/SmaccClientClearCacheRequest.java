@@ -24,7 +24,7 @@ public class SmaccClientClearCacheRequest extends SmaccClientAbstractRequest {
         sout.flush();
 
         /* Receive Success/Error Message */
-        DataInputStream sin = new DataInputStream(socket.getInputStream());
+        DataInputStream sin = connection.getInputStream();
         StatusProtocol status = new StatusProtocol(sin);
         if (status.getFailure()) {
             throw new IOException(status.getExceptionMessage());
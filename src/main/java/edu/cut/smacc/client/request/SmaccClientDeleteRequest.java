@@ -23,7 +23,7 @@ public class SmaccClientDeleteRequest extends SmaccClientBucketKeyRequest {
         writeHeader();
 
         /* Receive Success/Error Message */
-        DataInputStream sin = new DataInputStream(socket.getInputStream());
+        DataInputStream sin = connection.getInputStream();
         StatusProtocol status = new StatusProtocol(sin);
         if (status.getFailure()) {
             if ("File not found!".equalsIgnoreCase(status.getExceptionMessage()))
@@ -20,7 +20,7 @@ public class SmaccClientFileStatusRequest extends SmaccClientBucketKeyRequest {
 
     @Override
     protected boolean initiateRequest() throws IOException {
-        DataInputStream sin = new DataInputStream(socket.getInputStream());
+        DataInputStream sin = connection.getInputStream();
         System.out.println("Send FILE_STATUS Request for " + key);
         writeHeader();
 
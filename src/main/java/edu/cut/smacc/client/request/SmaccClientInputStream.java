@@ -12,7 +12,6 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.Socket;
 
 /**
  * This class is used when the user wants to get an object using SMACC.
@@ -23,7 +22,7 @@ import java.net.Socket;
 class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
     private static final Logger logger = LogManager.getLogger(SmaccClientInputStream.class);
 
-    private Socket socket;
+    private ServerConnection connection;
     private DataInputStream sin;
     private DataOutputStream sout;
     private byte[] localBuffer;
@@ -53,10 +52,9 @@ class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
         do {
             try {
                 /* Connect/Reconnect to Server */
-                socket = ServerDial.connect();
-                sout = new DataOutputStream(socket.getOutputStream());
-                sin = new DataInputStream(socket.getInputStream());
-                ServerDial.login(sout, clientCredentials, endPoint, region);
+                connection = ServerDial.open(clientCredentials, endPoint, region);
+                sout = connection.getOutputStream();
+                sin = connection.getInputStream();
 
                 /* Initiate Get Request */
                 initiateGetRequest(bucket, key, range);
@@ -64,7 +62,7 @@ class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
                 break;
             } catch (IOException ex) {
                 logger.error("Error initiating client input stream: " + ex.getMessage());
-                ServerDial.disconnect(socket);
+                if (connection != null) connection.close();
                 if (ex.getMessage() != null && ex.getMessage().contains("does not exist")) {
                     System.exit(1);
                 }
@@ -140,7 +138,7 @@ class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
             return;
 
         isClosed = true;
-        ServerDial.disconnect(socket);
+        connection.close();
     }
 
     /**
@@ -166,7 +164,7 @@ class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
 
         } catch (IOException ex) {
             System.out.println("Connection Lost: " + ex.getMessage());
-            ServerDial.disconnect(socket);
+            connection.close();
             throw new IOException(ex);
         }
     }
@@ -187,12 +185,12 @@ class SmaccClientInputStream extends InputStream implements SmaccClientRequest {
         writeGetRequestHeader(sout, bucket, key, range);
 
         /* Give the server little more time just for finding file */
-        socket.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
+        connection.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
 
         /* Receive Success/Error Message */
         status = new StatusProtocol(sin);
 
-        socket.setSoTimeout(ClientConfigurations.getClientReadTimeout());
+        connection.setSoTimeout(ClientConfigurations.getClientReadTimeout());
 
         if (status.hasExceptionMessage()) {
             throw new IOException("Server Error: " + status.getExceptionMessage());
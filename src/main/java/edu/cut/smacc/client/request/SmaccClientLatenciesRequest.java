@@ -0,0 +1,42 @@
+package edu.cut.smacc.client.request;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import edu.cut.smacc.server.protocol.RequestType;
+import edu.cut.smacc.server.protocol.StatusProtocol;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Client request to collect the SMACC Server statistics and get the latency percentiles of the
+ * collected interval
+ */
+public class SmaccClientLatenciesRequest extends SmaccClientAbstractRequest {
+
+    private String latencies;
+
+    protected SmaccClientLatenciesRequest(BasicAWSCredentials clientCredentials, String endPoint, String region) {
+        super(clientCredentials, endPoint, region);
+    }
+
+    @Override
+    protected boolean initiateRequest() throws IOException {
+        DataInputStream sin = connection.getInputStream();
+        /* Send Header */
+        sout.write(RequestType.COLLECT_LATENCIES.getInt());
+        sout.flush();
+
+        StatusProtocol status = new StatusProtocol(sin);
+        if (status.getFailure())
+            throw new IOException("Server Error: " + status.getExceptionMessage());
+        latencies = sin.readUTF();
+        return true;
+    }
+
+    /**
+     * @return a table of the latency percentiles in microseconds, empty if nothing was recorded
+     */
+    public String getLatencies() {
+        return latencies;
+    }
+}
@@ -24,7 +24,7 @@ public class SmaccClientListCacheRequest extends SmaccClientBucketKeyRequest {
 
     @Override
     protected boolean initiateRequest() throws IOException {
-        DataInputStream sin = new DataInputStream(socket.getInputStream());
+        DataInputStream sin = connection.getInputStream();
         System.out.println("Send LIST Request for " + (key == null ? "all" : key));
         writeHeader();
 
@@ -5,6 +5,7 @@ import com.amazonaws.SdkClientException;
 import com.amazonaws.auth.BasicAWSCredentials;
 
 import edu.cut.smacc.configuration.ClientConfigurations;
+import edu.cut.smacc.server.protocol.PutWindow;
 import edu.cut.smacc.server.protocol.RequestType;
 import edu.cut.smacc.server.protocol.StatusProtocol;
 import org.apache.logging.log4j.LogManager;
@@ -14,10 +15,10 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.net.Socket;
 import java.net.SocketException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 
 /**
  * This class is used when the user want to send an object to SMACC.
@@ -31,7 +32,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
     private String bucket;
     private String key;
     private boolean async;
-    private Socket socket = null;
+    private ServerConnection connection = null;
     private DataOutputStream sout = null;
     private DataInputStream sin = null;
     private int clientBufferSize;
@@ -47,6 +48,20 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
     private String endPoint;
     private String region;
     private Long length;
+    private final boolean windowed;                             // windowed PUT with cumulative acks
+    private int window;                                         // chunks that may be unacknowledged
+    private final ArrayDeque<SentChunk> unackedChunks = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<>();
+    private long sentBytes = 0;
+
+    /**
+     * A chunk kept until the server acknowledges it, to resend it after manual uploading
+     */
+    private record SentChunk(byte[] data, int length, long start) {
+        long end() {
+            return start + length;
+        }
+    }
 
     SmaccClientOutputStream(String bucket, String key, boolean async, BasicAWSCredentials clientCredentials, String endPoint, String region, Long length) {
         this.async = async;
@@ -62,7 +77,8 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
             this.clientBufferSize = (int) length.longValue();
         this.localBuffer = new byte[clientBufferSize];
         this.localAvailable = clientBufferSize;
-
+        this.window = Math.max(1, ClientConfigurations.getClientPutWindow());
+        this.windowed = window > 1;
     }
 
     public boolean initiate() {
@@ -81,7 +97,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
                 break;
             } catch (IOException ex) {
                 logger.error("Initial Connection Lost: " + ex.getMessage());
-                ServerDial.disconnect(socket);
+                disconnect();
                 retriesMade += 1;
                 try {
                     Thread.sleep(ClientConfigurations.getClientReconnectWaitMs());
@@ -113,7 +129,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
 
         messageDigest.update(buffer, offset, len);
 
-        if (localOffset == clientBufferSize) {
+        if (localOffset == clientBufferSize && len > 0) {
             sendLocalBuffer(clientBufferSize);
         }
 
@@ -135,7 +151,8 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
                 bufferLen -= cpyLen;
                 bufferOffset += cpyLen;
 
-                if (localOffset == clientBufferSize) {
+                // A full buffer is sent when more data comes, so that close() always sends the last chunk
+                if (localOffset == clientBufferSize && bufferLen > 0) {
                     sendLocalBuffer(clientBufferSize);
                 }
             }
@@ -150,6 +167,17 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         isClosed = true;
         if (localOffset > 0)
             sendLocalBuffer(localOffset);
+        if (windowed) {
+            try {
+                while (!unackedChunks.isEmpty())
+                    receiveAck();
+            } catch (IOException e) {
+                disconnect();
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
 
         StatusProtocol status;
         int retries = 0;
@@ -181,7 +209,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
                     retries = 0;
                     break;
                 } catch (IOException e) {
-                    ServerDial.disconnect(socket);
+                    disconnect();
                     e.printStackTrace();
                     retries += 1;
                     try {
@@ -193,7 +221,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         } catch (Exception e) {
             throw new IOException(e);
         } finally {
-            ServerDial.disconnect(socket);
+            disconnect();
         }
 
         if (retries > 0)
@@ -221,6 +249,10 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
      * @throws IOException
      */
     private void sendLocalBuffer(int len) throws IOException {
+        if (windowed) {
+            sendWindowedLocalBuffer(len, isClosed);
+            return;
+        }
         // ++i;
         try {
 
@@ -240,7 +272,8 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
                 async = false;
                 /* Confirm reception of Going Manual message */
 
-                ServerDial.disconnect(socket);
+                checkGoingManualSupported();
+                disconnect();
                 repeatedWaitManualUpload();
             }
 
@@ -251,7 +284,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
                 throw new Exception("Cache Server wtih status code: " + b);
             }
         } catch (IOException e) {
-            ServerDial.disconnect(socket);
+            disconnect();
             logger.error("Connection Lost: " + e.getMessage());
             throw new IOException(e);
         } catch (Exception e) {
@@ -259,6 +292,90 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         }
     }
 
+    /**
+     * Send the local buffer without waiting for its ack, as long as fewer than window chunks are
+     * unacknowledged. The buffer is kept until the server acknowledges it.
+     *
+     * @param len
+     * @param last - the last chunk of the object, the server acks it
+     * @throws IOException
+     */
+    private void sendWindowedLocalBuffer(int len, boolean last) throws IOException {
+        try {
+            while (unackedChunks.size() >= window)
+                receiveAck();
+
+            PutWindow.writeChunkHeader(sout, len, credits(unackedChunks.size(), last));
+            sout.write(localBuffer, 0, len);
+            unackedChunks.add(new SentChunk(localBuffer, len, sentBytes));
+            sentBytes += len;
+
+            localBuffer = freeBuffers.isEmpty() ? new byte[clientBufferSize] : freeBuffers.poll();
+            localAvailable = clientBufferSize;
+            localOffset = 0;
+        } catch (IOException e) {
+            disconnect();
+            logger.error("Connection Lost: " + e.getMessage());
+            throw new IOException(e);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Receive a cumulative ack of a windowed PUT: a status and the bytes the server has received.
+     * If the server is going manual, wait for it and resend the data it has not received.
+     */
+    private void receiveAck() throws Exception {
+        sout.flush();
+        int b = sin.read();
+        if (b < 0)
+            throw new IOException("Connection closed by the server");
+        if (b > 1)
+            throw new Exception("Cache Server wtih status code: " + b);
+
+        long received = sin.readLong();
+        while (!unackedChunks.isEmpty() && unackedChunks.peek().end() <= received)
+            freeBuffers.add(unackedChunks.poll().data());
+
+        if (b == 1) { // Going manual
+            async = false;
+            checkGoingManualSupported();
+            disconnect();
+            repeatedWaitManualUpload();
+
+            // Reframe the data the server did not receive on the new connection
+            int resent = 0;
+            for (SentChunk chunk : unackedChunks) {
+                int skip = (int) Math.max(0, received - chunk.start());
+                boolean last = isClosed && resent == unackedChunks.size() - 1;
+                PutWindow.writeChunkHeader(sout, chunk.length() - skip, credits(resent++, last));
+                sout.write(chunk.data(), skip, chunk.length() - skip);
+            }
+        }
+    }
+
+    /**
+     * @return the chunks that may be sent after a chunk before waiting for an ack
+     */
+    private int credits(int unackedBefore, boolean last) {
+        return last ? 0 : window - unackedBefore - 1;
+    }
+
+    /**
+     * A session request cannot reconnect to the server thread that is uploading manually
+     */
+    private void checkGoingManualSupported() throws IOException {
+        if (connection.isSession()) {
+            disconnect();
+            throw new IOException("Server is going manual - not supported on a session, retry the PUT");
+        }
+    }
+
+    private void disconnect() {
+        if (connection != null) connection.close();
+    }
+
     /**
      * This method calls the smacc server repeatedly to find out whether has done the uploading or not
      *
@@ -269,24 +386,21 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         StatusProtocol status;
         while (true) {
             /* Connect/Reconnect to Server */
-            socket = ServerDial.connect();
-            sout = new DataOutputStream(socket.getOutputStream());
-            sin = new DataInputStream(socket.getInputStream());
-
-            /* Send Login Message */
-            ServerDial.login(sout, clientCredentials, endPoint, region);
+            connection = ServerDial.open(clientCredentials, endPoint, region);
+            sout = connection.getOutputStream();
+            sin = connection.getInputStream();
 
             /* Send Header */
             System.out.println("Send PUT Header");
-            writePutRequestHeader(sout, bucket, key, async, connectionId, true, length);
+            writePutRequestHeader(sout, bucket, key, async, connectionId, true, length, windowed ? window : 0);
 
             /* Give time to server to open the file */
-            socket.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
+            connection.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
 
             /* Receive status */
             status = new StatusProtocol(sin);
 
-            socket.setSoTimeout(ClientConfigurations.getClientReadTimeout());
+            connection.setSoTimeout(ClientConfigurations.getClientReadTimeout());
 
             /* Find if there was an error */
             if (status.getFailure())
@@ -299,7 +413,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
             System.out.println("Waiting for Manual Upload...");
 
             /* if server is still manual uploading disconnect and try to sleep until reconnect later */
-            ServerDial.disconnect(socket);
+            disconnect();
             try {
                 Thread.sleep(ClientConfigurations.getManualUploadingWaitMs());
             } catch (InterruptedException ignored) {
@@ -323,9 +437,9 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         try {
             /* Send Header */
             if (reconnect) {
-                writePutRequestHeader(sout, bucket, key, async, connectionId, waitManualUpload, length);
+                writePutRequestHeader(sout, bucket, key, async, connectionId, waitManualUpload, length, windowed ? window : 0);
             } else {
-                writePutRequestHeader(sout, bucket, key, async, null, waitManualUpload, length);
+                writePutRequestHeader(sout, bucket, key, async, null, waitManualUpload, length, windowed ? window : 0);
             }
         } catch (IOException e) {
             throw new SdkClientException(e);
@@ -333,7 +447,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
 
         try {
             /* Give time to server to open the file */
-            socket.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
+            connection.setSoTimeout((int) (ClientConfigurations.getClientReadTimeout() * ClientConfigurations.getReadWriteProportionalWait()));
         } catch (SocketException e) {
             throw new SdkClientException(e);
         }
@@ -347,7 +461,7 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         }
 
         try {
-            socket.setSoTimeout(ClientConfigurations.getClientReadTimeout());
+            connection.setSoTimeout(ClientConfigurations.getClientReadTimeout());
         } catch (SocketException e) {
             throw new SdkClientException(e);
         }
@@ -362,6 +476,15 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
         /* Get Connection id - Unique id from server. In case of connection reset,
          * the connection id will be reused in order to continue to write to the same output */
         connectionId = status.getConnectionId();
+
+        /* The server grants a window up to its own limit */
+        if (windowed) {
+            try {
+                window = Math.max(1, sin.readInt());
+            } catch (IOException e) {
+                throw new SdkClientException(e);
+            }
+        }
     }
 
     /**
@@ -373,20 +496,18 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
     private void connect(boolean reconnect) throws IOException {
         /* Connect/Reconnect to Server */
         // System.out.println("Connecting...");
-        socket = ServerDial.connect();
-        sout = new DataOutputStream(socket.getOutputStream());
-        sin = new DataInputStream(socket.getInputStream());
-
-        /* Send Login Message */
-        ServerDial.login(sout, clientCredentials, endPoint, region);
+        connection = ServerDial.open(clientCredentials, endPoint, region);
+        sout = connection.getOutputStream();
+        sin = connection.getInputStream();
 
         /* Initiate Put Request */
         initiatePutRequest(bucket, key, reconnect, false, length);
     }
 
     private static void writePutRequestHeader(DataOutputStream out, String bucket, String key, boolean async,
-                                              Long connectionId, boolean goingManual, Long length) throws IOException {
-        out.write(RequestType.PUT.getInt());
+                                              Long connectionId, boolean goingManual, Long length,
+                                              int window) throws IOException {
+        out.write((window > 0) ? RequestType.PUT_WINDOWED.getInt() : RequestType.PUT.getInt());
         out.write(bucket.length());
         out.write(bucket.getBytes());
         if (key == null) {
@@ -409,6 +530,8 @@ class SmaccClientOutputStream extends OutputStream implements SmaccClientRequest
             out.writeBoolean(true);
             out.writeLong(length);
         }
+        if (window > 0)
+            out.writeInt(window);
 
         out.flush();
     }
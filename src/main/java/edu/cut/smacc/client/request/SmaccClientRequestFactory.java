@@ -33,6 +33,15 @@ public abstract class SmaccClientRequestFactory {
         return new SmaccClientStatisticsRequest(credentials, endPoint, region);
     }
 
+    /**
+     * Create a request to collect the SMACC Server statistics and get their latency percentiles
+     * @return the request
+     */
+    public static SmaccClientRequest createLatenciesRequest() {
+        checkInitialization();
+        return new SmaccClientLatenciesRequest(credentials, endPoint, region);
+    }
+
     /**
      * Create a request to reset the SMACC Server statistics
      * @return the request
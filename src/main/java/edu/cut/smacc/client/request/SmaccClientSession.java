@@ -0,0 +1,195 @@
+package edu.cut.smacc.client.request;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import edu.cut.smacc.configuration.ClientConfigurations;
+import edu.cut.smacc.server.protocol.RequestType;
+import edu.cut.smacc.server.protocol.SessionFrame;
+import edu.cut.smacc.server.protocol.SessionFrameInputStream;
+import edu.cut.smacc.server.protocol.SessionFrameOutputStream;
+import edu.cut.smacc.server.protocol.StatusProtocol;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A session with the server: one connection that logs in once and carries the requests of
+ * all the threads of the client, multiplexed in frames tagged with request ids. A reader
+ * thread routes the response frames to the requests.
+ */
+class SmaccClientSession {
+    private static final Logger logger = LogManager.getLogger(SmaccClientSession.class);
+
+    private static final Map<String, SmaccClientSession> sessions = new HashMap<>();
+    private static volatile boolean unsupported = false;
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final long sessionId;
+    private final Map<Integer, SessionRequest> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger(0);
+    private volatile boolean open = true;
+
+    /**
+     * @return the open session for the credentials, endpoint and region, or null if the server does not support sessions
+     */
+    static synchronized SmaccClientSession get(BasicAWSCredentials credentials, String endPoint, String region)
+            throws IOException {
+        if (unsupported)
+            return null;
+
+        String id = credentials.getAWSAccessKeyId() + "@" + endPoint + "/" + region;
+        SmaccClientSession session = sessions.get(id);
+        if (session == null || !session.open) {
+            try {
+                session = new SmaccClientSession(credentials, endPoint, region);
+            } catch (EOFException | SocketTimeoutException e) {
+                // The server did not answer the session request
+                logger.warn("Server does not support sessions - using a connection per request");
+                unsupported = true;
+                return null;
+            }
+            sessions.put(id, session);
+        }
+        return session;
+    }
+
+    private SmaccClientSession(BasicAWSCredentials credentials, String endPoint, String region) throws IOException {
+        socket = ServerDial.connect();
+        socket.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), SessionFrame.MAX_PAYLOAD + 16));
+        in = new DataInputStream(socket.getInputStream());
+        try {
+            ServerDial.login(out, credentials, endPoint, region);
+            out.write(RequestType.SESSION.getInt());
+            out.flush();
+
+            StatusProtocol status = new StatusProtocol(in);
+            if (status.getFailure() || !status.hasConnectionId())
+                throw new IOException("Server Error: " + status.getExceptionMessage());
+            sessionId = status.getConnectionId();
+            socket.setSoTimeout(0); // requests time out on their own streams
+        } catch (IOException e) {
+            ServerDial.disconnect(socket);
+            throw e;
+        }
+
+        Thread reader = new Thread(this::readFrames, "smacc-session-" + sessionId);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Start a new request on the session
+     */
+    ServerConnection openRequest() throws IOException {
+        if (!open)
+            throw new IOException("Session " + sessionId + " is closed");
+        SessionRequest request = new SessionRequest(nextRequestId.getAndIncrement());
+        requests.put(request.requestId, request);
+        return request;
+    }
+
+    private void readFrames() {
+        String error = "Session closed";
+        try {
+            while (true) {
+                SessionFrame frame = SessionFrame.read(in);
+                SessionRequest request = requests.get(frame.getRequestId());
+                if (request == null)
+                    continue;   // an abandoned request
+                if (frame.getType() == SessionFrame.END) {
+                    request.ended = true;
+                    request.in.end(null);
+                } else if (frame.getType() == SessionFrame.WINDOW) {
+                    request.frameOut.grant(frame.getWindowFrames());
+                } else {
+                    request.in.offer(frame.getPayload());
+                }
+            }
+        } catch (IOException e) {
+            error = "Session lost: " + e.getMessage();
+        } finally {
+            open = false;
+            for (SessionRequest request : requests.values()) {
+                request.frameOut.abandon();
+                request.in.end(error);
+            }
+            ServerDial.disconnect(socket);
+            if (logger.isDebugEnabled()) logger.info("Session " + sessionId + " - " + error);
+        }
+    }
+
+    private void sendEnd(int requestId) {
+        try {
+            synchronized (out) {
+                SessionFrame.write(out, requestId, SessionFrame.END, null, 0, 0);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * A request of the session, used by the client requests in place of a socket
+     */
+    private class SessionRequest extends ServerConnection {
+        private final int requestId;
+        private final SessionFrameOutputStream frameOut;
+        private final SessionFrameInputStream in;
+        private final DataOutputStream dataOut;
+        private final DataInputStream dataIn;
+        private volatile boolean ended = false;
+        private boolean closed = false;
+
+        SessionRequest(int requestId) {
+            this.requestId = requestId;
+            this.frameOut = new SessionFrameOutputStream(out, requestId, false);
+            this.in = new SessionFrameInputStream(frameOut, ClientConfigurations.getClientReadTimeout());
+            this.dataOut = new DataOutputStream(frameOut);
+            this.dataIn = new DataInputStream(in);
+        }
+
+        DataInputStream getInputStream() {
+            return dataIn;
+        }
+
+        DataOutputStream getOutputStream() {
+            return dataOut;
+        }
+
+        void setSoTimeout(int timeoutMs) {
+            in.setTimeout(timeoutMs);
+        }
+
+        @Override
+        boolean isSession() {
+            return true;
+        }
+
+        void close() {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                frameOut.close();
+            } catch (IOException ignored) {
+            }
+            requests.remove(requestId);
+            in.close();    // the reader of the session drops the rest of the response
+            if (!ended)
+                sendEnd(requestId);   // the server stops serving the request
+        }
+    }
+
+}
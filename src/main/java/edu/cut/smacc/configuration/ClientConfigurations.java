@@ -18,6 +18,8 @@ public class ClientConfigurations extends BaseConfigurations {
     private static boolean CLIENT_MODE_ASYNC;
     private static int MANUAL_UPLOAD_RECONNECT_WAIT_MS;
     private static double CLIENT_READ_WRITE_PROTOPRIONAL_WAIT;
+    private static int CLIENT_PUT_WINDOW;
+    private static boolean CLIENT_SESSION_ENABLED;
 
     private static String[] SERVERS_LIST = { "127.0.0.1" };
     private static int SERVERS_PORT;
@@ -58,6 +60,14 @@ public class ClientConfigurations extends BaseConfigurations {
     public static final String CLIENT_READ_WRITE_PROTOPRIONAL_WAIT_DESCRIPTION = "Proportional wait time for read and write operations";
     public static double CLIENT_READ_WRITE_PROTOPRIONAL_WAIT_DEFAULT = 3;
 
+    public static final String CLIENT_PUT_WINDOW_KEY = "client.put.window.size";
+    public static final String CLIENT_PUT_WINDOW_DESCRIPTION = "Number of PUT chunks that may be unacknowledged by the server (1 to wait for every chunk)";
+    public static int CLIENT_PUT_WINDOW_DEFAULT = 1;
+
+    public static final String CLIENT_SESSION_ENABLED_KEY = "client.session.enabled";
+    public static final String CLIENT_SESSION_ENABLED_DESCRIPTION = "Whether to send all the requests over one logged-in session connection instead of a connection per request";
+    public static boolean CLIENT_SESSION_ENABLED_DEFAULT = false;
+
     public static final String SERVERS_LIST_KEY = "smacc.servers.list";
     public static final String SERVERS_LIST_DESCRIPTION = "List of servers to connect to";
     public static final String[] SERVERS_LIST_DEFAULT = { "127.0.0.1" };
@@ -107,6 +117,14 @@ public class ClientConfigurations extends BaseConfigurations {
         return CLIENT_READ_WRITE_PROTOPRIONAL_WAIT;
     }
 
+    public static int getClientPutWindow() {
+        return CLIENT_PUT_WINDOW;
+    }
+
+    public static boolean isClientSessionEnabled() {
+        return CLIENT_SESSION_ENABLED;
+    }
+
 
     public static void initialize(Configuration conf) throws ConfigurationException {
         BaseConfigurations.initialize(conf);
@@ -123,6 +141,8 @@ public class ClientConfigurations extends BaseConfigurations {
                 MANUAL_UPLOAD_RECONNECT_WAIT_MS_DEFAULT);
         CLIENT_READ_WRITE_PROTOPRIONAL_WAIT = conf.getDouble(CLIENT_READ_WRITE_PROTOPRIONAL_WAIT_KEY,
                 CLIENT_READ_WRITE_PROTOPRIONAL_WAIT_DEFAULT);
+        CLIENT_PUT_WINDOW = conf.getInt(CLIENT_PUT_WINDOW_KEY, CLIENT_PUT_WINDOW_DEFAULT);
+        CLIENT_SESSION_ENABLED = conf.getBoolean(CLIENT_SESSION_ENABLED_KEY, CLIENT_SESSION_ENABLED_DEFAULT);
 
         if (conf.containsKey(SERVERS_LIST_KEY)) {
             SERVERS_LIST = conf.getStringArray(SERVERS_LIST_KEY);
@@ -3,16 +3,21 @@ package edu.cut.smacc.configuration;
 import edu.cut.smacc.server.cache.common.StoreSettings;
 import edu.cut.smacc.server.cache.common.io.UsageStats;
 import edu.cut.smacc.server.cache.policy.admission.AdmissionEXD;
+import edu.cut.smacc.server.cache.policy.admission.AdmissionWTinyLFU;
 import edu.cut.smacc.server.cache.policy.eviction.placement.DeleteOrDowngrade;
 import edu.cut.smacc.server.cache.policy.eviction.trigger.ThresholdPercentageTrigger;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemARC;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemEXD;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemFIFO;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemGDSF;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLFU;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLIFE;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRFU;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRU;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemMRU;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemS3FIFO;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemWTinyLFU;
 import edu.cut.smacc.server.cache.policy.eviction.placement.EvictionPlacementPolicy;
 import edu.cut.smacc.server.cache.policy.eviction.trigger.EvictionTriggerPolicy;
 import edu.cut.smacc.server.cache.policy.selection.DiskSelectionLowerUsage;
@@ -64,6 +69,10 @@ public class ServerConfigurations extends BaseConfigurations {
     private static int S3_OUT_OF_MEM_BLOCK_AND_UPLOAD_BUFFER_SIZE;
     private static int DOWNGRATION_HANDLER_THREAD_POOL_SIZE;
     private static int EVICTION_HANDLER_RUN_MS; // 5 every 5 seconds
+    private static int EVICTION_BACKPRESSURE_WAIT_MS;
+    private static boolean POLICY_NOTIFIER_ASYNC;
+    private static int POLICY_NOTIFIER_BUFFER_SIZE;
+    private static int POLICY_NOTIFIER_ACCESS_SAMPLING;
     private static String CREDENTIALS_FILENAME;
     private static int CREDENTIALS_LOOKUP_TIME_MS;
     private static boolean DELETE_STATEFILE_ON_FAILURE;
@@ -72,9 +81,19 @@ public class ServerConfigurations extends BaseConfigurations {
     private static int SERVER_QUEUE_SIZE;
     private static int SERVER_BUFFER_SIZE;
     private static int SERVER_READ_TIMEOUT_MS;
+    private static boolean SERVER_GET_ZERO_COPY;
+    private static int SERVER_PUT_MAX_WINDOW;
+    private static int SERVER_SESSION_MAX_REQUESTS;
+    private static int SERVER_SESSION_IDLE_TIMEOUT_MS;
+    private static String SERVER_NETWORK_ENGINE;
+    private static int SERVER_NETWORK_MAX_WORKERS;
     private static HashMap<Integer, StoreSettings> SERVER_DISK_VOLUMES = null;
     private static StoreSettings SERVER_MEMORY_SETTINGS = null;
     private static int MEMORY_BYTE_BUFFER_SIZE;
+    private static boolean MEMORY_OFFHEAP_ENABLED;
+    private static int MEMORY_SLAB_SIZE;
+    private static int MEMORY_SLAB_MIN_CHUNK_SIZE;
+    private static boolean MEMORY_OFFHEAP_HEAP_FALLBACK;
     private static int CLIENT_HANDLING_THREAD_POOL_SIZE; // This also works as a queue - if the thread pool is full no
                                                          // other clients will get a response until other clients are
                                                          // finished
@@ -89,12 +108,23 @@ public class ServerConfigurations extends BaseConfigurations {
     private static String SNS_TOPIC_NAME;
     private static int SNS_NOTIF_POOL_SIZE;
 
+    private static int METRICS_HTTP_PORT;
+    private static long STATISTICS_REPORTER_INTERVAL_MS;
+
     private static List<String> REQUEST_TIERS = new ArrayList<String>();
     private static boolean EVICTION_DELETE_DOWNGRADE; //delete OR downgrade
 
     private static boolean CACHE_RECOVERY_ACTIVATE;
+    private static boolean CACHE_RECOVERY_LAZY_VALIDATION;
+    private static int CACHE_RECOVERY_VALIDATION_RATE;
 
     private static int SERVER_TO_S3_BUFFER_SIZE;
+    private static long READ_COALESCING_MAX_SIZE;
+    private static long READ_COALESCING_MAX_TOTAL;
+    private static long READ_PARTIAL_MIN_SEGMENT_SIZE;
+    private static long READ_PREFETCH_MAX_WINDOW;
+    private static long READ_PREFETCH_MAX_INFLIGHT;
+    private static int READ_PREFETCH_THREADPOOL_SIZE;
 
     /**
      * Keys, descriptions and default values for the configuration file
@@ -169,9 +199,13 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final int DOWNGRATION_HANDLER_THREAD_POOL_SIZE_DEFAULT = 1;
 
     public static final String EVICTION_HANDLER_RUN_MS_KEY = "cache.outOfMemory.eviction.run.ms";
-    public static final String EVICTION_HANDLER_RUN_MS_DESCRIPTION = "The time between eviction runs";
+    public static final String EVICTION_HANDLER_RUN_MS_DESCRIPTION = "The longest time between eviction checks (eviction is also triggered by allocations)";
     public static final int EVICTION_HANDLER_RUN_MS_DEFAULT = 5000;
 
+    public static final String EVICTION_BACKPRESSURE_WAIT_MS_KEY = "cache.outOfMemory.backpressure.wait.ms";
+    public static final String EVICTION_BACKPRESSURE_WAIT_MS_DESCRIPTION = "How long a write to a full tier waits for eviction to reclaim space before the tier is reported out of memory (0 to fail at once)";
+    public static final int EVICTION_BACKPRESSURE_WAIT_MS_DEFAULT = 500;
+
     public static final String OVERFLOW_MEMORY_KEY = "cache.outOfMemory.block.allow.overflow";
     public static final String OVERFLOW_MEMORY_DESCRIPTION = "Whether to allow the cache to overflow to disk";
     public static final boolean OVERFLOW_MEMORY_DEFAULT = false;
@@ -180,6 +214,14 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String CACHE_RECOVERY_ACTIVATE_DESCRIPTION = "Whether or not to activate cache recovery at startup";
     public static final boolean CACHE_RECOVERY_ACTIVATE_DEFAULT = false;
 
+    public static final String CACHE_RECOVERY_VALIDATION_KEY = "cache.recovery.cloud.validation";
+    public static final String CACHE_RECOVERY_VALIDATION_DESCRIPTION = "When the recovered files are validated against the cloud: before the server starts (eager) or on their first access and by a background sweep (lazy)";
+    public static final String CACHE_RECOVERY_VALIDATION_DEFAULT = "eager";
+
+    public static final String CACHE_RECOVERY_VALIDATION_RATE_KEY = "cache.recovery.cloud.validation.rate";
+    public static final String CACHE_RECOVERY_VALIDATION_RATE_DESCRIPTION = "The cloud validations per second of the background sweep of the lazy validation (0 to validate only on access)";
+    public static final int CACHE_RECOVERY_VALIDATION_RATE_DEFAULT = 20;
+
     public static final String CREDENTIALS_FILENAME_KEY = "cache.recovery.backup.credentials.file";
     public static final String CREDENTIALS_FILENAME_DESCRIPTION = "The file containing the credentials for the backup S3 bucket";
     public static final String CREDENTIALS_FILENAME_DEFAULT = "cache/credentialsLogger.dat";
@@ -208,10 +250,50 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String SERVER_READ_TIMEOUT_MS_DESCRIPTION = "The read timeout for the server";
     public static final int SERVER_READ_TIMEOUT_MS_DEFAULT = 30000;
 
+    public static final String SERVER_GET_ZERO_COPY_KEY = "server.get.zerocopy.enabled";
+    public static final String SERVER_GET_ZERO_COPY_DESCRIPTION = "Whether to send disk hits from the block files to the socket with FileChannel.transferTo";
+    public static final boolean SERVER_GET_ZERO_COPY_DEFAULT = true;
+
+    public static final String SERVER_PUT_MAX_WINDOW_KEY = "server.put.window.max";
+    public static final String SERVER_PUT_MAX_WINDOW_DESCRIPTION = "The maximum number of unacknowledged chunks granted to a windowed PUT";
+    public static final int SERVER_PUT_MAX_WINDOW_DEFAULT = 16;
+
+    public static final String SERVER_SESSION_MAX_REQUESTS_KEY = "server.session.max.requests";
+    public static final String SERVER_SESSION_MAX_REQUESTS_DESCRIPTION = "The maximum number of requests in progress on one client session";
+    public static final int SERVER_SESSION_MAX_REQUESTS_DEFAULT = 64;
+
+    public static final String SERVER_SESSION_IDLE_TIMEOUT_MS_KEY = "server.session.idle.timeout.ms";
+    public static final String SERVER_SESSION_IDLE_TIMEOUT_MS_DESCRIPTION = "How long a client session may stay idle before the server closes it";
+    public static final int SERVER_SESSION_IDLE_TIMEOUT_MS_DEFAULT = 300000;
+
+    public static final String SERVER_NETWORK_ENGINE_KEY = "server.network.engine";
+    public static final String SERVER_NETWORK_ENGINE_DESCRIPTION = "How the server serves connections: threadpool (a fixed pool of server.client.handle.threadpool.size threads), selector (idle connections wait in a selector and requests run on an elastic pool) or virtual (a virtual thread per connection, JDK 21+)";
+    public static final String SERVER_NETWORK_ENGINE_DEFAULT = "threadpool";
+
+    public static final String SERVER_NETWORK_MAX_WORKERS_KEY = "server.network.max.workers";
+    public static final String SERVER_NETWORK_MAX_WORKERS_DESCRIPTION = "The maximum number of threads serving requests with the selector engine";
+    public static final int SERVER_NETWORK_MAX_WORKERS_DEFAULT = 1024;
+
     public static final String MEMORY_BYTE_BUFFER_SIZE_KEY = "cache.memory.byteBufferSize.byte";
     public static final String MEMORY_BYTE_BUFFER_SIZE_DESCRIPTION = "The size of the byte buffer used for memory";
     public static final int MEMORY_BYTE_BUFFER_SIZE_DEFAULT = 1024 * 1024;
 
+    public static final String MEMORY_OFFHEAP_ENABLED_KEY = "cache.memory.offheap.enabled";
+    public static final String MEMORY_OFFHEAP_ENABLED_DESCRIPTION = "Whether to store the memory tier in an off-heap slab arena sized from the memory capacity";
+    public static final boolean MEMORY_OFFHEAP_ENABLED_DEFAULT = false;
+
+    public static final String MEMORY_SLAB_SIZE_KEY = "cache.memory.offheap.slab.size.byte";
+    public static final String MEMORY_SLAB_SIZE_DESCRIPTION = "The size of each slab of the off-heap arena";
+    public static final int MEMORY_SLAB_SIZE_DEFAULT = 4 * 1024 * 1024;
+
+    public static final String MEMORY_SLAB_MIN_CHUNK_SIZE_KEY = "cache.memory.offheap.chunk.min.byte";
+    public static final String MEMORY_SLAB_MIN_CHUNK_SIZE_DESCRIPTION = "The smallest size class of the off-heap arena (classes are powers of two up to the byte buffer size)";
+    public static final int MEMORY_SLAB_MIN_CHUNK_SIZE_DEFAULT = 4 * 1024;
+
+    public static final String MEMORY_OFFHEAP_HEAP_FALLBACK_KEY = "cache.memory.offheap.exhausted.heap.fallback";
+    public static final String MEMORY_OFFHEAP_HEAP_FALLBACK_DESCRIPTION = "When the off-heap arena is exhausted, store on the heap instead of treating the memory tier as full";
+    public static final boolean MEMORY_OFFHEAP_HEAP_FALLBACK_DEFAULT = false;
+
     public static final String CLIENT_HANDLING_THREAD_POOL_KEY = "server.client.handle.threadpool.size";
     public static final String CLIENT_HANDLING_THREAD_POOL_DESCRIPTION = "The size of the thread pool used for handling clients";
     public static final int CLIENT_HANDLING_THREAD_POOL_DEFAULT = 20;
@@ -232,6 +314,30 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String SERVER_TO_S3_BUFFER_SIZE_DESCRIPTION = "The size of the buffer used for uploading a file to s3";
     public static final int SERVER_TO_S3_BUFFER_SIZE_DEFAULT = 1048576; // 1 MB
 
+    public static final String READ_COALESCING_MAX_SIZE_KEY = "cache.read.coalescing.max.byte";
+    public static final String READ_COALESCING_MAX_SIZE_DESCRIPTION = "The maximum object size for which concurrent cache misses share a single cloud read (0 to disable)";
+    public static final long READ_COALESCING_MAX_SIZE_DEFAULT = 64 * 1024 * 1024; // 64 MB
+
+    public static final String READ_COALESCING_MAX_TOTAL_KEY = "cache.read.coalescing.max.total.byte";
+    public static final String READ_COALESCING_MAX_TOTAL_DESCRIPTION = "The maximum bytes held by all the shared cloud reads together; misses over it read on their own";
+    public static final long READ_COALESCING_MAX_TOTAL_DEFAULT = 256 * 1024 * 1024; // 256 MB
+
+    public static final String READ_PARTIAL_MIN_SEGMENT_SIZE_KEY = "cache.read.partial.min.segment.byte";
+    public static final String READ_PARTIAL_MIN_SEGMENT_SIZE_DESCRIPTION = "Cached parts of a range read that are shorter than this and lie between two missing parts are fetched from the cloud along with them (-1 to disable partial hits)";
+    public static final long READ_PARTIAL_MIN_SEGMENT_SIZE_DEFAULT = 1024 * 1024; // 1 MB
+
+    public static final String READ_PREFETCH_MAX_WINDOW_KEY = "cache.read.prefetch.max.window.byte";
+    public static final String READ_PREFETCH_MAX_WINDOW_DESCRIPTION = "The maximum bytes fetched into the cache ahead of a client that reads an object with sequential range reads (0 to disable)";
+    public static final long READ_PREFETCH_MAX_WINDOW_DEFAULT = 0;
+
+    public static final String READ_PREFETCH_MAX_INFLIGHT_KEY = "cache.read.prefetch.max.inflight.byte";
+    public static final String READ_PREFETCH_MAX_INFLIGHT_DESCRIPTION = "The maximum bytes of all the prefetches in progress";
+    public static final long READ_PREFETCH_MAX_INFLIGHT_DEFAULT = 64 * 1024 * 1024; // 64 MB
+
+    public static final String READ_PREFETCH_THREADPOOL_SIZE_KEY = "cache.read.prefetch.threadpool.size";
+    public static final String READ_PREFETCH_THREADPOOL_SIZE_DESCRIPTION = "The number of threads that fetch the prefetched ranges from the cloud";
+    public static final int READ_PREFETCH_THREADPOOL_SIZE_DEFAULT = 4;
+
     // Cache settings
     public static final String CACHE_MEMORY_CAPACITY_KEY = "cache.memory.capacity";
     public static final String CACHE_MEMORY_CAPACITY_DESCRIPTION = "The capacity of the memory cache";
@@ -245,6 +351,30 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String CACHE_DISK_VOLUMES_SIZE_DESCRIPTION = "The number of disk volumes to use";
     public static final int CACHE_DISK_VOLUMES_SIZE_DEFAULT = 2;
 
+    public static final String CACHE_DISK_STORAGE_ENGINE_KEY = "cache.disk.storage.engine";
+    public static final String CACHE_DISK_STORAGE_ENGINE_DESCRIPTION = "How the disk tier stores the blocks: a file per block (file) or records appended to segment files (segment)";
+    public static final String CACHE_DISK_STORAGE_ENGINE_DEFAULT = "file";
+
+    public static final String CACHE_DISK_SEGMENT_SIZE_KEY = "cache.disk.segment.size.byte";
+    public static final String CACHE_DISK_SEGMENT_SIZE_DESCRIPTION = "The size after which a segment file of the segment storage engine is sealed";
+    public static final long CACHE_DISK_SEGMENT_SIZE_DEFAULT = 256 * 1024 * 1024; // 256 MB
+
+    public static final String CACHE_DISK_SEGMENT_COMPACTION_THRESHOLD_KEY = "cache.disk.segment.compaction.threshold";
+    public static final String CACHE_DISK_SEGMENT_COMPACTION_THRESHOLD_DESCRIPTION = "The fraction of deleted data after which a segment file is compacted";
+    public static final double CACHE_DISK_SEGMENT_COMPACTION_THRESHOLD_DEFAULT = 0.5;
+
+    public static final String CACHE_DISK_JOURNAL_ENABLED_KEY = "cache.disk.journal.enabled";
+    public static final String CACHE_DISK_JOURNAL_ENABLED_DESCRIPTION = "Whether to keep a metadata journal of the disk block files, so the recovery does not scan the disk volumes (only with cache recovery)";
+    public static final boolean CACHE_DISK_JOURNAL_ENABLED_DEFAULT = false;
+
+    public static final String CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_KEY = "cache.disk.journal.snapshot.records";
+    public static final String CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_DESCRIPTION = "The number of journal records after which the journal is compacted into a snapshot";
+    public static final long CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_DEFAULT = 100000;
+
+    public static final String CACHE_DISK_MMAP_CAPACITY_KEY = "cache.disk.mmap.capacity.byte";
+    public static final String CACHE_DISK_MMAP_CAPACITY_DESCRIPTION = "The bytes of complete disk blocks that are kept memory-mapped for reads (0 to read the block files)";
+    public static final long CACHE_DISK_MMAP_CAPACITY_DEFAULT = 0;
+
     public static final String SNS_NOTIF_ACTIVATE_KEY = "sns.notification.activate";
     public static final String SNS_NOTIF_ACTIVATE_DESCRIPTION = "Whether or not to activate the SNS notification pool";
     public static final boolean SNS_NOTIF_ACTIVATE_DEFAULT = false;
@@ -276,7 +406,8 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final Class<? extends AdmissionPolicy> ADMISSION_POLICY_CLASS_DEFAULT = AdmissionAlways.class;
     public static final List<String> ADMISSION_POLICY_CLASS_ALTERNATIVES = List.of(
             AdmissionAlways.class.getName(),
-            AdmissionEXD.class.getName());
+            AdmissionEXD.class.getName(),
+            AdmissionWTinyLFU.class.getName());
 
     public static final String EVICTION_TRIGGER_POLICY_KEY = "eviction.trigger.policy";
     public static final String EVICTION_TRIGGER_POLICY_DESCRIPTION = "The class that implements the eviction trigger policy";
@@ -296,12 +427,44 @@ public class ServerConfigurations extends BaseConfigurations {
             EvictionItemMRU.class.getName(),
             EvictionItemLRFU.class.getName(),
             EvictionItemLIFE.class.getName(),
-            EvictionItemEXD.class.getName());
+            EvictionItemEXD.class.getName(),
+            EvictionItemWTinyLFU.class.getName(),
+            EvictionItemARC.class.getName(),
+            EvictionItemS3FIFO.class.getName(),
+            EvictionItemGDSF.class.getName());
 
     public static final String EVICTION_POLICY_WINDOW_BASED_AGING_HOURS_KEY = "eviction.policy.window.based.aging.hours";
     public static final String EVICTION_POLICY_WINDOW_BASED_AGING_HOURS_DESCRIPTION = "Window based aging parameter in hours (used with LIFE policy).";
     public static final int EVICTION_POLICY_WINDOW_BASED_AGING_HOURS_DEFAULT = 3;
 
+    public static final String TINYLFU_SKETCH_WIDTH_KEY = "policy.tinylfu.sketch.width";
+    public static final String TINYLFU_SKETCH_WIDTH_DESCRIPTION = "The counters per row of the frequency sketch of the W-TinyLFU policies (about the number of objects to track)";
+    public static final int TINYLFU_SKETCH_WIDTH_DEFAULT = 65536;
+
+    public static final String TINYLFU_WINDOW_PERCENT_KEY = "eviction.policy.tinylfu.window.percent";
+    public static final String TINYLFU_WINDOW_PERCENT_DESCRIPTION = "The percentage of the cached items in the LRU admission window of W-TinyLFU";
+    public static final int TINYLFU_WINDOW_PERCENT_DEFAULT = 1;
+
+    public static final String TINYLFU_PROTECTED_PERCENT_KEY = "eviction.policy.tinylfu.protected.percent";
+    public static final String TINYLFU_PROTECTED_PERCENT_DESCRIPTION = "The percentage of the main region of W-TinyLFU kept for items accessed more than once";
+    public static final int TINYLFU_PROTECTED_PERCENT_DEFAULT = 80;
+
+    public static final String ARC_GHOST_ENTRIES_KEY = "eviction.policy.arc.ghost.entries";
+    public static final String ARC_GHOST_ENTRIES_DESCRIPTION = "The maximum number of evicted keys remembered per tier by the ARC policy";
+    public static final int ARC_GHOST_ENTRIES_DEFAULT = 100000;
+
+    public static final String S3FIFO_SMALL_PERCENT_KEY = "eviction.policy.s3fifo.small.percent";
+    public static final String S3FIFO_SMALL_PERCENT_DESCRIPTION = "The percentage of the cached items in the small (probationary) queue of S3-FIFO";
+    public static final int S3FIFO_SMALL_PERCENT_DEFAULT = 10;
+
+    public static final String GDSF_LATENCY_COST_KEY = "eviction.policy.gdsf.latency.cost";
+    public static final String GDSF_LATENCY_COST_DESCRIPTION = "Use the measured time to fetch an item from the cloud as its cost in GDSF (otherwise all items cost the same)";
+    public static final boolean GDSF_LATENCY_COST_DEFAULT = true;
+
+    public static final String GDSF_SIZE_EXPONENT_KEY = "eviction.policy.gdsf.size.exponent";
+    public static final String GDSF_SIZE_EXPONENT_DESCRIPTION = "The exponent of the item size in the GDSF priority: 1 favours the object hit ratio, 0 the byte hit ratio";
+    public static final double GDSF_SIZE_EXPONENT_DEFAULT = 1.0;
+
     public static final String DISK_SELECTION_POLICY_KEY = "disk.selection.policy";
     public static final String DISK_SELECTION_POLICY_DESCRIPTION = "The class that implements the disk selection policy";
     public static final Class<? extends DiskSelectionPolicy> DISK_SELECTION_POLICY_DEFAULT = DiskSelectionRoundRobin.class;
@@ -317,6 +480,22 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String EVICTION_TRIGGER_POLICY_THRESHOLD_DESCRIPTION = "The threshold for the eviction trigger policy";
     public static final double EVICTION_TRIGGER_POLICY_THRESHOLD_DEFAULT = 85;
 
+    public static final String EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_KEY = "eviction.trigger.policy.low.threshold";
+    public static final String EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_DESCRIPTION = "The usage percentage down to which a triggered eviction reclaims space";
+    public static final double EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_DEFAULT = 75;
+
+    public static final String POLICY_NOTIFIER_ASYNC_KEY = "policy.notifier.async";
+    public static final String POLICY_NOTIFIER_ASYNC_DESCRIPTION = "Deliver the cache events to the policies from a background thread instead of the request thread";
+    public static final boolean POLICY_NOTIFIER_ASYNC_DEFAULT = false;
+
+    public static final String POLICY_NOTIFIER_BUFFER_SIZE_KEY = "policy.notifier.buffer.size";
+    public static final String POLICY_NOTIFIER_BUFFER_SIZE_DESCRIPTION = "The number of pending cache events of the asynchronous policy notifier (rounded up to a power of 2)";
+    public static final int POLICY_NOTIFIER_BUFFER_SIZE_DEFAULT = 65536;
+
+    public static final String POLICY_NOTIFIER_ACCESS_SAMPLING_KEY = "policy.notifier.access.sampling";
+    public static final String POLICY_NOTIFIER_ACCESS_SAMPLING_DESCRIPTION = "Once the asynchronous notifier buffer is half full, only 1 in this many access events is kept (1 keeps all until the buffer is full)";
+    public static final int POLICY_NOTIFIER_ACCESS_SAMPLING_DEFAULT = 4;
+
     public static final String STATISTICS_OUTPUT_INVOKE_POLICY_KEY = "statistics.output.invoke.policy";
     public static final String STATISTICS_OUTPUT_INVOKE_POLICY_DESCRIPTION = "The class that implements the statistics output invoke policy";
     public static final Class<? extends StatisticsOutputInvokePolicy> STATISTICS_OUTPUT_INVOKE_POLICY_DEFAULT = StatisticsOutputOperationCountBased.class;
@@ -329,6 +508,14 @@ public class ServerConfigurations extends BaseConfigurations {
     public static final String STATISTICS_OUTPUT_INVOKE_POLICY_METRIC_DESCRIPTION = "The metric for the statistics output invoke policy";
     public static final int STATISTICS_OUTPUT_INVOKE_POLICY_METRIC_DEFAULT = 1;
 
+    public static final String METRICS_HTTP_PORT_KEY = "statistics.metrics.http.port";
+    public static final String METRICS_HTTP_PORT_DESCRIPTION = "The port of the HTTP endpoint (/metrics) that serves the server metrics in OpenMetrics format (0 to disable)";
+    public static final int METRICS_HTTP_PORT_DEFAULT = 0;
+
+    public static final String STATISTICS_REPORTER_INTERVAL_MS_KEY = "statistics.reporter.interval.ms";
+    public static final String STATISTICS_REPORTER_INTERVAL_MS_DESCRIPTION = "How often (in ms) the background reporter checks the statistics output invoke policy";
+    public static final long STATISTICS_REPORTER_INTERVAL_MS_DEFAULT = 100;
+
     public static final String UPLOAD_LOCATION_KEY = "admission.location.tiers.on.put";
     public static final String UPLOAD_LOCATION_DESCRIPTION = "The placement location/s for uploads";
     public static final String UPLOAD_LOCATION_DEFAULT = "MEMORYDISK";
@@ -413,6 +600,22 @@ public class ServerConfigurations extends BaseConfigurations {
         return EVICTION_HANDLER_RUN_MS;
     }
 
+    public static int getEvictionBackpressureWait() {
+        return EVICTION_BACKPRESSURE_WAIT_MS;
+    }
+
+    public static boolean getPolicyNotifierAsync() {
+        return POLICY_NOTIFIER_ASYNC;
+    }
+
+    public static int getPolicyNotifierBufferSize() {
+        return POLICY_NOTIFIER_BUFFER_SIZE;
+    }
+
+    public static int getPolicyNotifierAccessSampling() {
+        return POLICY_NOTIFIER_ACCESS_SAMPLING;
+    }
+
     public static boolean getSNSNotificationActivate() {
         return SNS_NOTIF_ACTIVATE;
     }
@@ -429,6 +632,14 @@ public class ServerConfigurations extends BaseConfigurations {
         return SNS_LOCAL_PORT;
     }
 
+    public static int getMetricsHttpPort() {
+        return METRICS_HTTP_PORT;
+    }
+
+    public static long getStatisticsReporterIntervalMs() {
+        return STATISTICS_REPORTER_INTERVAL_MS;
+    }
+
     public static String getSNSTopicName() {
         return SNS_TOPIC_NAME;
     }
@@ -465,6 +676,14 @@ public class ServerConfigurations extends BaseConfigurations {
         return CACHE_RECOVERY_ACTIVATE;
     }
 
+    public static boolean getCacheRecoveryLazyValidation() {
+        return CACHE_RECOVERY_LAZY_VALIDATION;
+    }
+
+    public static int getCacheRecoveryValidationRate() {
+        return CACHE_RECOVERY_VALIDATION_RATE;
+    }
+
     public static int recoveryBufferSize() {
         return 10000;
     }
@@ -489,6 +708,30 @@ public class ServerConfigurations extends BaseConfigurations {
         return SERVER_READ_TIMEOUT_MS;
     }
 
+    public static boolean isGetZeroCopyEnabled() {
+        return SERVER_GET_ZERO_COPY;
+    }
+
+    public static int getPutMaxWindow() {
+        return SERVER_PUT_MAX_WINDOW;
+    }
+
+    public static int getSessionMaxRequests() {
+        return SERVER_SESSION_MAX_REQUESTS;
+    }
+
+    public static int getSessionIdleTimeout() {
+        return SERVER_SESSION_IDLE_TIMEOUT_MS;
+    }
+
+    public static String getNetworkEngine() {
+        return SERVER_NETWORK_ENGINE;
+    }
+
+    public static int getNetworkMaxWorkers() {
+        return SERVER_NETWORK_MAX_WORKERS;
+    }
+
     public static StoreSettings getServerMemorySettigs() {
         return SERVER_MEMORY_SETTINGS;
     }
@@ -497,6 +740,22 @@ public class ServerConfigurations extends BaseConfigurations {
         return MEMORY_BYTE_BUFFER_SIZE;
     }
 
+    public static boolean isMemoryOffHeapEnabled() {
+        return MEMORY_OFFHEAP_ENABLED;
+    }
+
+    public static int getMemorySlabSize() {
+        return MEMORY_SLAB_SIZE;
+    }
+
+    public static int getMemorySlabMinChunkSize() {
+        return MEMORY_SLAB_MIN_CHUNK_SIZE;
+    }
+
+    public static boolean memoryOffHeapHeapFallback() {
+        return MEMORY_OFFHEAP_HEAP_FALLBACK;
+    }
+
     public static int getClientHandlingThreadPoolSize() {
         return CLIENT_HANDLING_THREAD_POOL_SIZE;
     }
@@ -517,6 +776,15 @@ public class ServerConfigurations extends BaseConfigurations {
         return SERVER_DISK_VOLUMES;
     }
 
+    /**
+     * Set the memory and disk settings without checking the folders (used by the simulator)
+     */
+    public static void setServerStoreSettings(StoreSettings memorySettings,
+                                              HashMap<Integer, StoreSettings> diskVolumes) {
+        SERVER_MEMORY_SETTINGS = memorySettings;
+        SERVER_DISK_VOLUMES = diskVolumes;
+    }
+
     public static boolean overflowMemory() {
         return OVERFLOW_MEMORY;
     }
@@ -534,6 +802,37 @@ public class ServerConfigurations extends BaseConfigurations {
         return SERVER_TO_S3_BUFFER_SIZE;
     }
 
+    /**
+     * Set the buffer size without loading a configuration (used by the benchmarks)
+     */
+    public static void setServerToS3BufferSize(int size) {
+        SERVER_TO_S3_BUFFER_SIZE = size;
+    }
+
+    public static long getReadCoalescingMaxSize() {
+        return READ_COALESCING_MAX_SIZE;
+    }
+
+    public static long getReadCoalescingMaxTotal() {
+        return READ_COALESCING_MAX_TOTAL;
+    }
+
+    public static long getReadPartialMinSegmentSize() {
+        return READ_PARTIAL_MIN_SEGMENT_SIZE;
+    }
+
+    public static long getReadPrefetchMaxWindow() {
+        return READ_PREFETCH_MAX_WINDOW;
+    }
+
+    public static long getReadPrefetchMaxInflight() {
+        return READ_PREFETCH_MAX_INFLIGHT;
+    }
+
+    public static int getReadPrefetchThreadPoolSize() {
+        return READ_PREFETCH_THREADPOOL_SIZE;
+    }
+
     public static void configsSet() {
         while (!configsLoaded)
             try {
@@ -577,6 +876,10 @@ public class ServerConfigurations extends BaseConfigurations {
         DOWNGRATION_HANDLER_THREAD_POOL_SIZE = configuration.getInt(DOWNGRATION_HANDLER_THREAD_POOL_SIZE_KEY,
                 DOWNGRATION_HANDLER_THREAD_POOL_SIZE_DEFAULT);
         EVICTION_HANDLER_RUN_MS = configuration.getInt(EVICTION_HANDLER_RUN_MS_KEY, EVICTION_HANDLER_RUN_MS_DEFAULT);
+        EVICTION_BACKPRESSURE_WAIT_MS = configuration.getInt(EVICTION_BACKPRESSURE_WAIT_MS_KEY, EVICTION_BACKPRESSURE_WAIT_MS_DEFAULT);
+        POLICY_NOTIFIER_ASYNC = configuration.getBoolean(POLICY_NOTIFIER_ASYNC_KEY, POLICY_NOTIFIER_ASYNC_DEFAULT);
+        POLICY_NOTIFIER_BUFFER_SIZE = configuration.getInt(POLICY_NOTIFIER_BUFFER_SIZE_KEY, POLICY_NOTIFIER_BUFFER_SIZE_DEFAULT);
+        POLICY_NOTIFIER_ACCESS_SAMPLING = configuration.getInt(POLICY_NOTIFIER_ACCESS_SAMPLING_KEY, POLICY_NOTIFIER_ACCESS_SAMPLING_DEFAULT);
         OVERFLOW_MEMORY = configuration.getBoolean(OVERFLOW_MEMORY_KEY, OVERFLOW_MEMORY_DEFAULT);
         CREDENTIALS_FILENAME = configuration.getString(CREDENTIALS_FILENAME_KEY, CREDENTIALS_FILENAME_DEFAULT);
         CREDENTIALS_LOOKUP_TIME_MS = configuration.getInt(CREDENTIALS_LOOKUP_TIME_MS_KEY, CREDENTIALS_LOOKUP_TIME_MS_DEFAULT);
@@ -586,8 +889,18 @@ public class ServerConfigurations extends BaseConfigurations {
         SERVER_QUEUE_SIZE = configuration.getInt(SERVER_QUEUE_SIZE_KEY, SERVER_QUEUE_SIZE_DEFAULT);
         SERVER_BUFFER_SIZE = configuration.getInt(SERVER_BUFFER_SIZE_KEY, SERVER_BUFFER_SIZE_DEFAULT);
         SERVER_READ_TIMEOUT_MS = configuration.getInt(SERVER_READ_TIMEOUT_MS_KEY, SERVER_READ_TIMEOUT_MS_DEFAULT);
+        SERVER_GET_ZERO_COPY = configuration.getBoolean(SERVER_GET_ZERO_COPY_KEY, SERVER_GET_ZERO_COPY_DEFAULT);
+        SERVER_PUT_MAX_WINDOW = configuration.getInt(SERVER_PUT_MAX_WINDOW_KEY, SERVER_PUT_MAX_WINDOW_DEFAULT);
+        SERVER_SESSION_MAX_REQUESTS = configuration.getInt(SERVER_SESSION_MAX_REQUESTS_KEY, SERVER_SESSION_MAX_REQUESTS_DEFAULT);
+        SERVER_SESSION_IDLE_TIMEOUT_MS = configuration.getInt(SERVER_SESSION_IDLE_TIMEOUT_MS_KEY, SERVER_SESSION_IDLE_TIMEOUT_MS_DEFAULT);
+        SERVER_NETWORK_ENGINE = configuration.getString(SERVER_NETWORK_ENGINE_KEY, SERVER_NETWORK_ENGINE_DEFAULT);
+        SERVER_NETWORK_MAX_WORKERS = configuration.getInt(SERVER_NETWORK_MAX_WORKERS_KEY, SERVER_NETWORK_MAX_WORKERS_DEFAULT);
 
         MEMORY_BYTE_BUFFER_SIZE = configuration.getInt(MEMORY_BYTE_BUFFER_SIZE_KEY, MEMORY_BYTE_BUFFER_SIZE_DEFAULT);
+        MEMORY_OFFHEAP_ENABLED = configuration.getBoolean(MEMORY_OFFHEAP_ENABLED_KEY, MEMORY_OFFHEAP_ENABLED_DEFAULT);
+        MEMORY_SLAB_SIZE = configuration.getInt(MEMORY_SLAB_SIZE_KEY, MEMORY_SLAB_SIZE_DEFAULT);
+        MEMORY_SLAB_MIN_CHUNK_SIZE = configuration.getInt(MEMORY_SLAB_MIN_CHUNK_SIZE_KEY, MEMORY_SLAB_MIN_CHUNK_SIZE_DEFAULT);
+        MEMORY_OFFHEAP_HEAP_FALLBACK = configuration.getBoolean(MEMORY_OFFHEAP_HEAP_FALLBACK_KEY, MEMORY_OFFHEAP_HEAP_FALLBACK_DEFAULT);
         CLIENT_HANDLING_THREAD_POOL_SIZE = configuration.getInt(CLIENT_HANDLING_THREAD_POOL_KEY,
                 CLIENT_HANDLING_THREAD_POOL_DEFAULT);
         MANUAL_UPLOAD_CLIENT_RECONNECT_WAIT_MS = configuration.getInt(MANUAL_UPLOAD_CLIENT_RECONNECT_WAIT_MS_KEY,
@@ -598,8 +911,18 @@ public class ServerConfigurations extends BaseConfigurations {
 
         CACHE_RECOVERY_ACTIVATE = configuration.getBoolean(CACHE_RECOVERY_ACTIVATE_KEY,
                 CACHE_RECOVERY_ACTIVATE_DEFAULT);
+        CACHE_RECOVERY_LAZY_VALIDATION = configuration.getString(CACHE_RECOVERY_VALIDATION_KEY,
+                CACHE_RECOVERY_VALIDATION_DEFAULT).equalsIgnoreCase("lazy");
+        CACHE_RECOVERY_VALIDATION_RATE = configuration.getInt(CACHE_RECOVERY_VALIDATION_RATE_KEY,
+                CACHE_RECOVERY_VALIDATION_RATE_DEFAULT);
 
         SERVER_TO_S3_BUFFER_SIZE = configuration.getInt(SERVER_TO_S3_BUFFER_SIZE_KEY, SERVER_TO_S3_BUFFER_SIZE_DEFAULT);
+        READ_COALESCING_MAX_SIZE = configuration.getLong(READ_COALESCING_MAX_SIZE_KEY, READ_COALESCING_MAX_SIZE_DEFAULT);
+        READ_COALESCING_MAX_TOTAL = configuration.getLong(READ_COALESCING_MAX_TOTAL_KEY, READ_COALESCING_MAX_TOTAL_DEFAULT);
+        READ_PARTIAL_MIN_SEGMENT_SIZE = configuration.getLong(READ_PARTIAL_MIN_SEGMENT_SIZE_KEY, READ_PARTIAL_MIN_SEGMENT_SIZE_DEFAULT);
+        READ_PREFETCH_MAX_WINDOW = configuration.getLong(READ_PREFETCH_MAX_WINDOW_KEY, READ_PREFETCH_MAX_WINDOW_DEFAULT);
+        READ_PREFETCH_MAX_INFLIGHT = configuration.getLong(READ_PREFETCH_MAX_INFLIGHT_KEY, READ_PREFETCH_MAX_INFLIGHT_DEFAULT);
+        READ_PREFETCH_THREADPOOL_SIZE = configuration.getInt(READ_PREFETCH_THREADPOOL_SIZE_KEY, READ_PREFETCH_THREADPOOL_SIZE_DEFAULT);
 
         initializeCacheSettings(configuration);
 
@@ -607,6 +930,9 @@ public class ServerConfigurations extends BaseConfigurations {
         SNS_TOPIC_NAME = configuration.getString(SNS_TOPIC_NAME_KEY, SNS_TOPIC_NAME_DEFAULT);
         SNS_NOTIF_POOL_SIZE = configuration.getInt(SNS_NOTIF_POOL_SIZE_KEY, SNS_NOTIF_POOL_SIZE_DEFAULT);
         SNS_LOCAL_PORT = configuration.getInt(SNS_LOCAL_PORT_KEY, SNS_LOCAL_PORT_DEFAULT);
+        METRICS_HTTP_PORT = configuration.getInt(METRICS_HTTP_PORT_KEY, METRICS_HTTP_PORT_DEFAULT);
+        STATISTICS_REPORTER_INTERVAL_MS = configuration.getLong(STATISTICS_REPORTER_INTERVAL_MS_KEY,
+                STATISTICS_REPORTER_INTERVAL_MS_DEFAULT);
         if (!configuration.containsKey(SNS_NOTIFICATION_HOSTNAME_OR_ENDPOINT_KEY)) {
             try {
                 SNS_NOTIFICATION_HOSTNAME_OR_ENDPOINT = InetAddress.getLocalHost().getHostAddress();
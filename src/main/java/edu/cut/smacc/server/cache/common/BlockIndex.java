@@ -0,0 +1,162 @@
+package edu.cut.smacc.server.cache.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Sorted index of the non-overlapping ranges of a cache file (blocks or reserved ranges).
+ * Besides the ranges themselves, it keeps the extents formed by uniting adjacent ranges,
+ * so that containment, gap and overlap queries take O(log n) regardless of how many
+ * blocks the file is split into.
+ * <p>
+ * The index is synchronized on itself, so callers may hold its lock to combine queries
+ * with updates atomically.
+ *
+ * @param <T> the type of the indexed items
+ */
+public class BlockIndex<T> {
+
+    private final TreeMap<Long, T> items;     // item start -> item
+    private final TreeMap<Long, Long> extents; // extent start -> extent stop (inclusive)
+    private final Function<T, BlockRange> rangeOf;
+
+    /**
+     * @param rangeOf gives the range of an item. The range of an item must not change while indexed
+     */
+    public BlockIndex(Function<T, BlockRange> rangeOf) {
+        this.items = new TreeMap<>();
+        this.extents = new TreeMap<>();
+        this.rangeOf = rangeOf;
+    }
+
+    public static BlockIndex<BlockRange> forRanges() {
+        return new BlockIndex<>(range -> range);
+    }
+
+    public static BlockIndex<CacheBlock> forBlocks() {
+        return new BlockIndex<>(CacheBlock::getRange);
+    }
+
+    public synchronized void add(T item) {
+        BlockRange range = rangeOf.apply(item);
+        items.put(range.getStart(), item);
+        addExtent(range.getStart(), range.getStop());
+    }
+
+    /**
+     * Remove the item that has the same range as the given one
+     *
+     * @return true if such an item was indexed
+     */
+    public synchronized boolean remove(T item) {
+        BlockRange range = rangeOf.apply(item);
+        T indexed = items.get(range.getStart());
+        if (indexed == null || !rangeOf.apply(indexed).equals(range))
+            return false;
+        items.remove(range.getStart());
+
+        // Rebuild the extent the item belonged to from the items that remain in it
+        Map.Entry<Long, Long> extent = extents.floorEntry(range.getStart());
+        if (extent != null) {
+            extents.remove(extent.getKey());
+            for (T remaining : items.subMap(extent.getKey(), true, extent.getValue(), true).values()) {
+                BlockRange remainingRange = rangeOf.apply(remaining);
+                addExtent(remainingRange.getStart(), remainingRange.getStop());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace an item with another (e.g. when a block is closed before reaching the end of its range)
+     */
+    public synchronized void replace(T previous, T item) {
+        remove(previous);
+        add(item);
+    }
+
+    /**
+     * @return the extent (union of adjacent ranges) that contains the position, or null if not indexed
+     */
+    public synchronized BlockRange findExtent(long position) {
+        Map.Entry<Long, Long> extent = extents.floorEntry(position);
+        if (extent == null || extent.getValue() < position)
+            return null;
+        return new BlockRange(extent.getKey(), extent.getValue());
+    }
+
+    /**
+     * @return true if [start, stop] is covered by the indexed ranges
+     */
+    public synchronized boolean contains(long start, long stop) {
+        Map.Entry<Long, Long> extent = extents.floorEntry(start);
+        return extent != null && extent.getValue() >= stop;
+    }
+
+    /**
+     * Find the first range that is not indexed, starting from the given position
+     *
+     * @param position  where to start looking from
+     * @param finalStop the stop of the space if there are no indexed ranges after it
+     * @return the empty space
+     */
+    public synchronized BlockRange findEmptySpace(long position, long finalStop) {
+        BlockRange containing = findExtent(position);
+        long emptyStart = (containing == null) ? position : containing.getStop() + 1;
+        Long nextStart = extents.ceilingKey(emptyStart);
+        long emptyStop = (nextStart == null) ? finalStop : nextStart - 1;
+        return new BlockRange(emptyStart, emptyStop);
+    }
+
+    /**
+     * @return the items that overlap [start, stop], in order
+     */
+    public synchronized List<T> getItems(long start, long stop) {
+        Long from = items.floorKey(start);
+        if (from == null || rangeOf.apply(items.get(from)).getStop() < start)
+            from = start;
+        return new ArrayList<>(items.subMap(from, true, stop, true).values());
+    }
+
+    /**
+     * @return the extents (union of adjacent ranges) in order
+     */
+    public synchronized List<BlockRange> getExtents() {
+        List<BlockRange> list = new ArrayList<>(extents.size());
+        for (Map.Entry<Long, Long> extent : extents.entrySet())
+            list.add(new BlockRange(extent.getKey(), extent.getValue()));
+        return list;
+    }
+
+    public synchronized List<T> values() {
+        return new ArrayList<>(items.values());
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    private void addExtent(long start, long stop) {
+        Map.Entry<Long, Long> previous = extents.floorEntry(start);
+        if (previous != null && previous.getValue() >= start - 1) {
+            start = previous.getKey();
+            stop = Math.max(stop, previous.getValue());
+            extents.remove(previous.getKey());
+        }
+        Map.Entry<Long, Long> next = extents.ceilingEntry(start);
+        while (next != null && next.getKey() <= stop + 1) {
+            stop = Math.max(stop, next.getValue());
+            extents.remove(next.getKey());
+            next = extents.ceilingEntry(start);
+        }
+        extents.put(start, stop);
+    }
+
+}
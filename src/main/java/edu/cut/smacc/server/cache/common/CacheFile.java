@@ -53,7 +53,7 @@ public interface CacheFile extends Comparable<CacheFile> {
 
     StoreSettings getSettings();
 
-    List<BlockRange> getReservedRanges();
+    BlockIndex<BlockRange> getReservedRanges();
 
     boolean isPartialFile();
 
@@ -73,6 +73,8 @@ public interface CacheFile extends Comparable<CacheFile> {
 
     List<CacheBlock> getCacheBlocks();
 
+    BlockIndex<CacheBlock> getBlockIndex();    //visible blocks, sorted by range
+
     void lockReader();
 
     long getTotalSize();
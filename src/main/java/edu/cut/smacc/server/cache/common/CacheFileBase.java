@@ -9,7 +9,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -36,7 +35,8 @@ public abstract class CacheFileBase implements CacheFile {
     protected boolean hasBeenDeleted = false;
     protected final List<CacheBlock> fileBlocks;
     protected final List<CacheBlock> fileIncompleteBlocks;
-    protected final List<BlockRange> reservedRanges;
+    protected final BlockIndex<CacheBlock> blockIndex;    //visible blocks, sorted by range
+    protected final BlockIndex<BlockRange> reservedRanges;
     protected long actualSize = 0;
     protected boolean isPartialFile = false;    //is it partial or continuous
     protected long lastS3Modification;
@@ -54,7 +54,8 @@ public abstract class CacheFileBase implements CacheFile {
         this.fileAccessCount = new AtomicInteger(0);
         fileBlocks = Collections.synchronizedList(new LinkedList<>());
         fileIncompleteBlocks = Collections.synchronizedList(new LinkedList<>());
-        reservedRanges = Collections.synchronizedList(new LinkedList<>());
+        blockIndex = BlockIndex.forBlocks();
+        reservedRanges = BlockIndex.forRanges();
     }
 
     @Override
@@ -280,26 +281,17 @@ public abstract class CacheFileBase implements CacheFile {
         }
         synchronized (fileBlocks) {
             fileBlocks.add(block);
+            blockIndex.add(block);
         }
     }
 
     @Override
     public void replaceReservedRange(BlockRange prevRange, BlockRange newRange) {
-        synchronized (reservedRanges) {
-            Iterator<BlockRange> iter = reservedRanges.iterator();
-            while (iter.hasNext()) {
-                BlockRange trange = iter.next();
-                if (trange.equals(prevRange)) {
-                    iter.remove();
-                    break;
-                }
-            }
-            reservedRanges.add(newRange);
-        }
+        reservedRanges.replace(prevRange, newRange);
     }
 
     @Override
-    public List<BlockRange> getReservedRanges() {
+    public BlockIndex<BlockRange> getReservedRanges() {
         return reservedRanges;
     }
 
@@ -310,17 +302,7 @@ public abstract class CacheFileBase implements CacheFile {
 
     @Override
     public boolean inRange(long start, long stop) {
-        List<BlockRange> currentRanges = new ArrayList<>(fileBlocks.size());
-        for (CacheBlock block : fileBlocks) {
-            currentRanges.add(block.getRange());
-        }
-
-        ArrayList<BlockRange> unifiedList = new MultiBlockUnifier(currentRanges).getUnifiedList();
-
-        for (BlockRange blockRange : unifiedList)
-            if (blockRange.contains(start) && blockRange.contains(stop)) return true;
-
-        return false;
+        return blockIndex.contains(start, stop);
     }
 
     @Override
@@ -328,6 +310,11 @@ public abstract class CacheFileBase implements CacheFile {
         return fileBlocks;
     }
 
+    @Override
+    public BlockIndex<CacheBlock> getBlockIndex() {
+        return blockIndex;
+    }
+
     @Override
     public void setLastModified(long date) {
         lastS3Modification = date;
@@ -385,7 +372,7 @@ public abstract class CacheFileBase implements CacheFile {
 
     @Override
     public List<BlockRange> getBlockRangeList() {
-        return new ArrayList<>(reservedRanges);
+        return reservedRanges.values();
     }
 
     @Override
@@ -460,9 +447,9 @@ public abstract class CacheFileBase implements CacheFile {
     @Override
     public int compareTo(CacheFile o) {
         // Default comparison order: size, key
-        if (this.getActualSize() < o.getSize())
+        if (this.getActualSize() < o.getActualSize())
             return -1;
-        else if (this.getActualSize() > o.getSize())
+        else if (this.getActualSize() > o.getActualSize())
             return 1;
 
         return this.getKey().compareTo(o.getKey());
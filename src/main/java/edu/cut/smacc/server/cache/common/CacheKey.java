@@ -0,0 +1,46 @@
+package edu.cut.smacc.server.cache.common;
+
+/**
+ * Composite (bucket, key) identifier used to index the cache files of a tier
+ */
+public final class CacheKey {
+
+    private final String bucket;
+    private final String key;
+    private final int hash;
+
+    public CacheKey(String bucket, String key) {
+        this.bucket = bucket;
+        this.key = key;
+        this.hash = 31 * bucket.hashCode() + key.hashCode();
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj instanceof CacheKey other) {
+            return hash == other.hash && bucket.equals(other.bucket) && key.equals(other.key);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return bucket + "/" + key;
+    }
+
+}
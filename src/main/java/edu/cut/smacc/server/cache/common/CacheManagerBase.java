@@ -12,11 +12,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An abstract class to handle the common operations of the cache managers
@@ -25,21 +25,21 @@ public abstract class CacheManagerBase implements CacheManager {
 
     private final Logger logger = LogManager.getLogger(CacheManagerBase.class);
 
-    protected final Map<String, HashMap<String, CacheFile>> cacheMapping;
+    protected final ConcurrentHashMap<CacheKey, CacheFile> cacheMapping;
     private final TierGeneralStatistics tierGeneralStatistics;
     protected final StatisticsUpdaterOnCacheOperation statsUpdater;
 
     protected CachePolicyNotifier policyNotifier;
 
-    private long cacheBytes; // used for statistics
+    private final AtomicLong cacheBytes; // used for statistics
 
 
     protected CacheManagerBase() {
-        this.cacheMapping = Collections.synchronizedMap(new HashMap<>());
+        this.cacheMapping = new ConcurrentHashMap<>();
         this.tierGeneralStatistics = new TierGeneralStatistics();
         this.statsUpdater = new StatisticsUpdaterOnCacheOperation(tierGeneralStatistics, this);
         this.tierGeneralStatistics.setParentUpdater(statsUpdater);
-        this.cacheBytes = 0;
+        this.cacheBytes = new AtomicLong(0);
     }
 
     public void setPolicyNotifier(CachePolicyNotifier notifier) {
@@ -56,143 +56,133 @@ public abstract class CacheManagerBase implements CacheManager {
 
     @Override
     public CacheFile getFile(String bucket, String key) {
-        synchronized (cacheMapping) {
-            if (containsObject(bucket, key) && this.cacheMapping.get(bucket).containsKey(key)) {
-                return this.cacheMapping.get(bucket).get(key);
-            }
-            return null;
-        }
+        return cacheMapping.get(new CacheKey(bucket, key));
     }
 
     @Override
     public boolean containsObject(String bucket, String key) {
-        synchronized (cacheMapping) {
-            if (!this.cacheMapping.containsKey(bucket))
-                return false;
-            return cacheMapping.get(bucket).containsKey(key);
-        }
+        return cacheMapping.containsKey(new CacheKey(bucket, key));
     }
 
     public Set<CacheFile> list(String bucket) {
-        synchronized (cacheMapping) {
-            Set<CacheFile> list = new HashSet<>();
-            if (cacheMapping.containsKey(bucket)) {
-                list.addAll(cacheMapping.get(bucket).values());
-            }
-            return list;
+        Set<CacheFile> list = new HashSet<>();
+        for (Map.Entry<CacheKey, CacheFile> entry : cacheMapping.entrySet()) {
+            if (entry.getKey().getBucket().equals(bucket))
+                list.add(entry.getValue());
         }
+        return list;
     }
 
+    /*
+     * The policies are notified inside the entry lock, so the events of a key reach them in the
+     * order of the mapping changes. The policies only take their own locks, never the mapping.
+     * The data of the removed files is released outside the entry lock.
+     */
+
     @Override
     public boolean delete(String bucket, String key) {
-        synchronized (cacheMapping) {
-            if (cacheMapping.containsKey(bucket) && cacheMapping.get(bucket).containsKey(key)) {
-                CacheFile file = cacheMapping.get(bucket).get(key);
-                policyNotifier.notifyItemDeletion(file, getStoreOptionType());
-                file.delete();
-                cacheMapping.get(bucket).remove(key);
-                cacheBytes -= file.getTotalSize();
-                if (cacheMapping.get(bucket).isEmpty()) {
-                    cacheMapping.remove(bucket);
-                }
-            }
-            return true;
-        }
+        CacheFile[] removed = new CacheFile[1];
+        cacheMapping.computeIfPresent(new CacheKey(bucket, key), (cacheKey, file) -> {
+            cacheBytes.addAndGet(-file.getTotalSize());
+            policyNotifier.notifyItemDeletion(file, getStoreOptionType());
+            removed[0] = file;
+            return null;
+        });
+        if (removed[0] != null)
+            removed[0].delete();
+        return true;
     }
 
+    /**
+     * Remove the file from the mapping, unless a newer file has replaced it
+     *
+     * @return true if the file was removed
+     */
     public boolean evict(CacheFile file) {
-        String bucket = file.getBucket();
-        String key = file.getKey();
-        synchronized (cacheMapping) {
-            if (cacheMapping.containsKey(bucket) && cacheMapping.get(bucket).containsKey(key)) {
-                CacheFile cfile = cacheMapping.get(bucket).get(key);
-                cacheMapping.get(bucket).remove(key);
-                cacheBytes -= cfile.getTotalSize();
-                policyNotifier.notifyItemDeletion(cfile, getStoreOptionType());
-                if (cacheMapping.get(bucket).isEmpty()) {
-                    cacheMapping.remove(bucket);
-                }
-                return true;
-            }
-        }
-        return false;
+        boolean[] evicted = new boolean[1];
+        cacheMapping.computeIfPresent(new CacheKey(file.getBucket(), file.getKey()), (cacheKey, cfile) -> {
+            if (cfile != file)
+                return cfile;
+            cacheBytes.addAndGet(-cfile.getTotalSize());
+            policyNotifier.notifyItemDeletion(cfile, getStoreOptionType());
+            evicted[0] = true;
+            return null;
+        });
+        return evicted[0];
     }
 
     public void put(String bucket, String key, CacheFile file) {
-        synchronized (cacheMapping) {
-            CacheFile prevf;
-            if (cacheMapping.containsKey(bucket)) {
-                if (cacheMapping.get(bucket).containsKey(key)) {
-                    prevf = cacheMapping.get(bucket).get(key);
-                    if (prevf.getVersion() > file.getVersion())    //you are late
-                    {
-                        if (logger.isDebugEnabled()) {
-                            if (file instanceof MemoryFile) {
-                                logger.info("MEMORY: Delete file on put - Late put - V:" + file.getVersion());
-                            } else if (file instanceof DiskFile) {
-                                logger.info("DISK: Delete file on put - Late put - V:" + file.getVersion());
-                            }
-                            cacheBytes -= file.getTotalSize();
-                            policyNotifier.notifyItemDeletion(file, getStoreOptionType());
-                            file.delete();
-                            return;
-                        }
-                    } else {
-                        if (logger.isDebugEnabled()) {
-                            if (this instanceof MemoryManager) {
-                                logger.info("[MEMORY] Attempt to delete previous file - NEW AVAILABLE(" + file.getVersion() + ")");
-                            } else if (this instanceof DiskManager) {
-                                logger.info("[DISK] Attempt to delete previous file - NEW AVAILABLE(" + file.getVersion() + ")");
-                            }
+        CacheFile[] obsolete = new CacheFile[1];
+        cacheMapping.compute(new CacheKey(bucket, key), (cacheKey, prevf) -> {
+            if (prevf == file)
+                return prevf;
+            if (prevf != null) {
+                if (prevf.getVersion() > file.getVersion())    //you are late
+                {
+                    if (logger.isDebugEnabled()) {
+                        if (file instanceof MemoryFile) {
+                            logger.info("MEMORY: Delete file on put - Late put - V:" + file.getVersion());
+                        } else if (file instanceof DiskFile) {
+                            logger.info("DISK: Delete file on put - Late put - V:" + file.getVersion());
                         }
-                        cacheBytes -= prevf.getTotalSize();
-                        policyNotifier.notifyItemDeletion(prevf, getStoreOptionType());
-                        prevf.delete();
+                    }
+                    policyNotifier.notifyItemNotAdded(file, getStoreOptionType());
+                    obsolete[0] = file;
+                    return prevf;
+                }
+                if (logger.isDebugEnabled()) {
+                    if (this instanceof MemoryManager) {
+                        logger.info("[MEMORY] Attempt to delete previous file - NEW AVAILABLE(" + file.getVersion() + ")");
+                    } else if (this instanceof DiskManager) {
+                        logger.info("[DISK] Attempt to delete previous file - NEW AVAILABLE(" + file.getVersion() + ")");
                     }
                 }
-            } else {
-                cacheMapping.put(bucket, new HashMap<>());
+                cacheBytes.addAndGet(-prevf.getTotalSize());
+                policyNotifier.notifyItemDeletion(prevf, getStoreOptionType());
+                obsolete[0] = prevf;
             }
-            cacheMapping.get(bucket).put(key, file);
-            cacheBytes += file.getTotalSize();
+            cacheBytes.addAndGet(file.getTotalSize());
             policyNotifier.notifyItemAddition(file, getStoreOptionType());
-        }
+            return file;
+        });
+
+        // Release the data of the replaced (or late) file outside the entry lock
+        if (obsolete[0] != null)
+            obsolete[0].delete();
     }
-    
+
     public void checkVersion(String bucket, String key, long NewVersion) {
-        CacheFile tempFile = null;
-        synchronized (cacheMapping) {
-            if (cacheMapping.containsKey(bucket) && cacheMapping.get(bucket).containsKey(key))
-                tempFile = cacheMapping.get(bucket).get(key);
-            
-            if (tempFile != null) {
-                long current_version = tempFile.getVersion();
-                if (current_version < NewVersion) {
-                    // Delete the file
-                    if (logger.isDebugEnabled()) {
-                        if (this instanceof DiskManager) {
-                            logger.info("DISK-VERSION OUTDATED - DELETING VER " + current_version);
-                        } else if (this instanceof MemoryManager) {
-                            logger.info("MEM-VERSION OUTDATED - DELETING VER " + current_version);
-                        }
-                    }
-                    if (cacheMapping.get(bucket).get(key) == tempFile) {
-                        cacheMapping.get(bucket).remove(key);
-                        cacheBytes -= tempFile.getTotalSize();
+        CacheFile[] outdated = new CacheFile[1];
+        cacheMapping.computeIfPresent(new CacheKey(bucket, key), (cacheKey, tempFile) -> {
+            long current_version = tempFile.getVersion();
+            if (current_version < NewVersion) {
+                // Delete the file
+                if (logger.isDebugEnabled()) {
+                    if (this instanceof DiskManager) {
+                        logger.info("DISK-VERSION OUTDATED - DELETING VER " + current_version);
+                    } else if (this instanceof MemoryManager) {
+                        logger.info("MEM-VERSION OUTDATED - DELETING VER " + current_version);
                     }
-                    tempFile.delete();
                 }
+                cacheBytes.addAndGet(-tempFile.getTotalSize());
+                outdated[0] = tempFile;
+                return null;
             }
-        }
+            return tempFile;
+        });
+        if (outdated[0] != null)
+            outdated[0].delete();
     }
 
-    protected boolean fileDoesNotExist(String bucket, String key) {
-        return !this.cacheMapping.containsKey(bucket) || !this.cacheMapping.get(bucket).containsKey(key);
-    }
-
-    protected boolean fileIsPartial(String bucket, String key) {
-        return cacheMapping.get(bucket).get(key).isPartialFile() ||
-                !cacheMapping.get(bucket).get(key).isFullFile();
+    /**
+     * Returns the cache file that is visible for reading, or null if there is no such file.
+     * A partial file (or a file with missing blocks) is not returned when fullFileOnly is set.
+     */
+    protected CacheFile getReadableFile(String bucket, String key, boolean fullFileOnly) {
+        CacheFile file = cacheMapping.get(new CacheKey(bucket, key));
+        if (file == null || (fullFileOnly && (file.isPartialFile() || !file.isFullFile())))
+            return null;
+        return file;
     }
 
     public TierGeneralStatistics getTierStatistics() {
@@ -201,7 +191,7 @@ public abstract class CacheManagerBase implements CacheManager {
 
     @Override
     public long getCacheBytes() {
-        return cacheBytes;
+        return cacheBytes.get();
     }
 
     abstract protected long getReportedUsage();
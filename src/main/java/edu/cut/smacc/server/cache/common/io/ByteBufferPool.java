@@ -33,6 +33,21 @@ public class ByteBufferPool implements Serializable {
         return buf;
     }
 
+    /**
+     * @param size the number of bytes the caller expects to write (a hint, the buffer may be larger)
+     * @return a ByteBuffer with room for at least the given size, up to the capacity of the pool's buffers
+     */
+    ByteBuffer acquireByteBuffer(int size) {
+        return acquireByteBuffer();
+    }
+
+    /**
+     * @return true if the pool can still provide buffers for the given number of bytes
+     */
+    public boolean hasCapacity(long bytes) {
+        return true;
+    }
+
     /**
      * Return the ByteBuffer into the pool
      *
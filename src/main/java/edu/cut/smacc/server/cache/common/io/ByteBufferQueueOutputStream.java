@@ -1,5 +1,7 @@
 package edu.cut.smacc.server.cache.common.io;
 
+import edu.cut.smacc.server.cache.common.CacheOutOfMemoryException;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
@@ -17,6 +19,8 @@ public class ByteBufferQueueOutputStream extends OutputStream implements Seriali
     private ByteBufferPool bbPool;
     private ByteBufferQueue bbQueue;
     private ByteBuffer currBuffer;
+    private final long expectedLength;
+    private long written;
 
     private byte[] singleByte = new byte[1];
 
@@ -26,9 +30,22 @@ public class ByteBufferQueueOutputStream extends OutputStream implements Seriali
      */
     public ByteBufferQueueOutputStream(ByteBufferPool bbPool,
                                        ByteBufferQueue bbQueue) {
+        this(bbPool, bbQueue, -1);
+    }
+
+    /**
+     * @param bbPool         a ByteBufferPool for creating ByteBuffers
+     * @param bbQueue        the ByteBufferQueue to write into
+     * @param expectedLength the number of bytes that will be written, or -1 if unknown.
+     *                       Used to acquire smaller buffers for the tail of the data
+     */
+    public ByteBufferQueueOutputStream(ByteBufferPool bbPool,
+                                       ByteBufferQueue bbQueue, long expectedLength) {
         this.bbPool = bbPool;
         this.bbQueue = bbQueue;
         this.currBuffer = null;
+        this.expectedLength = expectedLength;
+        this.written = 0;
     }
 
     @Override
@@ -57,24 +74,31 @@ public class ByteBufferQueueOutputStream extends OutputStream implements Seriali
 
         if (currBuffer == null) {
             // Get a new buffer
-            currBuffer = bbPool.acquireByteBuffer();
+            currBuffer = acquireByteBuffer();
         }
 
         int remaining = currBuffer.remaining();
         if (remaining == 0) {
             // The buffer is full, get a new one
             bbQueue.appendByteByffer(currBuffer);
-            currBuffer = bbPool.acquireByteBuffer();
+            try {
+                currBuffer = acquireByteBuffer();
+            } catch (CacheOutOfMemoryException e) {
+                currBuffer = null;    // already appended
+                throw e;
+            }
             remaining = currBuffer.capacity();
         }
 
         if (len <= remaining) {
             // There is enough space in the current buffer
             currBuffer.put(b, off, len);
+            written += len;
         } else {
             // Put as much as you can in the current buffer
             // and recursively write the rest
             currBuffer.put(b, off, remaining);
+            written += remaining;
             write(b, off + remaining, len - remaining);
         }
 
@@ -85,6 +109,17 @@ public class ByteBufferQueueOutputStream extends OutputStream implements Seriali
         }
     }
 
+    private ByteBuffer acquireByteBuffer() throws CacheOutOfMemoryException {
+        ByteBuffer bb;
+        if (expectedLength > written)
+            bb = bbPool.acquireByteBuffer((int) Math.min(Integer.MAX_VALUE, expectedLength - written));
+        else
+            bb = bbPool.acquireByteBuffer();
+        if (bb == null)
+            throw new CacheOutOfMemoryException("Buffer pool exhausted");
+        return bb;
+    }
+
     @Override
     public void flush() {
         // nothing to do
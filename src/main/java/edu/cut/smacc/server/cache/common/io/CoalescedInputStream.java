@@ -0,0 +1,96 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Input stream of a request that attached to the in-flight cloud read of another request.
+ * The bytes are streamed from the shared buffer as they arrive. If the other request stops
+ * before the end of the object, the rest of the object is read from the cloud.
+ * The stream must be attached to the buffer and detaches on close.
+ */
+public class CoalescedInputStream extends InputStream {
+    private static final Logger logger = LogManager.getLogger(CoalescedInputStream.class);
+
+    /**
+     * Opens a cloud stream that starts at the given position of the object
+     */
+    public interface FallbackOpener {
+        InputStream open(long position) throws IOException;
+    }
+
+    private final SharedReadBuffer buffer;
+    private final FallbackOpener fallbackOpener;
+    private final long size;
+    private InputStream fallbackIn;
+    private long position;
+    private boolean closed;
+
+    public CoalescedInputStream(SharedReadBuffer buffer, FallbackOpener fallbackOpener) {
+        this.buffer = buffer;
+        this.fallbackOpener = fallbackOpener;
+        this.size = buffer.getExpectedLength();
+        this.fallbackIn = null;
+        this.position = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int r = read(b, 0, 1);
+        return (r == -1) ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buff, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (position >= size)
+            return -1;
+
+        int r;
+        if (fallbackIn == null) {
+            try {
+                r = buffer.read(position, buff, off, len);
+            } catch (IOException e) {
+                if (logger.isDebugEnabled())
+                    logger.info("Shared read stopped at " + position + " - continue from cloud");
+                fallbackIn = fallbackOpener.open(position);
+                r = fallbackIn.read(buff, off, len);
+            }
+        } else {
+            r = fallbackIn.read(buff, off, len);
+        }
+
+        if (r > 0)
+            position += r;
+        return r;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            buffer.detach();
+        }
+        if (fallbackIn != null) {
+            fallbackIn.close();
+            fallbackIn = null;
+        }
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public List<CacheFile> getCacheFiles() {
+        return buffer.getCacheFiles();
+    }
+
+}
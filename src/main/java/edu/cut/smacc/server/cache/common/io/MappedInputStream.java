@@ -0,0 +1,87 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads a block from a memory mapping of its file, so a read is a copy from the page cache
+ * without a system call and a transfer writes the mapped pages straight to the channel.
+ */
+public class MappedInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+    private final Runnable onClose;
+    private boolean closed = false;
+
+    /**
+     * @param buffer  a view of the mapping that is used only by this stream
+     * @param onClose called once when the stream is closed (e.g. to release the mapping)
+     */
+    public MappedInputStream(ByteBuffer buffer, Runnable onClose) {
+        this.buffer = buffer;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int len) throws IOException {
+        ensureOpen();
+        if (len == 0)
+            return 0;
+        if (!buffer.hasRemaining())
+            return -1;
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, offset, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Write up to maxBytes of the rest of the block to the channel from the mapping
+     *
+     * @return the number of bytes sent
+     */
+    public long transferTo(WritableByteChannel target, long maxBytes) throws IOException {
+        ensureOpen();
+        int length = (int) Math.min(maxBytes, buffer.remaining());
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        while (slice.hasRemaining())
+            target.write(slice);
+        buffer.position(buffer.position() + length);
+        return length;
+    }
+
+    /**
+     * The mapping may be unmapped once the stream is closed, so it must not be read anymore
+     */
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package edu.cut.smacc.server.cache.common.io;
 
-import edu.cut.smacc.server.cache.common.BlockRange;
 import edu.cut.smacc.server.cache.common.CacheBlock;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,59 +33,41 @@ public class MultiBlockInputStream extends InputStream {
     private long maxBlockLength;
     private long readSoFar;
 
-    public MultiBlockInputStream(long start, long stop, List<CacheBlock> fileBlocks) throws IOException {
-        long tempStart = start;
-        readBlockList = new LinkedList<>();
-        List<CacheBlock> blocksInRange = new ArrayList<>();
-        CacheBlock startingBlock = null;
+    /**
+     * @param blocks the blocks that cover [start, stop] in order, as given by the block index of the file
+     */
+    public MultiBlockInputStream(long start, long stop, List<CacheBlock> blocks) throws IOException {
+        readBlockList = new LinkedList<>(blocks);
         currentStop = stop;
 
-
-        /*Find which blocks are in specified range*/
-        for (CacheBlock block : fileBlocks) {
-            BlockRange rangeStr = block.getRange();
-            if (rangeStr.getStart() >= start && rangeStr.getStop() <= stop) //add blocks between first and last block
-                blocksInRange.add(block);
-            else if (rangeStr.contains(stop))  //add last block
-                blocksInRange.add(block);
-
-            if (rangeStr.contains(start)) {
-                tempStart = block.getRange().getStop() + 1;
-                readBlockList.addFirst(block);
-            }
-        }
-
-
-        //add blocks in queue with correct order
-        while (stop > tempStart) {
-            Iterator<CacheBlock> iter = blocksInRange.iterator();
-            while (iter.hasNext()) {
-                CacheBlock block = iter.next();
-                if (block.getRange().getStart() == tempStart) {
-                    tempStart = block.getRange().getStop() + 1;
-                    readBlockList.addFirst(block);
-                    iter.remove();
-                }
-            }
-            if (blocksInRange.isEmpty()) break;
-        }
-        blocksInRange.clear();
-
-        currentBlock = readBlockList.pollLast();
-        assert currentBlock != null;
+        currentBlock = readBlockList.pollFirst();
+        if (currentBlock == null)
+            throw new IOException("No blocks in range " + start + "-" + stop);
         if (!currentBlock.getRange().contains(stop))    //if the first is not the last block
             maxBlockLength = currentBlock.getRange().getStop() - start + 1;
         else                                                //if the first is also the last block
             maxBlockLength = stop - start + 1;
         internalIn = currentBlock.getFileInputStream();
-        internalIn.skip(start);
+        skipFully(start - currentBlock.getRange().getStart());    //the block stream begins at the start of the block
+    }
+
+    private void skipFully(long n) throws IOException {
+        while (n > 0) {
+            long skipped = internalIn.skip(n);
+            if (skipped <= 0) {
+                if (internalIn.read() == -1)
+                    throw new IOException("Block is shorter than its range");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
     }
 
     private void changeBlock() throws IOException {
         //changeBlock has to be called after the increment of readSoFar variable
         if (available() == 0) {
             internalIn.close();
-            currentBlock = readBlockList.pollLast();
+            currentBlock = readBlockList.pollFirst();
 
             if (currentBlock != null) {
                 internalIn = currentBlock.getFileInputStream();
@@ -155,6 +138,75 @@ public class MultiBlockInputStream extends InputStream {
         }
     }
 
+    /**
+     * @return true if the blocks are files that can be sent with transferTo(WritableByteChannel)
+     */
+    public boolean isTransferable() {
+        return internalIn instanceof FileInputStream || internalIn instanceof RegionInputStream
+                || internalIn instanceof MappedInputStream;
+    }
+
+    /**
+     * Send the rest of the range to the channel. File blocks are transferred by the kernel
+     * (FileChannel.transferTo) and mapped blocks are written from their mapping, without
+     * copying through the heap.
+     *
+     * @return the number of bytes sent
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long sent = 0;
+        try {
+            while (!(maxBlockLength == readSoFar && readBlockList.isEmpty())) {
+                long n;
+                if (internalIn instanceof FileInputStream fileIn) {
+                    n = transferBlock(fileIn.getChannel(), target);
+                } else if (internalIn instanceof RegionInputStream regionIn) {
+                    n = regionIn.transferTo(target, maxBlockLength - readSoFar);
+                    if (n < maxBlockLength - readSoFar)
+                        throw new IOException("Block is shorter than its range");
+                } else if (internalIn instanceof MappedInputStream mappedIn) {
+                    n = mappedIn.transferTo(target, maxBlockLength - readSoFar);
+                    if (n < maxBlockLength - readSoFar)
+                        throw new IOException("Block is shorter than its range");
+                } else {
+                    n = copyBlock(target);
+                }
+                readSoFar += n;
+                sent += n;
+                changeBlock();
+            }
+            return sent;
+        } catch (IOException e) {
+            close();
+            throw new IOException(e);
+        }
+    }
+
+    private long transferBlock(FileChannel channel, WritableByteChannel target) throws IOException {
+        long position = channel.position();
+        long length = maxBlockLength - readSoFar;
+        long transferred = 0;
+        while (transferred < length) {
+            long n = channel.transferTo(position + transferred, length - transferred, target);
+            if (n <= 0 && position + transferred >= channel.size())
+                throw new IOException("Block is shorter than its range");
+            transferred += n;
+        }
+        channel.position(position + transferred);
+        return transferred;
+    }
+
+    private long copyBlock(WritableByteChannel target) throws IOException {
+        byte[] buffer = new byte[Math.min(available(), 64 * 1024)];
+        int r = internalIn.read(buffer, 0, buffer.length);
+        if (r <= 0)
+            throw new IOException("Block is shorter than its range");
+        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, r);
+        while (bb.hasRemaining())
+            target.write(bb);
+        return r;
+    }
+
     public void reset() throws IOException {
         try {
             internalIn.reset();
@@ -1,14 +1,13 @@
 package edu.cut.smacc.server.cache.common.io;
 
 import edu.cut.smacc.server.cache.common.*;
-import edu.cut.smacc.server.cache.disk.FileBlock;
+import edu.cut.smacc.server.cache.disk.DiskFile;
 import edu.cut.smacc.server.cache.memory.MemoryBlock;
 import edu.cut.smacc.configuration.ServerConfigurations;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.List;
 
 enum MBType {MEMORY, DISK}
 
@@ -20,9 +19,10 @@ enum MBType {MEMORY, DISK}
  */
 public class MultiBlockOutputStream {
     private static final Logger logger = LogManager.getLogger(MultiBlockOutputStream.class);
+    private static final long BACKPRESSURE_POLL_MS = 50;
 
     private CacheBlock currentBlock = null;
-    private final List<BlockRange> reservedRanges;
+    private final BlockIndex<BlockRange> reservedRanges;
     private StoreSettings settings;
     private long currentStart;
     private long currentStop;
@@ -79,12 +79,34 @@ public class MultiBlockOutputStream {
         return cf;
     }
 
-    private void checkTierCapacity(int len) throws CacheOutOfMemoryException {
+    private boolean isTierFull(int len) {
         boolean condition;
         if (ServerConfigurations.overflowMemory())
             condition = stats.getReportedUsage() >= stats.getMaxCapacity();
         else
             condition = stats.getReportedUsage() + len >= stats.getMaxCapacity(); //memory still can be overflowed because of parallel writes that are not aware of each other
+        if (pool != null && !pool.hasCapacity(len))
+            condition = true;    //the buffer pool of the memory tier is exhausted (off-heap arena)
+        return condition;
+    }
+
+    private void checkTierCapacity(int len) throws CacheOutOfMemoryException {
+        boolean condition = isTierFull(len);
+
+        if (condition && ServerConfigurations.getEvictionBackpressureWait() > 0) {
+            // Back-pressure: give the eviction manager some time to reclaim space before giving up
+            long begin = System.nanoTime();
+            long deadline = begin + ServerConfigurations.getEvictionBackpressureWait() * 1000000L;
+            try {
+                while (condition && System.nanoTime() < deadline) {
+                    stats.awaitRelease(Math.max(1, Math.min(BACKPRESSURE_POLL_MS, (deadline - System.nanoTime()) / 1000000L)));
+                    condition = isTierFull(len);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stats.reportStall(System.nanoTime() - begin);
+        }
 
         if (condition) {
             logger.info("MultiBlockOutputStream: Out of Memory! ( " + stats.getReportedUsage() + "+" + len + " / " + stats.getMaxCapacity() + " )");
@@ -135,7 +157,7 @@ public class MultiBlockOutputStream {
                         writeLen = (int) blockAvailable;    //there is no loss of precision from casting due to condition above
                     //there are different types (long and int) because the file can be size of long but buffer (from write) can only be the size of an int
 
-                    currentBlock.write(buff, buffOffset, writeLen);
+                    writeBlock(buff, buffOffset, writeLen);
                     bufferAvailable = bufferAvailable - writeLen;
                     currentStart += writeLen;
                     eosTotalBytes += writeLen;
@@ -160,7 +182,7 @@ public class MultiBlockOutputStream {
                 cf.addIncompleteBlock(currentBlock);
             }
 
-            currentBlock.write(buff, offset, len);
+            writeBlock(buff, offset, len);
             currentStart += len;
             currentLength += len;
             eosTotalBytes += len;
@@ -168,6 +190,18 @@ public class MultiBlockOutputStream {
         }
     }
 
+    private void writeBlock(byte[] buff, int offset, int len) throws IOException {
+        try {
+            currentBlock.write(buff, offset, len);
+        } catch (CacheOutOfMemoryException e) {
+            // Other writers took the buffers of the pool after the capacity check
+            logger.info("MultiBlockOutputStream: Out of Memory! ( buffer pool exhausted )");
+            cf.setPartialFile();
+            memoryFull = true;
+            throw e;
+        }
+    }
+
     public void close() throws IOException {
         if (!isClose) {
             if (currentStop == -1) {
@@ -206,15 +240,14 @@ public class MultiBlockOutputStream {
         if (logger.isDebugEnabled())
             logger.info("Creating new block Starting With (including) " + blockStart + " - Ending with (Including) " + blockStop);
         if (type == MBType.DISK)
-            return new FileBlock(blockStart, blockStop, settings.getMainFolder(), settings.getStateFolder(), cf, stats);
+            return ((DiskFile) cf).newBlock(blockStart, blockStop, stats);
         else return new MemoryBlock(blockStart, blockStop, settings.getStateFolder(), pool, cf, stats);
     }
 
     private boolean findValidStartStop() {
         synchronized (reservedRanges) {
-            MultiBlockUnifier rangeUnifier = new MultiBlockUnifier(reservedRanges);
-            BlockRange startRange = rangeUnifier.findBlockContainsRange(currentStart);
-            BlockRange emptySpace = rangeUnifier.findEmptySpace(startRange, currentStart, finalStop);
+            BlockRange startRange = reservedRanges.findExtent(currentStart);
+            BlockRange emptySpace = reservedRanges.findEmptySpace(currentStart, finalStop);
 
             if (startRange != null) {
 
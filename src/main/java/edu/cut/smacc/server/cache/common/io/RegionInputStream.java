@@ -0,0 +1,87 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads a region of a file that is shared with other readers and writers (e.g. a block in a
+ * segment file). The reads are positional, so the position of the channel is never changed,
+ * and the region can be sent with transferTo(WritableByteChannel) like a block file.
+ */
+public class RegionInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long end;
+    private final Runnable onClose;
+    private long position;
+    private boolean closed = false;
+
+    /**
+     * @param onClose called once when the stream is closed (e.g. to release the file)
+     */
+    public RegionInputStream(FileChannel channel, long position, long length, Runnable onClose) {
+        this.channel = channel;
+        this.position = position;
+        this.end = position + length;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return (read(one, 0, 1) == 1) ? (one[0] & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (position >= end)
+            return -1;
+        int n = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(len, end - position)), position);
+        if (n > 0)
+            position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    /**
+     * Send up to maxBytes of the rest of the region to the channel (zero copy)
+     *
+     * @return the number of bytes sent
+     */
+    public long transferTo(WritableByteChannel target, long maxBytes) throws IOException {
+        long length = Math.min(maxBytes, end - position);
+        long transferred = 0;
+        while (transferred < length) {
+            long n = channel.transferTo(position + transferred, length - transferred, target);
+            if (n <= 0 && position + transferred >= channel.size())
+                throw new IOException("Region is beyond the end of the file");
+            transferred += n;
+        }
+        position += transferred;
+        return transferred;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Streams a range of an object as a sequence of segments, some read from a cache file
+ * and some from the cloud. Each segment is opened when the previous one is exhausted,
+ * unless it was opened in advance.
+ */
+public class SegmentedInputStream extends InputStream {
+
+    /**
+     * Opens the stream of the segment with the given index
+     */
+    public interface SegmentOpener {
+        InputStream open(int segment) throws IOException;
+    }
+
+    private final InputStream[] streams;
+    private final SegmentOpener opener;
+    private final List<CacheFile> cacheFiles;
+    private final CacheFile s3File;
+    private int current;
+
+    /**
+     * @param streams    one slot per segment, holding the streams opened in advance (null for the rest)
+     * @param opener     opens the segments that were not opened in advance
+     * @param cacheFiles the cache files the segments are read from or written to
+     * @param s3File     the cloud file of the object
+     */
+    public SegmentedInputStream(InputStream[] streams, SegmentOpener opener, List<CacheFile> cacheFiles,
+                                CacheFile s3File) {
+        this.streams = streams;
+        this.opener = opener;
+        this.cacheFiles = cacheFiles;
+        this.s3File = s3File;
+        this.current = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int r;
+        do {
+            r = read(b, 0, 1);
+        } while (r == 0);
+        return (r == -1) ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buff, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+
+        while (current < streams.length) {
+            if (streams[current] == null)
+                streams[current] = opener.open(current);
+
+            int r = streams[current].read(buff, off, len);
+            if (r != -1)
+                return r;
+
+            streams[current].close();
+            streams[current] = null;
+            current++;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = current; i < streams.length; i++) {
+            if (streams[i] != null) {
+                try {
+                    streams[i].close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+                streams[i] = null;
+            }
+        }
+        current = streams.length;
+        if (failure != null)
+            throw failure;
+    }
+
+    public List<CacheFile> getCacheFiles() {
+        return cacheFiles;
+    }
+
+    public CacheFile getS3CacheFile() {
+        return s3File;
+    }
+
+}
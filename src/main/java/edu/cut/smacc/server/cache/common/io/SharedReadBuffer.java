@@ -0,0 +1,176 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the bytes of a cloud object while a single request is fetching it, so that
+ * concurrent requests for the same object can stream them as they arrive instead of
+ * issuing their own backend requests.
+ * The leader request opens the buffer once the object length is known and appends
+ * the bytes it reads. The buffer completes when all bytes are appended and fails
+ * if the leader stops early. It is cancelled if the object will not be shared.
+ * The leader and each attached reader hold a reference; the bytes are dropped when
+ * the last one detaches.
+ */
+public class SharedReadBuffer {
+
+    private static final int PAGE_SIZE = 64 * 1024;
+
+    private enum State { OPENING, STREAMING, COMPLETE, FAILED, CANCELLED }
+
+    private final List<byte[]> pages;
+    private State state;
+    private long length;
+    private long expectedLength;
+    private List<CacheFile> cacheFiles;
+    private int references;
+    private Runnable onFree;
+
+    public SharedReadBuffer() {
+        this.pages = new ArrayList<>();
+        this.state = State.OPENING;
+        this.length = 0;
+        this.expectedLength = -1;
+        this.cacheFiles = new ArrayList<>(0);
+        this.references = 1;    // the leader
+        this.onFree = null;
+    }
+
+    /**
+     * Start sharing the object. Called by the leader once the object length is known
+     * @param expectedLength the length of the object
+     * @param cacheFiles the cache files the leader is filling (empty if the object is not cached)
+     * @param onFree called once the bytes are dropped (may be null)
+     */
+    public synchronized void open(long expectedLength, List<CacheFile> cacheFiles, Runnable onFree) {
+        if (state != State.OPENING)
+            return;
+        this.expectedLength = expectedLength;
+        this.cacheFiles = cacheFiles;
+        this.onFree = onFree;
+        this.state = (expectedLength == 0) ? State.COMPLETE : State.STREAMING;
+        notifyAll();
+    }
+
+    /**
+     * The object will not be shared. Waiting readers must fetch it on their own
+     */
+    public synchronized void cancel() {
+        if (state == State.OPENING) {
+            state = State.CANCELLED;
+            notifyAll();
+        }
+    }
+
+    public synchronized void append(byte[] buff, int off, int len) {
+        if (state != State.STREAMING)
+            return;
+        while (len > 0) {
+            int pageOffset = (int) (length % PAGE_SIZE);
+            if (pageOffset == 0)
+                pages.add(new byte[PAGE_SIZE]);
+            int toCopy = Math.min(len, PAGE_SIZE - pageOffset);
+            System.arraycopy(buff, off, pages.get(pages.size() - 1), pageOffset, toCopy);
+            off += toCopy;
+            len -= toCopy;
+            length += toCopy;
+        }
+        if (length >= expectedLength)
+            state = State.COMPLETE;
+        notifyAll();
+    }
+
+    /**
+     * The leader stopped reading before the end of the object
+     */
+    public synchronized void fail() {
+        if (state == State.OPENING || state == State.STREAMING) {
+            state = State.FAILED;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Wait until the leader decides whether the object is shared
+     * @return true if the object is shared, false if the reader must fetch it on its own
+     */
+    public synchronized boolean awaitOpen() throws InterruptedIOException {
+        try {
+            while (state == State.OPENING)
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared read");
+        }
+        return state != State.CANCELLED;
+    }
+
+    /**
+     * Attach a reader to the shared bytes
+     * @return false if the bytes have already been dropped
+     */
+    public synchronized boolean attach() {
+        if (references == 0)
+            return false;
+        references++;
+        return true;
+    }
+
+    /**
+     * Release the reference of the leader or of an attached reader
+     */
+    public void detach() {
+        Runnable freed;
+        synchronized (this) {
+            if (references == 0 || --references > 0)
+                return;
+            pages.clear();
+            if (state == State.STREAMING)
+                state = State.FAILED;
+            freed = onFree;
+            onFree = null;
+        }
+        if (freed != null)
+            freed.run();
+    }
+
+    /**
+     * Read the bytes at the given position, waiting for the leader if they have not arrived yet
+     * @return the number of bytes read, or -1 at the end of the object
+     * @throws IOException if the leader failed before the requested bytes arrived
+     */
+    public synchronized int read(long position, byte[] buff, int off, int len) throws IOException {
+        try {
+            while (position >= length && state == State.STREAMING)
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared read");
+        }
+        if (position >= length) {
+            if (state == State.COMPLETE)
+                return -1;
+            throw new IOException("Shared read failed at position " + position);
+        }
+
+        int page = (int) (position / PAGE_SIZE);
+        int pageOffset = (int) (position % PAGE_SIZE);
+        int toCopy = (int) Math.min(Math.min(len, PAGE_SIZE - pageOffset), length - position);
+        System.arraycopy(pages.get(page), pageOffset, buff, off, toCopy);
+        return toCopy;
+    }
+
+    public synchronized long getExpectedLength() {
+        return expectedLength;
+    }
+
+    public synchronized List<CacheFile> getCacheFiles() {
+        return cacheFiles;
+    }
+
+}
@@ -0,0 +1,260 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct (off-heap) ByteBuffers carved from a fixed-size arena, so that the
+ * cached data does not live on the Java heap.
+ * <p>
+ * The arena is split into slabs that are allocated on demand, up to the arena capacity.
+ * Each slab is assigned to a size class (powers of two from the minimum chunk size up
+ * to the buffer capacity) and cut into chunks of that size, which are kept in the free
+ * list of the class. A request is served from its own class, then from a new slab, then
+ * from a larger class. When the arena is exhausted, the pool either reports that it has
+ * no capacity and hands out no buffers (so the memory tier behaves as full) or, if heap
+ * fallback is enabled, hands out heap buffers that are reported as overflow.
+ * <p>
+ * A slab keeps its size class for the lifetime of the pool: its free chunks are not given
+ * back to the arena, even when all of them are free. If the object sizes shift after the
+ * arena is allocated, a class may run out while the slabs of other classes are idle, which
+ * shows as fragmentation (getFragmentation) and is only resolved by a restart.
+ */
+public class SlabByteBufferPool extends ByteBufferPool {
+    private static final Logger logger = LogManager.getLogger(SlabByteBufferPool.class);
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final int[] classSizes;
+    private final List<ConcurrentLinkedQueue<ByteBuffer>> freeLists;
+    private final AtomicIntegerArray freeChunks;   // free chunks per size class
+    private final boolean heapFallback;
+
+    private final AtomicInteger slabs;        // slabs allocated so far
+    private final AtomicLong usedBytes;       // bytes of the chunks handed out
+    private final AtomicLong idleBytes;       // bytes of the free chunks of allocated slabs
+    private final AtomicLong overflowBytes;   // bytes of the heap buffers handed out
+    private volatile boolean directMemoryExhausted = false;
+
+    /**
+     * @param bufferCapacity the capacity of the largest buffer (the largest size class)
+     * @param arenaCapacity  the total bytes of the arena
+     * @param slabSize       the size of each slab (at least the buffer capacity)
+     * @param minChunkSize   the size of the smallest size class
+     * @param heapFallback   whether to hand out heap buffers when the arena is exhausted
+     */
+    public SlabByteBufferPool(int bufferCapacity, long arenaCapacity, int slabSize, int minChunkSize,
+                              boolean heapFallback) {
+        super(bufferCapacity);
+        this.slabSize = Math.max(slabSize, bufferCapacity);
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (arenaCapacity + this.slabSize - 1) / this.slabSize));
+        this.heapFallback = heapFallback;
+
+        List<Integer> sizes = new ArrayList<>();
+        for (long size = Math.max(1, minChunkSize); size < bufferCapacity; size <<= 1)
+            sizes.add((int) size);
+        sizes.add(bufferCapacity);
+        this.classSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        this.freeLists = new ArrayList<>(classSizes.length);
+        for (int i = 0; i < classSizes.length; i++)
+            freeLists.add(new ConcurrentLinkedQueue<>());
+        this.freeChunks = new AtomicIntegerArray(classSizes.length);
+
+        this.slabs = new AtomicInteger(0);
+        this.usedBytes = new AtomicLong(0);
+        this.idleBytes = new AtomicLong(0);
+        this.overflowBytes = new AtomicLong(0);
+    }
+
+    @Override
+    ByteBuffer acquireByteBuffer() {
+        return acquireByteBuffer(classSizes[classSizes.length - 1]);
+    }
+
+    /**
+     * @return a chunk of the arena, a heap buffer if the arena is exhausted and heap fallback is
+     * enabled, or null if the arena is exhausted without heap fallback
+     */
+    @Override
+    ByteBuffer acquireByteBuffer(int size) {
+        int sizeClass = classOf(size);
+
+        ByteBuffer chunk = pollChunk(sizeClass);
+        while (chunk == null && carveSlab(sizeClass))
+            chunk = pollChunk(sizeClass);
+        for (int larger = sizeClass + 1; chunk == null && larger < classSizes.length; larger++)
+            chunk = pollChunk(larger);
+
+        if (chunk == null) {
+            // The arena is exhausted (or another writer took the chunks after the capacity check)
+            if (!heapFallback) {
+                if (logger.isDebugEnabled()) logger.info("Slab arena exhausted");
+                return null;
+            }
+            if (logger.isDebugEnabled()) logger.info("Slab arena exhausted - allocating on heap");
+            overflowBytes.addAndGet(classSizes[sizeClass]);
+            return ByteBuffer.allocate(classSizes[sizeClass]);
+        }
+
+        idleBytes.addAndGet(-chunk.capacity());
+        usedBytes.addAndGet(chunk.capacity());
+        return chunk;
+    }
+
+    @Override
+    void releaseByteBuffer(ByteBuffer bb) {
+        if (bb == null) return;
+
+        if (!bb.isDirect()) {
+            overflowBytes.addAndGet(-bb.capacity());    // heap buffers are left to the garbage collector
+            return;
+        }
+
+        bb.clear();
+        usedBytes.addAndGet(-bb.capacity());
+        idleBytes.addAndGet(bb.capacity());
+        int sizeClass = classOf(bb.capacity());
+        freeLists.get(sizeClass).offer(bb);
+        freeChunks.incrementAndGet(sizeClass);
+    }
+
+    /**
+     * Free chunks of a smaller class cannot serve a larger request, so the check counts the
+     * full buffers the bytes need from the largest class and a chunk for the remainder.
+     */
+    @Override
+    public boolean hasCapacity(long bytes) {
+        if (heapFallback)
+            return true;
+
+        int top = classSizes.length - 1;
+        long fullBuffers = bytes / classSizes[top];
+        int remainder = (int) (bytes % classSizes[top]);
+        long missing = Math.max(0, fullBuffers - freeChunks.get(top));
+        int perSlab = slabSize / classSizes[top];
+        long slabsNeeded = (missing + perSlab - 1) / perSlab;
+
+        if (remainder > 0 && slabsNeeded * perSlab == missing) {
+            boolean free = missing == 0 && freeChunks.get(top) > fullBuffers;
+            for (int c = classOf(remainder); !free && c < top; c++)
+                free = freeChunks.get(c) > 0;
+            if (!free) slabsNeeded++;
+        }
+
+        long unallocated = directMemoryExhausted ? 0 : maxSlabs - slabs.get();
+        return slabsNeeded <= unallocated;
+    }
+
+    /**
+     * The slabs stay allocated for the lifetime of the pool
+     */
+    @Override
+    public void clear() {
+    }
+
+    private int classOf(int size) {
+        for (int i = 0; i < classSizes.length; i++)
+            if (classSizes[i] >= size)
+                return i;
+        return classSizes.length - 1;
+    }
+
+    private ByteBuffer pollChunk(int sizeClass) {
+        ByteBuffer chunk = freeLists.get(sizeClass).poll();
+        if (chunk != null)
+            freeChunks.decrementAndGet(sizeClass);
+        return chunk;
+    }
+
+    private boolean carveSlab(int sizeClass) {
+        int allocated;
+        do {
+            allocated = slabs.get();
+            if (allocated >= maxSlabs || directMemoryExhausted)
+                return false;
+        } while (!slabs.compareAndSet(allocated, allocated + 1));
+
+        ByteBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            slabs.decrementAndGet();
+            directMemoryExhausted = true;
+            logger.error("Could not allocate slab " + (allocated + 1) + "/" + maxSlabs
+                    + " - increase -XX:MaxDirectMemorySize to fit the memory tier capacity");
+            return false;
+        }
+
+        int chunkSize = classSizes[sizeClass];
+        int chunks = slabSize / chunkSize;
+        ConcurrentLinkedQueue<ByteBuffer> freeList = freeLists.get(sizeClass);
+        idleBytes.addAndGet((long) chunks * chunkSize);
+        for (int i = 0; i < chunks; i++)
+            freeList.offer(slab.slice(i * chunkSize, chunkSize));
+        freeChunks.addAndGet(sizeClass, chunks);
+
+        if (logger.isDebugEnabled())
+            logger.info("Slab " + (allocated + 1) + "/" + maxSlabs + " carved into " + chunks + " chunks of "
+                    + chunkSize + " bytes - utilization: " + getUtilization() + ", fragmentation: " + getFragmentation());
+        return true;
+    }
+
+    /**
+     * @return the capacity of the arena in bytes
+     */
+    public long getArenaCapacity() {
+        return (long) maxSlabs * slabSize;
+    }
+
+    /**
+     * @return the bytes of the slabs allocated so far
+     */
+    public long getAllocatedBytes() {
+        return (long) slabs.get() * slabSize;
+    }
+
+    /**
+     * @return the bytes of the chunks that hold data
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * @return the bytes of the free chunks of allocated slabs (reserved by a size class but unused)
+     */
+    public long getIdleBytes() {
+        return idleBytes.get();
+    }
+
+    /**
+     * @return the bytes of the heap buffers handed out because the arena was exhausted
+     */
+    public long getOverflowBytes() {
+        return overflowBytes.get();
+    }
+
+    /**
+     * @return the fraction of the arena that holds data
+     */
+    public double getUtilization() {
+        return (double) usedBytes.get() / getArenaCapacity();
+    }
+
+    /**
+     * @return the fraction of the allocated slabs that is free but reserved by a size class
+     */
+    public double getFragmentation() {
+        long allocated = getAllocatedBytes();
+        return (allocated == 0) ? 0 : (double) idleBytes.get() / allocated;
+    }
+
+}
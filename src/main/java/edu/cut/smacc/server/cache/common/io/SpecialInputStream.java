@@ -2,8 +2,11 @@ package edu.cut.smacc.server.cache.common.io;
 
 import edu.cut.smacc.server.cache.common.CacheFile;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * This class helps to decrease a lock that is used in order to know how many readers a file has.
@@ -61,6 +64,47 @@ public class SpecialInputStream extends InputStream {
         }
     }
 
+    /**
+     * @return true if the file is stored in block files that can be sent with transferTo(WritableByteChannel)
+     */
+    public boolean isTransferable() {
+        return internalin instanceof FileInputStream || internalin instanceof RegionInputStream
+                || internalin instanceof MappedInputStream
+                || (internalin instanceof MultiBlockInputStream multiIn && multiIn.isTransferable());
+    }
+
+    /**
+     * Send the rest of the file to the channel straight from the block files (zero copy)
+     *
+     * @return the number of bytes sent
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        try {
+            long sent;
+            if (internalin instanceof MultiBlockInputStream multiIn) {
+                sent = multiIn.transferTo(target);
+            } else if (internalin instanceof RegionInputStream regionIn) {
+                sent = regionIn.transferTo(target, Long.MAX_VALUE);
+            } else if (internalin instanceof MappedInputStream mappedIn) {
+                sent = mappedIn.transferTo(target, Long.MAX_VALUE);
+            } else {
+                FileChannel channel = ((FileInputStream) internalin).getChannel();
+                long position = channel.position();
+                long size = channel.size();
+                sent = 0;
+                while (position + sent < size)
+                    sent += channel.transferTo(position + sent, size - position - sent, target);
+                channel.position(size);
+            }
+            decreaseRead(internalin);
+            return sent;
+            //make sure that in an error we unlock the file so it can be deleted
+        } catch (IOException e) {
+            close();
+            throw new IOException(e);
+        }
+    }
+
     public void reset() throws IOException {
         try {
             internalin.reset();
@@ -100,7 +144,10 @@ public class SpecialInputStream extends InputStream {
     }
 
     public void close() throws IOException {
-        decreaseRead(internalin);
+        if (alreaadyDecreased)
+            internalin.close();    // the reader was released at the end of the stream
+        else
+            decreaseRead(internalin);
         //the decReadQueue handles to close connection, because it's syn and that makes sure file won't move
     }
 
@@ -0,0 +1,19 @@
+package edu.cut.smacc.server.cache.common.io;
+
+/**
+ * Notified of the allocations of a storage device (e.g. to trigger eviction)
+ */
+public interface UsageListener {
+
+    /**
+     * Called after the usage of the device has grown (on the allocating thread, so it must be cheap)
+     */
+    void onAllocation(UsageStats stats);
+
+    /**
+     * Called after a writer has waited for space on the full device
+     */
+    default void onStall(UsageStats stats, long stallNanos) {
+    }
+
+}
@@ -1,6 +1,7 @@
 package edu.cut.smacc.server.cache.common.io;
 
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -14,6 +15,8 @@ public class UsageStats {
     private AtomicLong actualUsage; // total bytes used based on BB capacity
     private UsageStats parentStats; // stats for parent object, maybe null
     private long maxCapacity = 0;
+    private volatile UsageListener listener = null;
+    private final AtomicInteger releaseWaiters = new AtomicInteger(0);
 
     public UsageStats() {
         this.reportedUsage = new AtomicLong(0L);
@@ -45,6 +48,10 @@ public class UsageStats {
         return maxCapacity;
     }
 
+    public void setListener(UsageListener listener) {
+        this.listener = listener;
+    }
+
     public long getReportedUsage() {
         return this.reportedUsage.get();
     }
@@ -73,6 +80,12 @@ public class UsageStats {
             } while (!actualUsage.compareAndSet(oldValue, newValue));
         }
 
+        if (releaseWaiters.get() > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
         if (this.parentStats != null)
             this.parentStats.decrement(reported, actual);
     }
@@ -80,6 +93,7 @@ public class UsageStats {
     void increment(long reported, long actual) {
         this.reportedUsage.addAndGet(reported);
         this.actualUsage.addAndGet(actual);
+        notifyAllocation();
         if (this.parentStats != null)
             this.parentStats.increment(reported, actual);
     }
@@ -87,10 +101,42 @@ public class UsageStats {
     public void increment(long actual) {
         this.reportedUsage.addAndGet(actual);
         this.actualUsage.addAndGet(actual);
+        notifyAllocation();
         if (this.parentStats != null)
             this.parentStats.increment(actual);
     }
 
+    private void notifyAllocation() {
+        UsageListener current = listener;
+        if (current != null)
+            current.onAllocation(this);
+    }
+
+    /**
+     * Wait until some space is released (or the timeout expires). The listener is notified
+     * first, so that space is reclaimed even if nothing was allocated since the last check.
+     */
+    public void awaitRelease(long timeoutMs) throws InterruptedException {
+        notifyAllocation();
+        releaseWaiters.incrementAndGet();
+        try {
+            synchronized (this) {
+                wait(timeoutMs);
+            }
+        } finally {
+            releaseWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Report that a writer waited for space on this device
+     */
+    public void reportStall(long stallNanos) {
+        UsageListener current = listener;
+        if (current != null)
+            current.onStall(this, stallNanos);
+    }
+
     @Override
     public String toString() {
         return "MemoryStats [reported=" + reportedUsage + ", actual="
@@ -38,22 +38,44 @@ public class DiskFile extends CacheFileBase {
 
     //this constructor is secondary constructor and is used in recovery only
     DiskFile(StoreSettings settings, int diskNumber, DiskManager diskManager, FilenameFeatureExtractor features) {
-        super(features.getBucket(), features.getKey(), settings);
-        state = features.getState();
+        this(settings, diskNumber, diskManager, features.getBucket(), features.getKey(), features.getState(),
+                features.getVersion());
+    }
+
+    DiskFile(StoreSettings settings, int diskNumber, DiskManager diskManager, String bucket, String key,
+             StateType state, long version) {
+        super(bucket, key, settings);
+        this.state = state;
         this.diskNumber = diskNumber;
         this.cacheManager = diskManager;
         this.diskStats = settings.getStats();
-        setVersion(features.getVersion());    // set version at the end of the constructor
+        setVersion(version);    // set version at the end of the constructor
     }
 
     void recoverBlock(File blockFile) {
-        cameFromRecovery = true;
         FilenameFeatureExtractor mainFileFeatures = new FilenameFeatureExtractor(blockFile.getName());
-        FileBlock newBlock = new FileBlock(mainFileFeatures, state, settings, this);
-        reservedRanges.add(mainFileFeatures.getRange());
+        recoverBlock(new FileBlock(mainFileFeatures, state, settings, this,
+                ((DiskManager) cacheManager).getJournal(diskNumber)), mainFileFeatures.isPartial());
+    }
+
+    void recoverBlock(CacheBlock newBlock, boolean partial) {
+        cameFromRecovery = true;
+        reservedRanges.add(newBlock.getRange());
         fileBlocks.add(newBlock);
+        blockIndex.add(newBlock);
         /* in this case file is either complete without being partial, or it is pushed (which by default can't be partial file) */
-        isPartialFile = mainFileFeatures.isPartial();
+        isPartialFile = partial;
+    }
+
+    /**
+     * Create a new block with the storage engine of the disk tier
+     */
+    public CacheBlock newBlock(long start, long stop, UsageStats stats) throws IOException {
+        return ((DiskManager) cacheManager).newBlock(this, start, stop, stats);
+    }
+
+    MappedBlockCache getMappedBlocks() {
+        return ((DiskManager) cacheManager).getMappedBlocks();
     }
 
     int getDiskNumber() {
@@ -104,10 +126,10 @@ public class DiskFile extends CacheFileBase {
                         //	index because we know the in between blocks are available. Because the inRange() has to be called before calling getInputStream
                     }
 
-                    return new SpecialInputStream(new MultiBlockInputStream(0, stopsAt, fileBlocks), this);
+                    return new SpecialInputStream(new MultiBlockInputStream(0, stopsAt, blockIndex.getItems(0, stopsAt)), this);
                 } else if (cameFromRecovery) /* In case of reading from a recovered pushed file in order to upload to s3 */ {
                     long stopsAt = findLastIndex();
-                    return new SpecialInputStream(new MultiBlockInputStream(0, stopsAt, fileBlocks), this);
+                    return new SpecialInputStream(new MultiBlockInputStream(0, stopsAt, blockIndex.getItems(0, stopsAt)), this);
                 }
             }
             return null;
@@ -128,7 +150,7 @@ public class DiskFile extends CacheFileBase {
 
             if (!deleteFlag) {
                 readCounter.incrementAndGet();
-                return new SpecialInputStream(new MultiBlockInputStream(start, stop, fileBlocks), this);
+                return new SpecialInputStream(new MultiBlockInputStream(start, stop, blockIndex.getItems(start, stop)), this);
             } else {
                 logger.error("Requesting input stream from a marked deleted file");
                 return null;
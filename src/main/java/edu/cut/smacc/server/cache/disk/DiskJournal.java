@@ -0,0 +1,284 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.server.cache.common.StateType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A write-ahead journal of the block files of a disk volume, so the recovery does not have to
+ * list the volume and match every state file against every block file.
+ * <p>
+ * Each creation, completion, push, obsolescence and deletion of a block file is appended to the
+ * journal log, and the journal keeps the state of every block file by its name. After a number of
+ * records, the log is rotated and the state is written to a snapshot, which covers the older logs.
+ * The recovery loads the snapshot and replays the logs after it.
+ * <p>
+ * A record is appended before the file operation it describes and the operation runs under the
+ * journal lock, so a snapshot never holds an operation that has not happened. The exception is
+ * the deletion, which is appended after the files are deleted. A crash between a record and its
+ * operation leaves a block whose file is missing, which the recovery drops, or a temporary file
+ * that the recovery deletes. The log is flushed on every record but not synced.
+ */
+class DiskJournal {
+    private static final Logger logger = LogManager.getLogger(DiskJournal.class);
+
+    private static final String SNAPSHOT = "journal.snapshot";
+    private static final String LOG_PREFIX = "journal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    enum Op {
+        CREATE, COMPLETE, PUSH, OBSOLETE, DELETE
+    }
+
+    /**
+     * A file operation that runs under the journal lock
+     */
+    interface Action {
+        void run() throws IOException;
+    }
+
+    /**
+     * The block files of the journal: the state of each block file and the temporary files,
+     * which belong to blocks that were never completed (or whose rename may not have happened)
+     */
+    record State(LinkedHashMap<String, StateType> blocks, Set<String> temporaryFiles) {
+    }
+
+    private final File folder;
+    private final long snapshotRecords;
+    private State state;
+    private DataOutputStream log;
+    private long logId;
+    private long records = 0;
+    private boolean snapshotting = false;
+    private boolean closed = false;
+
+    DiskJournal(String folder, long snapshotRecords) {
+        this.folder = new File(folder);
+        this.snapshotRecords = snapshotRecords;
+    }
+
+    /**
+     * Delete the journal of a volume that is written without a journal, since it would go stale
+     */
+    static void discard(String folder) {
+        File[] files = new File(folder).listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+    }
+
+    /**
+     * @return true if the volume has a journal to recover from
+     */
+    boolean exists() {
+        return new File(folder, SNAPSHOT).exists() || !listLogs().isEmpty();
+    }
+
+    private List<Long> listLogs() {
+        List<Long> ids = new ArrayList<>();
+        String[] names = folder.list();
+        if (names != null)
+            for (String name : names)
+                if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    try {
+                        ids.add(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private File logFile(long id) {
+        return new File(folder, String.format("%s%012d%s", LOG_PREFIX, id, LOG_SUFFIX));
+    }
+
+    /**
+     * Load the snapshot and replay the logs after it. The temporary files of the replayed
+     * completions and pushes are returned too, in case their rename did not happen.
+     */
+    State recover() throws IOException {
+        State recovered = new State(new LinkedHashMap<>(), new HashSet<>());
+        long firstLog = 0;
+        File snapshot = new File(folder, SNAPSHOT);
+        if (snapshot.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+                firstLog = in.readLong();
+                int blocks = in.readInt();
+                for (int i = 0; i < blocks; i++) {
+                    StateType blockState = StateType.values()[in.readByte()];
+                    recovered.blocks().put(in.readUTF(), blockState);
+                }
+                int temporaryFiles = in.readInt();
+                for (int i = 0; i < temporaryFiles; i++)
+                    recovered.temporaryFiles().add(in.readUTF());
+            }
+        }
+
+        for (long id : listLogs()) {
+            if (id < firstLog)
+                continue;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile(id))))) {
+                while (true) {
+                    Op op;
+                    String name, newName = null;
+                    try {
+                        int ordinal = in.readByte();
+                        if (ordinal < 0 || ordinal >= Op.values().length)
+                            break;    // a record torn by a crash
+                        op = Op.values()[ordinal];
+                        name = in.readUTF();
+                        if (op == Op.COMPLETE || op == Op.PUSH)
+                            newName = in.readUTF();
+                    } catch (EOFException | UTFDataFormatException e) {
+                        break;    // the end of the log or a record torn by a crash
+                    }
+                    if (name.isEmpty() || (newName != null && newName.isEmpty()))
+                        break;
+                    apply(recovered, op, name, newName, true);
+                }
+            }
+        }
+        if (logger.isDebugEnabled())
+            logger.info("Recovery[D]: Journal of " + folder + " has " + recovered.blocks().size() + " blocks");
+        return recovered;
+    }
+
+    private static void apply(State state, Op op, String name, String newName, boolean replay) {
+        switch (op) {
+            case CREATE -> state.temporaryFiles().add(name);
+            case COMPLETE, PUSH -> {
+                if (!replay)
+                    state.temporaryFiles().remove(name);
+                state.blocks().put(newName, (op == Op.COMPLETE) ? StateType.COMPLETE : StateType.TOBEPUSHED);
+            }
+            case OBSOLETE -> state.blocks().replace(name, StateType.OBSOLETE);
+            case DELETE -> {
+                state.temporaryFiles().remove(name);
+                state.blocks().remove(name);
+            }
+        }
+    }
+
+    /**
+     * Start a new journal with the given blocks, replacing the previous one
+     */
+    synchronized void start(LinkedHashMap<String, StateType> blocks) throws IOException {
+        folder.mkdirs();
+        List<Long> logs = listLogs();
+        logId = logs.isEmpty() ? 0 : logs.get(logs.size() - 1) + 1;
+        state = new State(blocks, new HashSet<>());
+        writeSnapshot(logId, new State(new LinkedHashMap<>(blocks), new HashSet<>()));
+        log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile(logId))));
+        records = 0;
+    }
+
+    /**
+     * Append a record and run the file operation it describes
+     *
+     * @param name    the block file (or the temporary file of a completion or push)
+     * @param newName the block file of a completion or push
+     */
+    void append(Op op, String name, String newName, Action action) throws IOException {
+        boolean rotate;
+        synchronized (this) {
+            if (closed) {
+                action.run();
+                return;
+            }
+            if (log == null)
+                start(new LinkedHashMap<>());    // not recovered from this journal
+            if (op == Op.DELETE)
+                action.run();
+            log.writeByte(op.ordinal());
+            log.writeUTF(name);
+            if (op == Op.COMPLETE || op == Op.PUSH)
+                log.writeUTF(newName);
+            log.flush();
+            apply(state, op, name, newName, false);
+            if (op != Op.DELETE)
+                action.run();
+            rotate = ++records >= snapshotRecords && !snapshotting;
+            if (rotate)
+                snapshotting = true;
+        }
+        if (rotate)
+            rotate();
+    }
+
+    /**
+     * Switch to a new log and write the snapshot of the state at the switch outside the lock
+     */
+    private void rotate() {
+        long covered;
+        State copy;
+        synchronized (this) {
+            try {
+                log.close();
+                log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile(++logId))));
+            } catch (IOException e) {
+                logger.error("Could not rotate disk journal: " + e.getMessage());
+                snapshotting = false;
+                return;
+            }
+            records = 0;
+            covered = logId;
+            copy = new State(new LinkedHashMap<>(state.blocks()), new HashSet<>(state.temporaryFiles()));
+        }
+        try {
+            writeSnapshot(covered, copy);
+        } catch (IOException e) {
+            logger.error("Could not write disk journal snapshot: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                snapshotting = false;
+            }
+        }
+    }
+
+    private void writeSnapshot(long firstLog, State snapshotState) throws IOException {
+        File temporary = new File(folder, SNAPSHOT + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeLong(firstLog);
+            out.writeInt(snapshotState.blocks().size());
+            for (Map.Entry<String, StateType> entry : snapshotState.blocks().entrySet()) {
+                out.writeByte(entry.getValue().ordinal());
+                out.writeUTF(entry.getKey());
+            }
+            out.writeInt(snapshotState.temporaryFiles().size());
+            for (String name : snapshotState.temporaryFiles())
+                out.writeUTF(name);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary.toPath(), new File(folder, SNAPSHOT).toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        for (long id : listLogs())
+            if (id < firstLog)
+                logFile(id).delete();
+    }
+
+    /**
+     * Write a snapshot of the current state, so the next recovery does not replay the log
+     */
+    synchronized void shutdown() {
+        closed = true;
+        if (log == null)
+            return;
+        try {
+            log.close();
+            log = null;
+            writeSnapshot(logId + 1, state);
+        } catch (IOException e) {
+            logger.error("Could not write disk journal snapshot: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package edu.cut.smacc.server.cache.disk;
 
 import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheBlock;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.CacheManagerBase;
 import edu.cut.smacc.server.cache.common.FilenameFeatureExtractor;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StateType;
 import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
 import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
 import edu.cut.smacc.server.cache.policy.selection.DiskSelectionPolicy;
 
@@ -17,6 +21,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The disk manager controls the DiskFiles
@@ -31,6 +40,12 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
     private final HashMap<Integer, StoreSettings> diskSettings; // <MountPoint, Capacity>
     private final DiskSelectionPolicy diskSelectionPolicy;
     private final boolean isActive;
+    private final HashMap<Integer, SegmentStore> segmentStores; // null with the file storage engine
+    private final HashMap<Integer, DiskJournal> journals; // null without the metadata journal
+    private final MappedBlockCache mappedBlocks; // null without memory-mapped reads
+    private Thread compactor;
+    private final AtomicInteger recoveredVolumes = new AtomicInteger();
+    private final AtomicLong recoveredFiles = new AtomicLong();
 
     public DiskManager(HashMap<Integer, StoreSettings> diskSettings, Configuration configuration,
                        CachePolicyNotifier policyNotifier) {
@@ -38,6 +53,60 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
         this.diskSettings = diskSettings;
         this.diskSelectionPolicy = DiskSelectionPolicy.getInstance(configuration);
         isActive = diskSettings != null && !diskSettings.isEmpty();
+
+        String engine = configuration.getString(ServerConfigurations.CACHE_DISK_STORAGE_ENGINE_KEY,
+                ServerConfigurations.CACHE_DISK_STORAGE_ENGINE_DEFAULT);
+        if (isActive && engine.equalsIgnoreCase("segment")) {
+            long segmentSize = configuration.getLong(ServerConfigurations.CACHE_DISK_SEGMENT_SIZE_KEY,
+                    ServerConfigurations.CACHE_DISK_SEGMENT_SIZE_DEFAULT);
+            double threshold = configuration.getDouble(ServerConfigurations.CACHE_DISK_SEGMENT_COMPACTION_THRESHOLD_KEY,
+                    ServerConfigurations.CACHE_DISK_SEGMENT_COMPACTION_THRESHOLD_DEFAULT);
+            segmentStores = new HashMap<>();
+            for (Map.Entry<Integer, StoreSettings> entry : diskSettings.entrySet())
+                segmentStores.put(entry.getKey(),
+                        new SegmentStore(entry.getValue().getMainFolder(), segmentSize, threshold));
+        } else {
+            if (!engine.equalsIgnoreCase("file"))
+                logger.error("Unknown disk storage engine " + engine + " - using file");
+            segmentStores = null;
+        }
+
+        boolean journal = configuration.getBoolean(ServerConfigurations.CACHE_DISK_JOURNAL_ENABLED_KEY,
+                ServerConfigurations.CACHE_DISK_JOURNAL_ENABLED_DEFAULT);
+        if (journal && !configuration.getBoolean(ServerConfigurations.CACHE_RECOVERY_ACTIVATE_KEY,
+                ServerConfigurations.CACHE_RECOVERY_ACTIVATE_DEFAULT)) {
+            // A journal started without a recovery would not list the block files already on the volumes
+            logger.info("Disk journal disabled without cache recovery");
+            journal = false;
+        }
+        if (isActive && segmentStores == null && journal) {
+            long snapshotRecords = configuration.getLong(ServerConfigurations.CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_KEY,
+                    ServerConfigurations.CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_DEFAULT);
+            journals = new HashMap<>();
+            for (Map.Entry<Integer, StoreSettings> entry : diskSettings.entrySet())
+                journals.put(entry.getKey(), new DiskJournal(journalFolder(entry.getValue()), snapshotRecords));
+        } else {
+            journals = null;
+            if (isActive)
+                for (StoreSettings settings : diskSettings.values())
+                    DiskJournal.discard(journalFolder(settings));
+        }
+
+        long mmapCapacity = configuration.getLong(ServerConfigurations.CACHE_DISK_MMAP_CAPACITY_KEY,
+                ServerConfigurations.CACHE_DISK_MMAP_CAPACITY_DEFAULT);
+        mappedBlocks = (isActive && segmentStores == null && mmapCapacity > 0) ? new MappedBlockCache(mmapCapacity) : null;
+    }
+
+    private static String journalFolder(StoreSettings settings) {
+        return settings.getStateFolder() + "journal";
+    }
+
+    DiskJournal getJournal(int diskNumber) {
+        return (journals == null) ? null : journals.get(diskNumber);
+    }
+
+    MappedBlockCache getMappedBlocks() {
+        return mappedBlocks;
     }
 
     @Override
@@ -49,54 +118,84 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
 
     @Override
     public DiskFile create(String bucket, String key) throws IOException {
-        DiskFile diskfile;
-        StoreSettings selectedSettings = null;
-        synchronized (cacheMapping) {
-            touchBucket(bucket); // if bucket does not exist create a record
-
-            Set<Integer> settingsIndices = diskSettings.keySet();
-            int selectedDiskIndex = diskSelectionPolicy.getDiskIndex(diskSettings);
-            for (Integer i : settingsIndices) {
-                if (i == selectedDiskIndex)
-                    selectedSettings = diskSettings.get(i);
-            }
-            if (selectedSettings == null) throw new IOException("Disk Index not found");
-            diskfile = new DiskFile(bucket, key, selectedSettings, selectedDiskIndex, this);
+        StoreSettings selectedSettings;
+        int selectedDiskIndex;
+        synchronized (diskSelectionPolicy) {
+            selectedDiskIndex = diskSelectionPolicy.getDiskIndex(diskSettings);
+            selectedSettings = diskSettings.get(selectedDiskIndex);
+        }
+        if (selectedSettings == null) throw new IOException("Disk Index not found");
+        return new DiskFile(bucket, key, selectedSettings, selectedDiskIndex, this);
+    }
+
+    /**
+     * Create a block of the file with the storage engine of the disk tier
+     */
+    CacheBlock newBlock(DiskFile file, long start, long stop, UsageStats stats) throws IOException {
+        if (segmentStores == null) {
+            StoreSettings settings = diskSettings.get(file.getDiskNumber());
+            return new FileBlock(start, stop, settings.getMainFolder(), settings.getStateFolder(), file, stats,
+                    getJournal(file.getDiskNumber()));
         }
-        return diskfile;
+        startCompactor();
+        return new SegmentBlock(start, stop, segmentStores.get(file.getDiskNumber()), file, stats);
+    }
+
+    private synchronized void startCompactor() {
+        if (compactor != null)
+            return;
+        compactor = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                compactSegments();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "segment-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**
+     * @return the number of compacted segments
+     */
+    int compactSegments() {
+        int compacted = 0;
+        if (segmentStores != null)
+            for (SegmentStore store : segmentStores.values())
+                compacted += store.compact();
+        return compacted;
     }
 
     @Override
     public InputStream read(String bucket, String key) throws IOException {
-        synchronized (this.cacheMapping) {
-            try {
-                if (fileDoesNotExist(bucket, key) || fileIsPartial(bucket, key)) {
-                    return null;
-                }
-                CacheFile cacheFile = this.cacheMapping.get(bucket).get(key);
-                policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
-                return cacheFile.getInputStream();
-            } catch (FileNotFoundException e) {
-                logger.error(e.getMessage());
+        try {
+            CacheFile cacheFile = getReadableFile(bucket, key, true);
+            if (cacheFile == null) {
                 return null;
             }
+            policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
+            return cacheFile.getInputStream();
+        } catch (FileNotFoundException e) {
+            logger.error(e.getMessage());
+            return null;
         }
     }
 
     @Override
     public InputStream read(String bucket, String key, long start, long stop) throws IOException {
-        synchronized (this.cacheMapping) {
-            try {
-                if (fileDoesNotExist(bucket, key)) {
-                    return null;
-                }
-                CacheFile cacheFile = this.cacheMapping.get(bucket).get(key);
-                policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
-                return ((DiskFile) cacheFile).getInputStream(start, stop);
-            } catch (FileNotFoundException e) {
-                logger.error(e.getMessage());
+        try {
+            CacheFile cacheFile = getReadableFile(bucket, key, false);
+            if (cacheFile == null) {
                 return null;
             }
+            policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
+            return ((DiskFile) cacheFile).getInputStream(start, stop);
+        } catch (FileNotFoundException e) {
+            logger.error(e.getMessage());
+            return null;
         }
     }
 
@@ -120,23 +219,15 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
 
     @Override
     public long getCacheFilesCount() {
-        long count = 0;
-        synchronized (cacheMapping) {
-            for (String bucket : cacheMapping.keySet())
-                count += cacheMapping.get(bucket).size();
-        }
-        return count;
+        return cacheMapping.size();
     }
 
     public ArrayList<CacheFile> getDiskCacheFiles(Integer integer) {
         ArrayList<CacheFile> files = new ArrayList<>();
-        synchronized (cacheMapping) {
-            for (String bucket : cacheMapping.keySet())
-                for (String key : cacheMapping.get(bucket).keySet()) {
-                    DiskFile file = (DiskFile) cacheMapping.get(bucket).get(key);
-                    if (file.getDiskNumber() == integer)
-                        files.add(file);
-                }
+        for (CacheFile cacheFile : cacheMapping.values()) {
+            DiskFile file = (DiskFile) cacheFile;
+            if (file.getDiskNumber() == integer)
+                files.add(file);
         }
         return files;
     }
@@ -154,16 +245,25 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
         return diskSettings.get(integer).getStats().getReportedUsage();
     }
 
-    private void touchBucket(String bucket) {
-        synchronized (cacheMapping) {
-            if (!cacheMapping.containsKey(bucket))
-                cacheMapping.put(bucket, new HashMap<>()); // create bucket record
-        }
+    /**
+     * @return the volumes whose files have been recovered (the recovery progress)
+     */
+    public int getRecoveredVolumes() {
+        return recoveredVolumes.get();
+    }
+
+    public long getRecoveredFiles() {
+        return recoveredFiles.get();
+    }
+
+    public int getVolumeCount() {
+        return isActive ? diskSettings.size() : 0;
     }
 
     public boolean isComplete(String bucket, String key) throws FileNotFoundException {
-        if (!containsObject(bucket, key)) throw new FileNotFoundException("File not found!");
-        return cacheMapping.get(bucket).get(key).isComplete();
+        CacheFile file = getFile(bucket, key);
+        if (file == null) throw new FileNotFoundException("File not found!");
+        return file.isComplete();
     }
 
     public HashMap<String, DiskFile> initiateRecovery() {
@@ -171,103 +271,263 @@ public class DiskManager extends CacheManagerBase {  // o disk manager tha vazi
         if (diskSettings == null)
             return returnLists;    // do not initialize since there are no configurations for disks
 
-        //Disk Recovery
-        StoreSettings settings;
+        //Disk Recovery - a thread per volume
+        ExecutorService volumeRecovery = Executors.newFixedThreadPool(diskSettings.size());
         try {
-            Set<Integer> settingsIndeces = diskSettings.keySet();
-            for (Integer diski : settingsIndeces) {
-                settings = diskSettings.get(diski);
-
-                File statefolder = new File(settings.getStateFolder());
-                File mainfolder = new File(settings.getMainFolder());
+            List<Future<HashMap<String, DiskFile>>> volumes = new ArrayList<>();
+            for (Integer diski : new TreeSet<>(diskSettings.keySet()))
+                volumes.add(volumeRecovery.submit(() -> recoverVolume(diski)));
+            for (Future<HashMap<String, DiskFile>> volume : volumes) {
+                for (Map.Entry<String, DiskFile> entry : volume.get().entrySet()) {
+                    // An object found on two volumes keeps its newest version
+                    DiskFile file = entry.getValue();
+                    DiskFile other = returnLists.putIfAbsent(entry.getKey(), file);
+                    if (other != null && other.getVersion() < file.getVersion()) {
+                        returnLists.put(entry.getKey(), file);
+                        other.delete();
+                    } else if (other != null)
+                        file.delete();
+                }
+            }
+            for (DiskFile file : returnLists.values())
+                put(file.getBucket(), file.getKey(), file);
+            return returnLists;
+        } catch (Exception e) {
+            logger.fatal("Initial Recovery: " + e.getMessage(), e);
+            e.printStackTrace();
+            return null;
+        } finally {
+            volumeRecovery.shutdown();
+        }
+    }
 
-                File[] mainlistOfFiles = mainfolder.listFiles();
+    /**
+     * Recover the files of a volume, without making them visible
+     */
+    private HashMap<String, DiskFile> recoverVolume(int diski) throws IOException {
+        HashMap<String, DiskFile> returnLists = new HashMap<>();
+        StoreSettings settings = diskSettings.get(diski);
+        if (segmentStores != null) {
+            recoverSegments(diski, segmentStores.get(diski), returnLists);
+        } else {
+            DiskJournal journal = getJournal(diski);
+            if (journal != null && journal.exists())
+                recoverJournal(diski, settings, journal, returnLists);
+            else
+                scanVolume(diski, settings, journal, returnLists);
+        }
+        if (logger.isDebugEnabled())
+            logger.info("Recovery[D]: Volume " + diski + " has " + returnLists.size() + " files");
+        recoveredVolumes.incrementAndGet();
+        recoveredFiles.addAndGet(returnLists.size());
+        return returnLists;
+    }
 
-                if (mainlistOfFiles != null) {
-                    //	Delete incomplete files
-                    for (File file : mainlistOfFiles) {
-                        if (file.isFile()) {
-                            if (!file.getName().contains("##")) {
-                                if (logger.isDebugEnabled())
-                                    logger.info("Delete Incomplete DiskFile " + file.getName());
-                                file.delete();
-                                //	Incomplete files does not have a state file
-                            }
-                        }
+    /**
+     * Recover the files of a volume by matching its state files against its block files
+     */
+    private void scanVolume(int diski, StoreSettings settings, DiskJournal journal,
+                            HashMap<String, DiskFile> returnLists) throws IOException {
+        LinkedHashMap<String, StateType> journaled = new LinkedHashMap<>();
+
+        File statefolder = new File(settings.getStateFolder());
+        File mainfolder = new File(settings.getMainFolder());
+
+        File[] mainlistOfFiles = mainfolder.listFiles();
+
+        if (mainlistOfFiles != null) {
+            //	Delete incomplete files
+            for (File file : mainlistOfFiles) {
+                if (file.isFile()) {
+                    if (!file.getName().contains("##")) {
+                        if (logger.isDebugEnabled())
+                            logger.info("Delete Incomplete DiskFile " + file.getName());
+                        file.delete();
+                        //	Incomplete files does not have a state file
                     }
                 }
+            }
+        }
 
 
-                mainlistOfFiles = mainfolder.listFiles();
-                File[] statelistOfFiles = statefolder.listFiles();
-                File mainFile;
-                FilenameFeatureExtractor mainFileFeatures;
-
-                if (mainlistOfFiles != null && statelistOfFiles != null) {
-                    //	Recover complete or pushed files and delete obsolete files
-                    for (File statelistOfFile : statelistOfFiles) {
-                        if (statelistOfFile.isFile()) {
-                            if (statelistOfFile.getName().contains("##")) {
-                                String stateFilename = statelistOfFile.getName();
-                                FilenameFeatureExtractor features = new FilenameFeatureExtractor(stateFilename);
-                                if (features.isCacheFile()) {
-                                    //	Find main file
-                                    mainFile = null;
-
-                                    for (File file : mainlistOfFiles)
-                                        if (file.isFile()) {
-                                            mainFileFeatures = new FilenameFeatureExtractor(file.getName());
-                                            if (mainFileFeatures.equals(
-                                                    new FilenameFeatureExtractor(statelistOfFile.getName()), true)
-                                                    &&
-                                                    mainFileFeatures.getRange().getLength() == file.length()) {
-                                                mainFile = file;
-                                                break;
-                                            } else if (mainFileFeatures.isCacheFile() && mainFileFeatures.getRange().getLength() != file.length())
-                                                file.delete();
-                                        }
-
-                                    //	Delete file if obsolete (check must be done after finding the main file)
-                                    if (features.isObsolete()) {
-                                        if (logger.isDebugEnabled())
-                                            logger.info("Delete Obsolete DiskFile " + statelistOfFile.getName());
-                                        statelistOfFile.delete();
-                                        if (mainFile != null) mainFile.delete();
-                                        continue;
-                                    }
-
-                                    //	If complete or pushed, make the file visible
-                                    if (mainFile != null && mainFile.exists())        // If there is a main file in disk - and not only the state file - and is not deleted (because it was obsolete)
-                                    {
-                                        if (!returnLists.containsKey(features.getBucket() + features.getKey())) {
-                                            DiskFile recoveredFile = new DiskFile(diskSettings.get(diski), diski, this, features);
-                                            recoveredFile.recoverBlock(mainFile);
-                                            returnLists.put(features.getBucket() + features.getKey(), recoveredFile);
-                                            put(features.getBucket(), features.getKey(), recoveredFile);
-                                        } else
-                                            returnLists.get(features.getBucket() + features.getKey()).recoverBlock(mainFile);
-
-                                    } else {
-                                        if (logger.isDebugEnabled()) logger.info("Recovery[D]: No main file found - skip");
-                                        // We have only the state file not actual file, so delete the state file
-                                        statelistOfFile.delete();
-                                    }
+        mainlistOfFiles = mainfolder.listFiles();
+        File[] statelistOfFiles = statefolder.listFiles();
+        File mainFile;
+        FilenameFeatureExtractor mainFileFeatures;
+
+        if (mainlistOfFiles != null && statelistOfFiles != null) {
+            //	Recover complete or pushed files and delete obsolete files
+            for (File statelistOfFile : statelistOfFiles) {
+                if (statelistOfFile.isFile()) {
+                    if (statelistOfFile.getName().contains("##")) {
+                        String stateFilename = statelistOfFile.getName();
+                        FilenameFeatureExtractor features = new FilenameFeatureExtractor(stateFilename);
+                        if (features.isCacheFile()) {
+                            //	Find main file
+                            mainFile = null;
+
+                            for (File file : mainlistOfFiles)
+                                if (file.isFile()) {
+                                    mainFileFeatures = new FilenameFeatureExtractor(file.getName());
+                                    if (mainFileFeatures.equals(
+                                            new FilenameFeatureExtractor(statelistOfFile.getName()), true)
+                                            &&
+                                            mainFileFeatures.getRange().getLength() == file.length()) {
+                                        mainFile = file;
+                                        break;
+                                    } else if (mainFileFeatures.isCacheFile() && mainFileFeatures.getRange().getLength() != file.length())
+                                        file.delete();
                                 }
 
+                            //	Delete file if obsolete (check must be done after finding the main file)
+                            if (features.isObsolete()) {
+                                if (logger.isDebugEnabled())
+                                    logger.info("Delete Obsolete DiskFile " + statelistOfFile.getName());
+                                statelistOfFile.delete();
+                                if (mainFile != null) mainFile.delete();
+                                continue;
+                            }
+
+                            //	If complete or pushed, make the file visible
+                            if (mainFile != null && mainFile.exists())        // If there is a main file in disk - and not only the state file - and is not deleted (because it was obsolete)
+                            {
+                                if (!returnLists.containsKey(features.getBucket() + features.getKey())) {
+                                    DiskFile recoveredFile = new DiskFile(diskSettings.get(diski), diski, this, features);
+                                    recoveredFile.recoverBlock(mainFile);
+                                    returnLists.put(features.getBucket() + features.getKey(), recoveredFile);
+                                } else
+                                    returnLists.get(features.getBucket() + features.getKey()).recoverBlock(mainFile);
+                                journaled.put(mainFile.getName(), features.getState());
+
+                            } else {
+                                if (logger.isDebugEnabled()) logger.info("Recovery[D]: No main file found - skip");
+                                // We have only the state file not actual file, so delete the state file
+                                statelistOfFile.delete();
                             }
                         }
+
                     }
                 }
+            }
+        }
 
+        if (journal != null)
+            journal.start(journaled);    // the next recovery uses the journal
+    }
+
+    /**
+     * Recover the blocks of a volume from its journal instead of listing the volume. A block whose
+     * file is missing or has the wrong length (the operation did not happen before a crash) is
+     * dropped, and so is a block of a version other than that of its file.
+     */
+    private void recoverJournal(int diski, StoreSettings settings, DiskJournal journal,
+                                HashMap<String, DiskFile> returnLists) throws IOException {
+        DiskJournal.State journalState = journal.recover();
+        for (String temporaryFile : journalState.temporaryFiles())
+            new File(settings.getMainFolder() + temporaryFile).delete();
+
+        LinkedHashMap<String, StateType> journaled = new LinkedHashMap<>();
+        for (Map.Entry<String, StateType> entry : journalState.blocks().entrySet()) {
+            String name = entry.getKey();
+            File mainFile = new File(settings.getMainFolder() + name);
+            FilenameFeatureExtractor features = new FilenameFeatureExtractor(name);
+            DiskFile file = features.isCacheFile() ? returnLists.get(features.getBucket() + features.getKey()) : null;
+            if (entry.getValue() == StateType.OBSOLETE || !features.isCacheFile()
+                    || mainFile.length() != features.getRange().getLength()
+                    || (file != null && file.getVersion() != features.getVersion())) {
+                if (logger.isDebugEnabled())
+                    logger.info("Recovery[D]: Delete journaled block " + name);
+                mainFile.delete();
+                String stateName = name.endsWith(".partial") ? name.substring(0, name.length() - 8) : name;
+                for (String state : new String[]{"COMPLETE$", "PUSHED$", "OBSOLETE$"})
+                    new File(settings.getStateFolder() + state + stateName).delete();
+                continue;
             }
-            return returnLists;
-        } catch (Exception e) {
-            logger.fatal("Initial Recovery: " + e.getMessage(), e);
-            e.printStackTrace();
-            return null;
+
+            if (file == null) {
+                file = new DiskFile(settings, diski, this, features.getBucket(), features.getKey(), entry.getValue(),
+                        features.getVersion());
+                returnLists.put(features.getBucket() + features.getKey(), file);
+            }
+            file.recoverBlock(mainFile);
+            journaled.put(name, entry.getValue());
+        }
+        journal.start(journaled);
+    }
+
+    /**
+     * Recover the complete and pushed blocks of the segment store of a volume. A record with a version other
+     * than that of its file is left over from an older version of the object and is dropped.
+     */
+    private void recoverSegments(int diski, SegmentStore store, HashMap<String, DiskFile> returnLists)
+            throws IOException {
+        StoreSettings settings = diskSettings.get(diski);
+        HashMap<String, List<SegmentBlock>> recoveredBlocks = new HashMap<>();
+        for (SegmentStore.RecoveredRecord recovered : store.recover()) {
+            SegmentRecord record = recovered.record();
+            String name = record.bucket() + record.key();
+            DiskFile file = returnLists.get(name);
+            if (file != null && file.getVersion() > record.version()) {
+                if (logger.isDebugEnabled())
+                    logger.info("Recovery[D]: Drop block of older version " + record.bucket() + "/" + record.key());
+                SegmentRecord.writeState(recovered.segment().getChannel(), recovered.offset(), StateType.OBSOLETE);
+                continue;
+            }
+            if (file != null && file.getVersion() < record.version()) {
+                // Segment order is not version order, so the blocks found so far are the older ones
+                if (logger.isDebugEnabled())
+                    logger.info("Recovery[D]: Drop blocks of older version " + record.bucket() + "/" + record.key());
+                for (SegmentBlock block : recoveredBlocks.remove(name))
+                    block.delete();
+                file = null;
+            }
+            if (file == null) {
+                file = new DiskFile(settings, diski, this, record.bucket(), record.key(), record.state(),
+                        record.version());
+                returnLists.put(name, file);
+                recoveredBlocks.put(name, new ArrayList<>());
+            }
+
+            // A block that was copied by a compaction that did not finish has two records
+            List<SegmentBlock> blocks = recoveredBlocks.get(name);
+            boolean duplicate = false;
+            for (SegmentBlock block : blocks)
+                if (block.getRange().getStart() == record.start() && block.getRange().getStop() == record.stop())
+                    duplicate = true;
+            if (duplicate) {
+                if (logger.isDebugEnabled())
+                    logger.info("Recovery[D]: Drop duplicate block " + record.bucket() + "/" + record.key());
+                SegmentRecord.writeState(recovered.segment().getChannel(), recovered.offset(), StateType.OBSOLETE);
+                continue;
+            }
+            SegmentBlock block = new SegmentBlock(store, recovered.segment(), recovered.offset(), record, file,
+                    settings.getStats());
+            blocks.add(block);
+            file.recoverBlock(block, record.partial());
         }
     }
 
     public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            thread = compactor;
+            compactor = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (segmentStores != null)
+            for (SegmentStore store : segmentStores.values())
+                store.shutdown();
+        if (journals != null)
+            for (DiskJournal journal : journals.values())
+                journal.shutdown();
+        if (mappedBlocks != null)
+            mappedBlocks.clear();
     }
 }
\ No newline at end of file
@@ -37,8 +37,17 @@ public class FileBlock implements CacheBlock {
     private UsageStats parentStats;
     private CacheFile cf;
     private boolean isClosed = false;
+    private final DiskJournal journal;    // null without a metadata journal
+    private final MappedBlockCache mappedBlocks;    // null without memory-mapped reads
 
     public FileBlock(long start, long stop, String mainFolder, String stateFolder, CacheFile cf, UsageStats parentStats) throws IOException {
+        this(start, stop, mainFolder, stateFolder, cf, parentStats, null);
+    }
+
+    FileBlock(long start, long stop, String mainFolder, String stateFolder, CacheFile cf, UsageStats parentStats,
+              DiskJournal journal) throws IOException {
+        this.journal = journal;
+        this.mappedBlocks = mappedBlocks(cf);
         range = new BlockRange(start, stop);
         this.mainFolder = mainFolder;
         this.stateFolder = stateFolder;
@@ -52,7 +61,10 @@ public class FileBlock implements CacheBlock {
     }
 
     // 	Constructor is used in recovery only
-    FileBlock(FilenameFeatureExtractor features, StateType state, StoreSettings settings, CacheFile cf) {
+    FileBlock(FilenameFeatureExtractor features, StateType state, StoreSettings settings, CacheFile cf,
+              DiskJournal journal) {
+        this.journal = journal;
+        this.mappedBlocks = mappedBlocks(cf);
         this.range = features.getRange();
         this.mainFolder = settings.getMainFolder();
         this.stateFolder = settings.getStateFolder();
@@ -64,12 +76,17 @@ public class FileBlock implements CacheBlock {
         this.state = state;
         this.blockFile = new File(settings.getMainFolder() + features.getFilename());
         blockStateFile = new File(generateStateFilename(state));
+        this.writeSoFar = range.getLength();    // so its deletion releases the usage
         settings.getStats().increment(features.getRange().getLength());
 
         if (logger.isDebugEnabled())
             logger.info("File Restored [" + mainFolder + key + "]: " + range.toString() + " " + cf + " " + this);
     }
 
+    private static MappedBlockCache mappedBlocks(CacheFile cf) {
+        return (cf instanceof DiskFile diskFile) ? diskFile.getMappedBlocks() : null;
+    }
+
     private void setTemporaryFilename() throws IOException {
         Random rn = new Random();
         String filename = generateTempFilename(rn);
@@ -78,7 +95,8 @@ public class FileBlock implements CacheBlock {
             filename = generateTempFilename(rn);
             tempFile = new File(filename);
         }
-        tempFile.createNewFile();
+        File createdFile = tempFile;
+        journaled(DiskJournal.Op.CREATE, createdFile.getName(), null, createdFile::createNewFile);
         this.blockFile = tempFile;
         outputStream = new FileOutputStream(blockFile);
     }
@@ -125,6 +143,16 @@ public class FileBlock implements CacheBlock {
         return sb.toString();
     }
 
+    /**
+     * Run a file operation, recording it in the journal if there is one
+     */
+    private void journaled(DiskJournal.Op op, String name, String newName, DiskJournal.Action action) throws IOException {
+        if (journal == null)
+            action.run();
+        else
+            journal.append(op, name, newName, action);
+    }
+
     private String generateTempFilename(Random rn) {
         StringBuilder sb = new StringBuilder();
 
@@ -146,7 +174,8 @@ public class FileBlock implements CacheBlock {
             String newFile = generateStateFilename(StateType.OBSOLETE);
 
             try {
-                Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING);
+                journaled(DiskJournal.Op.OBSOLETE, blockFile.getName(), null,
+                        () -> Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING));
             } catch (IOException e) {
                 logger.error("Could not rename state file: " + e.getMessage());
             }//LOG EVENT and continue
@@ -173,29 +202,36 @@ public class FileBlock implements CacheBlock {
         try {
             if (logger.isDebugEnabled()) logger.info("File Block Complete");
 
-            String stateFilename;
-
-            //CREATE/RENAME STATE FILE
-            if (state == StateType.INCOMPLETE)    //if incomplete - then create complete state file
-            {
-                stateFilename = generateStateFilename(StateType.COMPLETE);
-                blockStateFile = new File(stateFilename);
-                blockStateFile.createNewFile();
-            } else if (state == StateType.TOBEPUSHED) {    //if from pushed changed to complete, then rename the file
-                File newStateFile = new File(generateStateFilename(StateType.COMPLETE));
-                Files.move(Paths.get(blockStateFile.getAbsolutePath()), Paths.get(newStateFile.getAbsolutePath()), REPLACE_EXISTING);
-                blockStateFile = newStateFile;
+            String mainFile = blockFile.getPath();
+            if (state == StateType.INCOMPLETE) {
+                mainFile = generateMainFilename();
+                if (cf.isPartialFile()) mainFile += ".partial";
             }
+            String newFile = mainFile;
+
+            journaled(DiskJournal.Op.COMPLETE, blockFile.getName(), new File(newFile).getName(), () -> {
+                String stateFilename;
+
+                //CREATE/RENAME STATE FILE
+                if (state == StateType.INCOMPLETE)    //if incomplete - then create complete state file
+                {
+                    stateFilename = generateStateFilename(StateType.COMPLETE);
+                    blockStateFile = new File(stateFilename);
+                    blockStateFile.createNewFile();
+                } else if (state == StateType.TOBEPUSHED) {    //if from pushed changed to complete, then rename the file
+                    File newStateFile = new File(generateStateFilename(StateType.COMPLETE));
+                    Files.move(Paths.get(blockStateFile.getAbsolutePath()), Paths.get(newStateFile.getAbsolutePath()), REPLACE_EXISTING);
+                    blockStateFile = newStateFile;
+                }
 
-            //FROM INCOMPLETE (main file) - MAKE IT COMPLETE
+                //FROM INCOMPLETE (main file) - MAKE IT COMPLETE
 
-            if (state == StateType.INCOMPLETE) {
-                String newFile = generateMainFilename();
-                if (cf.isPartialFile()) newFile += ".partial";
-                String previousFile = blockFile.getAbsolutePath();
-                Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING);
-                blockFile = new File(newFile);
-            }
+                if (state == StateType.INCOMPLETE) {
+                    String previousFile = blockFile.getAbsolutePath();
+                    Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING);
+                    blockFile = new File(newFile);
+                }
+            });
 
             this.state = StateType.COMPLETE;
 
@@ -206,17 +242,20 @@ public class FileBlock implements CacheBlock {
 
     public void toBePushed() {
         try {
-            //CREATE STATE FILE
-            String stateFile = generateStateFilename(StateType.TOBEPUSHED);
-            blockStateFile = new File(stateFile);
-            blockStateFile.createNewFile();
-
-            //RENAME MAIN FILE: FROM INCOMPLETE - PUSH IT TO ASYNC
-            //filename = path/version##hex(bucket/key)-start-stop
             String newFile = generateMainFilename();
-            String previousFile = blockFile.getAbsolutePath();
-            blockFile = new File(newFile);
-            Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING);
+
+            journaled(DiskJournal.Op.PUSH, blockFile.getName(), new File(newFile).getName(), () -> {
+                //CREATE STATE FILE
+                String stateFile = generateStateFilename(StateType.TOBEPUSHED);
+                blockStateFile = new File(stateFile);
+                blockStateFile.createNewFile();
+
+                //RENAME MAIN FILE: FROM INCOMPLETE - PUSH IT TO ASYNC
+                //filename = path/version##hex(bucket/key)-start-stop
+                String previousFile = blockFile.getAbsolutePath();
+                blockFile = new File(newFile);
+                Files.move(Paths.get(previousFile), Paths.get(newFile), REPLACE_EXISTING);
+            });
 
             this.state = StateType.TOBEPUSHED;
 
@@ -226,6 +265,11 @@ public class FileBlock implements CacheBlock {
     }
 
     public InputStream getFileInputStream() throws IOException {
+        if (mappedBlocks != null && (state == StateType.COMPLETE || state == StateType.TOBEPUSHED)) {
+            InputStream in = mappedBlocks.open(blockFile, range.getLength());
+            if (in != null)
+                return in;
+        }
         return new FileInputStream(blockFile);
     }
 
@@ -261,7 +305,7 @@ public class FileBlock implements CacheBlock {
 
         if (isObs) {
             if (logger.isDebugEnabled()) logger.info("File Block Obsolete - Delete");
-            blockFile.delete();
+            journaled(DiskJournal.Op.DELETE, blockFile.getName(), null, blockFile::delete);
             return false;
         } else if (available() == 0)
             return true;
@@ -293,8 +337,16 @@ public class FileBlock implements CacheBlock {
     private void uncheckedDelete() {
         if (logger.isDebugEnabled()) logger.info("DELETE: File block");
         isDeleted = true;
-        blockFile.delete();
-        deleteStateFile();
+        try {
+            if (mappedBlocks != null)
+                mappedBlocks.invalidate(blockFile);
+            journaled(DiskJournal.Op.DELETE, blockFile.getName(), null, () -> {
+                blockFile.delete();
+                deleteStateFile();
+            });
+        } catch (IOException e) {
+            logger.error("Could not delete disk block: " + e.getMessage());
+        }
         parentStats.decrement(writeSoFar, writeSoFar);
     }
 
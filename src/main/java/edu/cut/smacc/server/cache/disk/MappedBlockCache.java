@@ -0,0 +1,155 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.server.cache.common.io.MappedInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps memory mappings of the complete block files that are read, up to a capacity in bytes.
+ * The least recently read mappings are evicted, and a mapping is unmapped as soon as it is
+ * evicted and its last reader is closed, instead of waiting for the garbage collector.
+ */
+class MappedBlockCache {
+    private static final Logger logger = LogManager.getLogger(MappedBlockCache.class);
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.error("Memory mappings of disk blocks are unmapped by the garbage collector: " + e.getMessage());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private static class Mapping {
+        private final MappedByteBuffer buffer;
+        private int readers = 0;
+        private boolean evicted = false;
+
+        private Mapping(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private final long capacity;
+    private final LinkedHashMap<File, Mapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    MappedBlockCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Open a complete block file from its mapping, mapping it if needed
+     *
+     * @return the stream, or null if the block is larger than the capacity
+     */
+    InputStream open(File blockFile, long length) throws IOException {
+        if (length <= 0 || length > capacity || length > Integer.MAX_VALUE)
+            return null;
+        Mapping mapping;
+        synchronized (this) {
+            mapping = mappings.get(blockFile);
+            if (mapping != null) {
+                hits++;
+            } else {
+                misses++;
+                try (FileChannel channel = FileChannel.open(blockFile.toPath(), StandardOpenOption.READ)) {
+                    mapping = new Mapping(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+                }
+                evict(length);
+                mappings.put(blockFile, mapping);
+                mappedBytes += length;
+            }
+            mapping.readers++;
+        }
+        Mapping opened = mapping;
+        return new MappedInputStream(opened.buffer.duplicate(), () -> release(opened));
+    }
+
+    /**
+     * Drop the mapping of a block file that is deleted
+     */
+    synchronized void invalidate(File blockFile) {
+        Mapping mapping = mappings.remove(blockFile);
+        if (mapping != null)
+            evicted(mapping);
+    }
+
+    private void evict(long length) {
+        Iterator<Mapping> iterator = mappings.values().iterator();
+        while (mappedBytes + length > capacity && iterator.hasNext()) {
+            Mapping mapping = iterator.next();
+            iterator.remove();
+            evicted(mapping);
+        }
+    }
+
+    private void evicted(Mapping mapping) {
+        mappedBytes -= mapping.buffer.capacity();
+        mapping.evicted = true;
+        if (mapping.readers == 0)
+            unmap(mapping.buffer);
+    }
+
+    private synchronized void release(Mapping mapping) {
+        if (--mapping.readers == 0 && mapping.evicted)
+            unmap(mapping.buffer);
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null)
+            return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            logger.error("Could not unmap disk block: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unmap all the mappings that are not read
+     */
+    synchronized void clear() {
+        for (Map.Entry<File, Mapping> entry : mappings.entrySet())
+            evicted(entry.getValue());
+        mappings.clear();
+    }
+
+    synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+}
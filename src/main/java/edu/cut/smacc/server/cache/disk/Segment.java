@@ -0,0 +1,141 @@
+package edu.cut.smacc.server.cache.disk;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A segment file of a SegmentStore. Records are appended at the tail by one writer at a time and
+ * the file is shared by the readers of its blocks. The segment keeps the blocks it holds (the
+ * offset index of the store), so the compaction knows what to move, and it is deleted once it is
+ * retired and its last reader has finished.
+ *
+ * @see SegmentStore
+ */
+class Segment {
+    private static final Logger logger = LogManager.getLogger(Segment.class);
+
+    private final long id;
+    private final File file;
+    private final FileChannel channel;
+    private final Set<SegmentBlock> blocks = ConcurrentHashMap.newKeySet();
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final AtomicInteger references = new AtomicInteger(1); // the store holds one until retired
+    private volatile long tail;
+    private volatile boolean sealed = false;
+
+    Segment(long id, File file) throws IOException {
+        this.id = id;
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.tail = channel.size();
+    }
+
+    long getId() {
+        return id;
+    }
+
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    long getTail() {
+        return tail;
+    }
+
+    /**
+     * Set by the writer that owns the segment, after its record
+     */
+    void setTail(long tail) {
+        this.tail = tail;
+    }
+
+    void truncate(long size) throws IOException {
+        channel.truncate(size);
+        tail = size;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    void seal() {
+        sealed = true;
+    }
+
+    void addBlock(SegmentBlock block, long recordLength) {
+        blocks.add(block);
+        liveBytes.addAndGet(recordLength);
+    }
+
+    void removeBlock(SegmentBlock block, long recordLength) {
+        if (blocks.remove(block))
+            liveBytes.addAndGet(-recordLength);
+    }
+
+    Set<SegmentBlock> getBlocks() {
+        return blocks;
+    }
+
+    long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    long getDeadBytes() {
+        return Math.max(0, tail - liveBytes.get());
+    }
+
+    /**
+     * Take a reference for a reader
+     *
+     * @return false if the segment is already deleted (its blocks have moved)
+     */
+    boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count <= 0)
+                return false;
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Could not close segment " + file + ": " + e.getMessage());
+            }
+            if (!file.delete())
+                logger.error("Could not delete segment " + file);
+            else if (logger.isDebugEnabled())
+                logger.info("Segment deleted: " + file);
+        }
+    }
+
+    /**
+     * Close the file without deleting it (shutdown)
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Could not close segment " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.getName() + "[tail=" + tail + ", live=" + liveBytes.get() + "]";
+    }
+}
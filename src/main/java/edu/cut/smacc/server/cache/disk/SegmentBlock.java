@@ -0,0 +1,324 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.server.cache.common.BlockRange;
+import edu.cut.smacc.server.cache.common.CacheBlock;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StateType;
+import edu.cut.smacc.server.cache.common.io.RegionInputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A disk block stored as a record of a segment file (see SegmentStore) instead of a file of its
+ * own. The state of the block is kept in the header of the record, and the block is moved to
+ * another segment by the compaction while it is not being written.
+ */
+public class SegmentBlock implements CacheBlock {
+    private static final Logger logger = LogManager.getLogger(SegmentBlock.class);
+
+    private final String bucket;
+    private final String key;
+    private final CacheFile cf;
+    private final UsageStats parentStats;
+    private final SegmentStore store;
+    private BlockRange range;
+    private long version;
+    private volatile StateType state;
+    private boolean partial = false;
+    // The location of the record; changed by the compaction under the lock of the block
+    private volatile Segment segment;
+    private volatile long recordOffset;
+    private final int headerLength;
+    private volatile long writeSoFar = 0;
+    private boolean isDeleted = false;
+    private boolean isClosed = false;
+
+    SegmentBlock(long start, long stop, SegmentStore store, CacheFile cf, UsageStats parentStats) throws IOException {
+        this.range = new BlockRange(start, stop);
+        this.bucket = cf.getBucket();
+        this.key = cf.getKey();
+        this.version = cf.getVersion();
+        this.cf = cf;
+        this.parentStats = parentStats;
+        this.store = store;
+        this.state = StateType.INCOMPLETE;
+
+        // The segment is ours until the block is closed, so the data is appended after the header
+        segment = store.acquireForWrite();
+        recordOffset = segment.getTail();
+        SegmentRecord header = header(-1);
+        headerLength = header.headerLength();
+        try {
+            header.write(segment.getChannel(), recordOffset);
+        } catch (IOException e) {
+            store.releaseFromWrite(segment);
+            throw e;
+        }
+    }
+
+    // Constructor is used in recovery only
+    SegmentBlock(SegmentStore store, Segment segment, long recordOffset, SegmentRecord record, CacheFile cf,
+                 UsageStats parentStats) {
+        this.range = new BlockRange(record.start(), record.stop());
+        this.bucket = cf.getBucket();
+        this.key = cf.getKey();
+        this.version = record.version();
+        this.cf = cf;
+        this.parentStats = parentStats;
+        this.store = store;
+        this.state = record.state();
+        this.partial = record.partial();
+        this.segment = segment;
+        this.recordOffset = recordOffset;
+        this.headerLength = record.headerLength();
+        this.writeSoFar = record.length();
+        this.isClosed = true;
+        segment.addBlock(this, getRecordLength());
+        parentStats.increment(record.length());
+
+        if (logger.isDebugEnabled())
+            logger.info("Block Restored [" + segment + "]: " + range.toString() + " " + cf + " " + this);
+    }
+
+    private SegmentRecord header(long length) {
+        return new SegmentRecord(state, partial, version, range.getStart(), range.getStop(), length, bucket, key);
+    }
+
+    private long getRecordLength() {
+        return headerLength + writeSoFar;
+    }
+
+    private long getDataOffset() {
+        return recordOffset + headerLength;
+    }
+
+    /**
+     * Write the header with the final length and give the segment back to the store
+     */
+    private void finishWrite() throws IOException {
+        try {
+            header(writeSoFar).write(segment.getChannel(), recordOffset);
+        } finally {
+            segment.setTail(getDataOffset() + writeSoFar);
+            store.releaseFromWrite(segment);
+        }
+    }
+
+    private void writeHeader() {
+        try {
+            header(isClosed ? writeSoFar : -1).write(segment.getChannel(), recordOffset);
+        } catch (IOException e) {
+            logger.error("Could not update segment block state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a header that makes the block recoverable (COMPLETE or TOBEPUSHED) once its data is
+     * durable, so a crash cannot leave such a header over data that never reached the disk
+     */
+    private void writeRecoverableHeader() {
+        try {
+            segment.getChannel().force(false);
+        } catch (IOException e) {
+            logger.error("Could not force segment block data: " + e.getMessage());
+            return;    // the block stays unrecoverable on disk
+        }
+        writeHeader();
+    }
+
+    public void setStateFileObsolete() {
+        synchronized (this) {
+            if (state != StateType.INCOMPLETE) {
+                state = StateType.OBSOLETE;
+                writeHeader();
+            }
+        }
+    }
+
+    public void abortWrite() {
+        synchronized (this) {
+            if (!isClosed) {
+                isClosed = true;
+                state = StateType.OBSOLETE;
+                try {
+                    finishWrite();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        uncheckedDelete();
+    }
+
+    public void complete() {
+        synchronized (this) {
+            if (logger.isDebugEnabled()) logger.info("Segment Block Complete");
+            partial = cf.isPartialFile();
+            state = StateType.COMPLETE;
+            writeRecoverableHeader();
+        }
+    }
+
+    public void toBePushed() {
+        synchronized (this) {
+            state = StateType.TOBEPUSHED;
+            writeRecoverableHeader();
+        }
+    }
+
+    public InputStream getFileInputStream() throws IOException {
+        while (true) {
+            Segment current;
+            long offset, length;
+            synchronized (this) {
+                current = segment;
+                offset = getDataOffset();
+                length = writeSoFar;
+            }
+            // The segment may be deleted after the block has moved; then read the new location
+            if (current.retain())
+                return new RegionInputStream(current.getChannel(), offset, length, current::release);
+        }
+    }
+
+    public long getSize() {
+        return range.getLength();
+    }
+
+    public void write(byte[] buffer, int offset, int len) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(buffer, offset, len);
+        long position = getDataOffset() + writeSoFar;
+        while (data.hasRemaining())
+            position += segment.getChannel().write(data, position);
+        writeSoFar += len;
+    }
+
+    public void write(int c) throws IOException {
+        write(new byte[]{(byte) c}, 0, 1);
+    }
+
+    public long available() {
+        return range.getLength() - writeSoFar;
+    }
+
+    public boolean close() throws IOException {
+        boolean isObs;
+        if (range.getStop() == -1) {
+            range.update(range.getStart(), writeSoFar - 1);
+        }
+
+        synchronized (this) {
+            if (isClosed)    // aborted
+                return false;
+            if (!isObsolete() && available() != 0) {
+                BlockRange newRange = new BlockRange(range.getStart(), range.getStart() + writeSoFar - 1);
+                cf.replaceReservedRange(range, newRange);
+                range = newRange;
+                if (logger.isDebugEnabled())
+                    logger.info("Premature Closing Block - New Range: " + newRange.toString());
+            }
+            isClosed = true;
+            isObs = isObsolete();
+            finishWrite();
+            if (!isObs)
+                segment.addBlock(this, getRecordLength());
+        }
+
+        if (isObs && logger.isDebugEnabled())
+            logger.info("Segment Block Obsolete - Delete");
+        return !isObs;
+    }
+
+    public void delete() {
+        if (!isDeleted) {
+            if (isIncomplete()) {
+                synchronized (this) {
+                    if (!isClosed)
+                        this.state = StateType.OBSOLETE;
+                    else
+                        uncheckedDelete();
+                }
+            } else
+                uncheckedDelete();
+        }
+    }
+
+    private synchronized void uncheckedDelete() {
+        if (isDeleted)
+            return;
+        if (logger.isDebugEnabled()) logger.info("DELETE: Segment block");
+        isDeleted = true;
+        try {
+            SegmentRecord.writeState(segment.getChannel(), recordOffset, StateType.OBSOLETE);
+        } catch (IOException e) {
+            logger.error("Could not mark segment block obsolete: " + e.getMessage());
+        }
+        segment.removeBlock(this, getRecordLength());
+        parentStats.decrement(writeSoFar, writeSoFar);
+    }
+
+    /**
+     * Copy the record to the tail of the destination segment, which the caller owns for writing
+     *
+     * @return false if the block is no longer in the source segment
+     */
+    synchronized boolean moveTo(Segment source, Segment destination) throws IOException {
+        if (isDeleted || segment != source)
+            return false;
+        long length = getRecordLength();
+        long destinationOffset = destination.getTail();
+        destination.getChannel().position(destinationOffset);
+        long transferred = 0;
+        while (transferred < length) {
+            long n = source.getChannel().transferTo(recordOffset + transferred, length - transferred,
+                    destination.getChannel());
+            if (n <= 0)
+                throw new IOException("Segment record is shorter than its length");
+            transferred += n;
+        }
+        destination.setTail(destinationOffset + length);
+        // The copy must be durable before the source is marked, and the source copy must not be
+        // recovered if the source segment outlives the compaction
+        destination.getChannel().force(false);
+        SegmentRecord.writeState(source.getChannel(), recordOffset, StateType.OBSOLETE);
+        destination.addBlock(this, length);
+        source.removeBlock(this, length);
+        segment = destination;
+        recordOffset = destinationOffset;
+        return true;
+    }
+
+    public BlockRange getRange() {
+        return range;
+    }
+
+    public synchronized void setVersion(long version) {
+        this.version = version;
+        if (isClosed && !isDeleted)
+            writeHeader();
+    }
+
+    public boolean isComplete() {
+        return state == StateType.COMPLETE;
+    }
+
+    public boolean isPushed() {
+        return state == StateType.TOBEPUSHED;
+    }
+
+    public boolean isIncomplete() {
+        return state == StateType.INCOMPLETE;
+    }
+
+    public boolean isObsolete() {
+        return state == StateType.OBSOLETE;
+    }
+
+    public StateType getState() {
+        return state;
+    }
+}
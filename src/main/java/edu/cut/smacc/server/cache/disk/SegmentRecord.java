@@ -0,0 +1,98 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.server.cache.common.StateType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The header of a block record in a segment file, followed by the data of the block:
+ * <pre>
+ * magic(4) state(1) partial(1) version(8) start(8) stop(8) length(8) bucketLength(2) keyLength(2) bucket key
+ * </pre>
+ * The length is -1 until the block is closed and the state is updated in place, so a block
+ * changes state with a single positional write instead of renaming a state file.
+ */
+record SegmentRecord(StateType state, boolean partial, long version, long start, long stop, long length,
+                     String bucket, String key) {
+
+    static final int MAGIC = 0x534d4143; // SMAC
+    static final int FIXED_LENGTH = 42;
+    private static final int STATE_OFFSET = 4;
+
+    int headerLength() {
+        return FIXED_LENGTH + bucket.getBytes(StandardCharsets.UTF_8).length
+                + key.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Write the whole header at the position
+     */
+    void write(FileChannel channel, long position) throws IOException {
+        byte[] bucketBytes = bucket.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(FIXED_LENGTH + bucketBytes.length + keyBytes.length);
+        header.putInt(MAGIC);
+        header.put((byte) state.getInt());
+        header.put((byte) (partial ? 1 : 0));
+        header.putLong(version);
+        header.putLong(start);
+        header.putLong(stop);
+        header.putLong(length);
+        header.putShort((short) bucketBytes.length);
+        header.putShort((short) keyBytes.length);
+        header.put(bucketBytes);
+        header.put(keyBytes);
+        header.flip();
+        writeFully(channel, header, position);
+    }
+
+    /**
+     * Overwrite only the state of the record at the position
+     */
+    static void writeState(FileChannel channel, long position, StateType state) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(new byte[]{(byte) state.getInt()}), position + STATE_OFFSET);
+    }
+
+    /**
+     * @return the record at the position, or null if there is no complete header
+     */
+    static SegmentRecord read(FileChannel channel, long position) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_LENGTH);
+        if (!readFully(channel, fixed, position) || fixed.getInt(0) != MAGIC)
+            return null;
+        fixed.flip();
+        fixed.getInt();
+        StateType state = StateType.getStateType(fixed.get());
+        boolean partial = fixed.get() == 1;
+        long version = fixed.getLong();
+        long start = fixed.getLong();
+        long stop = fixed.getLong();
+        long length = fixed.getLong();
+        int bucketLength = fixed.getShort() & 0xFFFF;
+        int keyLength = fixed.getShort() & 0xFFFF;
+        ByteBuffer names = ByteBuffer.allocate(bucketLength + keyLength);
+        if (!readFully(channel, names, position + FIXED_LENGTH))
+            return null;
+        String bucket = new String(names.array(), 0, bucketLength, StandardCharsets.UTF_8);
+        String key = new String(names.array(), bucketLength, keyLength, StandardCharsets.UTF_8);
+        return new SegmentRecord(state, partial, version, start, stop, length, bucket, key);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0)
+                return false;
+            position += n;
+        }
+        return true;
+    }
+}
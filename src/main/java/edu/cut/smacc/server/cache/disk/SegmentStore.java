@@ -0,0 +1,197 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.server.cache.common.StateType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An append-only store of the blocks of a disk volume. Instead of a file per block and a state
+ * file per block state, the blocks are appended as records into large segment files, each
+ * segment knows the blocks it holds (the offset index) and the state of a block is kept in its
+ * record. Each writer appends to a segment of its own, so the concurrent writes do not interleave;
+ * a segment that reaches the segment size is sealed.
+ * <p>
+ * The records of deleted blocks stay in their segment until the compaction moves the live blocks
+ * of the segment to the tail of another one and deletes the segment file.
+ *
+ * @see SegmentBlock
+ */
+class SegmentStore {
+    private static final Logger logger = LogManager.getLogger(SegmentStore.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final File folder;
+    private final long segmentSize;
+    private final double compactionThreshold;
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Segment> writable = new ConcurrentLinkedDeque<>(); // not owned by a writer
+    private final AtomicLong nextId;
+
+    /**
+     * A live record found by recover(), which becomes a block when its file is restored
+     */
+    record RecoveredRecord(Segment segment, long offset, SegmentRecord record) {
+    }
+
+    /**
+     * @param compactionThreshold the fraction of a segment that must be dead for its compaction
+     */
+    SegmentStore(String folder, long segmentSize, double compactionThreshold) {
+        this.folder = new File(folder);
+        this.folder.mkdirs();
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        long maxId = -1;
+        for (File file : listSegmentFiles())
+            maxId = Math.max(maxId, segmentId(file));
+        this.nextId = new AtomicLong(maxId + 1);
+    }
+
+    private File[] listSegmentFiles() {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        return (files == null) ? new File[0] : files;
+    }
+
+    private static long segmentId(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return a segment that only the caller appends to, until releaseFromWrite
+     */
+    Segment acquireForWrite() throws IOException {
+        Segment segment = writable.pollFirst();
+        if (segment != null)
+            return segment;
+        long id = nextId.getAndIncrement();
+        segment = new Segment(id, new File(folder, String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    void releaseFromWrite(Segment segment) {
+        if (segment.getTail() >= segmentSize)
+            segment.seal();
+        else
+            writable.addFirst(segment);
+    }
+
+    /**
+     * Scan the segment files for the complete and pushed records. The tail of a segment after a
+     * record that was never closed (the server stopped while writing it) is dropped.
+     */
+    List<RecoveredRecord> recover() throws IOException {
+        List<RecoveredRecord> records = new ArrayList<>();
+        File[] files = listSegmentFiles();
+        Arrays.sort(files, Comparator.comparingLong(SegmentStore::segmentId));
+        for (File file : files) {
+            long id = segmentId(file);
+            if (id < 0 || segments.containsKey(id))
+                continue;
+            Segment segment = new Segment(id, file);
+            long position = 0;
+            while (position < segment.getTail()) {
+                SegmentRecord record = SegmentRecord.read(segment.getChannel(), position);
+                if (record == null || record.length() < 0
+                        || position + record.headerLength() + record.length() > segment.getTail()) {
+                    if (logger.isDebugEnabled())
+                        logger.info("Recovery[D]: Drop unfinished record of " + file.getName() + " at " + position);
+                    segment.truncate(position);
+                    break;
+                }
+                if (record.state() == StateType.COMPLETE || record.state() == StateType.TOBEPUSHED)
+                    records.add(new RecoveredRecord(segment, position, record));
+                position += record.headerLength() + record.length();
+            }
+            segments.put(id, segment);
+            releaseFromWrite(segment);
+        }
+        return records;
+    }
+
+    /**
+     * Compact the segments that are not being written and have at least the threshold dead
+     *
+     * @return the number of compacted segments
+     */
+    synchronized int compact() {
+        int compacted = 0;
+        for (Segment segment : segments.values()) {
+            if (segment.getTail() == 0 || segment.getDeadBytes() < segment.getTail() * compactionThreshold)
+                continue;
+            if (!segment.isSealed()) {
+                if (!writable.remove(segment))
+                    continue;    // a writer owns it
+                segment.seal();
+            }
+            try {
+                compact(segment);
+                compacted++;
+            } catch (IOException e) {
+                logger.error("Could not compact segment " + segment + ": " + e.getMessage());
+            }
+        }
+        return compacted;
+    }
+
+    private void compact(Segment source) throws IOException {
+        if (logger.isDebugEnabled())
+            logger.info("Compacting segment " + source);
+        Segment destination = null;
+        try {
+            for (SegmentBlock block : new ArrayList<>(source.getBlocks())) {
+                if (destination == null)
+                    destination = acquireForWrite();
+                block.moveTo(source, destination);
+                if (destination.getTail() >= segmentSize) {
+                    releaseFromWrite(destination);
+                    destination = null;
+                }
+            }
+        } finally {
+            if (destination != null)
+                releaseFromWrite(destination);
+        }
+        if (source.getBlocks().isEmpty() && segments.remove(source.getId()) != null)
+            source.release();    // deleted when the last reader closes
+    }
+
+    /**
+     * @return the bytes of the segment files (live and dead)
+     */
+    long getStoredBytes() {
+        long total = 0;
+        for (Segment segment : segments.values())
+            total += segment.getTail();
+        return total;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    void shutdown() {
+        for (Segment segment : segments.values())
+            segment.close();
+        segments.clear();
+        writable.clear();
+    }
+}
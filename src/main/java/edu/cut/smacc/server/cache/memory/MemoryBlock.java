@@ -44,8 +44,8 @@ public class MemoryBlock implements CacheBlock {
         this.pool = pool;
         UsageStats stats = new UsageStats();
         blockQueue = new ByteBufferQueue(stats);
-        outputStream = new ByteBufferQueueOutputStream(pool, blockQueue);
         range = new BlockRange(start, stop);
+        outputStream = new ByteBufferQueueOutputStream(pool, blockQueue, (stop > -1) ? range.getLength() : -1);
         this.stateFolder = stateFolder;
         this.bucket = cf.getBucket();
         this.key = cf.getKey();
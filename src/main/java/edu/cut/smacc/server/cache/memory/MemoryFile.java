@@ -55,7 +55,7 @@ public class MemoryFile extends CacheFileBase { //shall we let this handled by M
                     return new SpecialInputStream(fileBlocks.get(0).getFileInputStream(), this);
                 } else if (isFullFile()) {
                     long endsAt = actualSize - 1;
-                    return new SpecialInputStream(new MultiBlockInputStream(0, endsAt, fileBlocks), this);
+                    return new SpecialInputStream(new MultiBlockInputStream(0, endsAt, blockIndex.getItems(0, endsAt)), this);
                 }
             }
             return null;
@@ -70,7 +70,7 @@ public class MemoryFile extends CacheFileBase { //shall we let this handled by M
 
             if (!deleteFlag) {
                 readCounter.incrementAndGet();
-                return new SpecialInputStream(new MultiBlockInputStream(start, stop, fileBlocks), this);
+                return new SpecialInputStream(new MultiBlockInputStream(start, stop, blockIndex.getItems(start, stop)), this);
             }
             return null;
         }
@@ -7,6 +7,7 @@ import edu.cut.smacc.server.cache.common.FilenameFeatureExtractor;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cache.common.StoreSettings;
 import edu.cut.smacc.server.cache.common.io.ByteBufferPool;
+import edu.cut.smacc.server.cache.common.io.SlabByteBufferPool;
 import edu.cut.smacc.server.cache.common.io.UsageStats;
 
 import edu.cut.smacc.configuration.ServerConfigurations;
@@ -36,10 +37,29 @@ public class MemoryManager extends CacheManagerBase {
 
     public MemoryManager(StoreSettings settings, CachePolicyNotifier policyNotifier) {
         setPolicyNotifier(policyNotifier);
-        this.pool = new ByteBufferPool(ServerConfigurations.getMemoryByteBufferSize());
         this.settings = settings;
         this.memStats = (settings != null) ? settings.getStats() : new UsageStats();
         this.isActive = settings != null && settings.getStats().getMaxCapacity() > 0;
+        this.pool = createByteBufferPool();
+    }
+
+    private ByteBufferPool createByteBufferPool() {
+        int bufferSize = ServerConfigurations.getMemoryByteBufferSize();
+        if (!isActive || !ServerConfigurations.isMemoryOffHeapEnabled())
+            return new ByteBufferPool(bufferSize);
+
+        SlabByteBufferPool slabPool = new SlabByteBufferPool(bufferSize, memStats.getMaxCapacity(),
+                ServerConfigurations.getMemorySlabSize(), ServerConfigurations.getMemorySlabMinChunkSize(),
+                ServerConfigurations.memoryOffHeapHeapFallback());
+        logger.info("Memory tier stored off-heap - arena of " + slabPool.getArenaCapacity() + " bytes");
+        return slabPool;
+    }
+
+    /**
+     * @return the pool of the buffers that hold the memory tier data
+     */
+    public ByteBufferPool getByteBufferPool() {
+        return pool;
     }
 
     @Override
@@ -49,58 +69,41 @@ public class MemoryManager extends CacheManagerBase {
 
     @Override
     public ArrayList<CacheFile> getCacheFiles() {
-        ArrayList<CacheFile> files = new ArrayList<>((int) getCacheFilesCount());
-        synchronized (cacheMapping) {
-            for (String bucket : cacheMapping.keySet())
-                for (String key : cacheMapping.get(bucket).keySet())
-                    files.add(cacheMapping.get(bucket).get(key));
-        }
-        return files;
+        return new ArrayList<>(cacheMapping.values());
     }
 
     @Override
     public long getCacheFilesCount() {
-        long count = 0;
-        synchronized (cacheMapping) {
-            for (String bucket : cacheMapping.keySet())
-                count += cacheMapping.get(bucket).size();
-        }
-        return count;
+        return cacheMapping.size();
     }
 
     @Override
     public MemoryFile create(String bucket, String key) {
-        touchBucket(bucket); //create bucket record if not exist
-
         return new MemoryFile(this.pool, bucket, key, settings, this, memStats);
     }
 
     @Override
     public InputStream read(String bucket, String key) throws IOException {
-        synchronized (this.cacheMapping) {
-            if (!checkFileExist(bucket, key)) {
-                return null;
-            }
-            CacheFile cacheFile = this.cacheMapping.get(bucket).get(key);
-            policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
-            return cacheFile.getInputStream();
+        CacheFile cacheFile = getReadableFile(bucket, key, false);
+        if (cacheFile == null) {
+            return null;
         }
+        policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
+        return cacheFile.getInputStream();
     }
 
     @Override
     public InputStream read(String bucket, String key, long start, long stop) throws IOException {
-        synchronized (this.cacheMapping) {
-            try {
-                if (fileDoesNotExist(bucket, key) || fileIsPartial(bucket, key)) {
-                    return null;
-                }
-                CacheFile cacheFile = this.cacheMapping.get(bucket).get(key);
-                policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
-                return ((MemoryFile) cacheFile).getInputStream(start, stop);
-            } catch (FileNotFoundException e) {
-                logger.error(e);
+        try {
+            CacheFile cacheFile = getReadableFile(bucket, key, true);
+            if (cacheFile == null) {
                 return null;
             }
+            policyNotifier.notifyItemAccess(cacheFile, getStoreOptionType());
+            return ((MemoryFile) cacheFile).getInputStream(start, stop);
+        } catch (FileNotFoundException e) {
+            logger.error(e);
+            return null;
         }
     }
 
@@ -109,12 +112,6 @@ public class MemoryManager extends CacheManagerBase {
         return StoreOptionType.MEMORY_ONLY;
     }
 
-    private void touchBucket(String bucket) {
-        if (!cacheMapping.containsKey(bucket)) {
-            cacheMapping.put(bucket, new HashMap<>());
-        }
-    }
-
     public long getReportedUsage() {
         return memStats.getReportedUsage();
     }
@@ -173,14 +170,14 @@ public class MemoryManager extends CacheManagerBase {
     }
 
     private void clearMemory() {
+        if (pool instanceof SlabByteBufferPool slabPool)
+            logger.info("Off-heap arena: " + slabPool.getUsedBytes() + "/" + slabPool.getArenaCapacity()
+                    + " bytes used (utilization " + slabPool.getUtilization() + ", fragmentation "
+                    + slabPool.getFragmentation() + ", heap overflow " + slabPool.getOverflowBytes() + " bytes)");
         this.pool.clear();
     }
 
     public void shutdown() {
         clearMemory();
     }
-
-    private boolean checkFileExist(String bucket, String key) {
-        return cacheMapping.containsKey(bucket) && cacheMapping.get(bucket).containsKey(key);
-    }
 }
\ No newline at end of file
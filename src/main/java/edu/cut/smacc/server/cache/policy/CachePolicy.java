@@ -49,4 +49,12 @@ public interface CachePolicy {
      */
     void reset();
 
+    /**
+     * @return true if onItemAccess can run concurrently with the other calls, so the notifier
+     * does not take the monitor of the policy on cache hits
+     */
+    default boolean isAccessThreadSafe() {
+        return false;
+    }
+
 }
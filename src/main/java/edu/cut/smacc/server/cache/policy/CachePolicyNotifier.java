@@ -5,22 +5,74 @@ import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
 import edu.cut.smacc.server.cache.policy.eviction.placement.EvictionPlacementPolicy;
 
-import java.sql.Timestamp;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Helper class that notifies the given cache policies for cache interactions.
+ * The policies are not thread-safe, so each notification is delivered while
+ * holding the monitor of the policy.
+ * <p>
+ * An asynchronous notifier queues the events in a bounded ring and a background thread
+ * delivers them in batches, keeping the policy updates off the request threads. When the ring
+ * fills up, access events are sampled and then dropped; the other events wait for space.
  */
 public class CachePolicyNotifier {
+    private static final Logger logger = LogManager.getLogger(CachePolicyNotifier.class);
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
 
     private final List<CachePolicy> cachePolicies;
 
-    private CachePolicyNotifier(List<CachePolicy> cachePolicies) {
+    // Asynchronous delivery (null ring for synchronous delivery)
+    private final PolicyEventRing ring;
+    private final int accessSampling;
+    private final LongAdder droppedAccesses = new LongAdder();
+    private Thread consumer;
+    private volatile boolean consumerParked = false;
+    private volatile boolean shutdown = false;
+
+    private CachePolicyNotifier(List<CachePolicy> cachePolicies, PolicyEventRing ring, int accessSampling) {
         this.cachePolicies = cachePolicies;
+        this.ring = ring;
+        this.accessSampling = Math.max(1, accessSampling);
     }
 
     public static CachePolicyNotifier createNotifierFromPoliciesList(List<CachePolicy> cachePolicies) {
-        return new CachePolicyNotifier(cachePolicies);
+        return new CachePolicyNotifier(cachePolicies, null, 1);
+    }
+
+    /**
+     * Create a notifier that delivers the events from a background thread
+     *
+     * @param bufferSize     the number of events that can be pending
+     * @param accessSampling keep 1 in this many access events once the buffer is half full
+     */
+    public static CachePolicyNotifier createAsyncNotifierFromPoliciesList(List<CachePolicy> cachePolicies,
+                                                                          int bufferSize, int accessSampling) {
+        CachePolicyNotifier notifier = new CachePolicyNotifier(cachePolicies, new PolicyEventRing(bufferSize),
+                accessSampling);
+        notifier.consumer = new Thread(notifier::deliverEvents, "policy-notifier");
+        notifier.consumer.setDaemon(true);
+        notifier.consumer.start();
+        return notifier;
+    }
+
+    public boolean isAsync() {
+        return ring != null;
+    }
+
+    /**
+     * @return the access events dropped because the buffer was full or sampled
+     */
+    public long getDroppedAccesses() {
+        return droppedAccesses.sum();
     }
 
     public List<CachePolicy> getCachePolicies() {
@@ -46,48 +98,180 @@ public class CachePolicyNotifier {
     }
 
     public void notifyItemAddition(CacheFile file, StoreOptionType tier) {
-    	System.out.println(new Timestamp(System.currentTimeMillis())
-				+ ":: [SMACC] onItemAdd: "+file.getKey()+" in "+tier.toString());
-        for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.onItemAdd(file, tier);
+        if (logger.isDebugEnabled()) logger.info("onItemAdd: " + file.getKey() + " in " + tier);
+        if (!enqueue(PolicyEventRing.ADD, file, tier)) {
+            for (CachePolicy cachePolicy : cachePolicies) {
+                synchronized (cachePolicy) {
+                    cachePolicy.onItemAdd(file, tier);
+                }
+            }
         }
     }
 
     public void notifyItemAccess(CacheFile file, StoreOptionType tier) {
-    	System.out.println(new Timestamp(System.currentTimeMillis())
-				+ ":: [SMACC] onItemAccess: "+file.getKey()+" tier= "+tier.toString());
-        for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.onItemAccess(file, tier);
+        if (logger.isDebugEnabled()) logger.info("onItemAccess: " + file.getKey() + " tier= " + tier);
+        if (!enqueue(PolicyEventRing.ACCESS, file, tier)) {
+            for (CachePolicy cachePolicy : cachePolicies) {
+                if (cachePolicy.isAccessThreadSafe()) {
+                    cachePolicy.onItemAccess(file, tier);
+                    continue;
+                }
+                synchronized (cachePolicy) {
+                    cachePolicy.onItemAccess(file, tier);
+                }
+            }
         }
     }
 
     public void notifyItemUpdate(CacheFile file, StoreOptionType tier) {
-    	System.out.println(new Timestamp(System.currentTimeMillis())
-				+ ":: [SMACC] onItemUpdate: "+file.getKey()+" tier= "+tier.toString());
-        for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.onItemUpdate(file, tier);
+        if (logger.isDebugEnabled()) logger.info("onItemUpdate: " + file.getKey() + " tier= " + tier);
+        if (!enqueue(PolicyEventRing.UPDATE, file, tier)) {
+            for (CachePolicy cachePolicy : cachePolicies) {
+                synchronized (cachePolicy) {
+                    cachePolicy.onItemUpdate(file, tier);
+                }
+            }
         }
     }
 
     public void notifyItemDeletion(CacheFile file, StoreOptionType tier) {
-    	System.out.println(new Timestamp(System.currentTimeMillis())
-				+ ":: [SMACC] onItemDelete: "+file.getKey()+" from "+tier.toString());
-        for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.onItemDelete(file, tier);
+        if (logger.isDebugEnabled()) logger.info("onItemDelete: " + file.getKey() + " from " + tier);
+        if (!enqueue(PolicyEventRing.DELETE, file, tier)) {
+            for (CachePolicy cachePolicy : cachePolicies) {
+                synchronized (cachePolicy) {
+                    cachePolicy.onItemDelete(file, tier);
+                }
+            }
         }
     }
 
     public void notifyItemNotAdded(CacheFile file, StoreOptionType tier) {
-    	System.out.println(new Timestamp(System.currentTimeMillis())
-				+ ":: [SMACC] onItemNotAdded: "+file.getKey()+" tier= "+tier.toString());
-        for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.onItemNotAdded(file, tier);
+        if (logger.isDebugEnabled()) logger.info("onItemNotAdded: " + file.getKey() + " tier= " + tier);
+        if (!enqueue(PolicyEventRing.NOT_ADDED, file, tier)) {
+            for (CachePolicy cachePolicy : cachePolicies) {
+                synchronized (cachePolicy) {
+                    cachePolicy.onItemNotAdded(file, tier);
+                }
+            }
         }
     }
 
     public void notifyPolicyReset() {
+        flush();
         for (CachePolicy cachePolicy : cachePolicies) {
-            cachePolicy.reset();
+            synchronized (cachePolicy) {
+                cachePolicy.reset();
+            }
+        }
+    }
+
+    /**
+     * Wait until the events notified so far have been delivered to the policies. Readers of
+     * the policies that need them up to date (e.g., the eviction) call this first.
+     */
+    public void flush() {
+        if (ring == null)
+            return;
+        long target = ring.offered();
+        while (ring.consumed() < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(50_000L);
+        }
+    }
+
+    /**
+     * Deliver the pending events and stop the background thread
+     */
+    public void shutdown() {
+        if (ring == null || shutdown)
+            return;
+        shutdown = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedAccesses.sum() > 0)
+            logger.info("Policy notifier dropped " + droppedAccesses.sum() + " access events");
+    }
+
+    /**
+     * Queue the event for the background thread
+     *
+     * @return false if the event must be delivered by the caller (synchronous notifier)
+     */
+    private boolean enqueue(byte type, CacheFile file, StoreOptionType tier) {
+        if (ring == null || shutdown)
+            return false;
+
+        if (type == PolicyEventRing.ACCESS) {
+            if (accessSampling > 1 && ring.size() > ring.capacity() / 2
+                    && ThreadLocalRandom.current().nextInt(accessSampling) != 0) {
+                droppedAccesses.increment();
+                return true;
+            }
+            if (!ring.offer(type, file, tier))
+                droppedAccesses.increment();
+        } else {
+            // Events that change the cache content must not be lost: wait for the consumer
+            while (!ring.offer(type, file, tier)) {
+                if (shutdown)
+                    return false;
+                LockSupport.unpark(consumer);
+                Thread.onSpinWait();
+            }
+        }
+
+        // Waking the consumer costs a system call, so let a few events gather while it idles
+        if (consumerParked && ring.size() >= BATCH_SIZE)
+            LockSupport.unpark(consumer);
+        return true;
+    }
+
+    private void deliverEvents() {
+        byte[] types = new byte[BATCH_SIZE];
+        CacheFile[] files = new CacheFile[BATCH_SIZE];
+        StoreOptionType[] tiers = new StoreOptionType[BATCH_SIZE];
+
+        while (true) {
+            int count = ring.drain(types, files, tiers);
+            if (count == 0) {
+                if (shutdown && ring.consumed() == ring.offered())
+                    break;
+                consumerParked = true;
+                if (ring.size() == 0)
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                consumerParked = false;
+                continue;
+            }
+
+            // Take the monitor of each policy once per batch
+            for (CachePolicy cachePolicy : cachePolicies) {
+                synchronized (cachePolicy) {
+                    for (int i = 0; i < count; i++) {
+                        deliver(cachePolicy, types[i], files[i], tiers[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++)
+                files[i] = null;
+            ring.markConsumed();
+        }
+    }
+
+    private static void deliver(CachePolicy cachePolicy, byte type, CacheFile file, StoreOptionType tier) {
+        try {
+            switch (type) {
+                case PolicyEventRing.ADD -> cachePolicy.onItemAdd(file, tier);
+                case PolicyEventRing.ACCESS -> cachePolicy.onItemAccess(file, tier);
+                case PolicyEventRing.UPDATE -> cachePolicy.onItemUpdate(file, tier);
+                case PolicyEventRing.DELETE -> cachePolicy.onItemDelete(file, tier);
+                case PolicyEventRing.NOT_ADDED -> cachePolicy.onItemNotAdded(file, tier);
+                default -> logger.error("Unknown policy event type " + type);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Policy " + cachePolicy.getClass().getSimpleName() + " failed on " + file.getKey(), e);
         }
     }
 
@@ -0,0 +1,120 @@
+package edu.cut.smacc.server.cache.policy;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of policy events for many producers (the request threads) and a
+ * single consumer. Each slot has a sequence number telling whether it is free for the producer
+ * of a position or holds the event for the consumer, so producers only contend on the tail CAS.
+ */
+class PolicyEventRing {
+
+    static final byte ADD = 0;
+    static final byte ACCESS = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    static final byte NOT_ADDED = 4;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final byte[] types;
+    private final CacheFile[] files;
+    private final StoreOptionType[] tiers;
+
+    private final AtomicLong tail = new AtomicLong(0);
+    private long head = 0;  // only used by the consumer
+    private volatile long consumed = 0;
+
+    PolicyEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        this.types = new byte[size];
+        this.files = new CacheFile[size];
+        this.tiers = new StoreOptionType[size];
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    boolean offer(byte type, CacheFile file, StoreOptionType tier) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1))
+                    break;
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        types[index] = type;
+        files[index] = file;
+        tiers[index] = tier;
+        sequences.set(index, position + 1); // publish
+        return true;
+    }
+
+    /**
+     * Move up to batchTypes.length published events to the batch arrays (consumer only)
+     *
+     * @return the number of events moved
+     */
+    int drain(byte[] batchTypes, CacheFile[] batchFiles, StoreOptionType[] batchTiers) {
+        int count = 0;
+        while (count < batchTypes.length) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1)
+                break;
+            batchTypes[count] = types[index];
+            batchFiles[count] = files[index];
+            batchTiers[count] = tiers[index];
+            files[index] = null;
+            tiers[index] = null;
+            sequences.set(index, head + mask + 1); // free the slot for the next lap
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Mark the drained events as delivered to the policies (consumer only)
+     */
+    void markConsumed() {
+        consumed = head;
+    }
+
+    /**
+     * @return the number of events offered so far (including any being written)
+     */
+    long offered() {
+        return tail.get();
+    }
+
+    /**
+     * @return the number of events delivered to the policies so far
+     */
+    long consumed() {
+        return consumed;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - consumed);
+    }
+}
@@ -4,6 +4,7 @@ import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.configuration.ServerConfigurations;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.PolicyClock;
 import edu.cut.smacc.utils.collections.SortedWeightedTree;
 import edu.cut.smacc.utils.collections.WeightedEXDNode;
 
@@ -38,9 +39,9 @@ public class AdmissionEXD extends AdmissionLocation {
     @Override
     public void onItemAdd(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.MEMORY_ONLY) {
-            memoryTree.addNode(new WeightedEXDNode<>(file, System.currentTimeMillis()));
+            memoryTree.addNode(new WeightedEXDNode<>(file, PolicyClock.currentTimeMillis()));
         } else if (tier == StoreOptionType.DISK_ONLY) {
-            diskTree.addNode(new WeightedEXDNode<>(file, System.currentTimeMillis()));
+            diskTree.addNode(new WeightedEXDNode<>(file, PolicyClock.currentTimeMillis()));
         }
     }
 
@@ -140,7 +141,7 @@ public class AdmissionEXD extends AdmissionLocation {
         // Compute the weight of the items that will need to be evicted
         // if we decide to admit this item
         double sumWeights = 0d;
-        WeightedEXDNode<CacheFile> currNode = new WeightedEXDNode<>(file, System.currentTimeMillis());
+        WeightedEXDNode<CacheFile> currNode = new WeightedEXDNode<>(file, PolicyClock.currentTimeMillis());
         Iterator<WeightedEXDNode<CacheFile>> nodes = tree.ascIter();
         WeightedEXDNode<CacheFile> nextNode;
         double nextNodeWeight;
@@ -0,0 +1,145 @@
+package edu.cut.smacc.server.cache.policy.admission;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.collections.AccessBasedList;
+import edu.cut.smacc.utils.collections.FrequencySketch;
+
+/**
+ * TinyLFU admission: a file is cached in a tier with no free space for it only if it has been
+ * requested more often than the least recently used file of the tier, which it would replace.
+ * The request frequencies come from a count-min sketch that also counts the files not admitted,
+ * so one-hit wonders (e.g., scans) stay out of the cache while files requested again get in.
+ */
+public class AdmissionWTinyLFU extends AdmissionLocation {
+
+    private FrequencySketch sketch;
+    private AccessBasedList<CacheFile> memoryList;
+    private AccessBasedList<CacheFile> diskList;
+
+    @Override
+    public void initialize(Configuration conf) {
+        super.initialize(conf);
+        sketch = new FrequencySketch(conf.getInt(ServerConfigurations.TINYLFU_SKETCH_WIDTH_KEY,
+                ServerConfigurations.TINYLFU_SKETCH_WIDTH_DEFAULT));
+        memoryList = new AccessBasedList<>();
+        diskList = new AccessBasedList<>();
+    }
+
+    @Override
+    public synchronized StoreOptionType getReadAdmissionLocation(CacheFile file) {
+        return getLocation(readLocation, file);
+    }
+
+    @Override
+    public synchronized StoreOptionType getWriteAdmissionLocation(CacheFile file) {
+        return getLocation(writeLocation, file);
+    }
+
+    @Override
+    public void onItemAdd(CacheFile file, StoreOptionType tier) {
+        sketch.increment(file);
+        if (tier == StoreOptionType.MEMORY_ONLY) {
+            memoryList.add(file);
+        } else if (tier == StoreOptionType.DISK_ONLY) {
+            diskList.add(file);
+        }
+    }
+
+    @Override
+    public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+        sketch.increment(file);
+    }
+
+    @Override
+    public void onItemAccess(CacheFile file, StoreOptionType tier) {
+        sketch.increment(file);
+        if (tier == StoreOptionType.MEMORY_ONLY) {
+            memoryList.accessItem(file);
+        } else if (tier == StoreOptionType.DISK_ONLY) {
+            diskList.accessItem(file);
+        }
+    }
+
+    @Override
+    public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+        onItemAccess(file, tier);
+    }
+
+    @Override
+    public void onItemDelete(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.MEMORY_ONLY) {
+            memoryList.deleteItem(file);
+        } else if (tier == StoreOptionType.DISK_ONLY) {
+            diskList.deleteItem(file);
+        }
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+        memoryList.clear();
+        diskList.clear();
+    }
+
+    private StoreOptionType getLocation(StoreOptionType location, CacheFile file) {
+        switch (location) {
+            case MEMORY_ONLY -> {
+                if (admit(file, memoryList, memoryFreeSpace()))
+                    return StoreOptionType.MEMORY_ONLY;
+            }
+            case DISK_ONLY -> {
+                if (admit(file, diskList, diskFreeSpace()))
+                    return StoreOptionType.DISK_ONLY;
+            }
+            case MEMORY_DISK -> {
+                boolean admitMemory = admit(file, memoryList, memoryFreeSpace());
+                boolean admitDisk = admit(file, diskList, diskFreeSpace());
+                if (admitMemory && admitDisk)
+                    return StoreOptionType.MEMORY_DISK;
+                if (admitMemory)
+                    return StoreOptionType.MEMORY_ONLY;
+                if (admitDisk)
+                    return StoreOptionType.DISK_ONLY;
+            }
+            case S3_ONLY -> {
+                return StoreOptionType.S3_ONLY;
+            }
+            default -> throw new IllegalArgumentException("Unexpected value: " + location);
+        }
+        return StoreOptionType.S3_ONLY;
+    }
+
+    boolean admit(CacheFile file, AccessBasedList<CacheFile> list, long freeSpace) {
+        if (freeSpace >= file.getActualSize())
+            return true;
+
+        CacheFile victim = list.getLRUItem();
+        if (victim == null)
+            return true;
+        // Count the current request too, as it is recorded only after the decision
+        return sketch.frequency(file) + 1 > sketch.frequency(victim);
+    }
+
+    private long memoryFreeSpace() {
+        if (memorySettings == null)
+            return 0;
+        return memorySettings.getStats().getMaxCapacity() - memorySettings.getStats().getReportedUsage();
+    }
+
+    private long diskFreeSpace() {
+        long maxFreeSpace = -1;
+        if (diskSettings == null)
+            return maxFreeSpace;
+        for (Integer diskNum : diskSettings.keySet()) {
+            long diskCapacity = diskSettings.get(diskNum).getStats().getMaxCapacity();
+            long diskUsage = diskSettings.get(diskNum).getStats().getReportedUsage();
+            if (diskCapacity - diskUsage > maxFreeSpace) {
+                maxFreeSpace = diskCapacity - diskUsage;
+            }
+        }
+        return maxFreeSpace;
+    }
+}
@@ -0,0 +1,177 @@
+package edu.cut.smacc.server.cache.policy.eviction.item;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.CacheKey;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.collections.AccessBasedList;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * An implementation of ARC (Adaptive Replacement Cache) as an eviction policy. Cached items
+ * are in T1 (seen once recently) or T2 (seen at least twice); the keys of the items evicted
+ * from them are remembered in the ghost lists B1 and B2. A new item found in B1 means T1 was
+ * too small and one found in B2 means T2 was, so the target size of T1 adapts between recency
+ * and frequency without tuning.
+ * <p>
+ * The cache size (c) is the largest number of items the tier has held, as the tiers are bounded
+ * in bytes; the ghost lists are also bounded by eviction.policy.arc.ghost.entries.
+ */
+public class EvictionItemARC implements EvictionItemPolicy {
+
+    private int maxGhostEntries;
+    private ArcLists memoryLists;
+    private ArcLists diskLists;
+
+    /**
+     * The resident and ghost lists of a tier
+     */
+    private class ArcLists {
+        private final AccessBasedList<CacheFile> t1 = new AccessBasedList<>();
+        private final AccessBasedList<CacheFile> t2 = new AccessBasedList<>();
+        private final LinkedHashSet<CacheKey> b1 = new LinkedHashSet<>();   // LRU first
+        private final LinkedHashSet<CacheKey> b2 = new LinkedHashSet<>();
+        private double p = 0;      // target size of T1
+        private int capacity = 0;  // c
+        private CacheFile victim;  // last item chosen for eviction
+
+        void add(CacheFile file) {
+            if (t1.containsItem(file) || t2.containsItem(file))
+                return;
+            CacheKey key = keyOf(file);
+            if (b1.remove(key)) {
+                p = Math.min(capacity, p + Math.max(1d, (double) b2.size() / Math.max(1, b1.size())));
+                t2.add(file);
+            } else if (b2.remove(key)) {
+                p = Math.max(0, p - Math.max(1d, (double) b1.size() / Math.max(1, b2.size())));
+                t2.add(file);
+            } else {
+                t1.add(file);
+            }
+            capacity = Math.max(capacity, t1.size() + t2.size());
+        }
+
+        void access(CacheFile file) {
+            if (t1.containsItem(file)) {
+                t1.deleteItem(file);
+                t2.add(file);
+            } else {
+                t2.accessItem(file);
+            }
+        }
+
+        void delete(CacheFile file) {
+            boolean evicted = (file == victim);
+            if (file == victim)
+                victim = null;
+
+            if (t1.deleteItem(file) != null) {
+                if (evicted)
+                    remember(b1, keyOf(file));
+            } else if (t2.deleteItem(file) != null) {
+                if (evicted)
+                    remember(b2, keyOf(file));
+            }
+        }
+
+        CacheFile evict() {
+            if (t1.size() > 0 && (t1.size() > p || t2.size() == 0))
+                victim = t1.getLRUItem();
+            else
+                victim = t2.getLRUItem();
+            return victim;
+        }
+
+        private void remember(LinkedHashSet<CacheKey> ghosts, CacheKey key) {
+            ghosts.add(key);
+            // |T1| + |B1| <= c and |T1| + |T2| + |B1| + |B2| <= 2c
+            while (!b1.isEmpty() && t1.size() + b1.size() > capacity)
+                removeLRU(b1);
+            while (!b2.isEmpty() && t1.size() + t2.size() + b1.size() + b2.size() > 2 * capacity)
+                removeLRU(b2);
+            while (b1.size() + b2.size() > maxGhostEntries)
+                removeLRU(b1.size() > b2.size() ? b1 : b2);
+        }
+
+        private void removeLRU(LinkedHashSet<CacheKey> ghosts) {
+            Iterator<CacheKey> iterator = ghosts.iterator();
+            iterator.next();
+            iterator.remove();
+        }
+
+        void clear() {
+            t1.clear();
+            t2.clear();
+            b1.clear();
+            b2.clear();
+            p = 0;
+            capacity = 0;
+            victim = null;
+        }
+    }
+
+    private static CacheKey keyOf(CacheFile file) {
+        return new CacheKey(file.getBucket(), file.getKey());
+    }
+
+    @Override
+    public void initialize(Configuration conf) {
+        maxGhostEntries = conf.getInt(ServerConfigurations.ARC_GHOST_ENTRIES_KEY,
+                ServerConfigurations.ARC_GHOST_ENTRIES_DEFAULT);
+        memoryLists = new ArcLists();
+        diskLists = new ArcLists();
+    }
+
+    @Override
+    public CacheFile getItemToEvict(StoreOptionType evictionTier) {
+        if (evictionTier == StoreOptionType.DISK_ONLY)
+            return diskLists.evict();
+        else if (evictionTier == StoreOptionType.MEMORY_ONLY)
+            return memoryLists.evict();
+        return null;
+    }
+
+    @Override
+    public void onItemAdd(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskLists.add(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryLists.add(file);
+    }
+
+    @Override
+    public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+        // Do nothing
+    }
+
+    @Override
+    public void onItemAccess(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskLists.access(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryLists.access(file);
+    }
+
+    @Override
+    public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+        onItemAccess(file, tier);
+    }
+
+    @Override
+    public void onItemDelete(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskLists.delete(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryLists.delete(file);
+    }
+
+    @Override
+    public void reset() {
+        memoryLists.clear();
+        diskLists.clear();
+    }
+
+}
@@ -3,8 +3,6 @@ package edu.cut.smacc.server.cache.policy.eviction.item;
 import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
-import edu.cut.smacc.server.cache.disk.DiskFile;
-import edu.cut.smacc.server.cache.memory.MemoryFile;
 import edu.cut.smacc.utils.collections.AccessBasedList;
 
 /**
@@ -14,8 +12,8 @@ import edu.cut.smacc.utils.collections.AccessBasedList;
  */
 public abstract class EvictionItemAccessBased implements EvictionItemPolicy {
 
-    protected AccessBasedList<MemoryFile> memAbList;
-    protected AccessBasedList<DiskFile> diskAbList;
+    protected AccessBasedList<CacheFile> memAbList;
+    protected AccessBasedList<CacheFile> diskAbList;
 
     @Override
     public void initialize(Configuration conf) {
@@ -26,9 +24,9 @@ public abstract class EvictionItemAccessBased implements EvictionItemPolicy {
     @Override
     public void onItemAdd(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.DISK_ONLY)
-            diskAbList.add((DiskFile) file);
+            diskAbList.add(file);
         else if (tier == StoreOptionType.MEMORY_ONLY)
-            memAbList.add((MemoryFile) file);
+            memAbList.add(file);
     }
 
     @Override
@@ -39,25 +37,25 @@ public abstract class EvictionItemAccessBased implements EvictionItemPolicy {
     @Override
     public void onItemAccess(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.DISK_ONLY)
-            diskAbList.accessItem((DiskFile) file);
+            diskAbList.accessItem(file);
         else if (tier == StoreOptionType.MEMORY_ONLY)
-            memAbList.accessItem((MemoryFile) file);
+            memAbList.accessItem(file);
     }
 
     @Override
     public void onItemUpdate(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.DISK_ONLY)
-            diskAbList.accessItem((DiskFile) file);
+            diskAbList.accessItem(file);
         else if (tier == StoreOptionType.MEMORY_ONLY)
-            memAbList.accessItem((MemoryFile) file);
+            memAbList.accessItem(file);
     }
 
     @Override
     public void onItemDelete(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.DISK_ONLY)
-            diskAbList.deleteItem((DiskFile) file);
+            diskAbList.deleteItem(file);
         else if (tier == StoreOptionType.MEMORY_ONLY)
-            memAbList.deleteItem((MemoryFile) file);
+            memAbList.deleteItem(file);
     }
 
     @Override
@@ -3,6 +3,7 @@ package edu.cut.smacc.server.cache.policy.eviction.item;
 import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.PolicyClock;
 import edu.cut.smacc.utils.collections.SortedWeightedTree;
 import edu.cut.smacc.utils.collections.WeightedEXDNode;
 
@@ -30,9 +31,9 @@ public class EvictionItemEXD implements EvictionItemPolicy {
     @Override
     public void onItemAdd(CacheFile file, StoreOptionType tier) {
         if (tier == StoreOptionType.DISK_ONLY)
-            diskTree.addNode(new WeightedEXDNode<>(file, System.currentTimeMillis()));
+            diskTree.addNode(new WeightedEXDNode<>(file, PolicyClock.currentTimeMillis()));
         else if (tier == StoreOptionType.MEMORY_ONLY)
-            memTree.addNode(new WeightedEXDNode<>(file, System.currentTimeMillis()));
+            memTree.addNode(new WeightedEXDNode<>(file, PolicyClock.currentTimeMillis()));
     }
 
     @Override
@@ -0,0 +1,181 @@
+package edu.cut.smacc.server.cache.policy.eviction.item;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cloud.CloudFetchCost;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An implementation of GreedyDual-Size-Frequency (GDSF) as an eviction policy. Each item has
+ * the priority clock + frequency * cost / size^e and the item with the lowest priority is
+ * evicted; the clock of the tier is then raised to the priority of the victim, so items that
+ * are not accessed age relative to the newly cached ones.
+ * <p>
+ * The cost is the estimated time to fetch the item from the cloud (see CloudFetchCost), or 1
+ * when eviction.policy.gdsf.latency.cost is false. The size exponent e trades object hit ratio
+ * (1, favours small items) for byte hit ratio (0, ignores the sizes).
+ * <p>
+ * The priorities are kept in a concurrent skip list, so accesses update them without the
+ * policy monitor (see isAccessThreadSafe).
+ */
+public class EvictionItemGDSF implements EvictionItemPolicy {
+
+    private boolean latencyCost;
+    private double sizeExponent;
+    private Priorities memoryQueue;
+    private Priorities diskQueue;
+
+    /**
+     * An immutable entry of the priority queue; updates replace it
+     */
+    private record Entry(CacheFile file, long size, int frequency, double priority, long sequence)
+            implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = Double.compare(priority, o.priority);
+            return (c != 0) ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * The priorities of the items of a tier
+     */
+    private class Priorities {
+        private final Map<CacheFile, Entry> entries = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Entry> queue = new ConcurrentSkipListSet<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private volatile double clock = 0;
+
+        void add(CacheFile file) {
+            entries.compute(file, (f, entry) -> {
+                if (entry != null)
+                    queue.remove(entry);
+                return enqueue(f, sizeOf(f), (entry == null) ? 1 : entry.frequency() + 1);
+            });
+        }
+
+        void access(CacheFile file, boolean resized) {
+            entries.computeIfPresent(file, (f, entry) -> {
+                queue.remove(entry);
+                return enqueue(f, resized ? sizeOf(f) : entry.size(), entry.frequency() + 1);
+            });
+        }
+
+        void delete(CacheFile file) {
+            entries.computeIfPresent(file, (f, entry) -> {
+                queue.remove(entry);
+                return null;
+            });
+        }
+
+        CacheFile evict() {
+            Entry victim;
+            try {
+                victim = queue.first();
+            } catch (NoSuchElementException e) { // empty
+                return null;
+            }
+            if (victim.priority() > clock)
+                clock = victim.priority();
+            return victim.file();
+        }
+
+        private Entry enqueue(CacheFile file, long size, int frequency) {
+            double cost = latencyCost ? CloudFetchCost.estimateMillis(size) : 1;
+            double priority = clock + frequency * cost / Math.pow(size, sizeExponent);
+            Entry entry = new Entry(file, size, frequency, priority, sequence.incrementAndGet());
+            queue.add(entry);
+            return entry;
+        }
+
+        void clear() {
+            entries.clear();
+            queue.clear();
+            clock = 0;
+        }
+    }
+
+    private static long sizeOf(CacheFile file) {
+        long size = file.getTotalSize();
+        if (size <= 0)
+            size = file.getActualSize();
+        return Math.max(1, size);
+    }
+
+    @Override
+    public void initialize(Configuration conf) {
+        latencyCost = conf.getBoolean(ServerConfigurations.GDSF_LATENCY_COST_KEY,
+                ServerConfigurations.GDSF_LATENCY_COST_DEFAULT);
+        sizeExponent = conf.getDouble(ServerConfigurations.GDSF_SIZE_EXPONENT_KEY,
+                ServerConfigurations.GDSF_SIZE_EXPONENT_DEFAULT);
+        memoryQueue = new Priorities();
+        diskQueue = new Priorities();
+    }
+
+    @Override
+    public CacheFile getItemToEvict(StoreOptionType evictionTier) {
+        if (evictionTier == StoreOptionType.DISK_ONLY)
+            return diskQueue.evict();
+        else if (evictionTier == StoreOptionType.MEMORY_ONLY)
+            return memoryQueue.evict();
+        return null;
+    }
+
+    @Override
+    public void onItemAdd(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueue.add(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueue.add(file);
+    }
+
+    @Override
+    public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+        // Do nothing
+    }
+
+    @Override
+    public void onItemAccess(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueue.access(file, false);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueue.access(file, false);
+    }
+
+    @Override
+    public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+        // The size may have changed
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueue.access(file, true);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueue.access(file, true);
+    }
+
+    @Override
+    public void onItemDelete(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueue.delete(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueue.delete(file);
+    }
+
+    @Override
+    public void reset() {
+        memoryQueue.clear();
+        diskQueue.clear();
+    }
+
+    @Override
+    public boolean isAccessThreadSafe() {
+        return true;
+    }
+
+}
@@ -4,6 +4,7 @@ import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.configuration.ServerConfigurations;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.PolicyClock;
 import edu.cut.smacc.utils.collections.SortedWeightedTree;
 import edu.cut.smacc.utils.collections.WeightedLIFENode;
 import edu.cut.smacc.utils.collections.WeightedSizeNode;
@@ -126,7 +127,7 @@ public class EvictionItemLIFE implements EvictionItemPolicy {
         // traverse the newListLRU in ascending order and move
         // any items older than the window into the oldListLFU.
         // These items must be removed from newListSize as well.
-        long now = System.currentTimeMillis();
+        long now = PolicyClock.currentTimeMillis();
         Iterator<WeightedLIFENode<CacheFile>> nodes = newListLRU.ascIter();
         while (nodes.hasNext()) {
             WeightedLIFENode<CacheFile> node = nodes.next();
@@ -0,0 +1,239 @@
+package edu.cut.smacc.server.cache.policy.eviction.item;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.CacheKey;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * An implementation of S3-FIFO as an eviction policy. New items enter a small FIFO queue and
+ * the items evicted from it are remembered in a ghost FIFO; items cached again while in the
+ * ghost queue, or accessed while in the small queue, go to the main FIFO queue. An access only
+ * bumps a small frequency counter of the item (without locking, see isAccessThreadSafe), and
+ * the queues are reordered only on eviction: the main queue reinserts accessed items instead
+ * of evicting them (like CLOCK).
+ */
+public class EvictionItemS3FIFO implements EvictionItemPolicy {
+
+    private static final int MAX_FREQUENCY = 3;
+
+    private int smallPercent;
+    private Queues memoryQueues;
+    private Queues diskQueues;
+
+    private static class Entry {
+        private static final AtomicIntegerFieldUpdater<Entry> FREQUENCY =
+                AtomicIntegerFieldUpdater.newUpdater(Entry.class, "frequency");
+
+        final CacheFile file;
+        volatile int frequency = 0;
+        boolean inMain;
+        boolean removed = false;
+
+        Entry(CacheFile file, boolean inMain) {
+            this.file = file;
+            this.inMain = inMain;
+        }
+
+        void hit() {
+            int current = frequency;
+            if (current < MAX_FREQUENCY)
+                FREQUENCY.compareAndSet(this, current, current + 1); // a lost hit is fine
+        }
+    }
+
+    /**
+     * The queues of a tier. Deleted items stay in the queues until they reach the head.
+     */
+    private class Queues {
+        private final Map<CacheFile, Entry> entries = new ConcurrentHashMap<>();
+        private final ArrayDeque<Entry> small = new ArrayDeque<>();
+        private final ArrayDeque<Entry> main = new ArrayDeque<>();
+        private final ArrayDeque<CacheKey> ghost = new ArrayDeque<>();
+        private final Set<CacheKey> ghostKeys = new HashSet<>();
+        private int smallCount = 0;
+        private int mainCount = 0;
+        private int capacity = 0;   // the most items held, to bound the ghost queue
+        private Entry victim;       // last entry chosen for eviction
+
+        void add(CacheFile file) {
+            if (entries.containsKey(file))
+                return;
+            CacheKey key = new CacheKey(file.getBucket(), file.getKey());
+            boolean inMain = ghostKeys.remove(key);
+            Entry entry = new Entry(file, inMain);
+            entries.put(file, entry);
+            if (inMain) {
+                main.addLast(entry);
+                mainCount++;
+            } else {
+                small.addLast(entry);
+                smallCount++;
+            }
+            capacity = Math.max(capacity, smallCount + mainCount);
+        }
+
+        void access(CacheFile file) {
+            Entry entry = entries.get(file);
+            if (entry != null)
+                entry.hit();
+        }
+
+        void delete(CacheFile file) {
+            Entry entry = entries.remove(file);
+            if (entry == null)
+                return;
+            entry.removed = true;
+            if (entry.inMain) {
+                mainCount--;
+            } else {
+                smallCount--;
+                if (entry == victim)
+                    remember(new CacheKey(file.getBucket(), file.getKey()));
+            }
+            if (entry == victim)
+                victim = null;
+        }
+
+        CacheFile evict() {
+            if (victim != null && !victim.removed)
+                return victim.file;
+
+            while (smallCount + mainCount > 0) {
+                boolean fromSmall = smallCount > 0
+                        && (mainCount == 0 || smallCount * 100 >= (smallCount + mainCount) * smallPercent);
+                Entry entry = fromSmall ? pollLive(small) : pollLive(main);
+                if (entry == null) { // cannot happen while the counts match the queues
+                    if (fromSmall) smallCount = 0;
+                    else mainCount = 0;
+                    continue;
+                }
+                if (fromSmall) {
+                    if (entry.frequency > 0) {
+                        // Accessed while in probation: move to the main queue
+                        entry.frequency = 0;
+                        entry.inMain = true;
+                        smallCount--;
+                        mainCount++;
+                        main.addLast(entry);
+                        continue;
+                    }
+                } else if (entry.frequency > 0) {
+                    // Second chance in the main queue
+                    entry.frequency = entry.frequency - 1;
+                    main.addLast(entry);
+                    continue;
+                }
+                // The victim stays at the head of its queue until it is deleted
+                if (entry.inMain)
+                    main.addFirst(entry);
+                else
+                    small.addFirst(entry);
+                victim = entry;
+                return entry.file;
+            }
+            return null;
+        }
+
+        private Entry pollLive(ArrayDeque<Entry> queue) {
+            Entry entry = queue.pollFirst();
+            while (entry != null && entry.removed)
+                entry = queue.pollFirst();
+            return entry;
+        }
+
+        private void remember(CacheKey key) {
+            if (ghostKeys.add(key))
+                ghost.addLast(key);
+            while (ghostKeys.size() > Math.max(1, capacity)) {
+                CacheKey oldest = ghost.pollFirst();
+                if (oldest == null)
+                    break;
+                ghostKeys.remove(oldest);
+            }
+        }
+
+        void clear() {
+            entries.clear();
+            small.clear();
+            main.clear();
+            ghost.clear();
+            ghostKeys.clear();
+            smallCount = 0;
+            mainCount = 0;
+            capacity = 0;
+            victim = null;
+        }
+    }
+
+    @Override
+    public void initialize(Configuration conf) {
+        smallPercent = conf.getInt(ServerConfigurations.S3FIFO_SMALL_PERCENT_KEY,
+                ServerConfigurations.S3FIFO_SMALL_PERCENT_DEFAULT);
+        memoryQueues = new Queues();
+        diskQueues = new Queues();
+    }
+
+    @Override
+    public CacheFile getItemToEvict(StoreOptionType evictionTier) {
+        if (evictionTier == StoreOptionType.DISK_ONLY)
+            return diskQueues.evict();
+        else if (evictionTier == StoreOptionType.MEMORY_ONLY)
+            return memoryQueues.evict();
+        return null;
+    }
+
+    @Override
+    public void onItemAdd(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueues.add(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueues.add(file);
+    }
+
+    @Override
+    public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+        // Do nothing
+    }
+
+    @Override
+    public void onItemAccess(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueues.access(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueues.access(file);
+    }
+
+    @Override
+    public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+        onItemAccess(file, tier);
+    }
+
+    @Override
+    public void onItemDelete(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskQueues.delete(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memoryQueues.delete(file);
+    }
+
+    @Override
+    public void reset() {
+        memoryQueues.clear();
+        diskQueues.clear();
+    }
+
+    @Override
+    public boolean isAccessThreadSafe() {
+        return true;
+    }
+
+}
@@ -0,0 +1,160 @@
+package edu.cut.smacc.server.cache.policy.eviction.item;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.utils.collections.AccessBasedList;
+import edu.cut.smacc.utils.collections.FrequencySketch;
+
+/**
+ * An implementation of W-TinyLFU as an eviction policy. New items enter a small LRU window and
+ * then move on to the main region, a segmented LRU (probation for items seen once, protected for
+ * items accessed again). On eviction, the item that entered last (the candidate) competes with
+ * the LRU item of the main region (the victim) and the one with the lower estimated frequency
+ * is evicted, so items requested once (e.g., by scans) do not flush the main region.
+ * The frequencies come from a count-min sketch that also remembers evicted items.
+ */
+public class EvictionItemWTinyLFU implements EvictionItemPolicy {
+
+    private FrequencySketch sketch;
+    private int windowPercent;
+    private int protectedPercent;
+    private Segments memorySegments;
+    private Segments diskSegments;
+
+    /**
+     * The window and main region of a tier
+     */
+    private class Segments {
+        private final AccessBasedList<CacheFile> window = new AccessBasedList<>();
+        private final AccessBasedList<CacheFile> probation = new AccessBasedList<>();
+        private final AccessBasedList<CacheFile> protectedList = new AccessBasedList<>();
+
+        void add(CacheFile file) {
+            if (window.containsItem(file) || probation.containsItem(file) || protectedList.containsItem(file))
+                return;
+            window.add(file);
+            // Items past the share of the window move on to probation
+            int total = window.size() + probation.size() + protectedList.size();
+            while (window.size() > Math.max(1, total * windowPercent / 100)) {
+                CacheFile overflow = window.getLRUItem();
+                window.deleteItem(overflow);
+                probation.add(overflow);
+            }
+        }
+
+        void access(CacheFile file) {
+            if (window.containsItem(file)) {
+                window.accessItem(file);
+            } else if (probation.containsItem(file)) {
+                // Promote to protected and demote the protected LRU items over its share
+                probation.deleteItem(file);
+                protectedList.add(file);
+                int maxProtected = Math.max(1, (probation.size() + protectedList.size()) * protectedPercent / 100);
+                while (protectedList.size() > maxProtected) {
+                    CacheFile demoted = protectedList.getLRUItem();
+                    protectedList.deleteItem(demoted);
+                    probation.add(demoted);
+                }
+            } else if (protectedList.containsItem(file)) {
+                protectedList.accessItem(file);
+            }
+        }
+
+        void delete(CacheFile file) {
+            if (window.deleteItem(file) == null && probation.deleteItem(file) == null)
+                protectedList.deleteItem(file);
+        }
+
+        CacheFile evict() {
+            CacheFile victim = probation.size() > 0 ? probation.getLRUItem() : protectedList.getLRUItem();
+            // The candidate is the item that entered the cache region last
+            CacheFile candidate = window.size() > 0 ? window.getLRUItem() : probation.getMRUItem();
+            if (victim == null || candidate == null)
+                return (victim == null) ? candidate : victim;
+            if (candidate == victim)
+                return victim;
+
+            // Keep the candidate only if it is more popular than the victim
+            if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+                if (window.deleteItem(candidate) != null)
+                    probation.add(candidate);
+                return victim;
+            }
+            return candidate;
+        }
+
+        void clear() {
+            window.clear();
+            probation.clear();
+            protectedList.clear();
+        }
+    }
+
+    @Override
+    public void initialize(Configuration conf) {
+        sketch = new FrequencySketch(conf.getInt(ServerConfigurations.TINYLFU_SKETCH_WIDTH_KEY,
+                ServerConfigurations.TINYLFU_SKETCH_WIDTH_DEFAULT));
+        windowPercent = conf.getInt(ServerConfigurations.TINYLFU_WINDOW_PERCENT_KEY,
+                ServerConfigurations.TINYLFU_WINDOW_PERCENT_DEFAULT);
+        protectedPercent = conf.getInt(ServerConfigurations.TINYLFU_PROTECTED_PERCENT_KEY,
+                ServerConfigurations.TINYLFU_PROTECTED_PERCENT_DEFAULT);
+        memorySegments = new Segments();
+        diskSegments = new Segments();
+    }
+
+    @Override
+    public CacheFile getItemToEvict(StoreOptionType evictionTier) {
+        if (evictionTier == StoreOptionType.DISK_ONLY)
+            return diskSegments.evict();
+        else if (evictionTier == StoreOptionType.MEMORY_ONLY)
+            return memorySegments.evict();
+        return null;
+    }
+
+    @Override
+    public void onItemAdd(CacheFile file, StoreOptionType tier) {
+        sketch.increment(file);
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskSegments.add(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memorySegments.add(file);
+    }
+
+    @Override
+    public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+        // Remember the request for when the item is cached later
+        sketch.increment(file);
+    }
+
+    @Override
+    public void onItemAccess(CacheFile file, StoreOptionType tier) {
+        sketch.increment(file);
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskSegments.access(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memorySegments.access(file);
+    }
+
+    @Override
+    public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+        onItemAccess(file, tier);
+    }
+
+    @Override
+    public void onItemDelete(CacheFile file, StoreOptionType tier) {
+        if (tier == StoreOptionType.DISK_ONLY)
+            diskSegments.delete(file);
+        else if (tier == StoreOptionType.MEMORY_ONLY)
+            memorySegments.delete(file);
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+        memorySegments.clear();
+        diskSegments.clear();
+    }
+
+}
@@ -22,6 +22,17 @@ public interface EvictionTriggerPolicy {
      */
     boolean triggerEviction(UsageStats cacheStats, UsageStats downgradeStats, StoreOptionType tier);
 
+    /**
+     * Check if a triggered eviction should go on, so that space is reclaimed in batches
+     * @param cacheStats the usage stats of the tier
+     * @param downgradeStats the usage stats of the tier below
+     * @param tier the tier to check
+     * @return true if more items should be evicted
+     */
+    default boolean continueEviction(UsageStats cacheStats, UsageStats downgradeStats, StoreOptionType tier) {
+        return triggerEviction(cacheStats, downgradeStats, tier);
+    }
+
     static EvictionTriggerPolicy getInstance(Configuration conf) {
         Class<? extends EvictionTriggerPolicy> evictionTriggerClass = conf.getClass(
                 ServerConfigurations.EVICTION_TRIGGER_POLICY_KEY,
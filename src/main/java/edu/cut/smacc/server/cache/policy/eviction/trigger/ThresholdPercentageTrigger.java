@@ -5,21 +5,50 @@ import edu.cut.smacc.configuration.ServerConfigurations;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cache.common.io.UsageStats;
 
+/**
+ * Eviction starts when the usage of a tier reaches the high watermark (threshold percentage)
+ * and goes on until the usage drops below the low watermark. The watermarks can be set per
+ * tier, by suffixing the keys with ".memory" or ".disk".
+ */
 public class ThresholdPercentageTrigger implements EvictionTriggerPolicy {
 
-    private double percentageThreshold;
+    private double memoryHighThreshold;
+    private double memoryLowThreshold;
+    private double diskHighThreshold;
+    private double diskLowThreshold;
 
     @Override
     public void initialize(Configuration conf) {
-        percentageThreshold = conf.getDouble(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY,
+        double highThreshold = conf.getDouble(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY,
                 ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_DEFAULT);
+        double lowThreshold = conf.getDouble(ServerConfigurations.EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_KEY,
+                Math.min(highThreshold, ServerConfigurations.EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_DEFAULT));
+
+        memoryHighThreshold = conf.getDouble(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY + ".memory",
+                highThreshold);
+        memoryLowThreshold = Math.min(memoryHighThreshold, conf.getDouble(
+                ServerConfigurations.EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_KEY + ".memory", lowThreshold));
+        diskHighThreshold = conf.getDouble(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY + ".disk",
+                highThreshold);
+        diskLowThreshold = Math.min(diskHighThreshold, conf.getDouble(
+                ServerConfigurations.EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_KEY + ".disk", lowThreshold));
     }
 
     @Override
     public boolean triggerEviction(UsageStats cacheStats, UsageStats downgradeStats, StoreOptionType tier) {
+        double threshold = (tier == StoreOptionType.MEMORY_ONLY) ? memoryHighThreshold : diskHighThreshold;
+        return usagePercentage(cacheStats, downgradeStats) >= threshold;
+    }
+
+    @Override
+    public boolean continueEviction(UsageStats cacheStats, UsageStats downgradeStats, StoreOptionType tier) {
+        double threshold = (tier == StoreOptionType.MEMORY_ONLY) ? memoryLowThreshold : diskLowThreshold;
+        return usagePercentage(cacheStats, downgradeStats) >= threshold;
+    }
+
+    private static double usagePercentage(UsageStats cacheStats, UsageStats downgradeStats) {
         long downgradeMem = downgradeStats == null ? 0 : downgradeStats.getReportedUsage();
-        double percentage = (((double) cacheStats.getReportedUsage() - downgradeMem) / cacheStats.getMaxCapacity()) * 100;
-        return percentage >= percentageThreshold;
+        return (((double) cacheStats.getReportedUsage() - downgradeMem) / cacheStats.getMaxCapacity()) * 100;
     }
 
 }
@@ -3,6 +3,7 @@ package edu.cut.smacc.server.cloud;
 import edu.cut.smacc.server.tier.CacheOutputStream;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * used in order to synchronize the s3 upload queue
@@ -13,13 +14,25 @@ public class AsyncCloudUploadManager {
     /* ****** STATIC ****** */
     private static ConcurrentLinkedQueue<CacheOutputStream> filequeue = new ConcurrentLinkedQueue<>();// synchronized
                                                                                                       // queue
+    private static final AtomicInteger queueLength = new AtomicInteger(); // size() of the queue is linear
 
     public static void enqueue(CacheOutputStream cacheOutputStream) {
         filequeue.add(cacheOutputStream);
+        queueLength.incrementAndGet();
     }
 
     static CacheOutputStream dequeue() {
-        return filequeue.poll();
+        CacheOutputStream cacheOutputStream = filequeue.poll();
+        if (cacheOutputStream != null)
+            queueLength.decrementAndGet();
+        return cacheOutputStream;
+    }
+
+    /**
+     * @return the number of files waiting for an upload thread
+     */
+    public static int getQueueLength() {
+        return queueLength.get();
     }
 
     static boolean isQueueEmpty() {
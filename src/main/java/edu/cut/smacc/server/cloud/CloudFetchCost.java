@@ -0,0 +1,75 @@
+package edu.cut.smacc.server.cloud;
+
+/**
+ * Running estimates of the cost of fetching an object from the cloud, measured by the cloud
+ * file readers: the latency of a request (until the object starts streaming) and the time to
+ * transfer a byte. Both are exponentially weighted moving averages.
+ * <p>
+ * A transfer is timed from the request to the close of the reader, so a slow consumer makes
+ * the transfer rate look lower than it is; only transfers of at least MIN_TRANSFER_BYTES are
+ * recorded.
+ */
+public final class CloudFetchCost {
+
+    private static final double ALPHA = 0.05;
+    private static final long MIN_TRANSFER_BYTES = 64 * 1024;
+
+    private static final Object lock = new Object();
+    private static volatile double requestNanos = 0;
+    private static volatile double nanosPerByte = 0;
+    private static volatile boolean measured = false;
+
+    private CloudFetchCost() {
+    }
+
+    /**
+     * Record the time it took to issue a read request to the cloud
+     */
+    public static void recordRequest(long nanos) {
+        synchronized (lock) {
+            requestNanos = measured ? requestNanos + ALPHA * (nanos - requestNanos) : nanos;
+            measured = true;
+        }
+    }
+
+    /**
+     * Record the time it took to read (and close) the given bytes of a cloud object
+     */
+    public static void recordTransfer(long bytes, long nanos) {
+        if (bytes < MIN_TRANSFER_BYTES || nanos <= 0)
+            return;
+        double perByte = (double) nanos / bytes;
+        synchronized (lock) {
+            nanosPerByte = (nanosPerByte == 0) ? perByte : nanosPerByte + ALPHA * (perByte - nanosPerByte);
+        }
+    }
+
+    /**
+     * @return true if at least one request has been recorded
+     */
+    public static boolean isMeasured() {
+        return measured;
+    }
+
+    /**
+     * @return the estimated time in milliseconds to fetch an object of the given size,
+     * or 1 if no request has been recorded yet
+     */
+    public static double estimateMillis(long size) {
+        if (!measured)
+            return 1;
+        return (requestNanos + size * nanosPerByte) / 1e6;
+    }
+
+    /**
+     * Forget all measurements
+     */
+    public static void reset() {
+        synchronized (lock) {
+            requestNanos = 0;
+            nanosPerByte = 0;
+            measured = false;
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package edu.cut.smacc.server.cloud;
+
+import edu.cut.smacc.server.cache.common.io.SharedReadBuffer;
+
+import java.io.IOException;
+
+/**
+ * A cloud file reader that publishes the bytes it reads to a shared buffer, so that
+ * concurrent requests for the same object can attach to this read
+ */
+public class SharedCloudFileReader extends CloudFileReader {
+
+    private final CloudFileReader cloudReader;
+    private final SharedReadBuffer buffer;
+    private final Runnable onDone;
+    private boolean done;
+
+    /**
+     * @param cloudReader the reader that fetches the object
+     * @param buffer the buffer to publish the bytes to
+     * @param onDone called once, when the reader is closed or fails, before the reader detaches from the buffer
+     */
+    public SharedCloudFileReader(CloudFileReader cloudReader, SharedReadBuffer buffer, Runnable onDone) {
+        this.cloudReader = cloudReader;
+        this.buffer = buffer;
+        this.onDone = onDone;
+        this.done = false;
+    }
+
+    @Override
+    public CloudFile getCloudFile() {
+        return cloudReader.getCloudFile();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int r = read(b, 0, 1);
+        return (r == -1) ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buff, int off, int len) throws IOException {
+        int r;
+        try {
+            r = cloudReader.read(buff, off, len);
+        } catch (IOException e) {
+            finish();
+            throw e;
+        }
+        if (r > 0)
+            buffer.append(buff, off, r);
+        return r;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        cloudReader.close();
+    }
+
+    private void finish() {
+        if (!done) {
+            done = true;
+            buffer.fail(); // no effect if all the bytes were appended
+            onDone.run();
+            buffer.detach();
+        }
+    }
+
+}
@@ -3,8 +3,10 @@ package edu.cut.smacc.server.main;
 import edu.cut.smacc.cli.SmaccCLI;
 import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.main.network.NetworkEngine;
 import edu.cut.smacc.server.main.request.ClientConnectionHandler;
 import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.statistics.metrics.MetricsServer;
 import edu.cut.smacc.server.tier.TierManager;
 import edu.cut.smacc.utils.BasicGlobalTimer;
 import org.apache.logging.log4j.LogManager;
@@ -15,14 +17,13 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles a new connection, whatever that connection may be (client or not)
@@ -32,15 +33,21 @@ import java.util.concurrent.TimeUnit;
 public class ServerMain {
     private static final Logger logger = LogManager.getLogger(ServerMain.class);
 
-    private static long connectionCounter = 1;
+    private static final AtomicLong connectionCounter = new AtomicLong(1);
     private static ServerSocket ssocket = null;
-    private static boolean alive = true;
 
     private static final Map<String, ClientConnectionHandler> clientResetConnectionHandlers = new HashMap<>();
     private static final Map<String, Boolean> manualUploadingStore = new HashMap<>();
 
     private static String SERVER_CONFIGURATION_PATH = "conf/server.config.properties";
 
+    /**
+     * @return a unique id for a connection (or a request of a session)
+     */
+    public static long newConnectionId() {
+        return connectionCounter.getAndIncrement();
+    }
+
     public static void storeClientConnHandler(ClientConnectionHandler handler, long connectionId) {
         synchronized (clientResetConnectionHandlers) {
             if (logger.isDebugEnabled()) logger.info("Connection Stored: " + connectionId);
@@ -134,12 +141,22 @@ public class ServerMain {
         StatisticsManager statisticsManager = new StatisticsManager(configuration, tier.getMemoryStatistics(),
                 tier.getDiskStatistics(), tier.getStoragePerformanceStatistics());
 
-        ExecutorService clientHandlingService = Executors
-                .newFixedThreadPool(ServerConfigurations.getClientHandlingThreadPoolSize());
+        NetworkEngine networkEngine = NetworkEngine.create(ServerConfigurations.getNetworkEngine(), tier,
+                statisticsManager);
+
+        MetricsServer metricsServer = null;
+        if (ServerConfigurations.getMetricsHttpPort() > 0) {
+            metricsServer = new MetricsServer(ServerConfigurations.getMetricsHttpPort(), tier, statisticsManager);
+            metricsServer.start();
+        }
 
         /* Start Server */
+        ServerSocketChannel serverChannel = null;
         try {
-            ssocket = new ServerSocket(ServerConfigurations.getServerPort(), ServerConfigurations.getServerQueueSize());
+            // Opened through a channel so that the accepted sockets have channels for zero-copy GETs
+            serverChannel = ServerSocketChannel.open();
+            ssocket = serverChannel.socket();
+            ssocket.bind(new InetSocketAddress(ServerConfigurations.getServerPort()), ServerConfigurations.getServerQueueSize());
         } catch (IOException e) {
             logger.fatal("Main server failed to start: " + e.getMessage());
             System.exit(1);
@@ -147,34 +164,20 @@ public class ServerMain {
 
         System.out.println("SMACC Server has started running");
         BasicGlobalTimer.startTimer();
+        statisticsManager.startReporter(ServerConfigurations.getStatisticsReporterIntervalMs());
         /* Accept Connections */
-        while (!ssocket.isClosed()) {
-            try {
-                Socket connection = ssocket.accept();
-                connection.setSendBufferSize(ServerConfigurations.getServerBufferSize());
-                connection.setSoTimeout(ServerConfigurations.getServerReadTimeout());
-
-                logger.info("Request Accepted");
-                clientHandlingService.submit(new ClientConnectionHandler(connection, tier, statisticsManager, connectionCounter++));
-            } catch (SocketException se) {
-                if (alive) {
-                    logger.error("Server Socket Exception: " + se.getMessage());
-                } else {
-                    logger.info("Server Socket Closed");
-                }
-            } catch (IOException e) {
-                logger.error("Cache Client Connection Failed: " + e.getMessage());
-            }
+        try {
+            networkEngine.serve(serverChannel);
+        } catch (IOException e) {
+            logger.fatal("Network engine failed: " + e.getMessage());
         }
 
         /* Shutdown Server */
+        if (metricsServer != null)
+            metricsServer.stop();
         try {
-            clientHandlingService.shutdown(); // Disable new tasks from being submitted
-            if (!clientHandlingService.awaitTermination(10, TimeUnit.SECONDS)) {
-                if (!clientHandlingService.awaitTermination(5, TimeUnit.SECONDS)) {
-                    logger.error("Client handling tasks did not terminate gracefully.");
-                }
-            }
+            statisticsManager.stopReporter();
+            networkEngine.shutdown();
             tier.shutdown();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
@@ -184,7 +187,6 @@ public class ServerMain {
     }
 
     public static void shutdown() throws IOException {
-        alive = false;
         ssocket.close();
     }
 
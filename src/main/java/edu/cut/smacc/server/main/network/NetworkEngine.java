@@ -0,0 +1,81 @@
+package edu.cut.smacc.server.main.network;
+
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.main.ServerMain;
+import edu.cut.smacc.server.main.request.ClientConnectionHandler;
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.tier.TierManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Accepts the client connections of the server and runs a ClientConnectionHandler for each
+ * one. The engines differ in the threads that serve the connections.
+ */
+public abstract class NetworkEngine {
+    private static final Logger logger = LogManager.getLogger(NetworkEngine.class);
+
+    private final TierManager tier;
+    private final StatisticsManager statisticsManager;
+
+    protected NetworkEngine(TierManager tier, StatisticsManager statisticsManager) {
+        this.tier = tier;
+        this.statisticsManager = statisticsManager;
+    }
+
+    /**
+     * Create the engine named in the configuration (threadpool, selector or virtual)
+     */
+    public static NetworkEngine create(String name, TierManager tier, StatisticsManager statisticsManager) {
+        if (name.equalsIgnoreCase("selector")) {
+            return new SelectorNetworkEngine(tier, statisticsManager, ServerConfigurations.getNetworkMaxWorkers());
+        } else if (name.equalsIgnoreCase("virtual")) {
+            ExecutorService executor = newVirtualThreadExecutor();
+            if (executor != null)
+                return new ThreadPoolNetworkEngine(tier, statisticsManager, executor);
+            logger.warn("Virtual threads need JDK 21 or later - using the selector network engine");
+            return new SelectorNetworkEngine(tier, statisticsManager, ServerConfigurations.getNetworkMaxWorkers());
+        } else if (!name.equalsIgnoreCase("threadpool")) {
+            logger.warn("Unknown network engine " + name + " - using the thread pool network engine");
+        }
+        return new ThreadPoolNetworkEngine(tier, statisticsManager,
+                Executors.newFixedThreadPool(ServerConfigurations.getClientHandlingThreadPoolSize()));
+    }
+
+    /**
+     * Accept and serve connections until the server channel is closed
+     */
+    public abstract void serve(ServerSocketChannel serverChannel) throws IOException;
+
+    /**
+     * Stop taking connections and wait for the ones in progress
+     */
+    public abstract void shutdown() throws InterruptedException;
+
+    protected ClientConnectionHandler newHandler(Socket connection) throws SocketException {
+        connection.setSendBufferSize(ServerConfigurations.getServerBufferSize());
+        connection.setSoTimeout(ServerConfigurations.getServerReadTimeout());
+        return new ClientConnectionHandler(connection, tier, statisticsManager, ServerMain.newConnectionId());
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor() or null if the JDK has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package edu.cut.smacc.server.main.network;
+
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.tier.TierManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking accepts on a selector, which also holds the connections until their first bytes
+ * arrive, so idle and slow-starting clients take no thread. A readable connection is switched to
+ * blocking mode and served by an elastic pool that grows up to the maximum number of workers.
+ * Connections that send nothing within the read timeout are closed.
+ */
+class SelectorNetworkEngine extends NetworkEngine {
+    private static final Logger logger = LogManager.getLogger(SelectorNetworkEngine.class);
+
+    private static final int SELECT_TIMEOUT_MS = 1000;
+
+    private final ThreadPoolExecutor workers;
+
+    SelectorNetworkEngine(TierManager tier, StatisticsManager statisticsManager, int maxWorkers) {
+        super(tier, statisticsManager);
+        int coreWorkers = Math.min(ServerConfigurations.getClientHandlingThreadPoolSize(), maxWorkers);
+        this.workers = new ThreadPoolExecutor(coreWorkers, maxWorkers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>());
+    }
+
+    @Override
+    public void serve(ServerSocketChannel serverChannel) throws IOException {
+        Selector selector = Selector.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        List<SocketChannel> readyChannels = new ArrayList<>();
+        long lastIdleCheck = System.currentTimeMillis();
+        try {
+            while (serverChannel.isOpen()) {
+                selector.select(SELECT_TIMEOUT_MS);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        accept(serverChannel, selector);
+                    } else if (key.isReadable()) {
+                        key.cancel();
+                        readyChannels.add((SocketChannel) key.channel());
+                    }
+                }
+
+                if (!readyChannels.isEmpty()) {
+                    selector.selectNow(); // deregister the cancelled keys before going blocking
+                    for (SocketChannel channel : readyChannels)
+                        dispatch(channel);
+                    readyChannels.clear();
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= SELECT_TIMEOUT_MS) {
+                    closeIdleConnections(selector, now);
+                    lastIdleCheck = now;
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys())
+                close(key.channel());
+            selector.close();
+            logger.info("Server Socket Closed");
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel, Selector selector) {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, System.currentTimeMillis());
+                logger.info("Request Accepted");
+            }
+        } catch (IOException e) {
+            if (serverChannel.isOpen())
+                logger.error("Cache Client Connection Failed: " + e.getMessage());
+        }
+    }
+
+    private void dispatch(SocketChannel channel) {
+        try {
+            channel.configureBlocking(true);
+            workers.execute(newHandler(channel.socket()));
+        } catch (RejectedExecutionException e) {
+            logger.error("All " + workers.getMaximumPoolSize() + " workers are busy - connection dropped");
+            close(channel);
+        } catch (IOException e) {
+            logger.error("Cache Client Connection Failed: " + e.getMessage());
+            close(channel);
+        }
+    }
+
+    private void closeIdleConnections(Selector selector, long now) {
+        int readTimeout = ServerConfigurations.getServerReadTimeout();
+        if (readTimeout <= 0)
+            return;
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Long acceptTime && now - acceptTime > readTimeout) {
+                key.cancel();
+                close(key.channel());
+                if (logger.isDebugEnabled()) logger.info("Idle connection closed");
+            }
+        }
+    }
+
+    private static void close(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.error("Client handling tasks did not terminate gracefully.");
+            }
+        }
+    }
+
+}
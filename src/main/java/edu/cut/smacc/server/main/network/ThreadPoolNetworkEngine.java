@@ -0,0 +1,58 @@
+package edu.cut.smacc.server.main.network;
+
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.tier.TierManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking accepts, with each connection served by a thread of the executor for its whole life:
+ * a fixed pool (connections beyond the pool size wait in its queue) or a virtual thread each.
+ */
+class ThreadPoolNetworkEngine extends NetworkEngine {
+    private static final Logger logger = LogManager.getLogger(ThreadPoolNetworkEngine.class);
+
+    private final ExecutorService clientHandlingService;
+
+    ThreadPoolNetworkEngine(TierManager tier, StatisticsManager statisticsManager, ExecutorService executor) {
+        super(tier, statisticsManager);
+        this.clientHandlingService = executor;
+    }
+
+    @Override
+    public void serve(ServerSocketChannel serverChannel) {
+        while (serverChannel.isOpen()) {
+            try {
+                Socket connection = serverChannel.socket().accept();
+                logger.info("Request Accepted");
+                clientHandlingService.submit(newHandler(connection));
+            } catch (IOException e) {
+                if (!serverChannel.isOpen()) {
+                    logger.info("Server Socket Closed");
+                } else if (e instanceof SocketException) {
+                    logger.error("Server Socket Exception: " + e.getMessage());
+                } else {
+                    logger.error("Cache Client Connection Failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+        clientHandlingService.shutdown(); // Disable new tasks from being submitted
+        if (!clientHandlingService.awaitTermination(10, TimeUnit.SECONDS)) {
+            if (!clientHandlingService.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.error("Client handling tasks did not terminate gracefully.");
+            }
+        }
+    }
+
+}
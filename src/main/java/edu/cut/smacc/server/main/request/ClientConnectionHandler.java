@@ -5,14 +5,15 @@ import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.main.ServerMain;
 import edu.cut.smacc.server.protocol.HeaderServer;
 import edu.cut.smacc.server.protocol.RequestType;
-import edu.cut.smacc.utils.BasicGlobalTimer;
 import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.statistics.latency.LatencySnapshot;
 import edu.cut.smacc.server.tier.TierManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 
 /**
  * Handles the connection after class ServerMain accepted the connection of a client
@@ -31,12 +32,28 @@ public class ClientConnectionHandler implements Runnable {
     private DataInputStream cin;
     private DataOutputStream cout;
     private volatile boolean clientReconnected = false;
+    private final ClientSession session;   // the session of a multiplexed request, null for a plain connection
 
     public ClientConnectionHandler(Socket connection, TierManager tier, StatisticsManager statisticsManager, long connectionId) {
         this.connection = connection;
         this.statisticsManager = statisticsManager;
         this.tier = tier;
         this.connectionId = connectionId;
+        this.session = null;
+    }
+
+    /**
+     * Handler of a request of a session: the request and response streams are carried in
+     * the frames of the session connection
+     */
+    ClientConnectionHandler(ClientSession session, DataInputStream cin, DataOutputStream cout, long connectionId) {
+        this.connection = null;
+        this.statisticsManager = session.getStatisticsManager();
+        this.tier = session.getTier();
+        this.connectionId = connectionId;
+        this.session = session;
+        this.cin = cin;
+        this.cout = cout;
     }
 
     TierManager getTier() {
@@ -89,6 +106,12 @@ public class ClientConnectionHandler implements Runnable {
 
             if (logger.isDebugEnabled()) logger.info("-----> Header Type: " + comHeader.getRequestType().name());
 
+            /* Serve many requests over this connection */
+            if (comHeader.getRequestType() == RequestType.SESSION) {
+                new ClientSession(this, cloudInfo).serve();
+                return;
+            }
+
             /* Handle the request */
             handleRequest(comHeader, cloudInfo);
             if (logger.isDebugEnabled()) logger.info("Client Session Closed");
@@ -102,6 +125,26 @@ public class ClientConnectionHandler implements Runnable {
         }
     }
 
+    /**
+     * Handle a request of a session: read its header from the request stream and serve it
+     * like a request of a plain connection
+     */
+    void handleSessionRequest(CloudInfo cloudInfo) {
+        try {
+            HeaderServer comHeader = new HeaderServer(cin);
+            if (logger.isDebugEnabled()) logger.info("-----> Session Header Type: " + comHeader.getRequestType().name());
+            handleRequest(comHeader, cloudInfo);
+        } catch (EOFException e) {
+            logger.info("Session request abandoned by the client");
+        } catch (IOException e) {
+            logger.error("SESSION IOE", e);
+        } catch (Exception e) {
+            logger.error("SESSION EXC", e);
+        } finally {
+            closeConnection();
+        }
+    }
+
     /**
      * Wake up the client when the client connects back (in case of going manual)
      * Then replace socket, socket out and in with the new ones of the connected client
@@ -129,10 +172,7 @@ public class ClientConnectionHandler implements Runnable {
         if (handleSpecialRequest(type)) {
             return;
         }
-        if (statisticsManager.outputStatistics()) {
-            logger.info("Outputting Statistics");
-            BasicGlobalTimer.resetTimer();
-        }
+        statisticsManager.onOperation();
         if (!header.hasBucket() && type != RequestType.CLEAR_CACHE) {
             sendErrorMessage("Bucket field is missing from Message");
             return;
@@ -141,7 +181,7 @@ public class ClientConnectionHandler implements Runnable {
         RequestHandler requestHandler;
         switch (type) {
             case GET -> requestHandler = RequestHandlerFactory.createGetRequestHandler(this);
-            case PUT -> requestHandler = RequestHandlerFactory.createPutRequestHandler(this);
+            case PUT, PUT_WINDOWED -> requestHandler = RequestHandlerFactory.createPutRequestHandler(this);
             case DEL -> requestHandler = RequestHandlerFactory.createDeleteRequestHandler(this);
             case LIST_CACHE -> requestHandler = RequestHandlerFactory.createListCacheRequestHandler(this);
             case DEL_CACHE, CLEAR_CACHE -> requestHandler = RequestHandlerFactory
@@ -165,6 +205,14 @@ public class ClientConnectionHandler implements Runnable {
         if (type == RequestType.COLLECT_STATS) {
             statisticsManager.outputStatisticsOnClientRequest();
             return true;
+        } else if (type == RequestType.COLLECT_LATENCIES) {
+            // Output the statistics and reply with the latency percentiles of that interval
+            statisticsManager.outputStatisticsOnClientRequest();
+            LatencySnapshot latencies = statisticsManager.getLastLatencySnapshot();
+            sendSuccessMessage();
+            cout.writeUTF((latencies != null) ? latencies.toString() : "");
+            cout.flush();
+            return true;
         } else if (type == RequestType.RESET_STATS) {
             statisticsManager.resetStatistics();
             return true;
@@ -179,12 +227,57 @@ public class ClientConnectionHandler implements Runnable {
 
     void closeConnection() {
         try {
-            if (!connection.isClosed()) connection.close();
+            if (session != null) cout.close();  // ends the response of the request
+            else if (!connection.isClosed()) connection.close();
         } catch (Exception ignored) {
         }
     }
 
+    /**
+     * Close the connection once the client has read the response: end the response, then discard
+     * the data the client still sends until it closes its side or the read times out. Closing a
+     * socket with unread data resets it, and the client may lose the response.
+     */
+    void closeConnectionAfterDrain() {
+        try {
+            InputStream in;
+            if (session != null) {
+                in = cin;
+                cout.close();
+            } else {
+                in = connection.getInputStream();
+                connection.shutdownOutput();
+            }
+            byte[] discard = new byte[8192];
+            while (in.read(discard) >= 0) ;
+        } catch (IOException ignored) {     // including the read timeout
+        }
+        closeConnection();
+    }
+
+    /**
+     * Signal the end of the response (the end of the request stream for a session request)
+     */
+    void shutdownOutput() throws IOException {
+        if (session != null) cout.flush();
+        else connection.shutdownOutput();
+    }
+
+    boolean isConnected() {
+        return (session != null) ? session.isOpen() : connection.isConnected();
+    }
+
+    /**
+     * @return the channel of the client socket, or null for session requests and sockets without channels
+     */
+    SocketChannel getSocketChannel() {
+        return (session != null) ? null : connection.getChannel();
+    }
+
     boolean isClientConnected() {
+        if (session != null)
+            return false;   // session clients do not reconnect to a request
+
         int retries = 0;
 
         while (retries < ServerConfigurations.getManualUploadMaxRetries()) {
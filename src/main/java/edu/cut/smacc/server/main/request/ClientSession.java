@@ -0,0 +1,192 @@
+package edu.cut.smacc.server.main.request;
+
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cloud.CloudInfo;
+import edu.cut.smacc.server.main.ServerMain;
+import edu.cut.smacc.server.protocol.SessionFrame;
+import edu.cut.smacc.server.protocol.SessionFrameInputStream;
+import edu.cut.smacc.server.protocol.SessionFrameOutputStream;
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.tier.TierManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A client session: the client logs in once and sends many requests over the same connection.
+ * The thread of the connection reads the frames and routes them to the requests, which are
+ * served concurrently by the usual request handlers, so their responses are interleaved.
+ */
+class ClientSession {
+    private static final Logger logger = LogManager.getLogger(ClientSession.class);
+
+    private static final ExecutorService requestService = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "session-request");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ClientConnectionHandler connectionHandler;
+    private final CloudInfo cloudInfo;
+    private final Map<Integer, Request> requests = new ConcurrentHashMap<>();
+    private DataOutputStream connectionOut;
+    private volatile boolean open = true;
+
+    ClientSession(ClientConnectionHandler connectionHandler, CloudInfo cloudInfo) {
+        this.connectionHandler = connectionHandler;
+        this.cloudInfo = cloudInfo;
+    }
+
+    TierManager getTier() {
+        return connectionHandler.getTier();
+    }
+
+    StatisticsManager getStatisticsManager() {
+        return connectionHandler.getStatisticsManager();
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Read the frames of the connection until the client closes the session
+     */
+    void serve() throws IOException {
+        connectionHandler.sendSuccessMessage(connectionHandler.getConnectionId()); // the session id
+        connectionHandler.getConnection().setSoTimeout(ServerConfigurations.getSessionIdleTimeout());
+        connectionHandler.getConnection().setTcpNoDelay(true);
+        connectionOut = new DataOutputStream(new BufferedOutputStream(
+                connectionHandler.getConnection().getOutputStream(), SessionFrame.MAX_PAYLOAD + 16));
+        PushbackInputStream frameStart = new PushbackInputStream(connectionHandler.getDataInputStream());
+        DataInputStream connectionIn = new DataInputStream(frameStart);
+        if (logger.isDebugEnabled()) logger.info("Session " + connectionHandler.getConnectionId() + " opened");
+
+        String error = "Session closed";
+        try {
+            while (true) {
+                if (!awaitFrame(frameStart)) {
+                    error = "Session idle for too long";
+                    break;
+                }
+                SessionFrame frame = SessionFrame.read(connectionIn);
+                if (frame.getType() == SessionFrame.CLOSE)
+                    break;
+
+                if (frame.getType() == SessionFrame.OPEN) {
+                    startRequest(frame.getRequestId()).offer(frame.getPayload());
+                    continue;
+                }
+                Request request = requests.get(frame.getRequestId());
+                if (request == null) {
+                    // data of a request the server has already finished: let the client send the rest
+                    if (frame.getType() == SessionFrame.DATA && frame.getPayload().length > 0)
+                        returnWindow(frame.getRequestId());
+                    continue;
+                }
+                if (frame.getType() == SessionFrame.END)
+                    request.abandon();  // the client abandoned the request
+                else if (frame.getType() == SessionFrame.WINDOW)
+                    request.out.grant(frame.getWindowFrames());
+                else
+                    request.in.offer(frame.getPayload());
+            }
+        } catch (EOFException e) {
+            error = "Client closed the session";
+        } catch (SocketTimeoutException e) {
+            error = "Session timed out in the middle of a frame";
+        } finally {
+            open = false;
+            String failure = error;    // the requests in progress fail instead of reading a truncated request
+            requests.values().forEach(request -> {
+                request.out.abandon();
+                request.in.end(failure);
+            });
+            if (logger.isDebugEnabled()) logger.info("Session " + connectionHandler.getConnectionId() + ": " + error);
+            connectionHandler.closeConnection();
+        }
+    }
+
+    /**
+     * Wait for the first byte of the next frame. The session times out only while it is idle,
+     * i.e. no request is in progress.
+     *
+     * @return false if the session was idle for too long
+     */
+    private boolean awaitFrame(PushbackInputStream frameStart) throws IOException {
+        while (true) {
+            try {
+                int b = frameStart.read();
+                if (b < 0)
+                    throw new EOFException();
+                frameStart.unread(b);
+                return true;
+            } catch (SocketTimeoutException e) {
+                if (requests.isEmpty())
+                    return false;
+            }
+        }
+    }
+
+    private void returnWindow(int requestId) {
+        try {
+            synchronized (connectionOut) {
+                SessionFrame.writeWindow(connectionOut, requestId, 1);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private SessionFrameInputStream startRequest(int requestId) {
+        SessionFrameOutputStream responseOut = new SessionFrameOutputStream(connectionOut, requestId, true);
+        SessionFrameInputStream requestIn = new SessionFrameInputStream(responseOut,
+                ServerConfigurations.getServerReadTimeout());
+        ClientConnectionHandler requestHandler = new ClientConnectionHandler(this, new DataInputStream(requestIn),
+                new DataOutputStream(responseOut), ServerMain.newConnectionId());
+
+        if (requests.size() >= ServerConfigurations.getSessionMaxRequests()) {
+            requestService.submit(() -> {
+                try {
+                    requestHandler.sendErrorMessage("Too many requests in progress on the session");
+                } catch (IOException ignored) {
+                }
+                requestHandler.closeConnection();
+                requestIn.close();
+            });
+            return requestIn;   // not registered: the rest of the request is dropped
+        }
+
+        requests.put(requestId, new Request(requestIn, responseOut));
+        requestService.submit(() -> {
+            try {
+                requestHandler.handleSessionRequest(cloudInfo);
+            } finally {
+                requests.remove(requestId);
+                requestIn.close();    // the reader of the session drops the rest of the request
+            }
+        });
+        return requestIn;
+    }
+
+    /**
+     * The streams of a request in progress
+     */
+    private record Request(SessionFrameInputStream in, SessionFrameOutputStream out) {
+        void abandon() {
+            out.abandon();
+            in.end("Request abandoned by the client");
+        }
+    }
+
+}
@@ -4,6 +4,8 @@ import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.protocol.HeaderServer;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import edu.cut.smacc.server.tier.result.DeleteResult;
 
 import java.io.IOException;
@@ -20,6 +22,7 @@ public class DeleteRequestHandler extends RequestHandlerBase {
     @Override
     public void handleRequest(HeaderServer header, CloudInfo cloudInfo) throws IOException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         String bucket = header.getBucket();
         String key = header.getKey();
@@ -28,6 +31,7 @@ public class DeleteRequestHandler extends RequestHandlerBase {
         if (result.wasDeletedSuccessfully()) {
             connectionHandler.sendSuccessMessage();
             long deleteTime = System.currentTimeMillis() - startTime;
+            LatencyHistograms.recordSince(LatencyType.DEL, startNanos);
             timeStatUpdater.updateOnDelete(0, deleteTime);
             for (CacheFile cacheFile : result.getCacheFiles()) {
                 if (cacheFile.getStoreOption() == StoreOptionType.MEMORY_ONLY) {
@@ -4,12 +4,16 @@ import edu.cut.smacc.configuration.ServerConfigurations;
 import edu.cut.smacc.server.cache.common.BlockRange;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.io.SpecialInputStream;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.protocol.HeaderServer;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import edu.cut.smacc.server.tier.result.GetResult;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.SocketChannel;
 
 /**
  * Request handler for SMACC GET requests.
@@ -23,6 +27,7 @@ public class GetRequestHandler extends RequestHandlerBase {
     @Override
     public void handleRequest(HeaderServer header, CloudInfo cloudInfo) throws IOException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         String bucket = header.getBucket();
         String key = header.getKey();
@@ -49,59 +54,49 @@ public class GetRequestHandler extends RequestHandlerBase {
             throw new IOException(e);
         }
 
-        // Create buffer for placing the read data
-        int r;
-        byte[] buffer;
-        long size = result.getSize();
-        if (size > 0 && size < ServerConfigurations.getServerBufferSize())
-            buffer = new byte[(int) size];
-        else
-            buffer = new byte[ServerConfigurations.getServerBufferSize()];
-
         try {
             connectionHandler.sendSuccessMessage(); // Message is found
-            connectionHandler.getDataOutputStream().writeLong(size);
+            connectionHandler.getDataOutputStream().writeLong(result.getSize());
             connectionHandler.getDataOutputStream().flush();
 
-            while (true) {
-                try { // Send data
-                    r = in.read(buffer);
-                } catch (IOException e) { // Send an Errorneus EOF Message
-                    logger.error(e.getMessage(), e);
-                    in.close();
-                    connectionHandler.closeConnection();
-                    return;
-                }
-
-                if (r > 0) {
-                    connectionHandler.getDataOutputStream().write(buffer, 0, r);
-                } else {
-                    break;
-                }
+            // Disk hits go straight from the block files to the socket
+            SocketChannel channel = connectionHandler.getSocketChannel();
+            boolean sent = (channel != null && ServerConfigurations.isGetZeroCopyEnabled()
+                    && in instanceof SpecialInputStream hitIn && hitIn.isTransferable())
+                    ? sendZeroCopy(hitIn, channel)
+                    : sendBuffered(in, result.getSize());
+            if (!sent) {
+                connectionHandler.closeConnection();
+                return;
             }
 
             in.close();
             in = null;
 
-            connectionHandler.getConnection().shutdownOutput();
+            connectionHandler.shutdownOutput();
             connectionHandler.closeConnection();
             long getTime = System.currentTimeMillis() - startTime;
+            long getNanos = System.nanoTime() - startNanos;
             timeStatUpdater.updateOnGet(0, getTime);
+            LatencyHistograms.record(LatencyType.GET, getNanos);
 
             // CACHE HIT
             if (result.isCacheHit()) {
                 if (result.getHitFile().getStoreOption() == StoreOptionType.MEMORY_ONLY) {
                     // Memory hit
                     memoryStatUpdater.updateGetOnHit(result.getHitFile().getActualSize(), getTime);
+                    LatencyHistograms.record(LatencyType.GET_MEMORY_HIT, getNanos);
                 } else {
                     // Disk hit, memory miss
                     memoryStatUpdater.updateGetOnMiss(result.getHitFile().getActualSize());
                     diskStatUpdater.updateGetOnHit(result.getHitFile().getActualSize(), getTime);
+                    LatencyHistograms.record(LatencyType.GET_DISK_HIT, getNanos);
                 }
                 return;
             }
 
             // CACHE MISS
+            LatencyHistograms.record(LatencyType.GET_CLOUD_MISS, getNanos);
             for (CacheFile cacheFile : result.getMissCacheFiles()) {
                 if (cacheFile.getStoreOption() == StoreOptionType.MEMORY_ONLY) {
                     memoryStatUpdater.updateGetOnMiss(cacheFile.getActualSize());
@@ -120,4 +115,50 @@ public class GetRequestHandler extends RequestHandlerBase {
         }
     }
 
+    /**
+     * Send the data through a heap buffer
+     *
+     * @return false if reading the data failed
+     */
+    private boolean sendBuffered(InputStream in, long size) throws IOException {
+        // Create buffer for placing the read data
+        int r;
+        byte[] buffer;
+        if (size > 0 && size < ServerConfigurations.getServerBufferSize())
+            buffer = new byte[(int) size];
+        else
+            buffer = new byte[ServerConfigurations.getServerBufferSize()];
+
+        while (true) {
+            try { // Send data
+                r = in.read(buffer);
+            } catch (IOException e) { // Send an Errorneus EOF Message
+                logger.error(e.getMessage(), e);
+                in.close();
+                return false;
+            }
+
+            if (r > 0) {
+                connectionHandler.getDataOutputStream().write(buffer, 0, r);
+            } else {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Send the data from the block files to the socket with FileChannel.transferTo
+     *
+     * @return false if sending the data failed
+     */
+    private boolean sendZeroCopy(SpecialInputStream in, SocketChannel channel) {
+        try {
+            in.transferTo(channel);
+            return true;
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+            return false;
+        }
+    }
+
 }
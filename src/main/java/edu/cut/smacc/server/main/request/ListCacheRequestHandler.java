@@ -3,6 +3,8 @@ package edu.cut.smacc.server.main.request;
 import edu.cut.smacc.server.cache.common.SMACCObject;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.protocol.HeaderServer;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -19,6 +21,7 @@ public class ListCacheRequestHandler extends RequestHandlerBase {
 
     @Override
     public void handleRequest(HeaderServer header, CloudInfo cloudInfo) {
+        long startNanos = System.nanoTime();
         String prefix = header.hasListPrefix() ? header.getListPrefix() : null;
         String bucket = header.getBucket();
 
@@ -32,6 +35,7 @@ public class ListCacheRequestHandler extends RequestHandlerBase {
             }
             cout.flush();
             connectionHandler.closeConnection();
+            LatencyHistograms.recordSince(LatencyType.LIST, startNanos);
         } catch (IOException e) {
             connectionHandler.closeConnection();
         }
@@ -6,7 +6,10 @@ import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.main.ServerMain;
 import edu.cut.smacc.server.protocol.HeaderServer;
+import edu.cut.smacc.server.protocol.PutWindow;
 import edu.cut.smacc.server.s3.S3File;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import edu.cut.smacc.server.tier.CacheOutputStream;
 import edu.cut.smacc.server.tier.result.PutResult;
 
@@ -58,6 +61,7 @@ public class PutRequestHandler extends RequestHandlerBase {
 
     private void put(HeaderServer header, CloudInfo cloudInfo) throws IOException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         String bucket = header.getBucket();
         String key = header.getKey();
@@ -77,8 +81,17 @@ public class PutRequestHandler extends RequestHandlerBase {
             throw new IOException(e);
         }
 
+        // Windowed PUT: the client may have up to window chunks unacknowledged and acks are cumulative
+        boolean windowed = header.isWindowedPut();
+        PutWindow window = new PutWindow(Math.min(header.getPutWindow(), ServerConfigurations.getPutMaxWindow()));
+        long received = 0;
+
         try {   // Send the Client's connection id
             connectionHandler.sendSuccessMessage(connectionHandler.getConnectionId());
+            if (windowed) {
+                connectionHandler.getDataOutputStream().writeInt(window.getWindow());
+                connectionHandler.getDataOutputStream().flush();
+            }
         } catch (IOException e) {
             connectionHandler.closeConnection();
             out.abort();
@@ -100,25 +113,40 @@ public class PutRequestHandler extends RequestHandlerBase {
             DataOutputStream cout = connectionHandler.getDataOutputStream();
 
             int dataLen = cin.readInt();
+            int credits = (windowed && dataLen >= 0) ? cin.readInt() : 0;
 
             if (dataLen > 0) {
                 while (dataLen > 0) {
                     int dataToRead = Math.min(dataLen, dataBuffer.length);
                     cin.readFully(dataBuffer, 0, dataToRead);
                     dataLen -= dataToRead;
+                    received += dataToRead;
                     try {
                         if (out.isGoingManual()) {
-                            /* Notify Client that server is going for manual uploading */
-                            cout.write(1);
-                            connectionHandler.closeConnection();
                             goingManual = true;
-                            /* Enqueue the thread so client can connect back */
-                            ServerMain.storeClientConnHandler(connectionHandler, connectionHandler.getConnectionId());
-                            /*
-                             * Enqueue manualUpload status. While there is a status in queue, thread is not
-                             * finished
-                             */
-                            ServerMain.storeClientManualUpload(connectionHandler.getConnectionId());
+                            if (windowed) {
+                                /*
+                                 * Enqueue manualUpload status before the thread, so a client that reconnects
+                                 * early waits. The client resends the data after received: discard the chunks
+                                 * in flight until it closes, so it reads the ack instead of a reset
+                                 */
+                                ServerMain.storeClientManualUpload(connectionHandler.getConnectionId());
+                                ServerMain.storeClientConnHandler(connectionHandler, connectionHandler.getConnectionId());
+                                PutWindow.writeAck(cout, 1, received);
+                                window.acked();
+                                connectionHandler.closeConnectionAfterDrain();
+                            } else {
+                                /* Notify Client that server is going for manual uploading */
+                                cout.write(1);
+                                connectionHandler.closeConnection();
+                                /* Enqueue the thread so client can connect back */
+                                ServerMain.storeClientConnHandler(connectionHandler, connectionHandler.getConnectionId());
+                                /*
+                                 * Enqueue manualUpload status. While there is a status in queue, thread is not
+                                 * finished
+                                 */
+                                ServerMain.storeClientManualUpload(connectionHandler.getConnectionId());
+                            }
 
                             if (logger.isDebugEnabled())
                                 logger.info("Going Manual");
@@ -142,12 +170,18 @@ public class PutRequestHandler extends RequestHandlerBase {
                                 }
                                 return;
                             }
+                            if (windowed)
+                                break;  // the client reframes the rest of its data on the new connection
                         } else {
                             if (dataLen == 0) {
                                 // We should only send success message in case it's not a client coming from
                                 // manual uploading (because in that case the message it is already sent by
                                 // another thread)
-                                cout.write(0);
+                                if (!windowed) {
+                                    cout.write(0);
+                                } else if (window.chunkReceived(credits)) {
+                                    PutWindow.writeAck(cout, 0, received);
+                                }
                             }
                         }
                     } catch (Exception e) {
@@ -213,7 +247,7 @@ public class PutRequestHandler extends RequestHandlerBase {
 
                     if (logger.isDebugEnabled()) logger.info("All uploaders finished OK - Closing");
 
-                    if (connectionHandler.getConnection().isConnected()) try {
+                    if (connectionHandler.isConnected()) try {
                         out.close();
                     } catch (IOException e) {
                         connectionHandler.sendErrorMessage(e.getMessage());
@@ -222,6 +256,7 @@ public class PutRequestHandler extends RequestHandlerBase {
                 }
                 connectionHandler.sendSuccessMessage();
                 long putTime = System.currentTimeMillis() - startTime;
+                LatencyHistograms.recordSince(LatencyType.PUT, startNanos);
                 timeStatUpdater.updateOnPut(0, putTime);
                 for (CacheFile cacheFile : out.getCacheFiles()) {
                     // Update TIER statistics for: SIZE, TIME, COUNT
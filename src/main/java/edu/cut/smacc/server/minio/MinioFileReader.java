@@ -6,8 +6,11 @@ import java.io.InputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import edu.cut.smacc.server.cloud.CloudFetchCost;
 import edu.cut.smacc.server.cloud.CloudFile;
 import edu.cut.smacc.server.cloud.CloudFileReader;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 
@@ -21,6 +24,8 @@ public class MinioFileReader extends CloudFileReader {
     private CloudFile minioFile;
 
     private InputStream inputStream;
+    private long requestedAt;
+    private long bytesRead = 0;
 
     public MinioFileReader(MinioManager minioMgr, MinioClient minioClient, CloudFile minioFile) throws IOException {
         this(minioMgr, minioClient, minioFile, 0, minioFile.getLength() - 1);
@@ -37,6 +42,7 @@ public class MinioFileReader extends CloudFileReader {
         long length = stop - start + 1; // both start & stop are inclusive
 
         try {
+            requestedAt = System.nanoTime();
             inputStream = minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket(minioFile.getBucket())
@@ -44,6 +50,8 @@ public class MinioFileReader extends CloudFileReader {
                             .offset(start)
                             .length(length)
                             .build());
+            CloudFetchCost.recordRequest(System.nanoTime() - requestedAt);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_GET, requestedAt);
         } catch (Exception e) {
             close();
             logger.error("Unable to read minio file " + minioFile, e);
@@ -58,17 +66,23 @@ public class MinioFileReader extends CloudFileReader {
 
     @Override
     public int read() throws IOException {
-        return inputStream.read();
+        int b = inputStream.read();
+        if (b != -1)
+            bytesRead++;
+        return b;
     }
 
     @Override
     public int read(byte[] buff) throws IOException {
-        return inputStream.read(buff);
+        return read(buff, 0, buff.length);
     }
 
     @Override
     public int read(byte[] buff, int off, int len) throws IOException {
-        return inputStream.read(buff, off, len);
+        int r = inputStream.read(buff, off, len);
+        if (r > 0)
+            bytesRead += r;
+        return r;
     }
 
     @Override
@@ -76,6 +90,7 @@ public class MinioFileReader extends CloudFileReader {
         if (inputStream != null) {
             inputStream.close();
             inputStream = null;
+            CloudFetchCost.recordTransfer(bytesRead, System.nanoTime() - requestedAt);
             if (logger.isDebugEnabled())
                 logger.debug("Completed reading minio file " + minioFile);
         }
@@ -15,6 +15,8 @@ import edu.cut.smacc.server.cache.common.StateType;
 import edu.cut.smacc.server.cache.common.io.WritableInputStream;
 import edu.cut.smacc.server.cloud.CloudFile;
 import edu.cut.smacc.server.cloud.CloudFileWriter;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 
@@ -62,8 +64,10 @@ public class MinioFileWriter extends CloudFileWriter {
 
         putThread = executorService.submit(() -> {
             try {
+                long startNanos = System.nanoTime();
                 minioClient.putObject(PutObjectArgs.builder().bucket(bucket).object(key)
                         .stream(writableInputStream, length, -1).userMetadata(metadata).build());
+                LatencyHistograms.recordSince(LatencyType.CLOUD_PUT, startNanos);
             } catch (Exception e) {
                 logger.error("Error uploading object " + bucket + ":" + key, e);
             }
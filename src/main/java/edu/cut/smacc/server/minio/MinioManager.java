@@ -9,6 +9,8 @@ import edu.cut.smacc.configuration.ServerConfigurations;
 import edu.cut.smacc.server.cloud.CloudFile;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.cloud.CloudStoreManager;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import edu.cut.smacc.server.tier.TierManager;
 import io.minio.ListObjectsArgs;
 import io.minio.MinioClient;
@@ -85,7 +87,9 @@ public class MinioManager extends CloudStoreManager {
         MinioClient minioClient = MinioClientPoolManager.getClient(bucket, cloudInfo);
         StatObjectResponse objectStat = null;
         try {
+            long startNanos = System.nanoTime();
             objectStat = minioClient.statObject(StatObjectArgs.builder().bucket(bucket).object(key).build());
+            LatencyHistograms.recordSince(LatencyType.CLOUD_HEAD, startNanos);
         } catch (ErrorResponseException e) {
             // File does not exist
             return null;
@@ -110,6 +114,7 @@ public class MinioManager extends CloudStoreManager {
 
         MinioClient minioClient = MinioClientPoolManager.getClient(bucket, cloudInfo);
 
+        long startNanos = System.nanoTime();
         Iterable<Result<Item>> results = minioClient.listObjects(ListObjectsArgs.builder()
                 .bucket(bucket)
                 .prefix(prefix)
@@ -136,6 +141,7 @@ public class MinioManager extends CloudStoreManager {
         }
 
         MinioClientPoolManager.releaseClient(bucket, minioClient);
+        LatencyHistograms.recordSince(LatencyType.CLOUD_LIST, startNanos); // the listing is lazy
 
         return minioFiles;
     }
@@ -152,7 +158,9 @@ public class MinioManager extends CloudStoreManager {
             // Delete the file
             MinioClient minioClient = MinioClientPoolManager.getClient(bucket, cloudInfo);
             try {
+                long startNanos = System.nanoTime();
                 minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(key).build());
+                LatencyHistograms.recordSince(LatencyType.CLOUD_DEL, startNanos);
                 return true;
             } catch (Exception e) {
                 throw new IOException("Failed to delete file " + minioFile, e);
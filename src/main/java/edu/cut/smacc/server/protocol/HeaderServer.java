@@ -19,17 +19,20 @@ public class HeaderServer {
     private String listPrefix;
     private Long length;
     private BlockRange range;
+    private int putWindow = 1;
 
     public HeaderServer(DataInputStream in) throws IOException {
         requestType = RequestType.getRequestType(in.read());
         switch (requestType) {
-            case PUT -> {
+            case PUT, PUT_WINDOWED -> {
                 bucket = new String(in.readNBytes(in.read()));
                 key = new String(in.readNBytes(in.read()));
                 uploadAsync = in.readBoolean();
                 connectionId = in.readBoolean() ? in.readLong() : null;
                 goingManual = in.readBoolean();
                 length = in.readBoolean() ? in.readLong() : null;
+                if (requestType == RequestType.PUT_WINDOWED)
+                    putWindow = in.readInt();
             }
             case GET -> {
                 bucket = new String(in.readNBytes(in.read()));
@@ -46,7 +49,7 @@ public class HeaderServer {
                 bucket = new String(in.readNBytes(in.read()));
                 listPrefix = new String(in.readNBytes(in.read()));
             }
-            case COLLECT_STATS, RESET_STATS, CLEAR_CACHE, SHUTDOWN -> {
+            case COLLECT_STATS, COLLECT_LATENCIES, RESET_STATS, CLEAR_CACHE, SHUTDOWN, SESSION -> {
                 // Nothing to do
             }
 
@@ -62,6 +65,17 @@ public class HeaderServer {
         return length;
     }
 
+    /**
+     * @return the number of chunks the client asks to have unacknowledged (1 for a stop-and-wait PUT)
+     */
+    public int getPutWindow() {
+        return putWindow;
+    }
+
+    public boolean isWindowedPut() {
+        return requestType == RequestType.PUT_WINDOWED;
+    }
+
     public boolean getUploadAsync() {
         return uploadAsync;
     }
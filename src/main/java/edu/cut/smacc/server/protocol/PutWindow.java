@@ -0,0 +1,65 @@
+package edu.cut.smacc.server.protocol;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The acknowledgements of a windowed PUT. The client may have up to window chunks unacknowledged.
+ * <p>
+ * Chunk layout: int length, int credits, data. The credits are the chunks the client may still
+ * send before it waits for an ack (0 for the last chunk of the object). An EOF is a negative length.
+ * <p>
+ * Ack layout: byte status, long bytes received. Acks are cumulative: the server acks every half
+ * window of chunks, and every chunk after which the client waits.
+ */
+public class PutWindow {
+
+    private final int window;
+    private final int ackEvery;
+    private int chunksSinceAck = 0;
+
+    public PutWindow(int window) {
+        this.window = Math.max(1, window);
+        this.ackEvery = Math.max(1, this.window / 2);
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Count a received chunk
+     *
+     * @param credits - the credits the client sent with the chunk
+     * @return true if the chunk must be acknowledged
+     */
+    public boolean chunkReceived(int credits) {
+        if (++chunksSinceAck >= ackEvery || credits <= 0) {
+            chunksSinceAck = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * All chunks received so far were acknowledged out of band (e.g. the server is going manual)
+     */
+    public void acked() {
+        chunksSinceAck = 0;
+    }
+
+    public static void writeChunkHeader(DataOutputStream out, int length, int credits) throws IOException {
+        out.writeInt(length);
+        out.writeInt(credits);
+    }
+
+    /**
+     * Send the status of a windowed PUT with the number of bytes received so far, in one write
+     */
+    public static void writeAck(DataOutputStream out, int status, long received) throws IOException {
+        out.write(ByteBuffer.allocate(Byte.BYTES + Long.BYTES).put((byte) status).putLong(received).array());
+        out.flush();
+    }
+
+}
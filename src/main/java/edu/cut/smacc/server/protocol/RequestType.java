@@ -13,7 +13,10 @@ public enum RequestType {
     DEL_CACHE(7),
     LIST_CACHE(8),
     FILE_STATUS(9),
-    RESET_STATS(10);
+    RESET_STATS(10),
+    PUT_WINDOWED(11),
+    SESSION(12),
+    COLLECT_LATENCIES(13);
 
     private final int requestType;
 
@@ -38,6 +41,9 @@ public enum RequestType {
             case 8 -> LIST_CACHE;
             case 9 -> FILE_STATUS;
             case 10 -> RESET_STATS;
+            case 11 -> PUT_WINDOWED;
+            case 12 -> SESSION;
+            case 13 -> COLLECT_LATENCIES;
             default -> throw new IOException("Bad enum number...");
         };
     }
@@ -0,0 +1,101 @@
+package edu.cut.smacc.server.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A frame of a session connection. A session multiplexes many requests over one connection:
+ * each request is the byte stream of the plain protocol (header and data one way, status and
+ * data the other way), carried in frames tagged with the request id.
+ * <p>
+ * Frame layout: int request id, byte type, int payload length, payload.
+ * <p>
+ * Each direction of a request has its own flow control: a side sends at most WINDOW_FRAMES
+ * payload frames (OPEN or DATA) ahead of the WINDOW frames the other side returns as it
+ * reads them, so a slow request never stalls the reader of the connection.
+ */
+public class SessionFrame {
+
+    /** Bytes of the request (client) or response (server) stream */
+    public static final byte DATA = 0;
+    /** The response is complete (server) or the client abandons the request (client) */
+    public static final byte END = 1;
+    /** The client closes the session */
+    public static final byte CLOSE = 2;
+    /** The first bytes of a new request (client) */
+    public static final byte OPEN = 3;
+    /** The receiver has read the given number of payload frames of the request (both) */
+    public static final byte WINDOW = 4;
+
+    /** The payload frames of a request stream that may be sent ahead of its WINDOW frames */
+    public static final int WINDOW_FRAMES = 16;
+
+    /** The largest payload of a frame, so that responses of concurrent requests interleave */
+    public static final int MAX_PAYLOAD = 64 * 1024;
+
+    private final int requestId;
+    private final byte type;
+    private final byte[] payload;
+
+    private SessionFrame(int requestId, byte type, byte[] payload) {
+        this.requestId = requestId;
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public int getRequestId() {
+        return requestId;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public static SessionFrame read(DataInputStream in) throws IOException {
+        int requestId = in.readInt();
+        byte type = in.readByte();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD)
+            throw new IOException("Bad session frame length: " + length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new SessionFrame(requestId, type, payload);
+    }
+
+    /**
+     * Write a frame and flush it. The caller serializes the writers of the connection.
+     */
+    public static void write(DataOutputStream out, int requestId, byte type, byte[] b, int off, int len)
+            throws IOException {
+        out.writeInt(requestId);
+        out.writeByte(type);
+        out.writeInt(len);
+        if (len > 0)
+            out.write(b, off, len);
+        out.flush();
+    }
+
+    /**
+     * Write a WINDOW frame that returns the given number of payload frames to the sender
+     */
+    public static void writeWindow(DataOutputStream out, int requestId, int frames) throws IOException {
+        byte[] payload = ByteBuffer.allocate(Integer.BYTES).putInt(frames).array();
+        write(out, requestId, WINDOW, payload, 0, payload.length);
+    }
+
+    /**
+     * @return the number of payload frames returned by a WINDOW frame
+     */
+    public int getWindowFrames() throws IOException {
+        if (type != WINDOW || payload.length != Integer.BYTES)
+            throw new IOException("Bad session window frame");
+        return ByteBuffer.wrap(payload).getInt();
+    }
+
+}
@@ -0,0 +1,180 @@
+package edu.cut.smacc.server.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stream of one request of a session, fed with the payloads of its DATA frames by the
+ * reader of the session connection. The stream ends with the END frame of the request or
+ * when the session closes.
+ * <p>
+ * The sender may have at most MAX_BUFFERED_FRAMES frames unread: the stream returns them with
+ * WINDOW frames as the request reads them, and those it drops once closed. A sender that
+ * overruns the window fails the stream, so the reader of the session never waits for a slow
+ * request.
+ * <p>
+ * Before blocking for data, the stream flushes the paired output stream of the request, as
+ * the plain protocol relies on a socket that sends each write at once.
+ */
+public class SessionFrameInputStream extends InputStream {
+
+    public static final int MAX_BUFFERED_FRAMES = SessionFrame.WINDOW_FRAMES;
+    private static final byte[] EOF = new byte[0];
+
+    private final LinkedBlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+    private volatile boolean closed = false;
+    private boolean overrun = false;
+    private final SessionFrameOutputStream pairedOut;
+    private volatile int timeoutMs;
+    private volatile String error = null;
+    private byte[] current = null;
+    private int position = 0;
+    private boolean ended = false;
+    private int readFrames = 0;     // read but not returned to the sender yet
+
+    /**
+     * @param pairedOut the output stream of the same request, that returns the frames (may be null)
+     * @param timeoutMs how long a read may wait for data (0 to wait forever)
+     */
+    public SessionFrameInputStream(SessionFrameOutputStream pairedOut, int timeoutMs) {
+        this.pairedOut = pairedOut;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Add the payload of a DATA frame (called by the reader of the session). Never waits: the
+     * payload is dropped if the stream is closed, and fails the stream if the sender has more
+     * than MAX_BUFFERED_FRAMES frames unread.
+     */
+    public synchronized void offer(byte[] payload) {
+        if (payload.length == 0 || overrun)
+            return;
+        if (closed) {
+            returnFrames(1);
+            return;
+        }
+        if (frames.size() >= MAX_BUFFERED_FRAMES) {
+            overrun = true;
+            error = "Session flow control violated";
+            frames.clear();
+            frames.add(EOF);
+            return;
+        }
+        frames.add(payload);
+    }
+
+    /**
+     * End the stream (END frame), or fail it with the given error (session lost)
+     */
+    public void end(String error) {
+        if (error != null)
+            this.error = error;
+        frames.add(EOF);
+    }
+
+    /**
+     * Drop the buffered data and the data that arrives later (the request is done)
+     */
+    @Override
+    public void close() {
+        int dropped = 0;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            byte[] frame;
+            while ((frame = frames.poll()) != null) {
+                if (frame != EOF)
+                    dropped++;
+            }
+        }
+        returnFrames(dropped + readFrames);
+        readFrames = 0;
+    }
+
+    public void setTimeout(int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill())
+            return -1;
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (!fill())
+            return -1;
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        int available = (current != null) ? current.length - position : 0;
+        for (byte[] frame : frames)
+            available += frame.length;
+        return available;
+    }
+
+    private boolean fill() throws IOException {
+        if (current != null && position < current.length)
+            return true;
+        if (ended || closed)
+            return false;
+
+        byte[] next = frames.poll();
+        if (next == null) {
+            if (readFrames > 0) {
+                returnFrames(readFrames);
+                readFrames = 0;
+            }
+            if (pairedOut != null)
+                pairedOut.flush();
+            try {
+                next = (timeoutMs > 0) ? frames.poll(timeoutMs, TimeUnit.MILLISECONDS) : frames.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for session data");
+            }
+            if (next == null)
+                throw new SocketTimeoutException("Read timed out");
+        }
+
+        if (next == EOF) {
+            ended = true;
+            if (error != null)
+                throw new IOException(error);
+            return false;
+        }
+        if (++readFrames >= MAX_BUFFERED_FRAMES / 2) {
+            returnFrames(readFrames);
+            readFrames = 0;
+        }
+        current = next;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Let the sender send more frames. A lost session fails the request on its own.
+     */
+    private void returnFrames(int count) {
+        if (pairedOut == null || count == 0)
+            return;
+        try {
+            pairedOut.sendWindow(count);
+        } catch (IOException ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package edu.cut.smacc.server.protocol;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stream of one request of a session. Writes are buffered into DATA frames of up to
+ * SessionFrame.MAX_PAYLOAD bytes; flush() sends the buffered bytes. A request stream starts
+ * with an OPEN frame and a response stream sends the END frame on close.
+ * <p>
+ * A payload frame waits for a frame of the window that the other side returns with WINDOW
+ * frames, so a request that is not read blocks its own writer only.
+ */
+public class SessionFrameOutputStream extends OutputStream {
+
+    private final DataOutputStream connectionOut;   // shared by the requests of the session
+    private final int requestId;
+    private final boolean response;
+    private byte dataType;
+    private final byte[] buffer = new byte[SessionFrame.MAX_PAYLOAD];
+    private int count = 0;
+    private final Semaphore window = new Semaphore(SessionFrame.WINDOW_FRAMES);
+    private volatile boolean closed = false;
+
+    /**
+     * @param connectionOut the output of the session connection, used as the lock of its writers
+     * @param requestId     the id of the request
+     * @param response      true for the response of the server, false for the request of the client
+     */
+    public SessionFrameOutputStream(DataOutputStream connectionOut, int requestId, boolean response) {
+        this.connectionOut = connectionOut;
+        this.requestId = requestId;
+        this.response = response;
+        this.dataType = response ? SessionFrame.DATA : SessionFrame.OPEN;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (closed)
+            throw new IOException("Session request " + requestId + " is closed");
+        if (count == buffer.length)
+            flushBuffer();
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed)
+            throw new IOException("Session request " + requestId + " is closed");
+        while (len > 0) {
+            if (count == 0 && len >= buffer.length) {
+                // Large writes go out directly, a frame at a time
+                writeData(b, off, buffer.length);
+                off += buffer.length;
+                len -= buffer.length;
+                continue;
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == buffer.length)
+                flushBuffer();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (count > 0)
+            flushBuffer();
+    }
+
+    /**
+     * @return true if there are bytes that have not been sent yet
+     */
+    public boolean hasPending() {
+        return count > 0;
+    }
+
+    /**
+     * Frames of the window returned by the other side (WINDOW frame)
+     */
+    public void grant(int frames) {
+        if (frames > 0)
+            window.release(frames);
+    }
+
+    /**
+     * Return frames of the window of the paired input stream to the other side
+     */
+    public void sendWindow(int frames) throws IOException {
+        synchronized (connectionOut) {
+            SessionFrame.writeWindow(connectionOut, requestId, frames);
+        }
+    }
+
+    /**
+     * Fail the next writes and skip the END frame, as the other side has abandoned the request
+     */
+    public void abandon() {
+        closed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            flush();
+            if (response)
+                writeFrame(SessionFrame.END, buffer, 0, 0);
+        } finally {
+            closed = true;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writeData(buffer, 0, count);
+        count = 0;
+    }
+
+    private void writeData(byte[] b, int off, int len) throws IOException {
+        try {
+            while (!window.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                if (closed)
+                    throw new IOException("Session request " + requestId + " is closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the session window");
+        }
+        writeFrame(dataType, b, off, len);
+        dataType = SessionFrame.DATA;
+    }
+
+    private void writeFrame(byte type, byte[] b, int off, int len) throws IOException {
+        synchronized (connectionOut) {
+            SessionFrame.write(connectionOut, requestId, type, b, off, len);
+        }
+    }
+
+}
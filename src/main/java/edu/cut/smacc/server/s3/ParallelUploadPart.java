@@ -8,6 +8,8 @@ import edu.cut.smacc.server.cache.common.io.ByteBufferPool;
 import edu.cut.smacc.server.cache.common.io.ByteBufferQueue;
 import edu.cut.smacc.server.cache.common.io.ByteBufferQueueInputStream;
 import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -77,7 +79,9 @@ public class ParallelUploadPart implements Callable<PartETag> {
                 uploadRequest.setInputStream(new ByteBufferQueueInputStream(queue));
 
                 // Upload part and add response to our list.
+                long startNanos = System.nanoTime();
                 retTag = s3Client.uploadPart(uploadRequest).getPartETag();
+                LatencyHistograms.recordSince(LatencyType.CLOUD_PART, startNanos);
                 if (logger.isDebugEnabled())
                     logger.info("Auto Flushing COMPLETE - key:" + key + " PartID:" + currentPartId);
                 break;
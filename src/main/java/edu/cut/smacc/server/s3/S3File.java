@@ -1,5 +1,6 @@
 package edu.cut.smacc.server.s3;
 
+import edu.cut.smacc.server.cache.common.BlockIndex;
 import edu.cut.smacc.server.cache.common.BlockRange;
 import edu.cut.smacc.server.cache.common.CacheBlock;
 import edu.cut.smacc.server.cache.common.CacheFile;
@@ -56,9 +57,9 @@ public class S3File implements CacheFile {
     @Override
     public int compareTo(CacheFile o) {
         // Default comparison order: size, key
-        if (this.getActualSize() < o.getSize())
+        if (this.getActualSize() < o.getActualSize())
             return -1;
-        else if (this.getActualSize() > o.getSize())
+        else if (this.getActualSize() > o.getActualSize())
             return 1;
 
         return this.getKey().compareTo(o.getKey());
@@ -153,7 +154,7 @@ public class S3File implements CacheFile {
     }
 
     @Override
-    public List<BlockRange> getReservedRanges() {
+    public BlockIndex<BlockRange> getReservedRanges() {
         return null;
     }
 
@@ -200,6 +201,11 @@ public class S3File implements CacheFile {
         return null;
     }
 
+    @Override
+    public BlockIndex<CacheBlock> getBlockIndex() {
+        return null;
+    }
+
     @Override
     public void lockReader() {
     }
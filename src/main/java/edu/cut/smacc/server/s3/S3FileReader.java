@@ -6,9 +6,12 @@ import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cloud.CloudFetchCost;
 import edu.cut.smacc.server.cloud.CloudFile;
 import edu.cut.smacc.server.cloud.CloudFileReader;
 import edu.cut.smacc.server.cloud.CloudInfo;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,13 +34,18 @@ public class S3FileReader extends CloudFileReader {
     private S3ObjectInputStream internalInput = null;
     private ObjectMetadata meta;
     private boolean s3ObjectInRange = true;
+    private long requestedAt;
+    private long bytesRead = 0;
 
     S3FileReader(String bucket, String key, AmazonS3 s3Client, S3Manager s3mgr, String topicARN, CloudInfo cloudInfo)
             throws IOException {
         this.s3Client = s3Client;
 
         try {
+            requestedAt = System.nanoTime();
             S3Object s3object = s3Client.getObject(bucket, key);
+            CloudFetchCost.recordRequest(System.nanoTime() - requestedAt);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_GET, requestedAt);
             internalInput = s3object.getObjectContent();
             meta = s3object.getObjectMetadata();
             s3File = new CloudFile(bucket, key, meta.getContentLength(), meta.getLastModified().getTime(),
@@ -55,7 +63,9 @@ public class S3FileReader extends CloudFileReader {
         this.s3Client = s3Client;
 
         try {
+            long headAt = System.nanoTime();
             meta = s3Client.getObjectMetadata(bucket, key);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_HEAD, headAt);
             if (meta.getContentLength() < stop) {
                 s3ObjectInRange = false;
                 return;
@@ -65,7 +75,10 @@ public class S3FileReader extends CloudFileReader {
                     isOwnedFile());
             GetObjectRequest objReq = new GetObjectRequest(bucket, key);
             objReq.setRange(start, stop);
+            requestedAt = System.nanoTime();
             S3Object s3object = s3Client.getObject(objReq);
+            CloudFetchCost.recordRequest(System.nanoTime() - requestedAt);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_GET, requestedAt);
             meta = s3object.getObjectMetadata();
             internalInput = s3object.getObjectContent();
 
@@ -95,15 +108,21 @@ public class S3FileReader extends CloudFileReader {
     }
 
     public int read() throws IOException {
-        return internalInput.read();
+        int b = internalInput.read();
+        if (b != -1)
+            bytesRead++;
+        return b;
     }
 
     public int read(byte[] buff) throws IOException {
-        return internalInput.read(buff);
+        return read(buff, 0, buff.length);
     }
 
     public int read(byte[] buff, int off, int len) throws IOException {
-        return internalInput.read(buff, off, len);
+        int r = internalInput.read(buff, off, len);
+        if (r > 0)
+            bytesRead += r;
+        return r;
     }
 
     public int available() throws IOException {
@@ -114,6 +133,8 @@ public class S3FileReader extends CloudFileReader {
     public void close() throws IOException {
         if (internalInput != null) {
             internalInput.close();
+            CloudFetchCost.recordTransfer(bytesRead, System.nanoTime() - requestedAt);
+            internalInput = null;
         }
         if (s3Client != null) {
             S3ClientPoolManager.releaseClient(s3File.getBucket(), s3Client);
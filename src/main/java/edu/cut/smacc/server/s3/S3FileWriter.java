@@ -9,6 +9,8 @@ import edu.cut.smacc.server.cloud.CloudFile;
 import edu.cut.smacc.server.cloud.CloudFileWriter;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -121,7 +123,9 @@ public class S3FileWriter extends CloudFileWriter {
         meta.setContentLength(length);
 
         putThread = executorService.submit(() -> {
+            long startNanos = System.nanoTime();
             s3client.putObject(bucket, key, writableInputStream, meta);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_PUT, startNanos);
             s3File.setState(StateType.COMPLETE);
             synchronized (lock) {
                 lock.notify();
@@ -309,7 +313,9 @@ public class S3FileWriter extends CloudFileWriter {
                 uploadRequest.setInputStream(new ByteBufferQueueInputStream(internalQueue));
 
                 // Upload part and add response to our list.
+                long startNanos = System.nanoTime();
                 partETags.add(getS3Client().uploadPart(uploadRequest).getPartETag());
+                LatencyHistograms.recordSince(LatencyType.CLOUD_PART, startNanos);
 
                 if (logger.isDebugEnabled())
                     logger.info("Manual Flushing COMPLETE - key:" + s3File.getKey() + " PartID:" + currentPartId);
@@ -478,7 +484,9 @@ public class S3FileWriter extends CloudFileWriter {
                             new CompleteMultipartUploadRequest(s3File.getBucket(), s3File.getKey(), uploadId,
                                     partETags);
                     if (!lengthKnown) {
+                        long startNanos = System.nanoTime();
                         getS3Client().completeMultipartUpload(compRequest);
+                        LatencyHistograms.recordSince(LatencyType.CLOUD_PUT, startNanos);
                     }
 
                     meta = getS3Client().getObjectMetadata(s3File.getBucket(), s3File.getKey());
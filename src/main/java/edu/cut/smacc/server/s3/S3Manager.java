@@ -10,6 +10,8 @@ import edu.cut.smacc.server.cloud.CloudStoreManager;
 import edu.cut.smacc.server.tier.NotificationHandler;
 import edu.cut.smacc.server.tier.TierManager;
 import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -136,7 +138,9 @@ public class S3Manager extends CloudStoreManager {
             deleteInternal(bucket, key);
 
             if (s3Client.doesObjectExist(bucket, key)) {
+                long startNanos = System.nanoTime();
                 s3Client.deleteObject(bucket, key);
+                LatencyHistograms.recordSince(LatencyType.CLOUD_DEL, startNanos);
                 return true;
             }
             return false;
@@ -176,7 +180,10 @@ public class S3Manager extends CloudStoreManager {
     public ObjectMetadata getObjectMetadata(String bucket, String key, CloudInfo cloudInfo) {
         AmazonS3 s3Client = S3ClientPoolManager.getClient(bucket, cloudInfo);
         try {
-            return s3Client.getObjectMetadata(bucket, key);
+            long startNanos = System.nanoTime();
+            ObjectMetadata meta = s3Client.getObjectMetadata(bucket, key);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_HEAD, startNanos);
+            return meta;
         } catch (Exception e) {
             return null;
         } finally {
@@ -224,7 +231,9 @@ public class S3Manager extends CloudStoreManager {
         CloudFile cloudFile = null;
         AmazonS3 s3Client = S3ClientPoolManager.getClient(bucket, cloudInfo);
         try {
+            long startNanos = System.nanoTime();
             ObjectMetadata meta = s3Client.getObjectMetadata(bucket, key);
+            LatencyHistograms.recordSince(LatencyType.CLOUD_HEAD, startNanos);
 
             Map<String, String> metadata = meta.getUserMetadata();
             boolean isOwner = metadata.containsKey("FileOwner")
@@ -244,6 +253,7 @@ public class S3Manager extends CloudStoreManager {
     public List<CloudFile> list(String bucket, String prefix, CloudInfo cloudInfo) throws IOException {
         AmazonS3 s3Client = S3ClientPoolManager.getClient(bucket, cloudInfo);
 
+        long startNanos = System.nanoTime();
         ObjectListing listing = s3Client.listObjects(bucket, prefix);
         List<S3ObjectSummary> summaries = listing.getObjectSummaries();
 
@@ -252,6 +262,7 @@ public class S3Manager extends CloudStoreManager {
             listing = s3Client.listNextBatchOfObjects(listing);
             summaries.addAll(listing.getObjectSummaries());
         }
+        LatencyHistograms.recordSince(LatencyType.CLOUD_LIST, startNanos);
 
         List<CloudFile> cloudFiles = new ArrayList<>();
         for (S3ObjectSummary summary : summaries) {
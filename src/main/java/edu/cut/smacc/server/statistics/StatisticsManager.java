@@ -1,6 +1,8 @@
 package edu.cut.smacc.server.statistics;
 
 import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencySnapshot;
 import edu.cut.smacc.server.statistics.output.StatisticsOutputInvokePolicy;
 import edu.cut.smacc.server.statistics.type.*;
 import edu.cut.smacc.server.statistics.type.general.S3GeneralStatistics;
@@ -18,6 +20,8 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * Manages the statistics of the server cache. It collects the statistics and outputs them to a file.
@@ -38,6 +42,11 @@ public class StatisticsManager {
     private final List<Statistics> finalStatList;
 
     private final StatisticsWriter statisticsWriter;
+    private volatile LatencySnapshot lastLatencySnapshot;
+    // Operations since the server started; the reporter consults the output policy for the new ones
+    private final LongAdder operations = new LongAdder();
+    private long reportedOperations = 0;
+    private StatisticsReporter reporter;
 
     public StatisticsManager(Configuration configuration, TierGeneralStatistics memoryStatistics,
                              TierGeneralStatistics diskStatistics, PerformanceStatistics storageStatistics) {
@@ -78,21 +87,98 @@ public class StatisticsManager {
         return (PerformanceStatistics) storageStatistics;
     }
 
-    public void outputStatisticsOnClientRequest() {
+    /**
+     * Count a client operation. This is the only work of the request threads: the statistics are
+     * output by the reporter thread (see startReporter) on the schedule of the output policy.
+     */
+    public void onOperation() {
+        operations.increment();
+    }
+
+    /**
+     * Start the thread that outputs the statistics every intervalMs, when the output policy decides so
+     */
+    public synchronized void startReporter(long intervalMs) {
+        if (reporter == null) {
+            reporter = new StatisticsReporter(this, intervalMs);
+            reporter.start();
+        }
+    }
+
+    public void stopReporter() throws InterruptedException {
+        StatisticsReporter stopped;
+        synchronized (this) {
+            stopped = reporter;
+            reporter = null;
+        }
+        if (stopped != null) // not joined under the lock, which the reporter takes to output
+            stopped.shutdown();
+    }
+
+    /**
+     * Output the statistics if the operations since the last call make the output policy decide so
+     */
+    synchronized boolean outputStatisticsOnNewOperations() {
+        long total = operations.sum();
+        long newOperations = total - reportedOperations;
+        reportedOperations = total;
+        return newOperations > 0 && outputStatistics(newOperations);
+    }
+
+    public synchronized void outputStatisticsOnClientRequest() {
         statisticsOutputInvokePolicy.outputStatisticsOnRequest();
         outputStatistics();
     }
 
     public boolean outputStatistics() {
-        if (statisticsOutputInvokePolicy.shouldOutputStatistics()) {
+        return outputStatistics(1);
+    }
+
+    private synchronized boolean outputStatistics(long newOperations) {
+        if (statisticsOutputInvokePolicy.shouldOutputStatistics(newOperations)) {
             collectStatisticsBeforeOutput();
-            statisticsWriter.writeStatistics(finalStatList);
+            lastLatencySnapshot = LatencyHistograms.snapshot();
+            statisticsWriter.writeStatistics(finalStatList, lastLatencySnapshot);
             resetStatistics();
             return true;
         }
         return false;
     }
 
+    /**
+     * @return the latencies of the last interval that was output, or null if none was output yet
+     */
+    public LatencySnapshot getLastLatencySnapshot() {
+        return lastLatencySnapshot;
+    }
+
+    /**
+     * @return the memory, disk and S3 statistics since the server started and their total; the
+     * resets do not affect them, except for the cache files and bytes which are current values
+     */
+    public List<Statistics> getTotalStatistics() {
+        collectCacheFilesAndBytes(List.of(memoryStatistics, diskStatistics));
+        List<Statistics> totalStatistics = new ArrayList<>(4);
+        TierGeneralStatistics memoryTotals = totalsOf(memoryStatistics, TierGeneralStatistics::new);
+        TierGeneralStatistics diskTotals = totalsOf(diskStatistics, TierGeneralStatistics::new);
+        S3GeneralStatistics s3Totals = totalsOf(s3Statistics, S3GeneralStatistics::new);
+        totalStatistics.add(memoryTotals);
+        totalStatistics.add(diskTotals);
+        totalStatistics.add(s3Totals);
+        totalStatistics.add(new TotalRequestsStatistics(memoryTotals, diskTotals, s3Totals));
+        return totalStatistics;
+    }
+
+    private static <S extends LongStatistics> S totalsOf(Statistics statistics, Supplier<S> factory) {
+        LongStatistics current = (LongStatistics) statistics;
+        S totals = factory.get();
+        for (StatisticType type : current.getStatTypes()) {
+            totals.setStatWithValue(type, type.isGauge() ? current.getStat(type).longValue()
+                    : current.getTotalStat(type));
+        }
+        return totals;
+    }
+
     private void collectStatisticsBeforeOutput() {
         List<Statistics> tierGeneralStatisticsList = new ArrayList<>();
         if (memoryStatistics.getParentUpdater() != null) {
@@ -124,7 +210,11 @@ public class StatisticsManager {
         }
     }
 
-    public void resetStatistics() {
+    /**
+     * Reset the statistics of the interval. The counters are not blocked, so the concurrent
+     * operations keep updating them (see LongStatistics).
+     */
+    public synchronized void resetStatistics() {
         // Reset individual statistics
         memoryStatistics.resetStats();
         diskStatistics.resetStats();
@@ -135,6 +225,7 @@ public class StatisticsManager {
             stats.resetStats();
         }
         finalStatList.clear();
+        LatencyHistograms.reset();
         BasicGlobalTimer.resetTimer();
         logger.info("Statistics have been reset");
     }
@@ -0,0 +1,47 @@
+package edu.cut.smacc.server.statistics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Outputs the statistics in the background, so that the request threads only update counters.
+ * Every interval it passes the operations since its last run to the output policy, which decides
+ * whether the statistics are aggregated, written and reset.
+ */
+class StatisticsReporter extends Thread {
+    private static final Logger logger = LogManager.getLogger(StatisticsReporter.class);
+
+    private final StatisticsManager statisticsManager;
+    private final long intervalMs;
+    private volatile boolean running = true;
+
+    StatisticsReporter(StatisticsManager statisticsManager, long intervalMs) {
+        super("statistics-reporter");
+        this.statisticsManager = statisticsManager;
+        this.intervalMs = Math.max(1, intervalMs);
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                if (statisticsManager.outputStatisticsOnNewOperations())
+                    logger.info("Outputting Statistics");
+            } catch (RuntimeException e) {
+                logger.error("Failed to output the statistics: " + e.getMessage());
+            }
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        interrupt();
+        join();
+    }
+}
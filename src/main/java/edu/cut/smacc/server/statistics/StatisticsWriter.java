@@ -1,14 +1,19 @@
 package edu.cut.smacc.server.statistics;
 
 import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.statistics.latency.LatencySnapshot;
 import edu.cut.smacc.server.statistics.type.StatisticType;
 import edu.cut.smacc.server.statistics.type.Statistics;
 import edu.cut.smacc.server.statistics.type.performance.PerformanceStatistics;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -26,23 +31,46 @@ public class StatisticsWriter {
     }
 
     /**
-     * Writes the statistics to the file.
+     * Writes the statistics to the file. A file with other columns (e.g., written by an older
+     * version) is renamed with the current time as a suffix, and a new file is started.
      * @param outputStatisticsList The list of statistics to write.
+     * @param latencies The latency percentiles to write after the statistics.
      */
-    public void writeStatistics(List<Statistics> outputStatisticsList) {
+    public void writeStatistics(List<Statistics> outputStatisticsList, LatencySnapshot latencies) {
         File statsFile = new File(filename);
+        String[] header = append(collectHeader(outputStatisticsList), LatencySnapshot.header());
         boolean fileExists = statsFile.exists();
+        if (fileExists && !String.join("\t", header).equals(readHeader(statsFile))) {
+            File rotated = new File(filename + "." + System.currentTimeMillis());
+            if (!statsFile.renameTo(rotated))
+                throw new RuntimeException("Cannot rename " + filename + " with other columns to " + rotated);
+            fileExists = false;
+        }
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename, true))) {
             if (!fileExists) {
-                writeLineWithFormat(collectHeader(outputStatisticsList), writer);
+                writeLineWithFormat(header, writer);
             }
-            writeLineWithFormat(collectStats(outputStatisticsList), writer);
+            writeLineWithFormat(append(collectStats(outputStatisticsList), latencies.row()), writer);
         } catch (IOException e) {
             System.out.println("An error occurred while generating the file.");
             throw new RuntimeException(e);
         }
     }
 
+    private static String readHeader(File statsFile) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(statsFile))) {
+            return reader.readLine();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String[] append(String[] row, List<String> columns) {
+        List<String> line = new ArrayList<>(Arrays.asList(row));
+        line.addAll(columns);
+        return line.toArray(new String[0]);
+    }
+
     private void writeLineWithFormat(String[] row, PrintWriter writer) {
         int i = 0;
         for (String s : row) {
@@ -0,0 +1,60 @@
+package edu.cut.smacc.server.statistics.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latency histograms of the server operations, in nanoseconds. Recording is lock-free (an
+ * HdrHistogram Recorder per operation), so the request threads never wait for each other or
+ * for the statistics output. Each snapshot holds the latencies recorded since the previous one.
+ */
+public class LatencyHistograms {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Map<LatencyType, Recorder> recorders = new EnumMap<>(LatencyType.class);
+
+    static {
+        for (LatencyType type : LatencyType.values())
+            recorders.put(type, new Recorder(SIGNIFICANT_DIGITS));
+    }
+
+    private LatencyHistograms() {
+    }
+
+    /**
+     * @param nanos the latency of the operation; negative values (clock skew) are ignored
+     */
+    public static void record(LatencyType type, long nanos) {
+        if (nanos >= 0)
+            recorders.get(type).recordValue(nanos);
+    }
+
+    /**
+     * Record the time elapsed since the given System.nanoTime()
+     */
+    public static void recordSince(LatencyType type, long startNanos) {
+        record(type, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the latencies recorded since the previous snapshot (or reset)
+     */
+    public static synchronized LatencySnapshot snapshot() {
+        Map<LatencyType, Histogram> histograms = new EnumMap<>(LatencyType.class);
+        for (LatencyType type : LatencyType.values())
+            histograms.put(type, recorders.get(type).getIntervalHistogram());
+        return new LatencySnapshot(histograms);
+    }
+
+    /**
+     * Discard the latencies recorded so far
+     */
+    public static synchronized void reset() {
+        for (Recorder recorder : recorders.values())
+            recorder.reset();
+    }
+}
@@ -0,0 +1,83 @@
+package edu.cut.smacc.server.statistics.latency;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The latency histograms of an interval, with the percentiles reported in microseconds
+ */
+public class LatencySnapshot {
+
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"P50", "P90", "P99", "P999"};
+
+    private final Map<LatencyType, Histogram> histograms;
+
+    LatencySnapshot(Map<LatencyType, Histogram> histograms) {
+        this.histograms = histograms;
+    }
+
+    public long getCount(LatencyType type) {
+        return histograms.get(type).getTotalCount();
+    }
+
+    /**
+     * @return the latency at the percentile (0-100) in microseconds, 0 if nothing was recorded
+     */
+    public double getPercentileMicros(LatencyType type, double percentile) {
+        Histogram histogram = histograms.get(type);
+        return (histogram.getTotalCount() == 0) ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double getMaxMicros(LatencyType type) {
+        Histogram histogram = histograms.get(type);
+        return (histogram.getTotalCount() == 0) ? 0 : histogram.getMaxValue() / 1000.0;
+    }
+
+    /**
+     * @return the column names: the percentiles and the maximum of each type
+     */
+    public static List<String> header() {
+        List<String> header = new ArrayList<>();
+        for (LatencyType type : LatencyType.values()) {
+            for (String name : PERCENTILE_NAMES)
+                header.add(type + "_" + name + "(us)");
+            header.add(type + "_MAX(us)");
+        }
+        return header;
+    }
+
+    /**
+     * @return the values of the columns of the header
+     */
+    public List<String> row() {
+        List<String> row = new ArrayList<>();
+        for (LatencyType type : LatencyType.values()) {
+            for (double percentile : PERCENTILES)
+                row.add(String.format("%.2f", getPercentileMicros(type, percentile)));
+            row.add(String.format("%.2f", getMaxMicros(type)));
+        }
+        return row;
+    }
+
+    /**
+     * @return a table of the types that have recorded latencies
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%-16s %10s %12s %12s %12s %12s %12s%n",
+                "Latency (us)", "Count", "P50", "P90", "P99", "P999", "Max"));
+        for (LatencyType type : LatencyType.values()) {
+            if (getCount(type) == 0)
+                continue;
+            builder.append(String.format("%-16s %10d", type, getCount(type)));
+            for (double percentile : PERCENTILES)
+                builder.append(String.format(" %12.2f", getPercentileMicros(type, percentile)));
+            builder.append(String.format(" %12.2f%n", getMaxMicros(type)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package edu.cut.smacc.server.statistics.latency;
+
+/**
+ * The operations whose latency is recorded in a histogram
+ */
+public enum LatencyType {
+    /* Requests */
+    GET,
+    PUT,
+    DEL,
+    LIST,
+
+    /* GET requests by the tier that served them */
+    GET_MEMORY_HIT,
+    GET_DISK_HIT,
+    GET_CLOUD_MISS,
+
+    /* Calls to the cloud storage */
+    CLOUD_GET,
+    CLOUD_PUT,
+    CLOUD_PART,
+    CLOUD_HEAD,
+    CLOUD_LIST,
+    CLOUD_DEL
+}
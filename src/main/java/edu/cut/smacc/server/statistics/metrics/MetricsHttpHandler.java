@@ -0,0 +1,36 @@
+package edu.cut.smacc.server.statistics.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the metrics of the exporter on /metrics
+ */
+public class MetricsHttpHandler extends AbstractHandler {
+
+    private final OpenMetricsExporter exporter;
+
+    public MetricsHttpHandler(OpenMetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!"/metrics".equals(target)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        } else {
+            byte[] body = exporter.scrape().getBytes(StandardCharsets.UTF_8);
+            response.setContentType(OpenMetricsExporter.CONTENT_TYPE);
+            response.setContentLength(body.length);
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.getOutputStream().write(body);
+        }
+        baseRequest.setHandled(true);
+    }
+}
@@ -0,0 +1,38 @@
+package edu.cut.smacc.server.statistics.metrics;
+
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.tier.TierManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jetty.server.Server;
+
+/**
+ * The HTTP server of the metrics endpoint (statistics.metrics.http.port)
+ */
+public class MetricsServer {
+    private static final Logger logger = LogManager.getLogger(MetricsServer.class);
+
+    private final Server server;
+
+    public MetricsServer(int port, TierManager tierManager, StatisticsManager statisticsManager) {
+        server = new Server(port);
+        server.setHandler(new MetricsHttpHandler(new OpenMetricsExporter(tierManager, statisticsManager)));
+    }
+
+    public void start() {
+        try {
+            server.start();
+            logger.info("Metrics endpoint started on port " + server.getURI().getPort());
+        } catch (Exception e) {
+            logger.error("Unable to start the metrics endpoint: " + e.getMessage());
+        }
+    }
+
+    public void stop() {
+        try {
+            server.stop();
+        } catch (Exception e) {
+            logger.error("Unable to stop the metrics endpoint: " + e.getMessage());
+        }
+    }
+}
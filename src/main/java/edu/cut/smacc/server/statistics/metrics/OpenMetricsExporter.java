@@ -0,0 +1,194 @@
+package edu.cut.smacc.server.statistics.metrics;
+
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cloud.AsyncCloudUploadManager;
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.statistics.latency.LatencySnapshot;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
+import edu.cut.smacc.server.statistics.type.StatisticType;
+import edu.cut.smacc.server.statistics.type.Statistics;
+import edu.cut.smacc.server.tier.ReclaimStatistics;
+import edu.cut.smacc.server.tier.TierManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the server metrics in the OpenMetrics text format. The counters are the totals since
+ * the server started, so they are not affected by the resets of the statistics output; the
+ * scrape only reads counters and never walks the cached files.
+ */
+public class OpenMetricsExporter {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    // The order of the statistics returned by StatisticsManager.getTotalStatistics
+    private static final String[] SOURCES = {"memory", "disk", "s3", "all"};
+
+    private final TierManager tierManager;
+    private final StatisticsManager statisticsManager;
+
+    public OpenMetricsExporter(TierManager tierManager, StatisticsManager statisticsManager) {
+        this.tierManager = tierManager;
+        this.statisticsManager = statisticsManager;
+    }
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(8192);
+        writeStatistics(sb, statisticsManager.getTotalStatistics());
+        writeUsage(sb);
+        writeQueues(sb);
+        writeReclaims(sb);
+        writeRecovery(sb);
+        writePrefetch(sb);
+        writeLatencies(sb, statisticsManager.getLastLatencySnapshot());
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    /**
+     * Write a family per statistic type with a sample per source (memory, disk, s3 and all)
+     */
+    static void writeStatistics(StringBuilder sb, List<Statistics> totalStatistics) {
+        for (StatisticType type : StatisticType.listTierStats()) {
+            String name = "smacc_" + type.name().toLowerCase(Locale.ROOT);
+            boolean gauge = type.isGauge();
+            writeHeader(sb, name, gauge ? "gauge" : "counter", "Statistic " + type.name() + " per source");
+            for (int i = 0; i < totalStatistics.size(); i++) {
+                Statistics statistics = totalStatistics.get(i);
+                if (!statistics.containsStat(type))
+                    continue;
+                writeSample(sb, gauge ? name : name + "_total", "source", SOURCES[i],
+                        statistics.getStat(type).longValue());
+            }
+        }
+    }
+
+    private void writeUsage(StringBuilder sb) {
+        StoreSettings memorySettings = ServerConfigurations.getServerMemorySettigs();
+        Map<Integer, StoreSettings> diskVolumes = ServerConfigurations.getServerDiskVolumes();
+        String[] names = {"smacc_usage_reported_bytes", "smacc_usage_actual_bytes", "smacc_capacity_bytes"};
+        String[] helps = {"Bytes reported as used by the tier", "Bytes actually stored by the tier",
+                "Capacity of the tier"};
+        for (int m = 0; m < names.length; m++) {
+            writeHeader(sb, names[m], "gauge", helps[m]);
+            if (memorySettings != null)
+                writeSample(sb, names[m], "volume", "memory", usage(memorySettings.getStats(), m));
+            if (diskVolumes != null) {
+                for (Map.Entry<Integer, StoreSettings> volume : diskVolumes.entrySet())
+                    writeSample(sb, names[m], "volume", "disk" + volume.getKey(),
+                            usage(volume.getValue().getStats(), m));
+            }
+        }
+    }
+
+    private static long usage(UsageStats stats, int metric) {
+        return switch (metric) {
+            case 0 -> stats.getReportedUsage();
+            case 1 -> stats.getActualUsage();
+            default -> stats.getMaxCapacity();
+        };
+    }
+
+    private void writeQueues(StringBuilder sb) {
+        writeHeader(sb, "smacc_upload_queue_length", "gauge", "Files waiting for an upload thread");
+        writeSample(sb, "smacc_upload_queue_length", null, null, AsyncCloudUploadManager.getQueueLength());
+        writeHeader(sb, "smacc_pending_uploads", "gauge", "Files being uploaded to the cloud");
+        writeSample(sb, "smacc_pending_uploads", null, null, tierManager.getPendingUploadCount());
+        writeHeader(sb, "smacc_policy_dropped_accesses", "counter", "Accesses dropped by the policy buffers");
+        writeSample(sb, "smacc_policy_dropped_accesses_total", null, null,
+                tierManager.getCachePolicyNotifier().getDroppedAccesses());
+    }
+
+    private void writeReclaims(StringBuilder sb) {
+        ReclaimStatistics[] reclaims = {tierManager.getMemoryReclaimStatistics(),
+                tierManager.getDiskReclaimStatistics()};
+        String[] tiers = {"memory", "disk"};
+        String[] names = {"smacc_reclaims", "smacc_reclaimed_files", "smacc_reclaimed_bytes", "smacc_reclaim_stalls"};
+        String[] helps = {"Reclaims of space by the eviction manager", "Files evicted by the reclaims",
+                "Bytes freed by the reclaims", "Writers that waited for a reclaim"};
+        for (int m = 0; m < names.length; m++) {
+            writeHeader(sb, names[m], "counter", helps[m]);
+            for (int t = 0; t < tiers.length; t++) {
+                if (reclaims[t] == null)
+                    continue;
+                long value = switch (m) {
+                    case 0 -> reclaims[t].getReclaims();
+                    case 1 -> reclaims[t].getEvictedFiles();
+                    case 2 -> reclaims[t].getReclaimedBytes();
+                    default -> reclaims[t].getStalls();
+                };
+                writeSample(sb, names[m] + "_total", "tier", tiers[t], value);
+            }
+        }
+    }
+
+    private void writeRecovery(StringBuilder sb) {
+        if (!ServerConfigurations.getCacheRecoveryActivate())
+            return;
+        writeHeader(sb, "smacc_recovery_done", "gauge", "Whether the recovery of the cache has finished");
+        writeSample(sb, "smacc_recovery_done", null, null, tierManager.isRecoveryDone() ? 1 : 0);
+        writeHeader(sb, "smacc_recovery_volumes", "gauge", "Disk volumes recovered and in total");
+        writeSample(sb, "smacc_recovery_volumes", "state", "recovered", tierManager.getRecoveredDiskVolumes());
+        writeSample(sb, "smacc_recovery_volumes", "state", "total", tierManager.getDiskVolumeCount());
+        writeHeader(sb, "smacc_recovery_files", "gauge", "Disk files recovered");
+        writeSample(sb, "smacc_recovery_files", null, null, tierManager.getRecoveredDiskFiles());
+        writeHeader(sb, "smacc_recovery_validations_pending", "gauge",
+                "Recovered files not validated against the cloud yet");
+        writeSample(sb, "smacc_recovery_validations_pending", null, null, tierManager.getPendingRecoveryValidations());
+        writeHeader(sb, "smacc_recovery_invalidated_files", "counter", "Recovered files found stale by the validation");
+        writeSample(sb, "smacc_recovery_invalidated_files_total", null, null,
+                tierManager.getInvalidatedRecoveredFiles());
+    }
+
+    private void writePrefetch(StringBuilder sb) {
+        if (!tierManager.isPrefetchEnabled())
+            return;
+        writeHeader(sb, "smacc_prefetch_requests", "counter", "Ranges prefetched ahead of sequential range reads");
+        writeSample(sb, "smacc_prefetch_requests_total", null, null, tierManager.getPrefetches());
+        writeHeader(sb, "smacc_prefetch_bytes", "counter", "Bytes prefetched ahead of sequential range reads");
+        writeSample(sb, "smacc_prefetch_bytes_total", null, null, tierManager.getPrefetchedBytes());
+        writeHeader(sb, "smacc_prefetch_skipped", "counter", "Prefetches skipped for the limit of bytes in progress");
+        writeSample(sb, "smacc_prefetch_skipped_total", null, null, tierManager.getSkippedPrefetches());
+    }
+
+    /**
+     * The latency percentiles of the last interval of the statistics output. They are gauges of the
+     * interval rather than a summary, whose quantiles, count and sum would cover the whole lifetime,
+     * so the percentile label is not the reserved quantile label.
+     */
+    static void writeLatencies(StringBuilder sb, LatencySnapshot snapshot) {
+        if (snapshot == null)
+            return;
+        writeHeader(sb, "smacc_latency_seconds", "gauge", "Latency percentiles of the last statistics interval");
+        for (LatencyType type : LatencyType.values()) {
+            if (snapshot.getCount(type) == 0)
+                continue;
+            String op = type.name().toLowerCase(Locale.ROOT);
+            for (double percentile : LatencySnapshot.PERCENTILES) {
+                sb.append("smacc_latency_seconds{op=\"").append(op).append("\",percentile=\"")
+                        .append(formatPercentile(percentile)).append("\"} ")
+                        .append(snapshot.getPercentileMicros(type, percentile) / 1e6).append('\n');
+            }
+        }
+    }
+
+    private static String formatPercentile(double percentile) {
+        return (percentile == Math.rint(percentile)) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static void writeHeader(StringBuilder sb, String name, String type, String help) {
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void writeSample(StringBuilder sb, String name, String label, String value, long sample) {
+        sb.append(name);
+        if (label != null)
+            sb.append('{').append(label).append("=\"").append(value).append("\"}");
+        sb.append(' ').append(sample).append('\n');
+    }
+}
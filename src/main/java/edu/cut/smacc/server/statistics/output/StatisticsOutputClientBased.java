@@ -21,6 +21,12 @@ public class StatisticsOutputClientBased implements StatisticsOutputInvokePolicy
         return willOutputOnRequest;
     }
 
+    @Override
+    public boolean shouldOutputStatistics(long operations) {
+        // A single check is enough, since the decision does not depend on the number of operations
+        return operations > 0 && shouldOutputStatistics();
+    }
+
     @Override
     public void outputStatisticsOnRequest() {
         outputOnRequest = true;
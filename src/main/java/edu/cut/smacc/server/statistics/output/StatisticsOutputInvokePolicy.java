@@ -13,6 +13,18 @@ public interface StatisticsOutputInvokePolicy {
 
     boolean shouldOutputStatistics();
 
+    /**
+     * Same as calling shouldOutputStatistics() once per operation; the statistics reporter passes
+     * the operations since its previous call
+     */
+    default boolean shouldOutputStatistics(long operations) {
+        boolean shouldOutput = false;
+        for (long i = 0; i < operations; i++) {
+            shouldOutput |= shouldOutputStatistics();
+        }
+        return shouldOutput;
+    }
+
     void outputStatisticsOnRequest();
 
     static StatisticsOutputInvokePolicy getInstance(Configuration conf) {
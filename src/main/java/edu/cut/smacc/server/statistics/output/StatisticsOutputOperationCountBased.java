@@ -26,6 +26,18 @@ public class StatisticsOutputOperationCountBased extends StatisticsOutputClientB
         return super.shouldOutputStatistics() || shouldOutputByPolicy;
     }
 
+    @Override
+    public boolean shouldOutputStatistics(long operations) {
+        if (operations <= 0)
+            return false;
+        // Output if any of the operations is a (non-zero) multiple of the interval
+        long first = Math.max(operationsUntilOutput, 1);
+        long last = operationsUntilOutput + operations - 1;
+        boolean shouldOutputByPolicy = last >= first && last / operationInterval > (first - 1) / operationInterval;
+        operationsUntilOutput += operations;
+        return super.shouldOutputStatistics() || shouldOutputByPolicy;
+    }
+
     public void updateOperations() {
         operationsUntilOutput++;
     }
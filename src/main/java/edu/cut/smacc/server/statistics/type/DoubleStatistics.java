@@ -1,79 +1,115 @@
 package edu.cut.smacc.server.statistics.type;
 
-import java.util.EnumMap;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-
-import com.google.common.util.concurrent.AtomicDouble;
+import java.util.concurrent.atomic.DoubleAdder;
 
 /**
  * Statistics that are measured in double values.
+ * <p>
+ * As in LongStatistics, each statistic is a striped counter (DoubleAdder) and a reset moves its base.
+ * Setting a statistic resets its counter in place instead, since the derived values (e.g. throughput)
+ * may be infinite and cannot be offset.
  */
 public abstract class DoubleStatistics extends StatisticsBase {
 
-    private Map<StatisticType, AtomicDouble> statTypeMap;
+    private static final StatisticType[] TYPES = StatisticType.values();
+
+    private static class Counter {
+        private final DoubleAdder sum = new DoubleAdder();
+        private volatile double base = 0;
+
+        double value() {
+            return sum.sum() - base;
+        }
+
+        void set(double value) {
+            sum.reset();
+            base = 0;
+            sum.add(value);
+        }
+    }
+
+    private final Counter[] counters;
+    private volatile Set<StatisticType> statTypes; // copied on write
 
     public DoubleStatistics(List<StatisticType> types) {
         super();
 
-        statTypeMap = new EnumMap<>(StatisticType.class);
-        for (StatisticType type : types) {
-            statTypeMap.put(type, new AtomicDouble(0d));
+        counters = new Counter[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            counters[i] = new Counter();
         }
+        statTypes = types.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(types));
+    }
 
+    private Counter counter(StatisticType stat) {
+        if (!statTypes.contains(stat))
+            addStatType(stat);
+        return counters[stat.ordinal()];
+    }
+
+    private synchronized void addStatType(StatisticType stat) {
+        if (statTypes.contains(stat))
+            return;
+        EnumSet<StatisticType> types = EnumSet.of(stat);
+        types.addAll(statTypes);
+        statTypes = Collections.unmodifiableSet(types);
     }
 
     @Override
     public void setStatWithValue(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicDouble(0d));
-        statTypeMap.get(stat).set(value.doubleValue());
+        counter(stat).set(value.doubleValue());
     }
 
     @Override
     public void incrementStatBy(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicDouble(0d));
-        statTypeMap.get(stat).addAndGet(value.doubleValue());
+        counter(stat).sum.add(value.doubleValue());
     }
 
     @Override
     public void decrementStatBy(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicDouble(0d));
-        statTypeMap.get(stat).addAndGet(-value.doubleValue());
+        counter(stat).sum.add(-value.doubleValue());
     }
 
     @Override
     public boolean containsStat(StatisticType type) {
-        return statTypeMap.containsKey(type);
+        return statTypes.contains(type);
     }
 
     @Override
     public Number getStat(StatisticType stat) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicDouble(0d));
-        return statTypeMap.get(stat);
+        return counter(stat).value();
     }
 
     @Override
     public Set<StatisticType> getStatTypes() {
-        return statTypeMap.keySet();
+        return statTypes;
     }
 
     @Override
     public int getStatCount() {
-        return statTypeMap.size();
+        return statTypes.size();
     }
 
     @Override
-    public void clearStats() {
-        statTypeMap.clear();
+    public synchronized void clearStats() {
+        resetStats();
+        statTypes = Collections.emptySet();
     }
 
     @Override
     public void resetStats() {
-        statTypeMap.replaceAll((s, v) -> new AtomicDouble(0));
+        for (StatisticType type : statTypes) {
+            Counter counter = counters[type.ordinal()];
+            double sum = counter.sum.sum();
+            if (Double.isFinite(sum))
+                counter.base = sum;
+            else
+                counter.set(0);
+        }
     }
 }
@@ -1,78 +1,111 @@
 package edu.cut.smacc.server.statistics.type;
 
-import java.util.EnumMap;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Statistics that are measured in long values.
+ * <p>
+ * The statistics are updated by the request threads, so each one is a striped counter (LongAdder)
+ * that never blocks or retries under contention. A reset does not touch the counters: it moves the
+ * base of each statistic to the current sum, so it never loses or blocks a concurrent update.
  */
 public abstract class LongStatistics extends StatisticsBase {
 
-    private Map<StatisticType, AtomicLong> statTypeMap;
+    private static final StatisticType[] TYPES = StatisticType.values();
+
+    // The sums since creation; the value of a statistic is its counter minus its base
+    private final LongAdder[] counters;
+    private final AtomicLongArray bases;
+    private volatile Set<StatisticType> statTypes; // copied on write
 
     public LongStatistics(List<StatisticType> types) {
         super();
 
-        statTypeMap = new EnumMap<>(StatisticType.class);
-        for (StatisticType type : types) {
-            statTypeMap.put(type, new AtomicLong(0l));
+        counters = new LongAdder[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            counters[i] = new LongAdder();
         }
+        bases = new AtomicLongArray(TYPES.length);
+        statTypes = types.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(types));
+    }
 
+    private LongAdder counter(StatisticType stat) {
+        if (!statTypes.contains(stat))
+            addStatType(stat);
+        return counters[stat.ordinal()];
+    }
+
+    private synchronized void addStatType(StatisticType stat) {
+        if (statTypes.contains(stat))
+            return;
+        EnumSet<StatisticType> types = EnumSet.of(stat);
+        types.addAll(statTypes);
+        statTypes = Collections.unmodifiableSet(types);
+    }
+
+    private long value(StatisticType stat) {
+        return counters[stat.ordinal()].sum() - bases.get(stat.ordinal());
     }
 
     @Override
     public void setStatWithValue(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicLong(0l));
-        statTypeMap.get(stat).set(value.longValue());
+        counter(stat).add(value.longValue() - value(stat));
     }
 
     @Override
     public void incrementStatBy(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicLong(0l));
-        statTypeMap.get(stat).addAndGet(value.longValue());
+        counter(stat).add(value.longValue());
     }
 
     @Override
     public void decrementStatBy(StatisticType stat, Number value) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicLong(0l));
-        statTypeMap.get(stat).addAndGet(-value.longValue());
+        counter(stat).add(-value.longValue());
     }
 
     @Override
     public boolean containsStat(StatisticType type) {
-        return statTypeMap.containsKey(type);
+        return statTypes.contains(type);
     }
 
     @Override
     public Number getStat(StatisticType stat) {
-        if (!statTypeMap.containsKey(stat))
-            statTypeMap.put(stat, new AtomicLong(0l));
-        return statTypeMap.get(stat);
+        counter(stat);
+        return value(stat);
+    }
+
+    /**
+     * @return the sum of the updates of the statistic since creation, regardless of the resets
+     */
+    public long getTotalStat(StatisticType stat) {
+        return counters[stat.ordinal()].sum();
     }
 
     @Override
     public int getStatCount() {
-        return statTypeMap.size();
+        return statTypes.size();
     }
 
     @Override
     public Set<StatisticType> getStatTypes() {
-        return statTypeMap.keySet();
+        return statTypes;
     }
 
     @Override
-    public void clearStats() {
-        statTypeMap.clear();
+    public synchronized void clearStats() {
+        resetStats();
+        statTypes = Collections.emptySet();
     }
 
     @Override
     public void resetStats() {
-        statTypeMap.replaceAll((s, v) -> new AtomicLong(0));
+        for (StatisticType type : statTypes) {
+            bases.set(type.ordinal(), counters[type.ordinal()].sum());
+        }
     }
 }
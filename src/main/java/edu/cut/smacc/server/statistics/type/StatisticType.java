@@ -151,6 +151,13 @@ public enum StatisticType {
         return list;
     }
 
+    /**
+     * @return true for the statistics of the current state (e.g. cached bytes) rather than counts of events
+     */
+    public boolean isGauge() {
+        return this == CACHE_FILES || this == CACHE_BYTES;
+    }
+
     public boolean isMeasuredInDouble() {
         return this == GET_THROUGHPUT || this == GET_IOPS || this == GET_LATENCY ||
                 this == PUT_THROUGHPUT || this == PUT_IOPS || this == PUT_LATENCY ||
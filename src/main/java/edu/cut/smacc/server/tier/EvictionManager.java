@@ -3,6 +3,7 @@ package edu.cut.smacc.server.tier;
 import edu.cut.smacc.server.cache.common.CacheFile;
 import edu.cut.smacc.server.cache.common.StoreOptionType;
 import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageListener;
 import edu.cut.smacc.server.cache.common.io.UsageStats;
 import edu.cut.smacc.server.cache.disk.DiskManager;
 import edu.cut.smacc.server.cache.memory.MemoryManager;
@@ -16,11 +17,18 @@ import edu.cut.smacc.server.statistics.updater.StatisticsUpdaterOnOperation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is the eviction handling service which is responsible to call the eviction policy and evict files as necessary
+ * <p>
+ * Eviction is driven by the allocations of the tiers: when an allocation takes a tier over its high
+ * watermark, the manager is woken up and evicts files in a batch until the tier is below its low
+ * watermark. The tiers are also checked every cache.outOfMemory.eviction.run.ms.
  *
  * @author Theodoros Danos
  * @author Michail Boronikolas
@@ -39,7 +47,47 @@ public class EvictionManager implements Runnable {
     private final EvictionPlacementPolicy evictionPlacementPolicy;
     private final EvictionTriggerPolicy evictionTriggerPolicy;
     private final EvictionItemPolicy evictionItemPolicy;
+    private final CachePolicyNotifier policyNotifier;
     private volatile boolean shutdown = false;
+    private final Object signal = new Object();
+    private volatile boolean signalled = false;
+    private final TierWatch memoryWatch;
+    private final List<TierWatch> diskWatches = new ArrayList<>();
+    private final ReclaimStatistics memoryReclaimStatistics = new ReclaimStatistics();
+    private final ReclaimStatistics diskReclaimStatistics = new ReclaimStatistics();
+
+    /**
+     * Watches the allocations of a tier (memory or a disk volume) to trigger its eviction
+     */
+    private class TierWatch implements UsageListener {
+        private final UsageStats stats;
+        private final UsageStats downgradeStats;
+        private final StoreOptionType tier;
+        private final ReclaimStatistics reclaimStatistics;
+        private final AtomicLong triggeredAt = new AtomicLong(0);   // nanos, 0 while under the high watermark
+
+        TierWatch(UsageStats stats, UsageStats downgradeStats, StoreOptionType tier,
+                  ReclaimStatistics reclaimStatistics) {
+            this.stats = stats;
+            this.downgradeStats = downgradeStats;
+            this.tier = tier;
+            this.reclaimStatistics = reclaimStatistics;
+            stats.setListener(this);
+        }
+
+        @Override
+        public void onAllocation(UsageStats usage) {
+            if (!signalled && evictionTriggerPolicy.triggerEviction(stats, downgradeStats, tier)) {
+                triggeredAt.compareAndSet(0, System.nanoTime());
+                wakeUp();
+            }
+        }
+
+        @Override
+        public void onStall(UsageStats usage, long stallNanos) {
+            reclaimStatistics.recordStall(stallNanos);
+        }
+    }
 
     EvictionManager(ExecutorService downgrationHandler, TierManager tierMgr, DiskManager dMgr, MemoryManager mmgr,
                     HashMap<Integer, StoreSettings> diskSettings, StoreSettings memorySettings) {
@@ -52,88 +100,158 @@ public class EvictionManager implements Runnable {
         this.downgrationHandler = downgrationHandler;
         this.downgradeStats = new UsageStats();
         this.evictionTriggerPolicy = tierMgr.getEvictionTriggerPolicy();
-        CachePolicyNotifier policyNotifier = tierMgr.getCachePolicyNotifier();
+        this.policyNotifier = tierMgr.getCachePolicyNotifier();
 
         this.evictionPlacementPolicy = policyNotifier.getEvictionPlacementPolicy();
         this.evictionItemPolicy = policyNotifier.getEvictionItemPolicy();
+
+        this.memoryWatch = mMgr.isActive() ? new TierWatch(memorySettings.getStats(), downgradeStats,
+                StoreOptionType.MEMORY_ONLY, memoryReclaimStatistics) : null;
+        if (dMgr.isActive()) {
+            for (StoreSettings settings : diskSettings.values())
+                diskWatches.add(new TierWatch(settings.getStats(), null, StoreOptionType.DISK_ONLY,
+                        diskReclaimStatistics));
+        }
     }
 
     public void shutdown() {
         shutdown = true;
+        wakeUp();
     }
 
-    public void run() {
-        StatisticsUpdaterOnOperation memoryStatUpdater = tierMgr.getMemoryStatistics().getParentUpdater();
-        StatisticsUpdaterOnOperation diskStatUpdater = tierMgr.getDiskStatistics().getParentUpdater();
-        UsageStats stats;
-        CacheFile evictionFile;
-        boolean evicted;
+    public ReclaimStatistics getMemoryReclaimStatistics() {
+        return memoryReclaimStatistics;
+    }
+
+    public ReclaimStatistics getDiskReclaimStatistics() {
+        return diskReclaimStatistics;
+    }
+
+    private void wakeUp() {
+        synchronized (signal) {
+            signalled = true;
+            signal.notify();
+        }
+    }
+
+    private void awaitWakeUp() {
+        synchronized (signal) {
+            try {
+                if (!signalled)
+                    signal.wait(ServerConfigurations.getEvictionHandlerRun());
+            } catch (InterruptedException e) { /* Do nothing */ }
+            signalled = false;
+        }
+    }
 
+    public void run() {
         logger.info("Eviction Manager Started");
 
-        if (dMgr.isActive() || mMgr.isActive())
+        if (dMgr.isActive() || mMgr.isActive()) {
             while (!shutdown) {
                 //check disks
-                if (dMgr.isActive()) {
-                    for (Integer integer : diskSettings.keySet()) {
-                        stats = diskSettings.get(integer).getStats();
-                        while (evictionTriggerPolicy.triggerEviction(stats, null, StoreOptionType.DISK_ONLY)) {
-                            evictionFile = evictionItemPolicy.getItemToEvict(StoreOptionType.DISK_ONLY);
-                            if (evictionFile != null) {
-                                logger.info("Evicting File[D]: " + evictionFile.getKey());
-                                evicted = dMgr.evict(evictionFile); //prevent from adding new blocks to file (make file invisible to new partial writes)
-                                if (evicted) {
-                                    ((StatisticsUpdaterOnCacheOperation) diskStatUpdater).updateOnEvict(evictionFile.getTotalSize());
-                                    evictionFile.delete();
-                                } else {
-                                    logger.warn("The item to be evicted from DISK was not found: " + evictionFile.getKey());
-                                    // Manually remove it from the policy
-                                    evictionItemPolicy.onItemDelete(evictionFile, dMgr.getStoreOptionType());
-                                    evictionFile.delete();
-                                }
-                            } else {
-                                logger.error("The eviction item policy returned a null file to evict from disk");
-                                break;
-                        }
-                        }
-                    }
-                }
+                for (TierWatch diskWatch : diskWatches)
+                    reclaim(diskWatch);
                 //check memory
-                if (mMgr.isActive()) {
-                    stats = memorySettings.getStats();
-                    while (evictionTriggerPolicy.triggerEviction(stats, downgradeStats, StoreOptionType.MEMORY_ONLY)) {
-                        evictionFile = evictionItemPolicy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
-                        if (evictionFile != null) {
-                            logger.info("Memory eviction at Reported Usage=" + stats.getReportedUsage() + " Actual Usage=" + stats.getActualUsage());
-                            logger.info("Evicting File[M]: " + evictionFile.getKey() + "(Size: " + evictionFile.getTotalSize() + ")");
-                            evicted = mMgr.evict(evictionFile); //prevent from adding new blocks to file (make file invisible to new partial writes)
-                            if (evicted) {
-                                ((StatisticsUpdaterOnCacheOperation) memoryStatUpdater).updateOnEvict(evictionFile.getTotalSize());
-                                if (dMgr.isActive() && evictionPlacementPolicy.downgrade(evictionFile)) {
-                                    //downgrades and deletes the evicted file
-                                    downgrationHandler.submit(new DowngrationRunner(evictionFile, tierMgr, downgradeStats));
-                                } else {
-                                    evictionFile.delete();
-                                }
-                            } else {
-                                logger.warn("The item to be evicted from MEM was not found: " + evictionFile.getKey());
-                                // Manually remove it from the policy
-                                evictionItemPolicy.onItemDelete(evictionFile, mMgr.getStoreOptionType());
-                                evictionFile.delete();
-                            }
-                        } else {
-                            logger.error("The eviction item policy returned a null file to evict from memory");
-                            break;
-                        }
-                    }
-
-                    try {
-                        Thread.sleep(ServerConfigurations.getEvictionHandlerRun());
-                    } catch (InterruptedException e) { /* Do nothing */ }
-                }
-
-                logger.info("Eviction Manager has Shutdown");
+                if (memoryWatch != null)
+                    reclaim(memoryWatch);
+
+                awaitWakeUp();
             }
+            logger.info("Eviction Manager has Shutdown");
+        }
+    }
+
+    /**
+     * Evict files of the tier in a batch, from the high watermark down to the low watermark
+     */
+    private void reclaim(TierWatch watch) {
+        if (!evictionTriggerPolicy.triggerEviction(watch.stats, watch.downgradeStats, watch.tier)) {
+            watch.triggeredAt.set(0);
+            return;
+        }
+        watch.triggeredAt.compareAndSet(0, System.nanoTime());
 
+        long files = 0, bytes = 0;
+        do {
+            long evictedBytes = (watch.tier == StoreOptionType.MEMORY_ONLY) ? evictFromMemory(watch.stats)
+                    : evictFromDisk();
+            if (evictedBytes < 0)
+                break;
+            files += 1;
+            bytes += evictedBytes;
+        } while (!shutdown && evictionTriggerPolicy.continueEviction(watch.stats, watch.downgradeStats, watch.tier));
+
+        long latency = System.nanoTime() - watch.triggeredAt.getAndSet(0);
+        watch.reclaimStatistics.recordReclaim(files, bytes, latency);
+        if (logger.isDebugEnabled())
+            logger.info("Reclaimed " + files + " files (" + bytes + " bytes) from " + watch.tier + " in "
+                    + (latency / 1000000) + " ms");
+    }
+
+    /**
+     * @return the bytes of the evicted file, or -1 if there is no file to evict
+     */
+    private long evictFromDisk() {
+        StatisticsUpdaterOnOperation diskStatUpdater = tierMgr.getDiskStatistics().getParentUpdater();
+        policyNotifier.flush(); // the policy must know about the latest additions and deletions
+        CacheFile evictionFile;
+        synchronized (evictionItemPolicy) {
+            evictionFile = evictionItemPolicy.getItemToEvict(StoreOptionType.DISK_ONLY);
+        }
+        if (evictionFile == null) {
+            logger.error("The eviction item policy returned a null file to evict from disk");
+            return -1;
+        }
+
+        logger.info("Evicting File[D]: " + evictionFile.getKey());
+        long size = evictionFile.getTotalSize();
+        boolean evicted = dMgr.evict(evictionFile); //prevent from adding new blocks to file (make file invisible to new partial writes)
+        if (evicted) {
+            ((StatisticsUpdaterOnCacheOperation) diskStatUpdater).updateOnEvict(size);
+            evictionFile.delete();
+        } else {
+            logger.warn("The item to be evicted from DISK was not found: " + evictionFile.getKey());
+            // Manually remove it from the policy
+            evictionItemPolicy.onItemDelete(evictionFile, dMgr.getStoreOptionType());
+            evictionFile.delete();
+        }
+        return size;
+    }
+
+    /**
+     * @return the bytes of the evicted file, or -1 if there is no file to evict
+     */
+    private long evictFromMemory(UsageStats stats) {
+        StatisticsUpdaterOnOperation memoryStatUpdater = tierMgr.getMemoryStatistics().getParentUpdater();
+        policyNotifier.flush(); // the policy must know about the latest additions and deletions
+        CacheFile evictionFile;
+        synchronized (evictionItemPolicy) {
+            evictionFile = evictionItemPolicy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
+        }
+        if (evictionFile == null) {
+            logger.error("The eviction item policy returned a null file to evict from memory");
+            return -1;
+        }
+
+        logger.info("Memory eviction at Reported Usage=" + stats.getReportedUsage() + " Actual Usage=" + stats.getActualUsage());
+        logger.info("Evicting File[M]: " + evictionFile.getKey() + "(Size: " + evictionFile.getTotalSize() + ")");
+        long size = evictionFile.getTotalSize();
+        boolean evicted = mMgr.evict(evictionFile); //prevent from adding new blocks to file (make file invisible to new partial writes)
+        if (evicted) {
+            ((StatisticsUpdaterOnCacheOperation) memoryStatUpdater).updateOnEvict(size);
+            if (dMgr.isActive() && evictionPlacementPolicy.downgrade(evictionFile)) {
+                //downgrades and deletes the evicted file
+                downgrationHandler.submit(new DowngrationRunner(evictionFile, tierMgr, downgradeStats));
+            } else {
+                evictionFile.delete();
+            }
+        } else {
+            logger.warn("The item to be evicted from MEM was not found: " + evictionFile.getKey());
+            // Manually remove it from the policy
+            evictionItemPolicy.onItemDelete(evictionFile, mMgr.getStoreOptionType());
+            evictionFile.delete();
+        }
+        return size;
     }
-}
\ No newline at end of file
+}
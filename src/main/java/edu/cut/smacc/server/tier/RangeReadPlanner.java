@@ -0,0 +1,119 @@
+package edu.cut.smacc.server.tier;
+
+import edu.cut.smacc.server.cache.common.BlockRange;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits a range request into the parts that are cached in a file and the gaps that
+ * must be fetched from the cloud
+ */
+public class RangeReadPlanner {
+
+    /**
+     * A part of the requested range, either cached or missing
+     */
+    public static class Segment {
+        private final long start;
+        private final long stop;
+        private final boolean cached;
+
+        Segment(long start, long stop, boolean cached) {
+            this.start = start;
+            this.stop = stop;
+            this.cached = cached;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getStop() {
+            return stop;
+        }
+
+        public long getLength() {
+            return stop - start + 1;
+        }
+
+        public boolean isCached() {
+            return cached;
+        }
+
+        public String toString() {
+            return (cached ? "Cached " : "Missing ") + start + "-" + stop;
+        }
+    }
+
+    private RangeReadPlanner() {
+    }
+
+    /**
+     * Plan the read of [start, stop]
+     *
+     * @param cachedRanges    the cached ranges of the file (in any order, possibly overlapping)
+     * @param start           first byte of the request
+     * @param stop            last byte of the request
+     * @param minCachedLength cached segments shorter than this that lie between two gaps are fetched
+     *                        along with the gaps, to save a cloud request
+     * @return the segments covering [start, stop] in order, with no two adjacent segments of the same kind
+     */
+    public static List<Segment> plan(List<BlockRange> cachedRanges, long start, long stop, long minCachedLength) {
+        List<BlockRange> sorted = new ArrayList<>(cachedRanges);
+        sorted.sort(Comparator.comparingLong(BlockRange::getStart));
+
+        List<Segment> segments = new ArrayList<>();
+        long position = start;
+        for (BlockRange range : sorted) {
+            if (range.getStop() < position || position > stop)
+                continue;
+            if (range.getStart() > stop)
+                break;
+            if (range.getStart() > position) {
+                add(segments, position, range.getStart() - 1, false);
+                position = range.getStart();
+            }
+            long cachedStop = Math.min(range.getStop(), stop);
+            add(segments, position, cachedStop, true);
+            position = cachedStop + 1;
+        }
+        if (position <= stop)
+            add(segments, position, stop, false);
+
+        // Fetch short cached segments along with the gaps around them
+        List<Segment> merged = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (segment.isCached() && i > 0 && i < segments.size() - 1 && segment.getLength() < minCachedLength)
+                add(merged, segment.getStart(), segment.getStop(), false);
+            else
+                add(merged, segment.getStart(), segment.getStop(), segment.isCached());
+        }
+        return merged;
+    }
+
+    /**
+     * @return the number of bytes served from the cache
+     */
+    public static long cachedBytes(List<Segment> segments) {
+        long bytes = 0;
+        for (Segment segment : segments)
+            if (segment.isCached())
+                bytes += segment.getLength();
+        return bytes;
+    }
+
+    private static void add(List<Segment> segments, long start, long stop, boolean cached) {
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            if (last.isCached() == cached && last.getStop() + 1 == start) {
+                segments.set(segments.size() - 1, new Segment(last.getStart(), stop, cached));
+                return;
+            }
+        }
+        segments.add(new Segment(start, stop, cached));
+    }
+
+}
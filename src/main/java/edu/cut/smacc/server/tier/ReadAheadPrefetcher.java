@@ -0,0 +1,168 @@
+package edu.cut.smacc.server.tier;
+
+import edu.cut.smacc.server.cache.common.CacheKey;
+import edu.cut.smacc.server.cloud.CloudInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects the clients that read an object with successive range reads and fetches the data after
+ * their reads into the cache in the background, so their next reads hit the cache instead of
+ * waiting for the cloud.
+ * <p>
+ * A range read that starts where the previous read of the object stopped is sequential. From the
+ * first sequential read on, the data of a window after the read is kept prefetched, and it is
+ * refilled when half of it has been read. The window starts at twice the size of the read and
+ * doubles every time the reader catches up with the prefetched data, up to a maximum. The
+ * prefetches share a thread pool, which bounds the concurrent cloud reads, and a budget of bytes
+ * in progress.
+ */
+class ReadAheadPrefetcher {
+    private static final Logger logger = LogManager.getLogger(ReadAheadPrefetcher.class);
+
+    private static final int MAX_STREAMS = 4096;    // the objects whose reads are tracked
+
+    /**
+     * Fetches a range of an object into the cache
+     */
+    interface RangeFetcher {
+        void fetch(String bucket, String key, long start, long stop, CloudInfo cloudInfo) throws IOException;
+    }
+
+    private static class Stream {
+        private long next;              // where the next sequential read starts
+        private long prefetchedUntil;   // the end (exclusive) of the prefetched data
+        private long window = 0;
+        private boolean inProgress = false;
+    }
+
+    private final RangeFetcher fetcher;
+    private final long maxWindow;
+    private final long maxInflight;
+    private final ExecutorService executor;
+    private final LinkedHashMap<CacheKey, Stream> streams = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Stream> eldest) {
+            return size() > MAX_STREAMS;
+        }
+    };
+    private long inflightBytes = 0;
+    private final AtomicLong prefetches = new AtomicLong();
+    private final AtomicLong prefetchedBytes = new AtomicLong();
+    private final AtomicLong skippedPrefetches = new AtomicLong();
+
+    ReadAheadPrefetcher(RangeFetcher fetcher, long maxWindow, long maxInflight, int threads) {
+        this.fetcher = fetcher;
+        this.maxWindow = maxWindow;
+        this.maxInflight = maxInflight;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Track a range read of an object and prefetch the data after it if the reads are sequential
+     *
+     * @param length the size of the object (nothing is prefetched if it is unknown)
+     */
+    void onRead(String bucket, String key, long start, long stop, long length, CloudInfo cloudInfo) {
+        Stream stream;
+        long from, to;
+        synchronized (streams) {
+            CacheKey cacheKey = new CacheKey(bucket, key);
+            stream = streams.get(cacheKey);
+            if (stream == null || start != stream.next) {
+                stream = new Stream();
+                stream.next = stop + 1;
+                stream.prefetchedUntil = stop + 1;
+                streams.put(cacheKey, stream);
+                return;
+            }
+            stream.next = stop + 1;
+            if (stream.inProgress || length <= 0)
+                return;
+
+            long window = stream.window;
+            if (stop + 1 >= stream.prefetchedUntil)    // the reader caught up with the prefetched data
+                window = Math.min(maxWindow, Math.max(2 * window, 2 * (stop - start + 1)));
+            if (stream.prefetchedUntil - (stop + 1) > window / 2)
+                return;    // enough data is prefetched
+            from = Math.max(stream.prefetchedUntil, stop + 1);
+            to = Math.min(stop + window, length - 1);
+            if (from > to)
+                return;
+            if (inflightBytes + (to - from + 1) > maxInflight) {
+                skippedPrefetches.incrementAndGet();
+                return;
+            }
+            inflightBytes += to - from + 1;
+            stream.window = window;
+            stream.inProgress = true;
+        }
+
+        Stream prefetched = stream;
+        try {
+            executor.execute(() -> prefetch(bucket, key, from, to, cloudInfo, prefetched));
+        } catch (RejectedExecutionException e) {
+            finished(prefetched, from, to, false);    // shut down
+        }
+    }
+
+    private void prefetch(String bucket, String key, long from, long to, CloudInfo cloudInfo, Stream stream) {
+        boolean fetched = false;
+        try {
+            if (logger.isDebugEnabled())
+                logger.info("PREFETCH " + bucket + "/" + key + " [" + from + "-" + to + "]");
+            fetcher.fetch(bucket, key, from, to, cloudInfo);
+            fetched = true;
+        } catch (IOException e) {
+            logger.error("Could not prefetch " + bucket + "/" + key + ": " + e.getMessage());
+        } finally {
+            finished(stream, from, to, fetched);
+        }
+    }
+
+    private void finished(Stream stream, long from, long to, boolean fetched) {
+        synchronized (streams) {
+            inflightBytes -= to - from + 1;
+            stream.inProgress = false;
+            if (fetched)
+                stream.prefetchedUntil = Math.max(stream.prefetchedUntil, to + 1);
+        }
+        if (fetched) {
+            prefetches.incrementAndGet();
+            prefetchedBytes.addAndGet(to - from + 1);
+        }
+    }
+
+    /**
+     * Stop tracking the reads of an object (e.g. it was deleted)
+     */
+    void forget(String bucket, String key) {
+        synchronized (streams) {
+            streams.remove(new CacheKey(bucket, key));
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    long getPrefetches() {
+        return prefetches.get();
+    }
+
+    long getPrefetchedBytes() {
+        return prefetchedBytes.get();
+    }
+
+    long getSkippedPrefetches() {
+        return skippedPrefetches.get();
+    }
+}
@@ -0,0 +1,77 @@
+package edu.cut.smacc.server.tier;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reclaim metrics of a tier: the eviction batches (from the high watermark being reached until
+ * the usage is back below the low watermark) and the writes stalled on the full tier
+ */
+public class ReclaimStatistics {
+
+    private final LongAdder reclaims = new LongAdder();
+    private final LongAdder evictedFiles = new LongAdder();
+    private final LongAdder reclaimedBytes = new LongAdder();
+    private final LongAdder reclaimNanos = new LongAdder();
+    private final AtomicLong maxReclaimNanos = new AtomicLong(0);
+    private final AtomicLong lastReclaimNanos = new AtomicLong(0);
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder stallNanos = new LongAdder();
+
+    void recordReclaim(long files, long bytes, long latencyNanos) {
+        reclaims.increment();
+        evictedFiles.add(files);
+        reclaimedBytes.add(bytes);
+        reclaimNanos.add(latencyNanos);
+        lastReclaimNanos.set(latencyNanos);
+        maxReclaimNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    void recordStall(long nanos) {
+        stalls.increment();
+        stallNanos.add(nanos);
+    }
+
+    public long getReclaims() {
+        return reclaims.sum();
+    }
+
+    public long getEvictedFiles() {
+        return evictedFiles.sum();
+    }
+
+    public long getReclaimedBytes() {
+        return reclaimedBytes.sum();
+    }
+
+    /**
+     * @return the mean time from the high watermark being reached until the low watermark, in ms
+     */
+    public double getMeanReclaimLatencyMs() {
+        long count = reclaims.sum();
+        return (count == 0) ? 0 : reclaimNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxReclaimLatencyMs() {
+        return maxReclaimNanos.get() / 1e6;
+    }
+
+    public double getLastReclaimLatencyMs() {
+        return lastReclaimNanos.get() / 1e6;
+    }
+
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    public double getStallTimeMs() {
+        return stallNanos.sum() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("reclaims=%d files=%d bytes=%d latency(mean/max/last)=%.2f/%.2f/%.2f ms stalls=%d (%.2f ms)",
+                getReclaims(), getEvictedFiles(), getReclaimedBytes(), getMeanReclaimLatencyMs(),
+                getMaxReclaimLatencyMs(), getLastReclaimLatencyMs(), getStalls(), getStallTimeMs());
+    }
+}
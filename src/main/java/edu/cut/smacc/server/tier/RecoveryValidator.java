@@ -0,0 +1,141 @@
+package edu.cut.smacc.server.tier;
+
+import edu.cut.smacc.server.cache.CacheFileHelper;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.CacheKey;
+import edu.cut.smacc.server.cache.disk.DiskFile;
+import edu.cut.smacc.server.cache.disk.DiskManager;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cloud.CloudFile;
+import edu.cut.smacc.server.cloud.CloudInfo;
+import edu.cut.smacc.server.cloud.CloudStoreManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validates the complete disk files of the recovery against the cloud lazily, so the server
+ * starts without a cloud round-trip per file. A file is validated on its first access, before
+ * it is read, and a background sweep validates the rest at a limited rate.
+ * <p>
+ * A file that is no longer in the cloud, or was overwritten there by another client, is deleted
+ * from the cache along with its memory copy, so the access misses and reads the cloud.
+ */
+class RecoveryValidator extends Thread {
+    private static final Logger logger = LogManager.getLogger(RecoveryValidator.class);
+
+    private final CloudStoreManager cloudMgr;
+    private final DiskManager dmgr;
+    private final MemoryManager memMgr;
+    private final int rate;
+    private final Map<CacheKey, DiskFile> pending = new ConcurrentHashMap<>();
+    private final AtomicLong invalidated = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param rate the validations per second of the sweep (0 to validate only on access)
+     */
+    RecoveryValidator(CloudStoreManager cloudMgr, DiskManager dmgr, MemoryManager memMgr, int rate) {
+        super("recovery-validator");
+        setDaemon(true);
+        this.cloudMgr = cloudMgr;
+        this.dmgr = dmgr;
+        this.memMgr = memMgr;
+        this.rate = rate;
+    }
+
+    void add(DiskFile file) {
+        pending.put(new CacheKey(file.getBucket(), file.getKey()), file);
+    }
+
+    /**
+     * Validate the recovered file of an object before it is accessed
+     */
+    void validate(String bucket, String key) {
+        if (pending.isEmpty())
+            return;
+        CacheKey cacheKey = new CacheKey(bucket, key);
+        DiskFile file = pending.get(cacheKey);
+        if (file != null)
+            validate(cacheKey, file);
+    }
+
+    private void validate(CacheKey cacheKey, DiskFile file) {
+        synchronized (file) {
+            if (pending.get(cacheKey) != file)
+                return;    // validated by another access
+            String bucket = file.getBucket();
+            String key = file.getKey();
+            // The file may have been replaced or deleted since the recovery
+            if (dmgr.getFile(bucket, key) == file) {
+                CloudInfo cloudInfo = cloudMgr.getCloudInfoForBucket(bucket);
+                if (cloudInfo != null) {
+                    CloudFile cloudFile;
+                    try {
+                        cloudFile = cloudMgr.statFile(bucket, key, cloudInfo);
+                    } catch (IOException e) {
+                        logger.error("Recovery: Could not validate " + bucket + "/" + key + ": " + e.getMessage());
+                        return;    // retried by the sweep
+                    }
+                    if (cloudFile != null && cloudFile.isOwnedFile()) {
+                        file.setActualSize(cloudFile.getLength());
+                        file.setLastModified(cloudFile.getLastModified());
+                    } else {
+                        if (logger.isDebugEnabled())
+                            logger.info("Recovery: Delete stale file " + bucket + "/" + key);
+                        CacheFileHelper.handleDelete(bucket, key, dmgr);
+                        CacheFile memoryFile = memMgr.isActive() ? memMgr.getFile(bucket, key) : null;
+                        if (memoryFile != null && memoryFile.getVersion() == file.getVersion())
+                            CacheFileHelper.handleDelete(bucket, key, memMgr);
+                        invalidated.incrementAndGet();
+                    }
+                }
+            }
+            pending.remove(cacheKey);
+        }
+    }
+
+    @Override
+    public void run() {
+        long pause = Math.max(1, 1000 / rate);
+        while (running && !pending.isEmpty()) {
+            for (Map.Entry<CacheKey, DiskFile> entry : pending.entrySet()) {
+                if (!running)
+                    return;
+                validate(entry.getKey(), entry.getValue());
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+        if (logger.isDebugEnabled())
+            logger.info("Recovery: Validated the recovered files, " + invalidated.get() + " were stale");
+    }
+
+    /**
+     * Start the sweep, if it has a rate
+     */
+    void startSweep() {
+        if (rate > 0)
+            start();
+    }
+
+    void shutdown() {
+        running = false;
+        interrupt();
+    }
+
+    long getPendingCount() {
+        return pending.size();
+    }
+
+    long getInvalidatedCount() {
+        return invalidated.get();
+    }
+}
@@ -3,11 +3,15 @@ package edu.cut.smacc.server.tier;
 import edu.cut.smacc.configuration.Configuration;
 import edu.cut.smacc.server.cache.CacheFileHelper;
 import edu.cut.smacc.server.cache.common.*;
+import edu.cut.smacc.server.cache.common.io.CoalescedInputStream;
 import edu.cut.smacc.server.cache.common.io.InputStreamCacheSplitter;
+import edu.cut.smacc.server.cache.common.io.SegmentedInputStream;
+import edu.cut.smacc.server.cache.common.io.SharedReadBuffer;
 import edu.cut.smacc.server.cache.disk.DiskFile;
 import edu.cut.smacc.server.cache.disk.DiskManager;
 import edu.cut.smacc.server.cache.memory.MemoryFile;
 import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicy;
 import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
 import edu.cut.smacc.server.cache.policy.admission.AdmissionPolicy;
 import edu.cut.smacc.configuration.ConfigurationException;
@@ -20,6 +24,7 @@ import edu.cut.smacc.server.cloud.CloudFileReader;
 import edu.cut.smacc.server.cloud.CloudFileWriter;
 import edu.cut.smacc.server.cloud.CloudInfo;
 import edu.cut.smacc.server.cloud.CloudStoreManager;
+import edu.cut.smacc.server.cloud.SharedCloudFileReader;
 import edu.cut.smacc.server.minio.MinioManager;
 import edu.cut.smacc.server.s3.S3Manager;
 import edu.cut.smacc.server.statistics.type.Statistics;
@@ -43,6 +48,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -116,6 +122,10 @@ public class TierManager {
     private EvictionManager evictionManager;
     private ExecutorService downgrationHandler;
     private volatile boolean recoveryDone = false;
+    private RecoveryValidator recoveryValidator; // validates the recovered files lazily
+    private ReadAheadPrefetcher prefetcher; // null without read-ahead of sequential range reads
+    private final Map<CacheKey, SharedReadBuffer> inflightReads = new ConcurrentHashMap<>();
+    private final AtomicLong sharedReadBytes = new AtomicLong(); // held by the shared read buffers
 
     public TierManager(Configuration configuration) {
         dmgr = null;
@@ -125,6 +135,17 @@ public class TierManager {
         initiate(configuration);            //Initiate Managers (Recover)
     }
 
+    /**
+     * Tier manager over the given cloud store instead of the configured one
+     */
+    TierManager(Configuration configuration, CloudStoreManager cloudMgr) {
+        dmgr = null;
+        this.cloudMgr = cloudMgr;
+        memMgr = null;
+
+        initiate(configuration);
+    }
+
     /* Interface */
 
     public PutResult create(String bucket, String key, boolean async, Long length,
@@ -225,6 +246,7 @@ public class TierManager {
 
         GetResult result = new GetResult();
         InputStream returnIS = null;    //returnInputStream
+        validateRecovered(bucket, key);
 
         // Try to read from memory
         if (memMgr.isActive()) {
@@ -241,12 +263,8 @@ public class TierManager {
         // If not found in memory or disk, try to read from S3
         if (returnIS == null) {
             if (logger.isDebugEnabled()) logger.info("Checking S3");
-            CloudFileReader s3IS = cloudMgr.read(bucket, key, cloudInfo);
-
-            if (s3IS != null) {
-                /* Note:  Despite the fact that we may already have a partial file on disk, we agreed to not use the existing cache file, and create a new one. This a  limitation of the architecture of the cache system */
-                returnIS = cacheS3Read(s3IS);
-            }
+            /* Note:  Despite the fact that we may already have a partial file on disk, we agreed to not use the existing cache file, and create a new one. This a  limitation of the architecture of the cache system */
+            returnIS = coalescedCloudRead(bucket, key, cloudInfo);
         }
         if (returnIS == null)
             throw new IOException("File does not exist");
@@ -255,6 +273,81 @@ public class TierManager {
         return result;
     }
 
+    /**
+     * Read a whole file from the cloud and cache it. Concurrent misses for the same file
+     * share a single cloud read: the first request fetches the file and the rest stream
+     * the bytes of that request as they arrive. The shared reads hold at most
+     * getReadCoalescingMaxTotal() bytes together; over it the misses read on their own.
+     */
+    private InputStream coalescedCloudRead(String bucket, String key, CloudInfo cloudInfo) throws IOException {
+        long maxSharedSize = ServerConfigurations.getReadCoalescingMaxSize();
+        if (maxSharedSize <= 0) {
+            CloudFileReader s3IS = cloudMgr.read(bucket, key, cloudInfo);
+            return (s3IS != null) ? cacheS3Read(s3IS) : null;
+        }
+
+        CacheKey inflightKey = new CacheKey(bucket, key);
+        SharedReadBuffer buffer = new SharedReadBuffer();
+        SharedReadBuffer inflight = inflightReads.putIfAbsent(inflightKey, buffer);
+        if (inflight != null) {
+            if (inflight.awaitOpen() && inflight.attach()) {
+                if (logger.isDebugEnabled()) logger.info("Attaching to in-flight S3 read of " + key);
+                long size = inflight.getExpectedLength();
+                return new CoalescedInputStream(inflight, position -> {
+                    CloudFileReader s3IS = cloudMgr.read(bucket, key, position, size - 1, cloudInfo);
+                    if (s3IS == null)
+                        throw new IOException("File does not exist");
+                    return s3IS;
+                });
+            }
+            // The in-flight read is not shared - read on our own
+            CloudFileReader s3IS = cloudMgr.read(bucket, key, cloudInfo);
+            return (s3IS != null) ? cacheS3Read(s3IS) : null;
+        }
+
+        // This request leads the read of the file
+        long reserved = 0;
+        try {
+            CloudFileReader s3IS = cloudMgr.read(bucket, key, cloudInfo);
+            if (s3IS == null || s3IS.getCloudFile().getLength() < 0
+                    || s3IS.getCloudFile().getLength() > maxSharedSize
+                    || !reserveSharedReadBytes(s3IS.getCloudFile().getLength())) {
+                buffer.cancel();
+                inflightReads.remove(inflightKey, buffer);
+                return (s3IS != null) ? cacheS3Read(s3IS) : null;
+            }
+            reserved = s3IS.getCloudFile().getLength();
+
+            CloudFileReader sharedIS = new SharedCloudFileReader(s3IS, buffer,
+                    () -> inflightReads.remove(inflightKey, buffer));
+            InputStream returnIS = cacheS3Read(sharedIS);
+            List<CacheFile> cacheFiles = (returnIS instanceof InputStreamCacheSplitter splitter)
+                    ? splitter.getCacheFiles() : new ArrayList<>(0);
+            long length = reserved;
+            buffer.open(length, cacheFiles, () -> sharedReadBytes.addAndGet(-length));
+            return returnIS;
+        } catch (IOException | RuntimeException e) {
+            buffer.cancel();
+            inflightReads.remove(inflightKey, buffer);
+            sharedReadBytes.addAndGet(-reserved);
+            throw e;
+        }
+    }
+
+    private boolean reserveSharedReadBytes(long length) {
+        long maxTotal = ServerConfigurations.getReadCoalescingMaxTotal();
+        long held;
+        do {
+            held = sharedReadBytes.get();
+            if (held + length > maxTotal) {
+                if (logger.isDebugEnabled())
+                    logger.info("Shared reads hold " + held + " bytes - reading " + length + " bytes unshared");
+                return false;
+            }
+        } while (!sharedReadBytes.compareAndSet(held, held + length));
+        return true;
+    }
+
     private InputStream cacheS3Read(CloudFileReader s3IS) throws IOException {
         CacheOutputStream wout;
         CacheFile s3CacheFile = CacheFileHelper.createS3CacheFile(s3IS.getCloudFile());
@@ -334,11 +427,20 @@ public class TierManager {
 
     // Read a range of data from the cache (if exists), or from S3 (if not)
     public GetResult read(String bucket, String key, long start, long stop, CloudInfo cloudInfo) throws IOException {
+        GetResult result = readRange(bucket, key, start, stop, cloudInfo);
+        if (prefetcher != null)
+            prefetcher.onRead(bucket, key, start, stop, result.getSize(), cloudInfo);
+        return result;
+    }
+
+    private GetResult readRange(String bucket, String key, long start, long stop, CloudInfo cloudInfo)
+            throws IOException {
         if (stop < start)
             throw new IOException("Illegal Range Specification: Stop < Start");
 
         GetResult result = new GetResult();
         InputStream returnIS = null;    //returnInputStream
+        validateRecovered(bucket, key);
 
         if (memMgr.isActive()) {
             if (logger.isDebugEnabled()) logger.info("Checking Memory");
@@ -350,6 +452,10 @@ public class TierManager {
             returnIS = dmgr.read(bucket, key, start, stop);
         }
 
+        if (returnIS == null && ServerConfigurations.getReadPartialMinSegmentSize() >= 0) {
+            returnIS = partialRangeRead(bucket, key, start, stop, cloudInfo);
+        }
+
         if (returnIS == null) {
             if (logger.isDebugEnabled()) logger.info("Checking S3 & Saving to cache");
 
@@ -431,6 +537,140 @@ public class TierManager {
         return result;
     }
 
+    /**
+     * Fetch a range into the cache for the read-ahead of a sequential reader, unless it is cached
+     */
+    private void prefetch(String bucket, String key, long start, long stop, CloudInfo cloudInfo) throws IOException {
+        if (isPending(bucket, key))
+            return;
+        for (CacheManager cmgr : new CacheManager[]{memMgr, dmgr}) {
+            if (!cmgr.isActive())
+                continue;
+            CacheFile file = cmgr.getFile(bucket, key);
+            if (file != null && !file.isObsolete() && file.inRange(start, stop))
+                return;
+        }
+        try (InputStream in = readRange(bucket, key, start, stop, cloudInfo).getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int r;
+            do {
+                r = in.read(buffer);    // the data is cached as it is read
+            } while (r > 0);
+        }
+    }
+
+    /**
+     * Read a range that is partially cached. The cached parts are read from the cache file that
+     * holds most of the range, and only the missing parts are fetched from the cloud and cached
+     * into the same file. Returns null if no cache file holds any part of the range, or if the
+     * cached parts are outdated.
+     */
+    private InputStream partialRangeRead(String bucket, String key, long start, long stop, CloudInfo cloudInfo)
+            throws IOException {
+        if (isPending(bucket, key))
+            return null;
+
+        long minSegmentSize = ServerConfigurations.getReadPartialMinSegmentSize();
+        CacheFile file = null;
+        List<RangeReadPlanner.Segment> segments = null;
+        long cachedBytes = 0;
+        for (CacheManager cmgr : new CacheManager[]{memMgr, dmgr}) {
+            if (!cmgr.isActive())
+                continue;
+            CacheFile candidate = cmgr.getFile(bucket, key);
+            if (candidate == null || candidate.isObsolete())
+                continue;
+            List<RangeReadPlanner.Segment> plan = RangeReadPlanner.plan(
+                    candidate.getBlockIndex().getExtents(), start, stop, minSegmentSize);
+            long bytes = RangeReadPlanner.cachedBytes(plan);
+            if (bytes > cachedBytes) {
+                file = candidate;
+                segments = plan;
+                cachedBytes = bytes;
+            }
+        }
+        if (file == null)
+            return null;
+
+        if (cachedBytes == stop - start + 1) {
+            // The range is cached in blocks of a partial file
+            InputStream in = getCacheFileInputStream(file, start, stop);
+            if (in != null)
+                policyNotifier.notifyItemAccess(file, file.getStoreOption());
+            return in;
+        }
+
+        // The first missing part is fetched now, to make sure the cached parts are up to date
+        int firstGap = 0;
+        while (segments.get(firstGap).isCached())
+            firstGap++;
+        RangeReadPlanner.Segment gap = segments.get(firstGap);
+        CloudFileReader firstReader = cloudMgr.read(bucket, key, gap.getStart(), gap.getStop(), cloudInfo);
+        if (firstReader == null)
+            return null;
+        CloudFile cloudFile = firstReader.getCloudFile();
+        if (!cloudFile.isOwnedFile() && cloudFile.getLastModified() != file.getLastModified()) {
+            if (logger.isDebugEnabled()) logger.info("Cached parts of " + key + " are outdated");
+            firstReader.close();
+            return null;
+        }
+
+        // Open the cached parts now, so that they are not evicted while streaming
+        InputStream[] streams = new InputStream[segments.size()];
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                RangeReadPlanner.Segment segment = segments.get(i);
+                if (segment.isCached()) {
+                    streams[i] = getCacheFileInputStream(file, segment.getStart(), segment.getStop());
+                    if (streams[i] == null)
+                        throw new FileNotFoundException("Cached part " + segment + " of " + key + " is no longer available");
+                }
+            }
+            streams[firstGap] = cacheRangeRead(file, firstReader, gap);
+        } catch (IOException e) {
+            if (logger.isDebugEnabled()) logger.info(e.getMessage());
+            for (InputStream in : streams)
+                if (in != null) in.close();
+            firstReader.close();
+            return null;
+        }
+
+        if (logger.isDebugEnabled())
+            logger.info("PARTIAL HIT " + key + " [" + start + "-" + stop + "]: " + cachedBytes + " bytes cached, "
+                    + segments.size() + " segments");
+        policyNotifier.notifyItemAccess(file, file.getStoreOption());
+
+        final CacheFile partialFile = file;
+        final List<RangeReadPlanner.Segment> plan = segments;
+        List<CacheFile> cacheFiles = new ArrayList<>(1);
+        cacheFiles.add(partialFile);
+        return new SegmentedInputStream(streams, index -> {
+            RangeReadPlanner.Segment segment = plan.get(index);
+            CloudFileReader s3IS = cloudMgr.read(bucket, key, segment.getStart(), segment.getStop(), cloudInfo);
+            if (s3IS == null)
+                throw new IOException("File does not exist");
+            return cacheRangeRead(partialFile, s3IS, segment);
+        }, cacheFiles, CacheFileHelper.createS3CacheFile(cloudFile));
+    }
+
+    /**
+     * Stream a missing part of a range from the cloud and cache it into the given file
+     */
+    private InputStream cacheRangeRead(CacheFile file, CloudFileReader s3IS, RangeReadPlanner.Segment segment)
+            throws IOException {
+        CacheOutputStream wout = new CacheOutputStream(file, segment.getStart(), segment.getStop(), this);
+        wout.setCloudFileReader(s3IS);
+        return new InputStreamCacheSplitter(s3IS, wout);
+    }
+
+    private InputStream getCacheFileInputStream(CacheFile file, long start, long stop) throws IOException {
+        if (file instanceof MemoryFile memoryFile)
+            return memoryFile.getInputStream(start, stop);
+        else if (file instanceof DiskFile diskFile)
+            return diskFile.getInputStream(start, stop);
+        return null;
+    }
+
     private CacheFile getReadCacheFile(CacheManager cmgr, CloudFileReader s3reader) throws IOException {
         if (cmgr == null) {
             return null;
@@ -493,6 +733,26 @@ public class TierManager {
         return evictionTriggerPolicy;
     }
 
+    public ReclaimStatistics getMemoryReclaimStatistics() {
+        return evictionManager.getMemoryReclaimStatistics();
+    }
+
+    public ReclaimStatistics getDiskReclaimStatistics() {
+        return evictionManager.getDiskReclaimStatistics();
+    }
+
+    /**
+     * @return the number of files that are being uploaded to the cloud
+     */
+    public int getPendingUploadCount() {
+        int count = 0;
+        synchronized (pendingUploads) {
+            for (HashMap<String, AtomicInteger> innerPendingUploads : pendingUploads.values())
+                count += innerPendingUploads.size();
+        }
+        return count;
+    }
+
     private void addPending(String bucket, String key) {
         synchronized (pendingUploads) {
             if (!pendingUploads.containsKey(bucket))
@@ -555,6 +815,8 @@ public class TierManager {
     // Delete file from cache
     public DeleteResult deleteFileFromCache(String bucket, String key) {
         DeleteResult result = new DeleteResult();
+        if (prefetcher != null)
+            prefetcher.forget(bucket, key);
         boolean delMem = false, delDisk = false;
         if (memMgr.isActive()) {
             if (memMgr.containsObject(bucket, key)) {
@@ -608,6 +870,7 @@ public class TierManager {
     }
 
     public SMACCObject getSMACCObject(String bucket, String key) {
+        validateRecovered(bucket, key);
         CacheFile file = null;
         // Try to get from memory first
         if (memMgr.isActive()) file = memMgr.getFile(bucket, key);
@@ -630,9 +893,20 @@ public class TierManager {
         return new SMACCObject(file);
     }
 
+    /**
+     * Validate the recovered file of an object against the cloud, if it has not been validated yet
+     */
+    private void validateRecovered(String bucket, String key) {
+        if (recoveryValidator != null)
+            recoveryValidator.validate(bucket, key);
+    }
+
     private boolean initiateRecovery() {
         //	Start pool for asynchronous transfer of files to cache using s3 or disk
         ExecutorService recoveryService = Executors.newFixedThreadPool(ServerConfigurations.getMemoryRecoverServicePoolSize());
+        if (ServerConfigurations.getCacheRecoveryLazyValidation())
+            recoveryValidator = new RecoveryValidator(cloudMgr, dmgr, memMgr,
+                    ServerConfigurations.getCacheRecoveryValidationRate());
 
         try {
             // Initiate Disk (initiate before memory - because we may need to retrieve data from disk and load them into memory)
@@ -658,6 +932,9 @@ public class TierManager {
                     CacheOutputStream finalOutput = new CacheOutputStream();
                     finalOutput.initiateRecovery(outs3, file, this);
                     finalOutput.close();
+                } else if (file.isComplete() && cloudInfo != null && recoveryValidator != null) {
+                    // Validated on first access or by the sweep
+                    recoveryValidator.add(file);
                 } else if (file.isComplete() && cloudInfo != null) {
                     // Retrieve s3 meta data of file
                     CloudFile cloudFile = cloudMgr.statFile(file.getBucket(), file.getKey(), cloudInfo);
@@ -784,6 +1061,8 @@ public class TierManager {
 
 
             recoveryService.shutdown();
+            if (recoveryValidator != null)
+                recoveryValidator.startSweep();
             return true;
         } catch (IOException exc) {
             logger.fatal(exc);
@@ -816,14 +1095,16 @@ public class TierManager {
         String defaultBucket = ServerConfigurations.getDefaultBucket();
         CloudInfo defaultCloudInfo = ServerConfigurations.getDefaultCloudInfo();
 
-        // Initiate Cloud Manager
-        if (ServerConfigurations.getBackendCloudStorage().equalsIgnoreCase("S3")) {
-            this.cloudMgr = new S3Manager();
-        } else if (ServerConfigurations.getBackendCloudStorage().equalsIgnoreCase("MinIO")) {
-            this.cloudMgr = new MinioManager();
-        } else {
-            logger.fatal("Unknown backend cloud storage system. Supported: S3 and MinIO");
-            System.exit(-1);
+        // Initiate Cloud Manager (unless it was given)
+        if (cloudMgr == null) {
+            if (ServerConfigurations.getBackendCloudStorage().equalsIgnoreCase("S3")) {
+                this.cloudMgr = new S3Manager();
+            } else if (ServerConfigurations.getBackendCloudStorage().equalsIgnoreCase("MinIO")) {
+                this.cloudMgr = new MinioManager();
+            } else {
+                logger.fatal("Unknown backend cloud storage system. Supported: S3 and MinIO");
+                System.exit(-1);
+            }
         }
 
         if (!cloudMgr.initiate(this, defaultBucket, defaultCloudInfo))
@@ -833,14 +1114,24 @@ public class TierManager {
         admissionPolicy = AdmissionPolicy.getInstance(configuration);
         EvictionItemPolicy evictionItemPolicy = EvictionItemPolicy.getInstance(configuration);
         EvictionPlacementPolicy evictionPlacementPolicy = EvictionPlacementPolicy.getInstance(configuration);
-        policyNotifier = CachePolicyNotifier.createNotifierFromPoliciesList(
-                List.of(admissionPolicy, evictionItemPolicy, evictionPlacementPolicy));
+        List<CachePolicy> cachePolicies = List.of(admissionPolicy, evictionItemPolicy, evictionPlacementPolicy);
+        if (ServerConfigurations.getPolicyNotifierAsync()) {
+            policyNotifier = CachePolicyNotifier.createAsyncNotifierFromPoliciesList(cachePolicies,
+                    ServerConfigurations.getPolicyNotifierBufferSize(),
+                    ServerConfigurations.getPolicyNotifierAccessSampling());
+        } else {
+            policyNotifier = CachePolicyNotifier.createNotifierFromPoliciesList(cachePolicies);
+        }
 
         evictionTriggerPolicy = EvictionTriggerPolicy.getInstance(configuration);
 
         //	Start downgration handler
         downgrationHandler = Executors.newFixedThreadPool(ServerConfigurations.getDowngrationHanlderTheadPoolSize());
 
+        if (ServerConfigurations.getReadPrefetchMaxWindow() > 0)
+            prefetcher = new ReadAheadPrefetcher(this::prefetch, ServerConfigurations.getReadPrefetchMaxWindow(),
+                    ServerConfigurations.getReadPrefetchMaxInflight(), ServerConfigurations.getReadPrefetchThreadPoolSize());
+
         this.dmgr = new DiskManager(diskSettings, configuration, policyNotifier);
         this.memMgr = new MemoryManager(memorySettings, policyNotifier);
         storageStatistics = new PerformanceStatistics();
@@ -865,11 +1156,57 @@ public class TierManager {
         if (logger.isDebugEnabled()) logger.info("===================================================");
     }
 
-    boolean isRecoveryDone() {
+    public boolean isRecoveryDone() {
         return recoveryDone;
     }
 
+    public int getDiskVolumeCount() {
+        return dmgr.getVolumeCount();
+    }
+
+    public int getRecoveredDiskVolumes() {
+        return dmgr.getRecoveredVolumes();
+    }
+
+    public long getRecoveredDiskFiles() {
+        return dmgr.getRecoveredFiles();
+    }
+
+    /**
+     * @return the recovered files that have not been validated against the cloud yet
+     */
+    public long getPendingRecoveryValidations() {
+        return (recoveryValidator == null) ? 0 : recoveryValidator.getPendingCount();
+    }
+
+    public long getInvalidatedRecoveredFiles() {
+        return (recoveryValidator == null) ? 0 : recoveryValidator.getInvalidatedCount();
+    }
+
+    /**
+     * @return true if the sequential range reads are prefetched
+     */
+    public boolean isPrefetchEnabled() {
+        return prefetcher != null;
+    }
+
+    public long getPrefetches() {
+        return (prefetcher == null) ? 0 : prefetcher.getPrefetches();
+    }
+
+    public long getPrefetchedBytes() {
+        return (prefetcher == null) ? 0 : prefetcher.getPrefetchedBytes();
+    }
+
+    public long getSkippedPrefetches() {
+        return (prefetcher == null) ? 0 : prefetcher.getSkippedPrefetches();
+    }
+
     public void shutdown() {
+        if (recoveryValidator != null)
+            recoveryValidator.shutdown();
+        if (prefetcher != null)
+            prefetcher.shutdown();
         if (memMgr.isActive())
             this.memMgr.shutdown();
         cloudMgr.shutdown(); // S3 must shutdown before disk mgr - Blocks
@@ -877,6 +1214,7 @@ public class TierManager {
             this.dmgr.shutdown();
         downgrationHandler.shutdownNow();
         evictionManager.shutdown();
+        policyNotifier.shutdown();
     }
 
     public CloudInfo getCloudInfoForBucket(String bucket) {
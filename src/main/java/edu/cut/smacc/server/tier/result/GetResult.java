@@ -1,7 +1,9 @@
 package edu.cut.smacc.server.tier.result;
 
 import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.io.CoalescedInputStream;
 import edu.cut.smacc.server.cache.common.io.InputStreamCacheSplitter;
+import edu.cut.smacc.server.cache.common.io.SegmentedInputStream;
 import edu.cut.smacc.server.cache.common.io.SpecialInputStream;
 
 import java.io.InputStream;
@@ -11,6 +13,7 @@ public class GetResult extends OperationResultBase {
     private InputStream inputStream;
     private CacheFile hitCacheFile;
     private boolean cacheHit = false;
+    private long coalescedSize = -1;
 
     public GetResult() {
         super();
@@ -25,6 +28,14 @@ public class GetResult extends OperationResultBase {
         } else if (inputStream instanceof SpecialInputStream specialInputStream) {
             hitCacheFile = specialInputStream.getCacheFile();
             cacheHit = true;
+        } else if (inputStream instanceof CoalescedInputStream coalesced) {
+            // miss files of the request that reads the file from the cloud
+            cacheFiles = coalesced.getCacheFiles();
+            coalescedSize = coalesced.getSize();
+        } else if (inputStream instanceof SegmentedInputStream segmented) {
+            // partial hit - the missing parts are fetched into the cache file
+            cacheFiles = segmented.getCacheFiles();
+            s3File = segmented.getS3CacheFile();
         }
     }
 
@@ -55,6 +66,8 @@ public class GetResult extends OperationResultBase {
             return hitCacheFile.getActualSize();
         else if (s3File != null)
             return s3File.getActualSize();
+        else if (coalescedSize >= 0)
+            return coalescedSize;
         else
             return -1;
     }
@@ -0,0 +1,331 @@
+package edu.cut.smacc.simulator;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ConfigurationException;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheKey;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.admission.AdmissionPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.placement.EvictionPlacementPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.trigger.EvictionTriggerPolicy;
+import edu.cut.smacc.utils.PolicyClock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An offline cache simulator: it replays an access trace through the admission, eviction and
+ * placement policies of the configuration (and a CachePolicyNotifier) against a memory and a
+ * disk tier of the given capacities, without any data or cloud store. The policies see the time
+ * of the trace (see PolicyClock) and eviction runs as soon as the trigger policy fires.
+ * <p>
+ * GET requests are hits if the requested bytes are cached in memory or on disk; otherwise the
+ * missing bytes are read from the backend and cached where the admission policy decides. A miss
+ * on a whole object replaces a partially cached one, like the server does. PUT requests write
+ * the object to the backend and cache it where the admission policy decides, and DEL requests
+ * remove it from the cache.
+ *
+ * Usage: CacheSimulator trace memory_capacity disk_capacity [configuration file] [eviction item policy...]
+ * <p>
+ * The trace is a CSV file (see TraceRecord) or a synthetic trace spec (see TraceGenerator), and
+ * the capacities are in bytes, with an optional K, M or G suffix. The configuration file "-" means
+ * the default configuration. If eviction item policies are
+ * given (e.g., LRU, EvictionItemARC or full class names), the trace is replayed once per policy.
+ */
+public class CacheSimulator {
+
+    private final AdmissionPolicy admissionPolicy;
+    private final EvictionItemPolicy evictionItemPolicy;
+    private final EvictionPlacementPolicy evictionPlacementPolicy;
+    private final EvictionTriggerPolicy evictionTriggerPolicy;
+    private final CachePolicyNotifier policyNotifier;
+
+    private final UsageStats memoryStats;
+    private final UsageStats diskStats;
+    private final StoreSettings memorySettings;
+    private final StoreSettings diskSettings;
+    private final Map<CacheKey, SimulatedFile> memoryFiles = new HashMap<>();
+    private final Map<CacheKey, SimulatedFile> diskFiles = new HashMap<>();
+
+    private SimulationReport report;
+
+    public CacheSimulator(Configuration conf, long memoryCapacity, long diskCapacity) {
+        memoryStats = new UsageStats(memoryCapacity);
+        diskStats = new UsageStats(diskCapacity);
+        memorySettings = new StoreSettings(null, "simulator", memoryStats);
+        diskSettings = new StoreSettings("simulator", "simulator", diskStats);
+        HashMap<Integer, StoreSettings> diskVolumes = new HashMap<>();
+        if (diskCapacity > 0)
+            diskVolumes.put(0, diskSettings);
+        // The admission policies read the capacities of the tiers from the server settings
+        ServerConfigurations.setServerStoreSettings(memorySettings, diskVolumes);
+
+        admissionPolicy = AdmissionPolicy.getInstance(conf);
+        evictionItemPolicy = EvictionItemPolicy.getInstance(conf);
+        evictionPlacementPolicy = EvictionPlacementPolicy.getInstance(conf);
+        evictionTriggerPolicy = EvictionTriggerPolicy.getInstance(conf);
+        policyNotifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(admissionPolicy, evictionItemPolicy, evictionPlacementPolicy));
+    }
+
+    /**
+     * Replay the trace from an empty cache
+     */
+    public SimulationReport run(Iterable<TraceRecord> trace) {
+        report = new SimulationReport();
+        memoryFiles.clear();
+        diskFiles.clear();
+        memoryStats.decrement(memoryStats.getReportedUsage(), memoryStats.getActualUsage());
+        diskStats.decrement(diskStats.getReportedUsage(), diskStats.getActualUsage());
+        policyNotifier.notifyPolicyReset();
+
+        long firstTimestamp = -1, lastTimestamp = 0;
+        try {
+            for (TraceRecord record : trace) {
+                PolicyClock.setSimulatedTime(record.timestamp());
+                if (firstTimestamp < 0)
+                    firstTimestamp = record.timestamp();
+                lastTimestamp = record.timestamp();
+                switch (record.op()) {
+                    case GET -> get(record);
+                    case PUT -> put(record);
+                    case DEL -> delete(new CacheKey(record.bucket(), record.key()));
+                }
+            }
+        } finally {
+            PolicyClock.useSystemTime();
+        }
+        report.simulatedMillis = Math.max(0, lastTimestamp - firstTimestamp);
+        return report;
+    }
+
+    private void get(TraceRecord record) {
+        CacheKey key = new CacheKey(record.bucket(), record.key());
+        long start = record.start(), stop = record.stop(), length = record.length();
+        report.requests++;
+        report.requestedBytes += length;
+
+        SimulatedFile memoryFile = memoryFiles.get(key);
+        SimulatedFile diskFile = diskFiles.get(key);
+        if (memoryFile != null && memoryFile.covers(start, stop)) {
+            report.hits++;
+            report.memoryHits++;
+            report.hitBytes += length;
+            notifyAccess(memoryFile, StoreOptionType.MEMORY_ONLY);
+            return;
+        }
+        if (diskFile != null && diskFile.covers(start, stop)) {
+            report.hits++;
+            report.diskHits++;
+            report.hitBytes += length;
+            notifyAccess(diskFile, StoreOptionType.DISK_ONLY);
+            return;
+        }
+
+        if (record.hasRange() && (memoryFile != null || diskFile != null)) {
+            // Fill the gaps of the partially cached files
+            long missing = length;
+            if (memoryFile != null)
+                missing = Math.min(missing, memoryFile.missingBytes(start, stop));
+            if (diskFile != null)
+                missing = Math.min(missing, diskFile.missingBytes(start, stop));
+            report.backendReadBytes += missing;
+            if (memoryFile != null)
+                extend(memoryFile, start, stop, StoreOptionType.MEMORY_ONLY);
+            if (diskFile != null)
+                extend(diskFile, start, stop, StoreOptionType.DISK_ONLY);
+            return;
+        }
+
+        // Read from the backend and cache a new file
+        report.backendReadBytes += length;
+        delete(key);
+        SimulatedFile probe = new SimulatedFile(record.bucket(), record.key(), record.size(), memorySettings,
+                StoreOptionType.S3_ONLY);
+        long begin = System.nanoTime();
+        StoreOptionType location = validLocation(admissionPolicy.getReadAdmissionLocation(probe));
+        report.policyNanos += System.nanoTime() - begin;
+        cache(record, location, start, stop, probe);
+    }
+
+    private void put(TraceRecord record) {
+        CacheKey key = new CacheKey(record.bucket(), record.key());
+        report.backendWriteBytes += record.size();
+        delete(key);
+        SimulatedFile probe = new SimulatedFile(record.bucket(), record.key(), record.size(), memorySettings,
+                StoreOptionType.S3_ONLY);
+        long begin = System.nanoTime();
+        StoreOptionType location = validLocation(admissionPolicy.getWriteAdmissionLocation(probe));
+        report.policyNanos += System.nanoTime() - begin;
+        cache(record, location, 0, record.size() - 1, probe);
+    }
+
+    private void cache(TraceRecord record, StoreOptionType location, long start, long stop, SimulatedFile probe) {
+        if (location == StoreOptionType.S3_ONLY) {
+            long begin = System.nanoTime();
+            policyNotifier.notifyItemNotAdded(probe, StoreOptionType.S3_ONLY);
+            report.policyNanos += System.nanoTime() - begin;
+            return;
+        }
+        if (location == StoreOptionType.MEMORY_ONLY || location == StoreOptionType.MEMORY_DISK)
+            add(record, start, stop, StoreOptionType.MEMORY_ONLY);
+        if (location == StoreOptionType.DISK_ONLY || location == StoreOptionType.MEMORY_DISK)
+            add(record, start, stop, StoreOptionType.DISK_ONLY);
+    }
+
+    private void add(TraceRecord record, long start, long stop, StoreOptionType tier) {
+        boolean memory = (tier == StoreOptionType.MEMORY_ONLY);
+        SimulatedFile file = new SimulatedFile(record.bucket(), record.key(), record.size(),
+                memory ? memorySettings : diskSettings, tier);
+        long bytes = file.addRange(start, stop);
+        (memory ? memoryFiles : diskFiles).put(new CacheKey(record.bucket(), record.key()), file);
+        (memory ? memoryStats : diskStats).increment(bytes);
+        long begin = System.nanoTime();
+        policyNotifier.notifyItemAddition(file, tier);
+        report.policyNanos += System.nanoTime() - begin;
+        evict(tier);
+    }
+
+    private void extend(SimulatedFile file, long start, long stop, StoreOptionType tier) {
+        long bytes = file.addRange(start, stop);
+        (tier == StoreOptionType.MEMORY_ONLY ? memoryStats : diskStats).increment(bytes);
+        long begin = System.nanoTime();
+        policyNotifier.notifyItemUpdate(file, tier);
+        report.policyNanos += System.nanoTime() - begin;
+        evict(tier);
+    }
+
+    private void delete(CacheKey key) {
+        SimulatedFile memoryFile = memoryFiles.get(key);
+        if (memoryFile != null)
+            remove(memoryFile, StoreOptionType.MEMORY_ONLY);
+        SimulatedFile diskFile = diskFiles.get(key);
+        if (diskFile != null)
+            remove(diskFile, StoreOptionType.DISK_ONLY);
+    }
+
+    private void remove(SimulatedFile file, StoreOptionType tier) {
+        boolean memory = (tier == StoreOptionType.MEMORY_ONLY);
+        (memory ? memoryFiles : diskFiles).remove(new CacheKey(file.getBucket(), file.getKey()));
+        (memory ? memoryStats : diskStats).decrement(file.getTotalSize(), file.getTotalSize());
+        file.delete();
+        long begin = System.nanoTime();
+        policyNotifier.notifyItemDeletion(file, tier);
+        report.policyNanos += System.nanoTime() - begin;
+    }
+
+    private void notifyAccess(SimulatedFile file, StoreOptionType tier) {
+        long begin = System.nanoTime();
+        policyNotifier.notifyItemAccess(file, tier);
+        report.policyNanos += System.nanoTime() - begin;
+    }
+
+    /**
+     * Evict from the tier like the eviction manager does, downgrading from memory to disk
+     * if the placement policy says so
+     */
+    private void evict(StoreOptionType tier) {
+        UsageStats stats = (tier == StoreOptionType.MEMORY_ONLY) ? memoryStats : diskStats;
+        if (!evictionTriggerPolicy.triggerEviction(stats, null, tier))
+            return;
+        do {
+            long begin = System.nanoTime();
+            SimulatedFile victim = (SimulatedFile) evictionItemPolicy.getItemToEvict(tier);
+            boolean downgrade = victim != null && tier == StoreOptionType.MEMORY_ONLY
+                    && diskStats.getMaxCapacity() > 0 && evictionPlacementPolicy.downgrade(victim);
+            report.policyNanos += System.nanoTime() - begin;
+            if (victim == null)
+                break;
+
+            remove(victim, tier);
+            if (tier == StoreOptionType.MEMORY_ONLY) {
+                report.memoryEvictions++;
+                if (downgrade && !diskFiles.containsKey(new CacheKey(victim.getBucket(), victim.getKey()))) {
+                    report.downgrades++;
+                    TraceRecord record = new TraceRecord(0, TraceRecord.Operation.PUT, victim.getBucket(),
+                            victim.getKey(), victim.getActualSize());
+                    add(record, 0, victim.getActualSize() - 1, StoreOptionType.DISK_ONLY);
+                }
+            } else {
+                report.diskEvictions++;
+            }
+        } while (evictionTriggerPolicy.continueEviction(stats, null, tier));
+    }
+
+    private StoreOptionType validLocation(StoreOptionType location) {
+        boolean memory = memoryStats.getMaxCapacity() > 0;
+        boolean disk = diskStats.getMaxCapacity() > 0;
+        return switch (location) {
+            case MEMORY_ONLY -> memory ? location : StoreOptionType.S3_ONLY;
+            case DISK_ONLY -> disk ? location : StoreOptionType.S3_ONLY;
+            case MEMORY_DISK -> (memory && disk) ? location : memory ? StoreOptionType.MEMORY_ONLY
+                    : disk ? StoreOptionType.DISK_ONLY : StoreOptionType.S3_ONLY;
+            default -> location;
+        };
+    }
+
+    public static void main(String[] args) throws IOException, ConfigurationException {
+        if (args.length < 3) {
+            System.out.println("Usage: CacheSimulator trace memory_capacity disk_capacity "
+                    + "[configuration file] [eviction item policy...]");
+            System.out.println("       trace is a CSV file or kind:objects:requests[:size[:interval]] "
+                    + "with kind zipf, scan or loop");
+            return;
+        }
+        List<TraceRecord> trace = TraceGenerator.isSpec(args[0])
+                ? TraceGenerator.fromSpec(args[0], new Random(42))
+                : TraceRecord.read(Path.of(args[0]));
+        long memoryCapacity = parseCapacity(args[1]);
+        long diskCapacity = parseCapacity(args[2]);
+        Configuration conf = (args.length > 3 && !args[3].equals("-")) ? new Configuration(args[3])
+                : new Configuration();
+
+        List<String> policies = new ArrayList<>();
+        for (int i = 4; i < args.length; i++)
+            policies.add(resolvePolicy(args[i]));
+        if (policies.isEmpty())
+            policies.add(conf.getString(ServerConfigurations.EVICTION_ITEM_POLICY_KEY,
+                    ServerConfigurations.EVICTION_ITEM_POLICY_DEFAULT.getName()));
+
+        System.out.println(SimulationReport.header());
+        for (String policy : policies) {
+            conf.setProperty(ServerConfigurations.EVICTION_ITEM_POLICY_KEY, policy);
+            CacheSimulator simulator = new CacheSimulator(conf, memoryCapacity, diskCapacity);
+            SimulationReport report = simulator.run(trace);
+            System.out.println(report.toRow(policy.substring(policy.lastIndexOf('.') + 1)));
+        }
+    }
+
+    static long parseCapacity(String capacity) {
+        String value = capacity.trim().toUpperCase();
+        long unit = switch (value.charAt(value.length() - 1)) {
+            case 'K' -> 1024L;
+            case 'M' -> 1024L * 1024;
+            case 'G' -> 1024L * 1024 * 1024;
+            default -> 1;
+        };
+        if (unit > 1)
+            value = value.substring(0, value.length() - 1);
+        return Long.parseLong(value) * unit;
+    }
+
+    private static String resolvePolicy(String name) {
+        if (name.contains("."))
+            return name;
+        for (String policy : ServerConfigurations.EVICTION_ITEM_POLICY_ALTERNATIVES) {
+            String simpleName = policy.substring(policy.lastIndexOf('.') + 1);
+            if (simpleName.equalsIgnoreCase(name) || simpleName.equalsIgnoreCase("EvictionItem" + name))
+                return policy;
+        }
+        throw new IllegalArgumentException("Unknown eviction item policy: " + name);
+    }
+}
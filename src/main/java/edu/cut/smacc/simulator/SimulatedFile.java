@@ -0,0 +1,108 @@
+package edu.cut.smacc.simulator;
+
+import edu.cut.smacc.server.cache.common.CacheFileBase;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A cache file without data: it only tracks the byte ranges of the object that are cached in
+ * a tier, so that the policies see the same sizes as in the server
+ */
+class SimulatedFile extends CacheFileBase {
+
+    private final StoreOptionType tier;
+    private final TreeMap<Long, Long> ranges = new TreeMap<>(); // start -> stop (inclusive)
+    private long cachedBytes = 0;
+
+    SimulatedFile(String bucket, String key, long objectSize, StoreSettings settings, StoreOptionType tier) {
+        super(bucket, key, settings);
+        this.tier = tier;
+        this.actualSize = objectSize;
+    }
+
+    /**
+     * @return true if all the bytes of the range are cached
+     */
+    boolean covers(long start, long stop) {
+        Map.Entry<Long, Long> range = ranges.floorEntry(start);
+        return range != null && range.getValue() >= stop;
+    }
+
+    /**
+     * @return the bytes of the range that are not cached
+     */
+    long missingBytes(long start, long stop) {
+        long missing = stop - start + 1;
+        for (Map.Entry<Long, Long> range : overlapping(start, stop).entrySet())
+            missing -= Math.min(stop, range.getValue()) - Math.max(start, range.getKey()) + 1;
+        return missing;
+    }
+
+    /**
+     * Cache the bytes of the range
+     * @return the number of newly cached bytes
+     */
+    long addRange(long start, long stop) {
+        long added = missingBytes(start, stop);
+        long mergedStart = start, mergedStop = stop;
+        Map<Long, Long> merged = overlapping(start - 1, stop + 1);
+        for (Map.Entry<Long, Long> range : merged.entrySet()) {
+            mergedStart = Math.min(mergedStart, range.getKey());
+            mergedStop = Math.max(mergedStop, range.getValue());
+        }
+        merged.clear();
+        ranges.put(mergedStart, mergedStop);
+        cachedBytes += added;
+        if (start > 0 || stop < actualSize - 1 || ranges.size() > 1)
+            isPartialFile = true;
+        return added;
+    }
+
+    private Map<Long, Long> overlapping(long start, long stop) {
+        Long from = ranges.floorKey(start);
+        if (from == null || ranges.get(from) < start)
+            from = start;
+        return ranges.subMap(from, true, stop, true);
+    }
+
+    @Override
+    public long getSize() {
+        return cachedBytes;
+    }
+
+    @Override
+    public long getTotalSize() {
+        return cachedBytes;
+    }
+
+    @Override
+    public StoreOptionType getStoreOption() {
+        return tier;
+    }
+
+    @Override
+    public void delete() {
+        hasBeenDeleted = true;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        throw new UnsupportedOperationException("Simulated files have no data");
+    }
+
+    @Override
+    public MultiBlockOutputStream getOutputStream() {
+        throw new UnsupportedOperationException("Simulated files have no data");
+    }
+
+    @Override
+    public MultiBlockOutputStream getOutputStream(long start, long stop) {
+        throw new UnsupportedOperationException("Simulated files have no data");
+    }
+
+}
@@ -0,0 +1,100 @@
+package edu.cut.smacc.simulator;
+
+/**
+ * The results of replaying a trace through the cache policies
+ */
+public class SimulationReport {
+
+    long requests = 0;
+    long hits = 0;
+    long memoryHits = 0;
+    long diskHits = 0;
+    long requestedBytes = 0;
+    long hitBytes = 0;
+    long backendReadBytes = 0;
+    long backendWriteBytes = 0;
+    long memoryEvictions = 0;
+    long diskEvictions = 0;
+    long downgrades = 0;
+    long policyNanos = 0;
+    long simulatedMillis = 0;
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * @return the percentage of the GET requests served by the cache
+     */
+    public double getHitRatio() {
+        return (requests == 0) ? 0 : 100.0 * hits / requests;
+    }
+
+    /**
+     * @return the percentage of the requested bytes served by the cache
+     */
+    public double getByteHitRatio() {
+        return (requestedBytes == 0) ? 0 : 100.0 * hitBytes / requestedBytes;
+    }
+
+    public long getBackendReadBytes() {
+        return backendReadBytes;
+    }
+
+    public long getBackendWriteBytes() {
+        return backendWriteBytes;
+    }
+
+    public long getMemoryEvictions() {
+        return memoryEvictions;
+    }
+
+    public long getDiskEvictions() {
+        return diskEvictions;
+    }
+
+    public long getDowngrades() {
+        return downgrades;
+    }
+
+    /**
+     * @return the time spent in the policies (admission, notifications and eviction) in nanoseconds
+     */
+    public long getPolicyNanos() {
+        return policyNanos;
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public static String header() {
+        return "POLICY\tREQUESTS\tHIT(%)\tBYTE HIT(%)\tMEM HITS\tDISK HITS\tBACKEND READ(MB)\tBACKEND WRITE(MB)"
+                + "\tMEM EVICTIONS\tDISK EVICTIONS\tDOWNGRADES\tPOLICY TIME(ms)";
+    }
+
+    public String toRow(String policy) {
+        return String.format("%s\t%d\t%.2f\t%.2f\t%d\t%d\t%.1f\t%.1f\t%d\t%d\t%d\t%.1f", policy, requests,
+                getHitRatio(), getByteHitRatio(), memoryHits, diskHits, backendReadBytes / 1048576.0,
+                backendWriteBytes / 1048576.0, memoryEvictions, diskEvictions, downgrades, policyNanos / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationReport [requests=" + requests + ", hitRatio=" + getHitRatio() + ", byteHitRatio="
+                + getByteHitRatio() + ", backendReadBytes=" + backendReadBytes + ", backendWriteBytes="
+                + backendWriteBytes + ", policyNanos=" + policyNanos + "]";
+    }
+}
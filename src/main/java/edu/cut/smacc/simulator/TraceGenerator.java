@@ -0,0 +1,146 @@
+package edu.cut.smacc.simulator;
+
+import edu.cut.smacc.simulator.TraceRecord.Operation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic access traces of GET requests for objects "object-i" of the bucket "bucket":
+ * <ul>
+ * <li>zipf: Zipfian requests (exponent 0.9) over the objects</li>
+ * <li>scan: Zipfian requests where every third request is part of a sequential scan over twice
+ * as many other objects, each requested once per scan</li>
+ * <li>loop: the objects requested in a loop, in order</li>
+ * </ul>
+ * A trace is given by the spec kind:objects:requests[:size[:interval]], where size is the size
+ * of every object in bytes (default 1048576) or "pareto" for Pareto distributed sizes from 1KB
+ * to 1GB, and interval is the time between requests in milliseconds (default 10).
+ *
+ * Usage: TraceGenerator spec output.csv
+ */
+public class TraceGenerator {
+
+    public static final String BUCKET = "bucket";
+    public static final double ZIPF_EXPONENT = 0.9;
+
+    private static final long DEFAULT_SIZE = 1024 * 1024;
+    private static final long DEFAULT_INTERVAL_MS = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: TraceGenerator kind:objects:requests[:size[:interval]] output.csv");
+            System.out.println("       kind is zipf, scan or loop; size is in bytes or pareto");
+            return;
+        }
+        List<TraceRecord> trace = fromSpec(args[0], new Random(42));
+        try (Writer writer = Files.newBufferedWriter(Path.of(args[1]))) {
+            TraceRecord.write(trace, writer);
+        }
+        System.out.println("Wrote " + trace.size() + " requests to " + args[1]);
+    }
+
+    /**
+     * @return true if the argument looks like a trace spec instead of a file
+     */
+    public static boolean isSpec(String spec) {
+        return spec.startsWith("zipf:") || spec.startsWith("scan:") || spec.startsWith("loop:");
+    }
+
+    public static List<TraceRecord> fromSpec(String spec, Random random) {
+        String[] fields = spec.split(":");
+        if (fields.length < 3)
+            throw new IllegalArgumentException("Invalid trace spec: " + spec);
+        int objects = Integer.parseInt(fields[1]);
+        int requests = Integer.parseInt(fields[2]);
+        int allObjects = fields[0].equals("scan") ? objects * 3 : objects;
+        long[] sizes = (fields.length > 3 && fields[3].equals("pareto"))
+                ? paretoSizes(allObjects, 1024, 1024 * 1024 * 1024, random)
+                : fixedSizes(allObjects, (fields.length > 3) ? Long.parseLong(fields[3]) : DEFAULT_SIZE);
+        long interval = (fields.length > 4) ? Long.parseLong(fields[4]) : DEFAULT_INTERVAL_MS;
+
+        return switch (fields[0]) {
+            case "zipf" -> toTrace(zipf(objects, requests, ZIPF_EXPONENT, random), sizes, interval);
+            case "scan" -> toTrace(scan(zipf(objects, requests, ZIPF_EXPONENT, random), objects), sizes, interval);
+            case "loop" -> toTrace(loop(objects, requests), sizes, interval);
+            default -> throw new IllegalArgumentException("Unknown trace kind: " + fields[0]);
+        };
+    }
+
+    /**
+     * @return the objects of Zipfian requests
+     */
+    public static int[] zipf(int objects, int requests, double exponent, Random random) {
+        double[] cdf = new double[objects];
+        double sum = 0;
+        for (int i = 0; i < objects; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        int[] trace = new int[requests];
+        for (int i = 0; i < requests; i++) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace[i] = (index >= 0) ? index : Math.min(objects - 1, -index - 1);
+        }
+        return trace;
+    }
+
+    /**
+     * @return the requests with every third one replaced by a scan over the objects
+     * [objects, 3 * objects)
+     */
+    public static int[] scan(int[] requests, int objects) {
+        int[] trace = requests.clone();
+        int next = objects;
+        for (int i = 2; i < trace.length; i += 3) {
+            trace[i] = next++;
+            if (next == objects * 3)
+                next = objects;
+        }
+        return trace;
+    }
+
+    /**
+     * @return the objects of requests that loop over all the objects
+     */
+    public static int[] loop(int objects, int requests) {
+        int[] trace = new int[requests];
+        for (int i = 0; i < requests; i++)
+            trace[i] = i % objects;
+        return trace;
+    }
+
+    public static long[] fixedSizes(int objects, long size) {
+        long[] sizes = new long[objects];
+        Arrays.fill(sizes, size);
+        return sizes;
+    }
+
+    /**
+     * @return Pareto distributed sizes (shape 1.2) between minSize and maxSize
+     */
+    public static long[] paretoSizes(int objects, long minSize, long maxSize, Random random) {
+        long[] sizes = new long[objects];
+        for (int i = 0; i < objects; i++)
+            sizes[i] = (long) Math.min(maxSize, minSize / Math.pow(1 - random.nextDouble(), 1 / 1.2));
+        return sizes;
+    }
+
+    /**
+     * @return GET requests for the given objects, one every interval milliseconds
+     */
+    public static List<TraceRecord> toTrace(int[] objects, long[] sizes, long interval) {
+        List<TraceRecord> trace = new ArrayList<>(objects.length);
+        for (int i = 0; i < objects.length; i++) {
+            int object = objects[i];
+            trace.add(new TraceRecord(i * interval, Operation.GET, BUCKET, "object-" + object, sizes[object]));
+        }
+        return trace;
+    }
+}
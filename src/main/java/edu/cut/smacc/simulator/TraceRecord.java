@@ -0,0 +1,93 @@
+package edu.cut.smacc.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request of an access trace. In CSV, a record is
+ * <pre>timestamp,op,bucket,key,size,range</pre>
+ * where the timestamp is in milliseconds, op is GET, PUT or DEL, size is the size of the object
+ * and range is empty (the whole object) or start-stop (inclusive) for a GET.
+ * Empty lines and lines starting with # are ignored.
+ */
+public record TraceRecord(long timestamp, Operation op, String bucket, String key, long size,
+                          long rangeStart, long rangeStop) {
+
+    public enum Operation {GET, PUT, DEL}
+
+    public TraceRecord(long timestamp, Operation op, String bucket, String key, long size) {
+        this(timestamp, op, bucket, key, size, -1, -1);
+    }
+
+    public boolean hasRange() {
+        return rangeStart >= 0;
+    }
+
+    /**
+     * @return the first byte requested
+     */
+    public long start() {
+        return hasRange() ? rangeStart : 0;
+    }
+
+    /**
+     * @return the last byte requested (inclusive)
+     */
+    public long stop() {
+        return hasRange() ? Math.min(rangeStop, size - 1) : size - 1;
+    }
+
+    /**
+     * @return the number of bytes requested
+     */
+    public long length() {
+        return Math.max(0, stop() - start() + 1);
+    }
+
+    public static TraceRecord parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 5)
+            throw new IllegalArgumentException("Invalid trace record: " + line);
+        long rangeStart = -1, rangeStop = -1;
+        if (fields.length > 5 && !fields[5].isBlank()) {
+            String[] range = fields[5].trim().split("-");
+            rangeStart = Long.parseLong(range[0]);
+            rangeStop = Long.parseLong(range[1]);
+        }
+        return new TraceRecord(Long.parseLong(fields[0].trim()), Operation.valueOf(fields[1].trim().toUpperCase()),
+                fields[2].trim(), fields[3].trim(), Long.parseLong(fields[4].trim()), rangeStart, rangeStop);
+    }
+
+    public String toCsv() {
+        return timestamp + "," + op + "," + bucket + "," + key + "," + size + ","
+                + (hasRange() ? rangeStart + "-" + rangeStop : "");
+    }
+
+    public static List<TraceRecord> read(Path path) throws IOException {
+        List<TraceRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                records.add(parse(line));
+            }
+        }
+        return records;
+    }
+
+    public static void write(List<TraceRecord> records, Writer writer) throws IOException {
+        writer.write("# timestamp,op,bucket,key,size,range\n");
+        for (TraceRecord record : records) {
+            writer.write(record.toCsv());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,170 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.server.cache.common.BlockIndex;
+import edu.cut.smacc.server.cache.common.BlockRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Range lookup benchmark for fragmented cache files. For files split into 1 to 10k blocks,
+ * it compares the former per-lookup union of the block ranges (string-keyed map, linear
+ * scans and block ordering by repeated passes) with the block index of the cache file.
+ * <p>
+ * Each lookup answers the three questions of the read and write paths: is a range cached
+ * (inRange), where is the next gap (partial writes) and which blocks serve a range (reads).
+ *
+ * Usage: BlockIndexBenchmark [max blocks] [lookups]
+ */
+public class BlockIndexBenchmark {
+
+    private static final long BLOCK_SIZE = 64 * 1024;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int maxBlocks = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        System.out.println("BLOCKS\tLEGACY(us/lookup)\tINDEX(us/lookup)\tSPEEDUP");
+        for (int blocks = 1; blocks <= maxBlocks; blocks *= 10) {
+            // Every other block is cached, in random order
+            List<BlockRange> ranges = new ArrayList<>(blocks);
+            for (int i = 0; i < blocks; i++)
+                ranges.add(new BlockRange(2 * i * BLOCK_SIZE, (2 * i + 1) * BLOCK_SIZE - 1));
+            Collections.shuffle(ranges, new Random(blocks));
+            BlockIndex<BlockRange> index = BlockIndex.forRanges();
+            for (BlockRange range : ranges)
+                index.add(range);
+
+            // Fewer legacy lookups at high fragmentation, it is quadratic
+            int legacyLookups = Math.max(1, Math.min(lookups, 20_000_000 / (blocks * blocks)));
+            runLegacy(ranges, blocks, legacyLookups); // warm up
+            runIndex(index, blocks, lookups);
+            double legacy = runLegacy(ranges, blocks, legacyLookups);
+            double indexed = runIndex(index, blocks, lookups);
+            System.out.printf("%d\t%.2f\t%.2f\t%.0fx%n", blocks, legacy, indexed, legacy / indexed);
+        }
+    }
+
+    private static double runIndex(BlockIndex<BlockRange> index, int blocks, int lookups) {
+        Random random = new Random(1);
+        long begin = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            long start = 2 * random.nextInt(blocks) * BLOCK_SIZE + BLOCK_SIZE / 2;
+            long stop = start + BLOCK_SIZE / 4;
+            long result = index.contains(start, stop) ? 1 : 0;
+            result += index.findEmptySpace(start, Long.MAX_VALUE).getStart();
+            result += index.getItems(start, stop).size();
+            sink += result;
+        }
+        return (System.nanoTime() - begin) / 1000.0 / lookups;
+    }
+
+    private static double runLegacy(List<BlockRange> ranges, int blocks, int lookups) {
+        Random random = new Random(1);
+        long begin = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            long start = 2 * random.nextInt(blocks) * BLOCK_SIZE + BLOCK_SIZE / 2;
+            long stop = start + BLOCK_SIZE / 4;
+            LegacyUnifier unifier = new LegacyUnifier(ranges);
+            long result = 0;
+            for (BlockRange range : unifier.unified)
+                if (range.contains(start) && range.contains(stop)) result = 1;
+            result += unifier.findEmptySpace(unifier.findBlockContainsRange(start), start, Long.MAX_VALUE).getStart();
+            result += legacyOrderBlocks(ranges, start, stop).size();
+            sink += result;
+        }
+        return (System.nanoTime() - begin) / 1000.0 / lookups;
+    }
+
+    /**
+     * The former block ordering of MultiBlockInputStream
+     */
+    private static LinkedList<BlockRange> legacyOrderBlocks(List<BlockRange> fileBlocks, long start, long stop) {
+        long tempStart = start;
+        LinkedList<BlockRange> readBlockList = new LinkedList<>();
+        List<BlockRange> blocksInRange = new ArrayList<>();
+        for (BlockRange range : fileBlocks) {
+            if (range.getStart() >= start && range.getStop() <= stop)
+                blocksInRange.add(range);
+            else if (range.contains(stop))
+                blocksInRange.add(range);
+            if (range.contains(start)) {
+                tempStart = range.getStop() + 1;
+                readBlockList.addFirst(range);
+            }
+        }
+        while (stop > tempStart) {
+            Iterator<BlockRange> iter = blocksInRange.iterator();
+            while (iter.hasNext()) {
+                BlockRange range = iter.next();
+                if (range.getStart() == tempStart) {
+                    tempStart = range.getStop() + 1;
+                    readBlockList.addFirst(range);
+                    iter.remove();
+                }
+            }
+            if (blocksInRange.isEmpty()) break;
+        }
+        return readBlockList;
+    }
+
+    /**
+     * The former range union, rebuilt on every lookup
+     */
+    private static class LegacyUnifier {
+        private final ArrayList<BlockRange> unified = new ArrayList<>();
+
+        LegacyUnifier(List<BlockRange> ranges) {
+            HashMap<String, ArrayList<Long>> map = new HashMap<>();
+            for (BlockRange range : ranges) {
+                String lookingStart = String.valueOf(range.getStart() - 1);
+                String lookingStop = String.valueOf(range.getStop() + 1);
+                ArrayList<Long> current;
+                if (map.containsKey(lookingStart) && map.containsKey(lookingStop)) {
+                    current = map.get(lookingStart);
+                    ArrayList<Long> old = map.get(lookingStop);
+                    for (Long k : old) {
+                        String key = String.valueOf(k);
+                        if (map.get(key) == old) map.put(key, current);
+                    }
+                    current.addAll(old);
+                    old.clear();
+                } else if (map.containsKey(lookingStart)) current = map.get(lookingStart);
+                else if (map.containsKey(lookingStop)) current = map.get(lookingStop);
+                else current = new ArrayList<>();
+                current.add(range.getStart());
+                current.add(range.getStop());
+                map.put(String.valueOf(range.getStop()), current);
+                map.put(String.valueOf(range.getStart()), current);
+            }
+            for (ArrayList<Long> list : map.values()) {
+                long min = Collections.min(list);
+                long max = Collections.max(list);
+                unified.add(new BlockRange(min, max));
+            }
+        }
+
+        BlockRange findBlockContainsRange(long position) {
+            for (BlockRange range : unified)
+                if (range.contains(position)) return range;
+            return null;
+        }
+
+        BlockRange findEmptySpace(BlockRange containing, long position, long finalStop) {
+            long emptyStart = (containing == null) ? position : containing.getStop() + 1;
+            long minStop = -1;
+            for (BlockRange range : unified)
+                if (range.getStart() >= emptyStart && (range.getStart() < minStop || minStop == -1))
+                    minStop = range.getStart();
+            return new BlockRange(emptyStart, (minStop >= 0) ? minStop - 1 : finalStop);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.server.cache.common.CacheKey;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-threaded hit-throughput benchmark of the cache index. It compares the
+ * former global synchronized map (bucket -> key -> file) with the concurrent
+ * (bucket, key) index used by the cache managers.
+ *
+ * Usage: CacheIndexBenchmark [threads] [objects] [seconds]
+ */
+public class CacheIndexBenchmark {
+
+    private static final String BUCKET = "smaccbucket";
+
+    private interface Index {
+        Object get(String bucket, String key);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int objects = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        String[] keys = new String[objects];
+        for (int i = 0; i < objects; i++)
+            keys[i] = "key-" + i;
+
+        // Former index: one lock for every lookup
+        Map<String, HashMap<String, Object>> legacyMapping = Collections.synchronizedMap(new HashMap<>());
+        legacyMapping.put(BUCKET, new HashMap<>());
+        for (String key : keys)
+            legacyMapping.get(BUCKET).put(key, new Object());
+        Index legacy = (bucket, key) -> {
+            synchronized (legacyMapping) {
+                if (legacyMapping.containsKey(bucket) && legacyMapping.get(bucket).containsKey(key))
+                    return legacyMapping.get(bucket).get(key);
+                return null;
+            }
+        };
+
+        // Concurrent index
+        ConcurrentHashMap<CacheKey, Object> cacheMapping = new ConcurrentHashMap<>();
+        for (String key : keys)
+            cacheMapping.put(new CacheKey(BUCKET, key), new Object());
+        Index concurrent = (bucket, key) -> cacheMapping.get(new CacheKey(bucket, key));
+
+        System.out.println("THREADS\tLEGACY(ops/s)\tCONCURRENT(ops/s)\tSPEEDUP");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(legacy, keys, threads, 1); // warm up
+            run(concurrent, keys, threads, 1);
+            double legacyOps = run(legacy, keys, threads, seconds);
+            double concurrentOps = run(concurrent, keys, threads, seconds);
+            System.out.printf("%d\t%.0f\t%.0f\t%.2fx%n", threads, legacyOps, concurrentOps,
+                    concurrentOps / legacyOps);
+            if (threads < maxThreads && threads * 2 > maxThreads)
+                threads = maxThreads / 2;
+        }
+    }
+
+    private static double run(Index index, String[] keys, int threads, int seconds) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                    if (index.get(BUCKET, keys[random.nextInt(keys.length)]) == null)
+                        throw new IllegalStateException("Missing key in benchmark index");
+                    ops++;
+                }
+                operations.add(ops);
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return operations.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+
+}
@@ -0,0 +1,93 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.configuration.ClientConfigurations;
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.protocol.RequestType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection scaling of a running SMACC server. It holds a growing number of idle connections
+ * (clients that connected but have not sent their request yet, like slow or keep-alive clients)
+ * and measures the latency of cache listings sent meanwhile by an active client.
+ * <p>
+ * With the threadpool network engine the idle connections pin the pool threads until their read
+ * timeout; with the selector or virtual engine they take no request thread.
+ * Raise the open file limit (ulimit -n) of both sides for thousands of connections.
+ *
+ * Usage: ConnectionScalingBenchmark [client config] [bucket] [max idle connections] [requests]
+ */
+public class ConnectionScalingBenchmark {
+
+    private static final int REQUEST_TIMEOUT_MS = 60000;
+
+    public static void main(String[] args) throws Exception {
+        String config = args.length > 0 ? args[0] : "conf/client.config.properties";
+        String bucket = args.length > 1 ? args[1] : "smacc";
+        int maxIdle = args.length > 2 ? Integer.parseInt(args[2]) : 4000;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        ClientConfigurations.initialize(new Configuration(config));
+        InetSocketAddress server = new InetSocketAddress(ClientConfigurations.getServerList()[0],
+                ClientConfigurations.getServersPort());
+
+        System.out.println("IDLE\tREQUESTS\tMEAN(ms)\tMAX(ms)\tFAILED");
+        for (int idle = 0; idle <= maxIdle; idle = (idle == 0) ? 10 : idle * 4) {
+            List<Socket> idleConnections = new ArrayList<>(idle);
+            try {
+                for (int i = 0; i < idle; i++) {
+                    Socket socket = new Socket();
+                    socket.connect(server, ClientConfigurations.getClientConnectionTimeout());
+                    idleConnections.add(socket);
+                }
+                Thread.sleep(500); // let the server accept them
+
+                long total = 0, max = 0;
+                int failed = 0;
+                for (int i = 0; i < requests; i++) {
+                    long begin = System.nanoTime();
+                    try {
+                        listCache(server, bucket);
+                    } catch (IOException e) {
+                        failed++;
+                    }
+                    long elapsed = System.nanoTime() - begin;
+                    total += elapsed;
+                    max = Math.max(max, elapsed);
+                }
+                System.out.printf("%d\t%d\t%.2f\t%.2f\t%d%n", idle, requests, total / 1e6 / requests, max / 1e6,
+                        failed);
+            } finally {
+                for (Socket socket : idleConnections)
+                    socket.close();
+            }
+        }
+    }
+
+    private static void listCache(InetSocketAddress server, String bucket) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(server, ClientConfigurations.getClientConnectionTimeout());
+            socket.setSoTimeout(REQUEST_TIMEOUT_MS);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            writeString(out, ClientConfigurations.getMasterAccessKey());
+            writeString(out, ClientConfigurations.getMasterSecretKey());
+            writeString(out, ClientConfigurations.getS3AmazonEndpoint());
+            writeString(out, ClientConfigurations.getDefaultRegion());
+            out.write(RequestType.LIST_CACHE.getInt());
+            writeString(out, bucket);
+            out.write(0); // no prefix
+            out.flush();
+            new DataInputStream(socket.getInputStream()).readShort();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.write(value.length());
+        out.write(value.getBytes());
+    }
+}
@@ -0,0 +1,135 @@
+package edu.cut.smacc.test.stress;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import edu.cut.smacc.server.cache.common.io.ByteBufferPool;
+import edu.cut.smacc.server.cache.common.io.ByteBufferQueue;
+import edu.cut.smacc.server.cache.common.io.ByteBufferQueueInputStream;
+import edu.cut.smacc.server.cache.common.io.ByteBufferQueueOutputStream;
+import edu.cut.smacc.server.cache.common.io.SlabByteBufferPool;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GC and throughput benchmark of the memory tier storage. It keeps a FIFO working set of
+ * objects up to the given capacity, writing new objects and reading random resident ones,
+ * with either heap buffers (ByteBufferPool) or the off-heap slab arena (SlabByteBufferPool).
+ * <p>
+ * Run each mode in its own JVM with the same heap, e.g. for a 4 GB tier:
+ * <pre>
+ * java -Xmx6g -XX:MaxDirectMemorySize=5g -cp ... MemoryArenaBenchmark 4096 60 heap
+ * java -Xmx6g -XX:MaxDirectMemorySize=5g -cp ... MemoryArenaBenchmark 4096 60 offheap
+ * </pre>
+ * Usage: MemoryArenaBenchmark [capacity MB] [seconds] [heap|offheap]
+ */
+public class MemoryArenaBenchmark {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int MIN_OBJECT = 16 * 1024;
+    private static final int MAX_OBJECT = 8 * 1024 * 1024;
+
+    private static final AtomicLong gcPauses = new AtomicLong();
+    private static final AtomicLong gcPauseMs = new AtomicLong();
+    private static final AtomicLong gcMaxPauseMs = new AtomicLong();
+
+    public static void main(String[] args) throws IOException {
+        long capacity = (args.length > 0 ? Long.parseLong(args[0]) : 1024) * 1024 * 1024;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        boolean offHeap = args.length > 2 && args[2].equalsIgnoreCase("offheap");
+
+        ByteBufferPool pool = offHeap
+                ? new SlabByteBufferPool(BUFFER_SIZE, capacity, 4 * BUFFER_SIZE, 4096, false)
+                : new ByteBufferPool(BUFFER_SIZE);
+        UsageStats stats = new UsageStats(capacity);
+        ArrayDeque<ByteBufferQueue> residents = new ArrayDeque<>();
+        Random random = new Random(42);
+        byte[] data = new byte[MAX_OBJECT];
+        random.nextBytes(data);
+        byte[] readBuffer = new byte[64 * 1024];
+
+        listenToGc();
+        long written = 0, read = 0, objects = 0;
+        long begin = System.nanoTime();
+        long deadline = begin + seconds * 1_000_000_000L;
+        long warmupEnd = begin + Math.min(10, seconds / 4) * 1_000_000_000L;
+        boolean measuring = false;
+        long measureBegin = begin, measureWritten = 0, measureRead = 0;
+
+        while (System.nanoTime() < deadline) {
+            if (!measuring && System.nanoTime() > warmupEnd) {
+                // Measure after the working set is built
+                measuring = true;
+                measureBegin = System.nanoTime();
+                measureWritten = written;
+                measureRead = read;
+                gcPauses.set(0);
+                gcPauseMs.set(0);
+                gcMaxPauseMs.set(0);
+            }
+
+            // Write a new object, evicting the oldest ones to make room
+            int size = MIN_OBJECT + random.nextInt(MAX_OBJECT - MIN_OBJECT);
+            while (stats.getActualUsage() + size > capacity && !residents.isEmpty())
+                residents.poll().delete(pool);
+            while (!pool.hasCapacity(size) && !residents.isEmpty())
+                residents.poll().delete(pool);
+            ByteBufferQueue queue = new ByteBufferQueue(stats);
+            ByteBufferQueueOutputStream out = new ByteBufferQueueOutputStream(pool, queue, size);
+            out.write(data, 0, size);
+            out.close();
+            residents.add(queue);
+            written += size;
+            objects++;
+
+            // Read a resident object
+            if (!residents.isEmpty()) {
+                int skip = random.nextInt(Math.min(residents.size(), 64));
+                ByteBufferQueue target = null;
+                for (ByteBufferQueue resident : residents) {
+                    target = resident;
+                    if (skip-- == 0) break;
+                }
+                ByteBufferQueueInputStream in = new ByteBufferQueueInputStream(target);
+                int r;
+                while ((r = in.read(readBuffer, 0, readBuffer.length)) > 0)
+                    read += r;
+            }
+        }
+
+        double elapsed = (System.nanoTime() - measureBegin) / 1e9;
+        System.out.println("MODE\tCAPACITY(MB)\tOBJECTS\tWRITE(MB/s)\tREAD(MB/s)\tGC_PAUSES\tGC_TOTAL(ms)\tGC_MAX(ms)");
+        System.out.printf("%s\t%d\t%d\t%.0f\t%.0f\t%d\t%d\t%d%n", offHeap ? "offheap" : "heap",
+                capacity / 1024 / 1024, objects, (written - measureWritten) / elapsed / 1024 / 1024,
+                (read - measureRead) / elapsed / 1024 / 1024, gcPauses.get(), gcPauseMs.get(), gcMaxPauseMs.get());
+        if (pool instanceof SlabByteBufferPool slabPool)
+            System.out.printf("Arena utilization %.2f, fragmentation %.2f, heap overflow %d bytes%n",
+                    slabPool.getUtilization(), slabPool.getFragmentation(), slabPool.getOverflowBytes());
+    }
+
+    private static void listenToGc() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter))
+                continue;
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+                    return;
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                if (info.getGcAction().contains("minor") || info.getGcAction().contains("major")) {
+                    long duration = info.getGcInfo().getDuration();
+                    gcPauses.incrementAndGet();
+                    gcPauseMs.addAndGet(duration);
+                    gcMaxPauseMs.accumulateAndGet(duration, Math::max);
+                }
+            }, null, null);
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Hit ratio of the eviction item policies on synthetic workloads of equally sized objects:
+ * Zipfian requests, and Zipfian requests interleaved with sequential scans of objects that
+ * are requested only once. The cache holds a fixed number of objects.
+ * <p>
+ * The Zipfian requests are also run with objects of Pareto distributed sizes, in a cache of
+ * as many bytes as the given number of average objects, for the object and byte hit ratios.
+ *
+ * Usage: PolicyHitRatioBenchmark [objects] [cache size] [requests] [zipf exponent] [gdsf size exponent]
+ */
+public class PolicyHitRatioBenchmark {
+
+    private static double gdsfSizeExponent;
+
+    public static void main(String[] args) {
+        int objects = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 0.9;
+        gdsfSizeExponent = args.length > 4 ? Double.parseDouble(args[4]) : ServerConfigurations.GDSF_SIZE_EXPONENT_DEFAULT;
+
+        int[] zipf = zipfTrace(objects, requests, exponent, new Random(42));
+        int[] scan = scanTrace(zipf, objects);
+
+        long[] sizes = paretoSizes(objects, new Random(43));
+        long cacheBytes = cacheSize * (Arrays.stream(sizes).sum() / objects);
+
+        System.out.println("POLICY\tZIPF(%)\tZIPF+SCAN(%)\tSIZED(%)\tSIZED BYTES(%)");
+        for (String policyClass : ServerConfigurations.EVICTION_ITEM_POLICY_ALTERNATIVES) {
+            if (policyClass.endsWith("MRU"))
+                continue;
+            double[] sized = hitRatio(policyClass, cacheBytes, zipf, sizes);
+            System.out.printf("%s\t%.2f\t%.2f\t%.2f\t%.2f%n", policyClass.substring(policyClass.lastIndexOf('.') + 1),
+                    hitRatio(policyClass, cacheSize, zipf, unitSizes(objects))[0],
+                    hitRatio(policyClass, cacheSize, scan, unitSizes(objects * 3))[0],
+                    sized[0], sized[1]);
+        }
+    }
+
+    /**
+     * @return the object and the byte hit ratios
+     */
+    private static double[] hitRatio(String policyClass, long cacheBytes, int[] trace, long[] sizes) {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.EVICTION_ITEM_POLICY_KEY, policyClass);
+        configuration.addProperty(ServerConfigurations.GDSF_SIZE_EXPONENT_KEY, gdsfSizeExponent);
+        EvictionItemPolicy policy = EvictionItemPolicy.getInstance(configuration);
+        MemoryManager manager = new MemoryManager(new StoreSettings("", "", new UsageStats()),
+                CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy)));
+
+        CacheFile[] files = new CacheFile[sizes.length];
+        Set<CacheFile> cached = new HashSet<>();
+        long hits = 0, bytes = 0, hitBytes = 0, cachedBytes = 0;
+        for (int object : trace) {
+            if (files[object] == null) {
+                files[object] = manager.create("bucket", "object-" + object);
+                files[object].setActualSize(sizes[object]);
+            }
+            CacheFile file = files[object];
+            bytes += sizes[object];
+            if (cached.contains(file)) {
+                hits++;
+                hitBytes += sizes[object];
+                policy.onItemAccess(file, StoreOptionType.MEMORY_ONLY);
+                continue;
+            }
+            if (sizes[object] > cacheBytes)
+                continue;
+            policy.onItemAdd(file, StoreOptionType.MEMORY_ONLY);
+            cached.add(file);
+            cachedBytes += sizes[object];
+            while (cachedBytes > cacheBytes) {
+                CacheFile victim = policy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
+                policy.onItemDelete(victim, StoreOptionType.MEMORY_ONLY);
+                cached.remove(victim);
+                cachedBytes -= victim.getActualSize();
+            }
+        }
+        return new double[]{100.0 * hits / trace.length, 100.0 * hitBytes / bytes};
+    }
+
+    private static long[] unitSizes(int objects) {
+        long[] sizes = new long[objects];
+        Arrays.fill(sizes, 1);
+        return sizes;
+    }
+
+    /**
+     * Pareto distributed sizes (shape 1.2) from 1KB up to 100MB; the sizes are not correlated
+     * with the popularity of the objects
+     */
+    private static long[] paretoSizes(int objects, Random random) {
+        long[] sizes = new long[objects];
+        for (int i = 0; i < objects; i++)
+            sizes[i] = (long) Math.min(100L << 20, 1024 / Math.pow(1 - random.nextDouble(), 1 / 1.2));
+        return sizes;
+    }
+
+    private static int[] zipfTrace(int objects, int requests, double exponent, Random random) {
+        double[] cdf = new double[objects];
+        double sum = 0;
+        for (int i = 0; i < objects; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        int[] trace = new int[requests];
+        for (int i = 0; i < requests; i++) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace[i] = (index >= 0) ? index : Math.min(objects - 1, -index - 1);
+        }
+        return trace;
+    }
+
+    /**
+     * Replace a third of the requests with scans of 2 * objects cold objects
+     */
+    private static int[] scanTrace(int[] zipf, int objects) {
+        int[] trace = zipf.clone();
+        int next = objects;
+        for (int i = 0; i < trace.length; i++) {
+            if (i % 3 == 2) {
+                trace[i] = next++;
+                if (next == objects * 3)
+                    next = objects;
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,101 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicy;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.admission.AdmissionPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hit-path latency of the policy notifications: the time a request thread spends in
+ * notifyItemAccess with the synchronous notifier (policy updates under the policy monitors)
+ * and with the asynchronous one (an enqueue into the ring).
+ *
+ * The eviction item policy can be given too, e.g., to compare the lock-free hits of S3-FIFO
+ * with the reordering of LRU.
+ *
+ * Usage: PolicyNotifierBenchmark [threads] [objects] [accesses per thread] [eviction item policy]
+ */
+public class PolicyNotifierBenchmark {
+
+    private static final Configuration configuration = new Configuration();
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int objects = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int accesses = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+        if (args.length > 3)
+            configuration.addProperty(ServerConfigurations.EVICTION_ITEM_POLICY_KEY, args[3]);
+
+        System.out.println("MODE\tTHREADS\tOPS/S\tMEAN(ns)\tP99(ns)\tMAX(us)\tDROPPED");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (boolean async : new boolean[]{false, true}) {
+                run(async, threads, objects, accesses / 4); // warm up
+                run(async, threads, objects, accesses);
+            }
+        }
+    }
+
+    private static void run(boolean async, int threads, int objects, int accesses) throws Exception {
+        List<CachePolicy> policies = List.of(AdmissionPolicy.getInstance(configuration),
+                EvictionItemPolicy.getInstance(configuration));
+        CachePolicyNotifier notifier = async
+                ? CachePolicyNotifier.createAsyncNotifierFromPoliciesList(policies, 65536, 4)
+                : CachePolicyNotifier.createNotifierFromPoliciesList(policies);
+
+        MemoryManager manager = new MemoryManager(new StoreSettings("", "", new UsageStats()), notifier);
+        CacheFile[] files = new CacheFile[objects];
+        for (int i = 0; i < objects; i++) {
+            files[i] = manager.create("smaccbucket", "key-" + i);
+            notifier.notifyItemAddition(files[i], StoreOptionType.MEMORY_ONLY);
+        }
+        notifier.flush();
+
+        long[][] latencies = new long[threads][accesses];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] latency = latencies[t];
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < accesses; i++) {
+                    CacheFile file = files[random.nextInt(files.length)];
+                    long begin = System.nanoTime();
+                    notifier.notifyItemAccess(file, StoreOptionType.MEMORY_ONLY);
+                    latency[i] = System.nanoTime() - begin;
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        double opsPerSec = (double) threads * accesses / ((System.nanoTime() - begin) / 1e9);
+        notifier.shutdown();
+
+        long[] all = new long[threads * accesses];
+        for (int t = 0; t < threads; t++)
+            System.arraycopy(latencies[t], 0, all, t * accesses, accesses);
+        Arrays.sort(all);
+        double mean = Arrays.stream(all).average().orElse(0);
+        System.out.printf("%s\t%d\t%.0f\t%.0f\t%d\t%.1f\t%d%n", async ? "async" : "sync", threads, opsPerSec, mean,
+                all[(int) (all.length * 0.99)], all[all.length - 1] / 1e3, notifier.getDroppedAccesses());
+    }
+}
@@ -0,0 +1,59 @@
+package edu.cut.smacc.test.stress;
+
+import edu.cut.smacc.client.SMACCClient;
+import edu.cut.smacc.configuration.ClientConfigurations;
+import edu.cut.smacc.configuration.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Small request throughput of a running SMACC server, with a connection per request and with
+ * all the requests multiplexed over one session. The requests are cache listings of the given
+ * bucket, served by the server alone, so the cost is dominated by connecting and logging in.
+ * <p>
+ * Start the server first (see ClientMainTester).
+ *
+ * Usage: SessionBenchmark [client config] [bucket] [threads] [requests per thread]
+ */
+public class SessionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String config = args.length > 0 ? args[0] : "conf/client.config.properties";
+        String bucket = args.length > 1 ? args[1] : "smacc";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+
+        System.out.println("MODE\tTHREADS\tREQUESTS\tOPS/SEC");
+        for (boolean session : new boolean[] { false, true, false, true }) {
+            Configuration conf = new Configuration(config);
+            conf.setProperty(ClientConfigurations.CLIENT_SESSION_ENABLED_KEY, session);
+            SMACCClient client = new SMACCClient(conf);
+            double opsPerSec = run(client, bucket, threads, requests);
+            System.out.printf("%s\t%d\t%d\t%.0f%n", session ? "session" : "per-request", threads,
+                    threads * requests, opsPerSec);
+        }
+        System.exit(0);
+    }
+
+    private static double run(SMACCClient client, String bucket, int threads, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < requests; i++)
+                    client.cacheList(bucket, (i % 2 == 0) ? null : "session-benchmark-" + i);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures)
+            future.get();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return threads * (double) requests / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,33 @@
+package edu.cut.smacc.utils;
+
+/**
+ * The time seen by the cache policies. It is the system time, unless a simulated time is set
+ * (e.g., by the cache simulator while it replays a trace).
+ */
+public class PolicyClock {
+
+    private static volatile long simulatedTime = -1;
+
+    /**
+     * @return the simulated time if one is set, otherwise System.currentTimeMillis()
+     */
+    public static long currentTimeMillis() {
+        long time = simulatedTime;
+        return (time >= 0) ? time : System.currentTimeMillis();
+    }
+
+    /**
+     * Use the given time (in milliseconds) from now on
+     */
+    public static void setSimulatedTime(long timeMillis) {
+        simulatedTime = Math.max(0, timeMillis);
+    }
+
+    /**
+     * Go back to the system time
+     */
+    public static void useSystemTime() {
+        simulatedTime = -1;
+    }
+
+}
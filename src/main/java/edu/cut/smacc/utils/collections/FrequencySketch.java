@@ -0,0 +1,102 @@
+package edu.cut.smacc.utils.collections;
+
+import edu.cut.smacc.server.cache.common.CacheFile;
+
+import java.util.Arrays;
+
+/**
+ * A count-min sketch estimating how often each object (bucket and key) was requested, including
+ * objects no longer (or never) in the cache. It keeps 4-bit counters in 4 rows and uses
+ * conservative updates; once the number of increments reaches the sample size, all counters
+ * are halved so that old popularity fades out.
+ * <p>
+ * Not thread-safe: callers synchronize, like the policies that own it.
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int increments;
+
+    /**
+     * @param width the number of counters per row (rounded up to a power of 2); the sketch is
+     *              accurate for about that many distinct hot objects
+     */
+    public FrequencySketch(int width) {
+        int counters = Integer.highestOneBit(Math.max(64, width) - 1) << 1;
+        this.table = new long[counters * SEEDS.length / 16];
+        this.counterMask = counters - 1;
+        this.sampleSize = 10 * counters;
+    }
+
+    /**
+     * Record a request for the object of the file
+     */
+    public void increment(CacheFile file) {
+        increment(hash(file.getBucket(), file.getKey()));
+    }
+
+    /**
+     * @return the estimated number of recent requests of the object (0 to 15)
+     */
+    public int frequency(CacheFile file) {
+        return frequency(hash(file.getBucket(), file.getKey()));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        increments = 0;
+    }
+
+    void increment(long hash) {
+        int min = frequency(hash);
+        if (min == MAX_COUNT)
+            return;
+        // Conservative update: only the smallest counters grow
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            if (count(index) == min)
+                table[index >>> 4] += 1L << ((index & 15) << 2);
+        }
+        if (++increments >= sampleSize)
+            age();
+    }
+
+    int frequency(long hash) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++)
+            min = Math.min(min, count(indexOf(hash, row)));
+        return min;
+    }
+
+    private int count(int index) {
+        return (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL);
+    }
+
+    /**
+     * @return the index of the counter of the row, with the rows laid out one after the other
+     */
+    private int indexOf(long hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (counterMask + 1) + ((int) h & counterMask);
+    }
+
+    private void age() {
+        for (int i = 0; i < table.length; i++)
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        increments /= 2;
+    }
+
+    static long hash(String bucket, String key) {
+        long h = 31L * bucket.hashCode() + key.hashCode();
+        h *= 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -1,5 +1,7 @@
 package edu.cut.smacc.utils.collections;
 
+import edu.cut.smacc.utils.PolicyClock;
+
 /**
  * Weighted node based on a geometric relation between number and time of accesses
  *
@@ -17,7 +19,7 @@ public class WeightedEXDNode<I extends Comparable<? super I>> extends WeightedNo
     public WeightedEXDNode(I f, long lastAccess) {
         super(f);
         this.lastAccess = lastAccess;
-        this.weight = Math.exp(-0.001d * ALPHA * (System.currentTimeMillis() - this.lastAccess));
+        this.weight = Math.exp(-0.001d * ALPHA * (PolicyClock.currentTimeMillis() - this.lastAccess));
         if (this.weight > 0.9999d)
             this.weight = 1d; // this is a new file
     }
@@ -45,7 +47,7 @@ public class WeightedEXDNode<I extends Comparable<? super I>> extends WeightedNo
 
     @Override
     public void updateWeight() {
-        long now = System.currentTimeMillis();
+        long now = PolicyClock.currentTimeMillis();
         this.weight = 1 + Math.exp(-0.001d * ALPHA * (now - this.lastAccess)) * this.weight;
         this.lastAccess = now;
     }
@@ -56,7 +58,7 @@ public class WeightedEXDNode<I extends Comparable<? super I>> extends WeightedNo
     }
 
     public double calcUpdatedWeight() {
-        long now = System.currentTimeMillis();
+        long now = PolicyClock.currentTimeMillis();
         return Math.exp(-0.001d * ALPHA * (now - this.lastAccess)) * this.weight;
     }
 
@@ -1,5 +1,7 @@
 package edu.cut.smacc.utils.collections;
 
+import edu.cut.smacc.utils.PolicyClock;
+
 import java.util.Comparator;
 
 /**
@@ -29,7 +31,7 @@ public class WeightedLIFENode<I extends Comparable<? super I>> extends WeightedN
     @Override
     public void updateWeight() {
         this.numAccesses = this.numAccesses + 1;
-        this.lastAccessTime = System.currentTimeMillis();
+        this.lastAccessTime = PolicyClock.currentTimeMillis();
     }
 
     @Override
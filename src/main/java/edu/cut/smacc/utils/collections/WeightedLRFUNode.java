@@ -1,5 +1,7 @@
 package edu.cut.smacc.utils.collections;
 
+import edu.cut.smacc.utils.PolicyClock;
+
 public class WeightedLRFUNode<I extends Comparable<? super I>> extends WeightedNode<I> {
 
     // Represents "half life", i.e., after how much time the weight is halved
@@ -11,7 +13,7 @@ public class WeightedLRFUNode<I extends Comparable<? super I>> extends WeightedN
     public WeightedLRFUNode(I f, long lastAccess) {
         super(f);
         this.lastAccess = lastAccess;
-        this.weight = BIAS / (0.001d * (System.currentTimeMillis() - this.lastAccess) + BIAS);
+        this.weight = BIAS / (0.001d * (PolicyClock.currentTimeMillis() - this.lastAccess) + BIAS);
         if (this.weight > 0.99999d)
             this.weight = 1d; // this is a new file
     }
@@ -39,7 +41,7 @@ public class WeightedLRFUNode<I extends Comparable<? super I>> extends WeightedN
 
     @Override
     public void updateWeight() {
-        long now = System.currentTimeMillis();
+        long now = PolicyClock.currentTimeMillis();
         this.weight = 1 + BIAS * this.weight / (0.001d * (now - this.lastAccess) + BIAS);
         this.lastAccess = now;
     }
@@ -64,6 +64,11 @@ public class SmaccClientCLITest {
         serverCLI = new SmaccClientCLI(args);
         assert serverCLI.getRequestType() == RequestType.COLLECT_STATS;
 
+        // The latencies are collected with their own request
+        args = new String[]{"--collect-latencies"};
+        serverCLI = new SmaccClientCLI(args);
+        assert serverCLI.getRequestType() == RequestType.COLLECT_LATENCIES;
+
         System.out.println("SMACCClientCLITest.testHasStatArgument() passed!");
     }
 
@@ -0,0 +1,72 @@
+package edu.cut.smacc.server.cache.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class BlockIndexTest {
+
+    private static boolean matches(BlockRange range, long start, long stop) {
+        return range != null && range.getStart() == start && range.getStop() == stop;
+    }
+
+    @Test
+    void testExtents() {
+        BlockIndex<BlockRange> index = BlockIndex.forRanges();
+        index.add(new BlockRange(200, 299));
+        index.add(new BlockRange(0, 99));
+        index.add(new BlockRange(500, 599));
+        index.add(new BlockRange(100, 199)); // joins the first two ranges
+
+        List<BlockRange> extents = index.getExtents();
+        assert extents.size() == 2;
+        assert matches(extents.get(0), 0, 299);
+        assert matches(extents.get(1), 500, 599);
+
+        assert index.contains(50, 250);
+        assert !index.contains(250, 550);
+        assert matches(index.findExtent(150), 0, 299);
+        assert index.findExtent(300) == null;
+
+        System.out.println("BlockIndexTest.testExtents() passed");
+    }
+
+    @Test
+    void testEmptySpace() {
+        BlockIndex<BlockRange> index = BlockIndex.forRanges();
+        index.add(new BlockRange(100, 199));
+        index.add(new BlockRange(400, 499));
+
+        assert matches(index.findEmptySpace(0, 999), 0, 99);
+        assert matches(index.findEmptySpace(150, 999), 200, 399);
+        assert matches(index.findEmptySpace(450, 999), 500, 999);
+
+        System.out.println("BlockIndexTest.testEmptySpace() passed");
+    }
+
+    @Test
+    void testReplaceAndItems() {
+        BlockIndex<BlockRange> index = BlockIndex.forRanges();
+        for (int i = 0; i < 10; i++)
+            index.add(new BlockRange(i * 100, i * 100 + 99));
+        assert index.getExtents().size() == 1;
+
+        // A block that closes early shrinks its range and splits the extent
+        index.replace(new BlockRange(300, 399), new BlockRange(300, 349));
+        List<BlockRange> extents = index.getExtents();
+        assert extents.size() == 2;
+        assert matches(extents.get(0), 0, 349);
+        assert matches(extents.get(1), 400, 999);
+        assert !index.remove(new BlockRange(300, 399));
+
+        List<BlockRange> items = index.getItems(250, 420);
+        assert items.size() == 3;
+        assert matches(items.get(0), 200, 299);
+        assert matches(items.get(1), 300, 349);
+        assert matches(items.get(2), 400, 499);
+        assert index.getItems(350, 399).isEmpty();
+
+        System.out.println("BlockIndexTest.testReplaceAndItems() passed");
+    }
+
+}
@@ -9,19 +9,25 @@ import edu.cut.smacc.server.cache.policy.CachePolicy;
 import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 public class CacheFileTest {
 
+    @TempDir
+    Path folder;
+
     @Test
     void testMemoryCacheFile() throws IOException {
         // Creating a memory file with no parent
         String bucket = "test-bucket";
         String key = "test-key";
-        String mainFolder = "";
-        String stateFolder = "";
+        String mainFolder = folder + File.separator;
+        String stateFolder = folder + File.separator;
         UsageStats usageStats = new UsageStats(1124);
         StoreSettings settings = new StoreSettings(mainFolder, stateFolder, usageStats);
         CachePolicy policy = EvictionItemPolicy.getInstance(new Configuration());
@@ -0,0 +1,182 @@
+package edu.cut.smacc.server.cache.common;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicy;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheManagerBaseTest {
+
+    private MemoryManager createManager() {
+        StoreSettings settings = new StoreSettings("", "", new UsageStats(4096));
+        EvictionItemPolicy policy = EvictionItemPolicy.getInstance(new Configuration());
+        return new MemoryManager(settings, CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy)));
+    }
+
+    @Test
+    void testPutVersions() {
+        MemoryManager manager = createManager();
+        String bucket = "test-bucket";
+        String key = "test-key";
+
+        CacheFile first = manager.create(bucket, key);
+        first.setVersion(2);
+        manager.put(bucket, key, first);
+        assert manager.getFile(bucket, key) == first;
+        assert manager.containsObject(bucket, key);
+        assert !manager.containsObject("other-bucket", key);
+
+        // A late put must not replace a newer version
+        CacheFile late = manager.create(bucket, key);
+        late.setVersion(1);
+        manager.put(bucket, key, late);
+        assert manager.getFile(bucket, key) == first;
+        assert late.isObsolete();
+
+        // A newer version replaces the previous one
+        CacheFile newer = manager.create(bucket, key);
+        newer.setVersion(3);
+        manager.put(bucket, key, newer);
+        assert manager.getFile(bucket, key) == newer;
+        assert first.isObsolete();
+        assert manager.getCacheFilesCount() == 1;
+
+        // An outdated version is removed on version check
+        manager.checkVersion(bucket, key, 4);
+        assert manager.getFile(bucket, key) == null;
+        assert manager.getCacheFilesCount() == 0;
+
+        System.out.println("CacheManagerBaseTest.testPutVersions() passed");
+    }
+
+    @Test
+    void testConcurrentAccess() throws InterruptedException {
+        MemoryManager manager = createManager();
+        String bucket = "test-bucket";
+        int files = 64;
+        for (int i = 0; i < files; i++) {
+            manager.put(bucket, "key-" + i, manager.create(bucket, "key-" + i));
+        }
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    String key = "key-" + (i % files);
+                    if (manager.getFile(bucket, key) == null)
+                        failed.set(true);
+                    // Each thread also adds and removes its own keys
+                    String ownKey = "own-" + thread + "-" + i;
+                    manager.put(bucket, ownKey, manager.create(bucket, ownKey));
+                    manager.delete(bucket, ownKey);
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assert !failed.get();
+        assert manager.getCacheFilesCount() == files;
+        assert manager.list(bucket).size() == files;
+        assert manager.list("other-bucket").isEmpty();
+
+        System.out.println("CacheManagerBaseTest.testConcurrentAccess() passed");
+    }
+
+    @Test
+    void testEvictIdentity() {
+        MemoryManager manager = createManager();
+        String bucket = "test-bucket";
+        String key = "test-key";
+
+        CacheFile first = manager.create(bucket, key);
+        first.setVersion(1);
+        manager.put(bucket, key, first);
+        CacheFile newer = manager.create(bucket, key);
+        newer.setVersion(2);
+        manager.put(bucket, key, newer);
+
+        // The eviction of a replaced file leaves the newer file in place
+        assert !manager.evict(first);
+        assert manager.getFile(bucket, key) == newer;
+        assert manager.evict(newer);
+        assert manager.getFile(bucket, key) == null;
+        assert manager.getCacheBytes() == 0;
+
+        System.out.println("CacheManagerBaseTest.testEvictIdentity() passed");
+    }
+
+    @Test
+    void testEventOrder() throws InterruptedException {
+        // The policy sees each file added before it is deleted, and one file of the key at a time
+        AtomicBoolean outOfOrder = new AtomicBoolean(false);
+        Set<CacheFile> live = new HashSet<>();
+        CachePolicy policy = new CachePolicy() {
+            public void onItemAdd(CacheFile file, StoreOptionType tier) {
+                if (!live.isEmpty() || !live.add(file))
+                    outOfOrder.set(true);
+            }
+
+            public void onItemDelete(CacheFile file, StoreOptionType tier) {
+                if (!live.remove(file))
+                    outOfOrder.set(true);
+            }
+
+            public void onItemNotAdded(CacheFile file, StoreOptionType tier) {
+            }
+
+            public void onItemAccess(CacheFile file, StoreOptionType tier) {
+            }
+
+            public void onItemUpdate(CacheFile file, StoreOptionType tier) {
+            }
+
+            public void reset() {
+            }
+        };
+        StoreSettings settings = new StoreSettings("", "", new UsageStats(4096));
+        MemoryManager manager = new MemoryManager(settings, CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy)));
+        String bucket = "test-bucket";
+        String key = "test-key";
+
+        AtomicLong versions = new AtomicLong(0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    CacheFile file = manager.create(bucket, key);
+                    file.setVersion(versions.incrementAndGet());
+                    manager.put(bucket, key, file);
+                    if (i % 3 == 0)
+                        manager.delete(bucket, key);
+                    else if (i % 3 == 1)
+                        manager.evict(file);
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assert !outOfOrder.get();
+        assert live.size() == manager.getCacheFilesCount();
+
+        System.out.println("CacheManagerBaseTest.testEventOrder() passed");
+    }
+
+}
@@ -0,0 +1,174 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.server.cache.common.BlockRange;
+import edu.cut.smacc.server.cache.common.CacheBlock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MultiBlockInputStreamTest {
+
+    private static final int BLOCK_SIZE = 10000;
+
+    @TempDir
+    Path folder;
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) (i % 251);
+        return data;
+    }
+
+    private List<CacheBlock> createFileBlocks(byte[] data) throws IOException {
+        List<CacheBlock> blocks = new ArrayList<>();
+        for (int start = 0; start < data.length; start += BLOCK_SIZE) {
+            Path file = folder.resolve("block-" + start);
+            Files.write(file, Arrays.copyOfRange(data, start, start + BLOCK_SIZE));
+            blocks.add(new TestBlock(new BlockRange(start, start + BLOCK_SIZE - 1), file, null));
+        }
+        return blocks;
+    }
+
+    @Test
+    void testTransferFileBlocks() throws IOException {
+        byte[] data = createData(3 * BLOCK_SIZE);
+        List<CacheBlock> blocks = createFileBlocks(data);
+
+        // The range starts and ends inside a block
+        MultiBlockInputStream in = new MultiBlockInputStream(5000, 24999, blocks);
+        assert in.isTransferable();
+        Path out = folder.resolve("out");
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assert in.transferTo(channel) == 20000;
+        }
+        assert Arrays.equals(Files.readAllBytes(out), Arrays.copyOfRange(data, 5000, 25000));
+        assert in.read() == -1;
+
+        System.out.println("MultiBlockInputStreamTest.testTransferFileBlocks() passed");
+    }
+
+    @Test
+    void testTransferMemoryBlocks() throws IOException {
+        byte[] data = createData(2 * BLOCK_SIZE);
+        List<CacheBlock> blocks = new ArrayList<>();
+        blocks.add(new TestBlock(new BlockRange(0, BLOCK_SIZE - 1), null, Arrays.copyOfRange(data, 0, BLOCK_SIZE)));
+        blocks.add(new TestBlock(new BlockRange(BLOCK_SIZE, 2 * BLOCK_SIZE - 1), null,
+                Arrays.copyOfRange(data, BLOCK_SIZE, 2 * BLOCK_SIZE)));
+
+        // Blocks that are not files are copied to the channel
+        MultiBlockInputStream in = new MultiBlockInputStream(100, 2 * BLOCK_SIZE - 1, blocks);
+        assert !in.isTransferable();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assert in.transferTo(Channels.newChannel(out)) == 2 * BLOCK_SIZE - 100;
+        assert Arrays.equals(out.toByteArray(), Arrays.copyOfRange(data, 100, 2 * BLOCK_SIZE));
+
+        System.out.println("MultiBlockInputStreamTest.testTransferMemoryBlocks() passed");
+    }
+
+    @Test
+    void testReadFromInsideBlock() throws IOException {
+        byte[] data = createData(3 * BLOCK_SIZE);
+        List<CacheBlock> blocks = createFileBlocks(data);
+
+        // The range starts inside a block that does not begin at offset 0 of the object
+        MultiBlockInputStream in = new MultiBlockInputStream(15000, 2 * BLOCK_SIZE + 4999, blocks.subList(1, 3));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int r;
+        while ((r = in.read(buffer)) != -1)
+            out.write(buffer, 0, r);
+        assert Arrays.equals(out.toByteArray(), Arrays.copyOfRange(data, 15000, 2 * BLOCK_SIZE + 5000));
+
+        System.out.println("MultiBlockInputStreamTest.testReadFromInsideBlock() passed");
+    }
+
+    /**
+     * A block backed by a file or a byte array
+     */
+    private static class TestBlock implements CacheBlock {
+        private final BlockRange range;
+        private final Path file;
+        private final byte[] data;
+
+        TestBlock(BlockRange range, Path file, byte[] data) {
+            this.range = range;
+            this.file = file;
+            this.data = data;
+        }
+
+        public InputStream getFileInputStream() throws IOException {
+            return (file != null) ? new FileInputStream(file.toFile()) : new ByteArrayInputStream(data);
+        }
+
+        public long getSize() {
+            return range.getLength();
+        }
+
+        public BlockRange getRange() {
+            return range;
+        }
+
+        public long available() {
+            return 0;
+        }
+
+        public void write(byte[] buffer, int offset, int len) {
+        }
+
+        public void write(int c) {
+        }
+
+        public boolean close() {
+            return true;
+        }
+
+        public void complete() {
+        }
+
+        public void toBePushed() {
+        }
+
+        public void setVersion(long version) {
+        }
+
+        public boolean isComplete() {
+            return true;
+        }
+
+        public boolean isIncomplete() {
+            return false;
+        }
+
+        public boolean isPushed() {
+            return false;
+        }
+
+        public boolean isObsolete() {
+            return false;
+        }
+
+        public void delete() {
+        }
+
+        public void setStateFileObsolete() {
+        }
+
+        public void abortWrite() {
+        }
+    }
+
+}
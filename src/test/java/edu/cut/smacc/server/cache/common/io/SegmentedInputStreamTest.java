@@ -0,0 +1,89 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SegmentedInputStreamTest {
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) (i % 251);
+        return data;
+    }
+
+    /**
+     * A stream that records whether it was closed
+     */
+    private static class TrackedStream extends ByteArrayInputStream {
+        boolean closed = false;
+
+        TrackedStream(byte[] data, int start, int stop) {
+            super(data, start, stop - start + 1);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testStitchSegments() throws IOException {
+        byte[] data = createData(1000);
+        int[][] segments = {{0, 199}, {200, 499}, {500, 599}, {600, 999}};
+        List<Integer> opened = new ArrayList<>();
+
+        // The cached segments are opened in advance, the gaps when they are reached
+        TrackedStream first = new TrackedStream(data, 0, 199);
+        TrackedStream third = new TrackedStream(data, 500, 599);
+        InputStream[] streams = {first, null, third, null};
+        SegmentedInputStream in = new SegmentedInputStream(streams, index -> {
+            opened.add(index);
+            return new TrackedStream(data, segments[index][0], segments[index][1]);
+        }, null, null);
+
+        byte[] buffer = new byte[150];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int r = in.read(buffer, 0, buffer.length);
+        assert r == 150 && opened.isEmpty();
+        out.write(buffer, 0, r);
+        while ((r = in.read(buffer, 0, buffer.length)) != -1)
+            out.write(buffer, 0, r);
+        assert Arrays.equals(out.toByteArray(), data);
+        assert opened.equals(List.of(1, 3));
+        assert first.closed && third.closed;
+        assert in.read() == -1;
+
+        System.out.println("SegmentedInputStreamTest.testStitchSegments() passed");
+    }
+
+    @Test
+    void testCloseOpenedSegments() throws IOException {
+        byte[] data = createData(300);
+        TrackedStream first = new TrackedStream(data, 0, 99);
+        TrackedStream third = new TrackedStream(data, 200, 299);
+        List<Integer> opened = new ArrayList<>();
+        SegmentedInputStream in = new SegmentedInputStream(new InputStream[]{first, null, third}, index -> {
+            opened.add(index);
+            return new TrackedStream(data, 100, 199);
+        }, null, null);
+
+        // Closing early releases the segments opened in advance and never opens the rest
+        assert in.read() == 0;
+        in.close();
+        assert first.closed && third.closed;
+        assert opened.isEmpty();
+        assert in.read() == -1;
+
+        System.out.println("SegmentedInputStreamTest.testCloseOpenedSegments() passed");
+    }
+
+}
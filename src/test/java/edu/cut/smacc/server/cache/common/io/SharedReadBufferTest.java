@@ -0,0 +1,132 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SharedReadBufferTest {
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) (i % 251);
+        return data;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buff = new byte[1000];
+        int r;
+        while ((r = in.read(buff)) != -1)
+            out.write(buff, 0, r);
+        return out.toByteArray();
+    }
+
+    @Test
+    void testReadersStreamWhileLeaderWrites() throws Exception {
+        byte[] data = createData(200 * 1024);
+        SharedReadBuffer buffer = new SharedReadBuffer();
+
+        List<byte[]> results = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(new Thread(() -> {
+                try {
+                    assert buffer.awaitOpen() && buffer.attach();
+                    byte[] read = readAll(new CoalescedInputStream(buffer, position -> {
+                        throw new IOException("Fallback must not be used");
+                    }));
+                    synchronized (results) {
+                        results.add(read);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+
+        // The leader appends the data in small pieces
+        buffer.open(data.length, new ArrayList<>(0), null);
+        for (int off = 0; off < data.length; off += 3000)
+            buffer.append(data, off, Math.min(3000, data.length - off));
+        for (Thread reader : readers)
+            reader.join();
+
+        assert results.size() == 4;
+        for (byte[] read : results)
+            assert Arrays.equals(read, data);
+
+        System.out.println("SharedReadBufferTest.testReadersStreamWhileLeaderWrites() passed");
+    }
+
+    @Test
+    void testFallbackWhenLeaderStops() throws IOException {
+        byte[] data = createData(100 * 1024);
+        SharedReadBuffer buffer = new SharedReadBuffer();
+        buffer.open(data.length, new ArrayList<>(0), null);
+        buffer.append(data, 0, 40000);
+        buffer.fail();
+
+        AtomicLong fallbackPosition = new AtomicLong(-1);
+        assert buffer.attach();
+        CoalescedInputStream in = new CoalescedInputStream(buffer, position -> {
+            fallbackPosition.set(position);
+            return new ByteArrayInputStream(data, (int) position, data.length - (int) position);
+        });
+        assert in.getSize() == data.length;
+        assert Arrays.equals(readAll(in), data);
+        assert fallbackPosition.get() == 40000;
+
+        System.out.println("SharedReadBufferTest.testFallbackWhenLeaderStops() passed");
+    }
+
+    @Test
+    void testCancel() throws IOException {
+        SharedReadBuffer buffer = new SharedReadBuffer();
+        buffer.cancel();
+        assert !buffer.awaitOpen();
+
+        // An empty object completes on open
+        SharedReadBuffer empty = new SharedReadBuffer();
+        empty.open(0, new ArrayList<>(0), null);
+        assert empty.awaitOpen();
+        assert empty.read(0, new byte[10], 0, 10) == -1;
+
+        System.out.println("SharedReadBufferTest.testCancel() passed");
+    }
+
+    @Test
+    void testFreeAfterLastReader() throws IOException {
+        byte[] data = createData(1000);
+        AtomicLong freed = new AtomicLong();
+        SharedReadBuffer buffer = new SharedReadBuffer();
+        buffer.open(data.length, new ArrayList<>(0), () -> freed.addAndGet(data.length));
+        assert buffer.attach();
+        buffer.append(data, 0, data.length);
+
+        // The leader is done but the reader still streams the bytes
+        buffer.detach();
+        assert freed.get() == 0;
+        CoalescedInputStream in = new CoalescedInputStream(buffer, position -> {
+            throw new IOException("Fallback must not be used");
+        });
+        assert Arrays.equals(readAll(in), data);
+        in.close();
+        in.close();
+        assert freed.get() == data.length;
+
+        // A late reader cannot attach to the dropped bytes
+        assert !buffer.attach();
+
+        System.out.println("SharedReadBufferTest.testFreeAfterLastReader() passed");
+    }
+
+}
@@ -0,0 +1,129 @@
+package edu.cut.smacc.server.cache.common.io;
+
+import edu.cut.smacc.server.cache.common.CacheOutOfMemoryException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class SlabByteBufferPoolTest {
+
+    @Test
+    void testSizeClasses() {
+        // 4 slabs of 64KB, classes of 4KB, 8KB, 16KB, 32KB and 64KB
+        SlabByteBufferPool pool = new SlabByteBufferPool(64 * 1024, 256 * 1024, 64 * 1024, 4096, false);
+
+        ByteBuffer small = pool.acquireByteBuffer(3000);
+        assert small.isDirect();
+        assert small.capacity() == 4096;
+        ByteBuffer large = pool.acquireByteBuffer();
+        assert large.capacity() == 64 * 1024;
+        assert pool.getAllocatedBytes() == 128 * 1024;
+        assert pool.getUsedBytes() == 4096 + 64 * 1024;
+        assert pool.getIdleBytes() == 64 * 1024 - 4096;
+
+        // Released chunks are reused by their class
+        pool.releaseByteBuffer(small);
+        ByteBuffer reused = pool.acquireByteBuffer(4000);
+        assert reused.capacity() == 4096;
+        assert reused.position() == 0;
+        assert pool.getAllocatedBytes() == 128 * 1024;
+        assert pool.getFragmentation() > 0;
+
+        System.out.println("SlabByteBufferPoolTest.testSizeClasses() passed");
+    }
+
+    @Test
+    void testExhaustedArena() {
+        SlabByteBufferPool pool = new SlabByteBufferPool(64 * 1024, 128 * 1024, 64 * 1024, 4096, false);
+        ByteBuffer first = pool.acquireByteBuffer();
+        ByteBuffer second = pool.acquireByteBuffer();
+        assert first.isDirect() && second.isDirect();
+        assert !pool.hasCapacity(1);
+        assert pool.getUtilization() == 1.0;
+
+        // Without heap fallback a request that misses the arena gets no buffer
+        assert pool.acquireByteBuffer() == null;
+        assert pool.acquireByteBuffer(4096) == null;
+        assert pool.getOverflowBytes() == 0;
+
+        pool.releaseByteBuffer(first);
+        assert pool.hasCapacity(64 * 1024);
+        assert pool.acquireByteBuffer().isDirect();
+
+        // With heap fallback the pool never reports the tier as full and goes to the heap
+        SlabByteBufferPool fallback = new SlabByteBufferPool(64 * 1024, 64 * 1024, 64 * 1024, 4096, true);
+        fallback.acquireByteBuffer();
+        assert fallback.hasCapacity(1024 * 1024);
+        ByteBuffer overflow = fallback.acquireByteBuffer();
+        assert !overflow.isDirect();
+        assert fallback.getOverflowBytes() == 64 * 1024;
+        fallback.releaseByteBuffer(overflow);
+        assert fallback.getOverflowBytes() == 0;
+
+        // Free chunks of a small class cannot hold a full buffer
+        SlabByteBufferPool fragmented = new SlabByteBufferPool(64 * 1024, 128 * 1024, 64 * 1024, 4096, false);
+        fragmented.acquireByteBuffer(4096);
+        fragmented.acquireByteBuffer();
+        assert fragmented.getIdleBytes() == 60 * 1024;
+        assert fragmented.hasCapacity(4096);
+        assert !fragmented.hasCapacity(8192);
+        assert !fragmented.hasCapacity(64 * 1024);
+
+        System.out.println("SlabByteBufferPoolTest.testExhaustedArena() passed");
+    }
+
+    @Test
+    void testQueueOnSlabs() throws IOException {
+        SlabByteBufferPool pool = new SlabByteBufferPool(16 * 1024, 1024 * 1024, 64 * 1024, 1024, false);
+        byte[] data = new byte[40000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i % 127);
+
+        ByteBufferQueue queue = new ByteBufferQueue(new UsageStats());
+        ByteBufferQueueOutputStream out = new ByteBufferQueueOutputStream(pool, queue, data.length);
+        for (int off = 0; off < data.length; off += 3000)
+            out.write(data, off, Math.min(3000, data.length - off));
+        out.close();
+
+        // Two full buffers and a tail of 7232 bytes in an 8KB chunk
+        assert queue.size() == data.length;
+        assert queue.capacity() == 2 * 16 * 1024 + 8 * 1024;
+
+        byte[] read = new byte[data.length];
+        ByteBufferQueueInputStream in = new ByteBufferQueueInputStream(queue);
+        int total = 0, r;
+        while ((r = in.read(read, total, read.length - total)) > 0)
+            total += r;
+        assert total == data.length;
+        assert Arrays.equals(read, data);
+
+        queue.delete(pool);
+        assert pool.getUsedBytes() == 0;
+
+        System.out.println("SlabByteBufferPoolTest.testQueueOnSlabs() passed");
+    }
+
+    @Test
+    void testQueueOnExhaustedArena() throws IOException {
+        SlabByteBufferPool pool = new SlabByteBufferPool(16 * 1024, 32 * 1024, 16 * 1024, 1024, false);
+        ByteBufferQueue queue = new ByteBufferQueue(new UsageStats());
+        ByteBufferQueueOutputStream out = new ByteBufferQueueOutputStream(pool, queue);
+        try {
+            out.write(new byte[40000]);
+            assert false;
+        } catch (CacheOutOfMemoryException expected) {
+        }
+        out.close();
+
+        // The full buffers are kept and no heap buffer is handed out
+        assert queue.size() == 2 * 16 * 1024 && queue.capacity() == 2 * 16 * 1024;
+        assert pool.getOverflowBytes() == 0;
+        queue.delete(pool);
+        assert pool.getUsedBytes() == 0;
+
+        System.out.println("SlabByteBufferPoolTest.testQueueOnExhaustedArena() passed");
+    }
+
+}
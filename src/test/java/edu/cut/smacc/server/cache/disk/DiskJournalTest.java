@@ -0,0 +1,151 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+
+public class DiskJournalTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testRecoverFromSnapshot() throws IOException {
+        DiskManager manager = newDiskManager(true);
+        write(manager, "kept", 1000);
+        write(manager, "deleted", 2000).delete();
+        manager.shutdown();
+
+        // The recovery does not need the state files of the volume
+        for (File file : folder.resolve("state").toFile().listFiles(File::isFile))
+            assert file.delete();
+
+        manager = newDiskManager(true);
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        assert recovered.size() == 1;
+        assert read(recovered.get("bucketkept")) == 1000;
+        assert manager.getDiskReportedUsage(0) == 1000;
+        manager.shutdown();
+
+        System.out.println("DiskJournalTest.testRecoverFromSnapshot() passed");
+    }
+
+    @Test
+    void testRecoverAfterCrash() throws IOException {
+        // The manager is not shut down, so the recovery replays the journal log
+        DiskManager manager = newDiskManager(true);
+        write(manager, "complete", 1000);
+        MultiBlockOutputStream unfinished = manager.create("bucket", "unfinished").getOutputStream();
+        unfinished.write(new byte[500], 0, 500);
+        assert dataFiles().length == 2;
+
+        DiskManager restarted = newDiskManager(true);
+        HashMap<String, DiskFile> recovered = restarted.initiateRecovery();
+        assert recovered.size() == 1;
+        assert read(recovered.get("bucketcomplete")) == 1000;
+        // The temporary file of the unfinished block was deleted
+        assert dataFiles().length == 1;
+        restarted.shutdown();
+
+        System.out.println("DiskJournalTest.testRecoverAfterCrash() passed");
+    }
+
+    @Test
+    void testTornRecord() throws IOException {
+        DiskManager manager = newDiskManager(true);
+        write(manager, "complete", 1000);
+
+        // A crash leaves a record with an unknown operation at the end of the log
+        File[] logs = journalFolder().listFiles((dir, name) -> name.endsWith(".log"));
+        assert logs.length == 1;
+        try (FileOutputStream out = new FileOutputStream(logs[0], true)) {
+            out.write(new byte[]{(byte) 0x7F, 0, 4, 'n', 'a', 'm', 'e'});
+        }
+
+        DiskManager restarted = newDiskManager(true);
+        HashMap<String, DiskFile> recovered = restarted.initiateRecovery();
+        assert recovered.size() == 1;
+        assert read(recovered.get("bucketcomplete")) == 1000;
+        restarted.shutdown();
+
+        System.out.println("DiskJournalTest.testTornRecord() passed");
+    }
+
+    @Test
+    void testJournalWithoutRecovery() throws IOException {
+        DiskManager manager = newDiskManager(true);
+        write(manager, "first", 1000);
+        manager.shutdown();
+        assert new DiskJournal(journalFolder().getPath(), 3).exists();
+
+        // Without a recovery the journal is discarded and not kept
+        manager = newDiskManager(false);
+        assert !new DiskJournal(journalFolder().getPath(), 3).exists();
+        write(manager, "second", 2000);
+        manager.shutdown();
+        assert !new DiskJournal(journalFolder().getPath(), 3).exists();
+
+        // The next recovery scans the volume and finds the blocks of both runs
+        manager = newDiskManager(true);
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        assert recovered.size() == 2;
+        assert read(recovered.get("bucketfirst")) == 1000;
+        assert read(recovered.get("bucketsecond")) == 2000;
+        manager.shutdown();
+
+        System.out.println("DiskJournalTest.testJournalWithoutRecovery() passed");
+    }
+
+    private DiskManager newDiskManager(boolean recovery) {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.CACHE_RECOVERY_ACTIVATE_KEY, recovery);
+        configuration.addProperty(ServerConfigurations.CACHE_DISK_JOURNAL_ENABLED_KEY, true);
+        configuration.addProperty(ServerConfigurations.CACHE_DISK_JOURNAL_SNAPSHOT_RECORDS_KEY, 3);
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        folder.resolve("data").toFile().mkdirs();
+        folder.resolve("state").toFile().mkdirs();
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        diskSettings.put(0, new StoreSettings(folder.resolve("data").toString(), folder.resolve("state").toString(),
+                new UsageStats(1000000)));
+        return new DiskManager(diskSettings, configuration, notifier);
+    }
+
+    private DiskFile write(DiskManager manager, String key, int length) throws IOException {
+        DiskFile file = manager.create("bucket", key);
+        MultiBlockOutputStream out = file.getOutputStream();
+        out.write(new byte[length], 0, length);
+        out.close();
+        file.setVersion(1);
+        file.stateComplete();
+        return file;
+    }
+
+    private int read(DiskFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return in.readAllBytes().length;
+        }
+    }
+
+    private File journalFolder() {
+        return folder.resolve("state").resolve("journal").toFile();
+    }
+
+    private File[] dataFiles() {
+        return folder.resolve("data").toFile().listFiles();
+    }
+}
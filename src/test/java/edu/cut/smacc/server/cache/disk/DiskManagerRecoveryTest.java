@@ -0,0 +1,85 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+
+public class DiskManagerRecoveryTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testRecoverVolumesInParallel() throws IOException {
+        DiskManager manager = newDiskManager();
+        for (int i = 0; i < 10; i++)
+            write(manager, "object" + i, 1, 100 + i);
+        write(manager, "object", 1, 100);
+        manager.shutdown();
+
+        // A server that did not recover leaves the old version of an object on the other volume
+        manager = newDiskManager();
+        manager.create("bucket", "unused");
+        write(manager, "object", 2, 200);
+        manager.shutdown();
+
+        manager = newDiskManager();
+        assert manager.getRecoveredVolumes() == 0;
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        assert manager.getRecoveredVolumes() == 2;
+        assert manager.getRecoveredFiles() == 12;
+        assert recovered.size() == 11;
+        for (int i = 0; i < 10; i++)
+            assert read(recovered.get("bucketobject" + i)) == 100 + i;
+
+        // The newest version is kept and the other one is deleted
+        DiskFile file = recovered.get("bucketobject");
+        assert file.getVersion() == 2;
+        assert manager.getFile("bucket", "object") == file;
+        assert read(file) == 200;
+        assert manager.getReportedUsage() == 200 + 10 * 100 + 45;
+        manager.shutdown();
+
+        System.out.println("DiskManagerRecoveryTest.testRecoverVolumesInParallel() passed");
+    }
+
+    private DiskManager newDiskManager() {
+        Configuration configuration = new Configuration();
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            folder.resolve("data" + i).toFile().mkdirs();
+            folder.resolve("state" + i).toFile().mkdirs();
+            diskSettings.put(i, new StoreSettings(folder.resolve("data" + i).toString(),
+                    folder.resolve("state" + i).toString(), new UsageStats(1000000)));
+        }
+        return new DiskManager(diskSettings, configuration, notifier);
+    }
+
+    private void write(DiskManager manager, String key, long version, int length) throws IOException {
+        DiskFile file = manager.create("bucket", key);
+        MultiBlockOutputStream out = file.getOutputStream();
+        out.write(new byte[length], 0, length);
+        out.close();
+        file.setVersion(version);
+        file.stateComplete();
+    }
+
+    private int read(DiskFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return in.readAllBytes().length;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edu.cut.smacc.server.cache.disk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedBlockCacheTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testEvictLeastRecentlyRead() throws IOException {
+        MappedBlockCache cache = new MappedBlockCache(250);
+        File first = block("first", 100, 1);
+        File second = block("second", 100, 2);
+        File third = block("third", 100, 3);
+
+        try (InputStream in = cache.open(first, 100)) {
+            assert in.skip(10) == 10;
+            assert in.read() == 11;
+            assert in.readAllBytes().length == 89;
+            assert in.read() == -1;
+        }
+        cache.open(second, 100).close();
+        cache.open(first, 100).close();
+        assert cache.getHits() == 1 && cache.getMisses() == 2;
+        assert cache.getMappedBytes() == 200;
+
+        // The second block is the least recently read
+        cache.open(third, 100).close();
+        assert cache.getMappedBytes() == 200;
+        cache.open(first, 100).close();
+        assert cache.getHits() == 2;
+        cache.open(second, 100).close();
+        assert cache.getMisses() == 4;
+
+        // A block larger than the capacity is read from its file
+        assert cache.open(block("large", 300, 4), 300) == null;
+
+        System.out.println("MappedBlockCacheTest.testEvictLeastRecentlyRead() passed");
+    }
+
+    @Test
+    void testInvalidateWhileRead() throws IOException {
+        MappedBlockCache cache = new MappedBlockCache(1000);
+        File file = block("block", 100, 5);
+
+        InputStream in = cache.open(file, 100);
+        cache.invalidate(file);
+        assert cache.getMappedBytes() == 0;
+        // The mapping is kept until its reader is closed
+        byte[] data = in.readAllBytes();
+        assert data.length == 100 && data[99] == 104;
+        in.close();
+        try {
+            in.read();
+            assert false;
+        } catch (IOException e) {
+            // expected: the mapping may be gone
+        }
+
+        cache.open(file, 100).close();
+        assert cache.getMisses() == 2;
+        cache.clear();
+        assert cache.getMappedBytes() == 0;
+
+        System.out.println("MappedBlockCacheTest.testInvalidateWhileRead() passed");
+    }
+
+    private File block(String name, int length, int first) throws IOException {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+            data[i] = (byte) (first + i);
+        return Files.write(folder.resolve(name), data).toFile();
+    }
+}
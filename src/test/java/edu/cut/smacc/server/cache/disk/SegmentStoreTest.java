@@ -0,0 +1,169 @@
+package edu.cut.smacc.server.cache.disk;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.MultiBlockOutputStream;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+public class SegmentStoreTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testWriteAndRecover() throws IOException {
+        DiskManager manager = newDiskManager();
+        DiskFile file = write(manager, "key", data(1000, 1));
+        write(manager, "other", data(3000, 2));
+        assert read(file).length == 1000;
+        // Both blocks are records of the same segment file
+        assert segmentFiles().length == 1;
+        assert manager.getDiskReportedUsage(0) == 4000;
+        manager.shutdown();
+
+        manager = newDiskManager();
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        assert recovered.size() == 2;
+        byte[] restored = read(recovered.get("bucketkey"));
+        assert Arrays.equals(restored, data(1000, 1));
+        assert recovered.get("bucketother").isComplete();
+        assert manager.getDiskReportedUsage(0) == 4000;
+        manager.shutdown();
+
+        System.out.println("SegmentStoreTest.testWriteAndRecover() passed");
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        DiskManager manager = newDiskManager();
+        DiskFile deleted = write(manager, "deleted", data(3000, 1));
+        DiskFile live = write(manager, "live", data(1000, 2));
+        long size = segmentFiles()[0].length();
+
+        // Less than half of the segment is dead
+        assert manager.compactSegments() == 0;
+        deleted.delete();
+        assert manager.getDiskReportedUsage(0) == 1000;
+        assert manager.compactSegments() == 1;
+
+        // The live block moved to a new segment and the old one was deleted
+        File[] files = segmentFiles();
+        assert files.length == 1;
+        assert files[0].length() < size - 3000;
+        assert Arrays.equals(read(live), data(1000, 2));
+        manager.shutdown();
+
+        // Only the moved block is recovered
+        manager = newDiskManager();
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        assert recovered.size() == 1;
+        assert Arrays.equals(read(recovered.get("bucketlive")), data(1000, 2));
+        manager.shutdown();
+
+        System.out.println("SegmentStoreTest.testCompaction() passed");
+    }
+
+    @Test
+    void testRecoverWhileSourceSegmentSurvives() throws IOException {
+        DiskManager manager = newDiskManager();
+        DiskFile deleted = write(manager, "deleted", data(3000, 1));
+        DiskFile live = write(manager, "live", data(1000, 2));
+        DiskFile gone = write(manager, "gone", data(500, 3));
+        deleted.delete();
+
+        // A reader keeps the source segment after the compaction, as would a crash
+        InputStream held = live.getInputStream();
+        assert manager.compactSegments() == 1;
+        assert segmentFiles().length == 2;
+        gone.delete();
+
+        DiskManager restarted = newDiskManager();
+        HashMap<String, DiskFile> recovered = restarted.initiateRecovery();
+        assert recovered.size() == 1;
+        assert Arrays.equals(read(recovered.get("bucketlive")), data(1000, 2));
+        assert recovered.get("bucketlive").getBlockIndex().getExtents().size() == 1;
+        assert restarted.getDiskReportedUsage(0) == 1000;
+        held.close();
+        restarted.shutdown();
+        manager.shutdown();
+
+        System.out.println("SegmentStoreTest.testRecoverWhileSourceSegmentSurvives() passed");
+    }
+
+    @Test
+    void testRecoverNewestVersion() throws IOException {
+        DiskManager manager = newDiskManager();
+        write(manager, "key", data(1000, 1), 1);
+        manager.shutdown();
+
+        // A server that did not recover writes the newer version to a later segment
+        manager = newDiskManager();
+        write(manager, "key", data(2000, 2), 2);
+        manager.shutdown();
+
+        manager = newDiskManager();
+        HashMap<String, DiskFile> recovered = manager.initiateRecovery();
+        DiskFile file = recovered.get("bucketkey");
+        assert file.getVersion() == 2;
+        assert Arrays.equals(read(file), data(2000, 2));
+        assert manager.getDiskReportedUsage(0) == 2000;
+        manager.shutdown();
+
+        System.out.println("SegmentStoreTest.testRecoverNewestVersion() passed");
+    }
+
+    private DiskManager newDiskManager() {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.CACHE_DISK_STORAGE_ENGINE_KEY, "segment");
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(EvictionItemPolicy.getInstance(configuration)));
+        HashMap<Integer, StoreSettings> diskSettings = new HashMap<>();
+        diskSettings.put(0, new StoreSettings(folder.resolve("data").toString(), folder.resolve("state").toString(),
+                new UsageStats(1000000)));
+        return new DiskManager(diskSettings, configuration, notifier);
+    }
+
+    private DiskFile write(DiskManager manager, String key, byte[] data) throws IOException {
+        return write(manager, key, data, 1);
+    }
+
+    private DiskFile write(DiskManager manager, String key, byte[] data, long version) throws IOException {
+        DiskFile file = manager.create("bucket", key);
+        MultiBlockOutputStream out = file.getOutputStream();
+        out.write(data, 0, data.length);
+        out.close();
+        file.setVersion(version);
+        file.stateComplete();
+        return file;
+    }
+
+    private byte[] read(DiskFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private File[] segmentFiles() {
+        return folder.resolve("data").toFile().listFiles((dir, name) -> name.endsWith(".seg"));
+    }
+
+    private static byte[] data(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+            data[i] = (byte) (i * 31 + seed);
+        return data;
+    }
+}
@@ -117,6 +117,45 @@ public class CachePolicyNotifierTest {
         System.out.println("CachePolicyNotifierTest.testNotifyOperations() passed");
     }
 
+    @Test
+    void testAsyncNotifyItemOperations() throws IOException, InterruptedException {
+        Configuration configuration = new Configuration();
+        EvictionItemPolicy policy = EvictionItemPolicy.getInstance(configuration);
+        ArrayList<CachePolicy> policies = new ArrayList<>();
+        policies.add(policy);
+
+        // A small buffer so that the producers have to wait for the consumer
+        CachePolicyNotifier notifier = CachePolicyNotifier.createAsyncNotifierFromPoliciesList(policies, 8, 4);
+        assert notifier.isAsync();
+        CacheFile file = mockMemoryFileCreation(notifier);
+
+        notifier.notifyItemAddition(file, StoreOptionType.MEMORY_ONLY);
+        notifier.flush();
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file;
+
+        // Concurrent accesses are sampled or dropped but never block or reorder the deletion
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++)
+                    notifier.notifyItemAccess(file, StoreOptionType.MEMORY_ONLY);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        notifier.notifyItemDeletion(file, StoreOptionType.MEMORY_ONLY);
+        notifier.flush();
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+
+        // After shutdown the events are delivered synchronously
+        notifier.shutdown();
+        notifier.notifyItemAddition(file, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file;
+
+        System.out.println("CachePolicyNotifierTest.testAsyncNotifyItemOperations() passed");
+    }
+
     private CacheFile mockDiskFileCreation(CachePolicyNotifier notifier) throws IOException {
         StoreSettings diskSettings = new StoreSettings("test", "test", new UsageStats());
         HashMap<Integer, StoreSettings> diskSettingsMap = new HashMap<>();
@@ -12,15 +12,26 @@ import edu.cut.smacc.server.cache.memory.MemoryBlock;
 import edu.cut.smacc.server.cache.memory.MemoryManager;
 import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 
 public class AdmissionAlwaysTest {
 
+    @TempDir
+    Path folder;
+
+    private String tierFolder(String name) throws IOException {
+        return Files.createDirectories(folder.resolve(name)) + File.separator;
+    }
+
     @Test
     void testAdmit() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException, IOException {
         Configuration conf = new Configuration();
@@ -32,10 +43,11 @@ public class AdmissionAlwaysTest {
                 "MEMORYDISK");
         // memory capacity is 100
         conf.addProperty(ServerConfigurations.CACHE_MEMORY_CAPACITY_KEY, 100);
+        conf.addProperty(ServerConfigurations.CACHE_MEMORY_STATE_KEY, tierFolder("MemState"));
         // disk 1 capacity is 1000
-        conf.addProperty("cache.disk.volume.0", "cache/DiskData1/, cache/DiskState1, 1000");
+        conf.addProperty("cache.disk.volume.0", tierFolder("DiskData1") + ", " + tierFolder("DiskState1") + ", 1000");
         // disk 2 capacity is 1200
-        conf.addProperty("cache.disk.volume.1", "cache/DiskData2/, cache/DiskState2/, 1200");
+        conf.addProperty("cache.disk.volume.1", tierFolder("DiskData2") + ", " + tierFolder("DiskState2") + ", 1200");
         AdmissionPolicy policy = new AdmissionAlways();
 
         // Memory is there by default, we only have to add disk explicitly
@@ -0,0 +1,101 @@
+package edu.cut.smacc.server.cache.policy.eviction;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemARC;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRU;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class EvictionItemARCTest {
+
+    @Test
+    void testGhostHit() {
+        EvictionItemPolicy policy = new EvictionItemARC();
+        policy.initialize(new Configuration());
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+
+        CacheFile file1 = manager.create("bucket", "key1");
+        CacheFile file2 = manager.create("bucket", "key2");
+        CacheFile file3 = manager.create("bucket", "key3");
+        policy.onItemAdd(file1, StoreOptionType.MEMORY_ONLY);
+        policy.onItemAdd(file2, StoreOptionType.MEMORY_ONLY);
+        policy.onItemAdd(file3, StoreOptionType.MEMORY_ONLY);
+
+        // Evict key1 from T1, so it becomes a ghost in B1
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file1;
+        policy.onItemDelete(file1, StoreOptionType.MEMORY_ONLY);
+
+        // Cached again (as a new file), key1 goes to T2 and the items of T1 are evicted first
+        CacheFile file1Again = manager.create("bucket", "key1");
+        policy.onItemAdd(file1Again, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file2;
+        policy.onItemDelete(file2, StoreOptionType.MEMORY_ONLY);
+
+        policy.reset();
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+
+        System.out.println("EvictionItemARCTest.testGhostHit() passed");
+    }
+
+    @Test
+    void testHitRatio() {
+        // Skewed requests for 1000 objects mixed with a loop over 300 other objects
+        Random random = new Random(7);
+        int[] trace = new int[50000];
+        for (int i = 0; i < trace.length; i++) {
+            if (i % 2 == 0)
+                trace[i] = (int) Math.min(999, Math.abs(random.nextGaussian()) * 40);
+            else
+                trace[i] = 1000 + (i / 2) % 300;
+        }
+
+        EvictionItemPolicy arc = new EvictionItemARC();
+        arc.initialize(new Configuration());
+        EvictionItemPolicy lru = new EvictionItemLRU();
+        lru.initialize(new Configuration());
+
+        double arcRatio = hitRatio(arc, trace, 100);
+        double lruRatio = hitRatio(lru, trace, 100);
+        assert arcRatio > lruRatio : "ARC " + arcRatio + " LRU " + lruRatio;
+
+        System.out.println("EvictionItemARCTest.testHitRatio() passed");
+    }
+
+    private double hitRatio(EvictionItemPolicy policy, int[] trace, int cacheSize) {
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+        CacheFile[] files = new CacheFile[1300];
+        Set<CacheFile> cached = new HashSet<>();
+        int hits = 0;
+        for (int object : trace) {
+            if (files[object] == null)
+                files[object] = manager.create("bucket", "object-" + object);
+            CacheFile file = files[object];
+            if (cached.contains(file)) {
+                hits++;
+                policy.onItemAccess(file, StoreOptionType.MEMORY_ONLY);
+                continue;
+            }
+            policy.onItemAdd(file, StoreOptionType.MEMORY_ONLY);
+            cached.add(file);
+            while (cached.size() > cacheSize) {
+                CacheFile victim = policy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
+                policy.onItemDelete(victim, StoreOptionType.MEMORY_ONLY);
+                cached.remove(victim);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+}
@@ -14,20 +14,26 @@ import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
 import edu.cut.smacc.server.cache.policy.eviction.trigger.EvictionTriggerPolicy;
 import edu.cut.smacc.utils.collections.WeightedEXDNode;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 public class EvictionItemEXDTest {
 
+    @TempDir
+    Path folder;
+
     @Test
     void testEvict() throws IOException, InterruptedException {
         // Creating a memory file with no parent
         String bucket = "test-bucket";
-        String mainFolder = "";
-        String stateFolder = "";
+        String mainFolder = folder + File.separator;
+        String stateFolder = folder + File.separator;
         UsageStats usageStats = new UsageStats(1124);
         StoreSettings settings = new StoreSettings(mainFolder, stateFolder, usageStats);
 
@@ -0,0 +1,85 @@
+package edu.cut.smacc.server.cache.policy.eviction;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemGDSF;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EvictionItemGDSFTest {
+
+    @Test
+    void testEvict() {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.GDSF_LATENCY_COST_KEY, false);
+        EvictionItemPolicy policy = new EvictionItemGDSF();
+        policy.initialize(configuration);
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+        assert policy.isAccessThreadSafe();
+
+        CacheFile small = newFile(manager, "small", 1000);
+        CacheFile large = newFile(manager, "large", 100000);
+        CacheFile medium = newFile(manager, "medium", 10000);
+        notifier.notifyItemAddition(small, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAddition(large, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAddition(medium, StoreOptionType.MEMORY_ONLY);
+
+        // The largest item goes first
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == large;
+        notifier.notifyItemDeletion(large, StoreOptionType.MEMORY_ONLY);
+
+        // Accessed 10 times, the medium item is worth more than the small one
+        for (int i = 0; i < 10; i++)
+            notifier.notifyItemAccess(medium, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == small;
+        notifier.notifyItemDeletion(small, StoreOptionType.MEMORY_ONLY);
+
+        // The clock is now at the priority of the small item, so a new small item is worth
+        // more than the medium one (1/1000 + 1/1000 > 11/10000)
+        CacheFile newSmall = newFile(manager, "new-small", 1000);
+        notifier.notifyItemAddition(newSmall, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == medium;
+
+        notifier.notifyPolicyReset();
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+        assert policy.getItemToEvict(StoreOptionType.DISK_ONLY) == null;
+
+        System.out.println("EvictionItemGDSFTest.testEvict() passed");
+    }
+
+    @Test
+    void testByteHitRatio() {
+        // With a size exponent of 0 the sizes are ignored and the most frequent item stays
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.GDSF_LATENCY_COST_KEY, false);
+        configuration.addProperty(ServerConfigurations.GDSF_SIZE_EXPONENT_KEY, 0.0);
+        EvictionItemPolicy policy = new EvictionItemGDSF();
+        policy.initialize(configuration);
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+
+        CacheFile small = newFile(manager, "small", 1000);
+        CacheFile large = newFile(manager, "large", 100000);
+        notifier.notifyItemAddition(small, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAddition(large, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAccess(large, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == small;
+
+        System.out.println("EvictionItemGDSFTest.testByteHitRatio() passed");
+    }
+
+    private CacheFile newFile(MemoryManager manager, String key, long size) {
+        CacheFile file = manager.create("bucket", key);
+        file.setActualSize(size);
+        return file;
+    }
+}
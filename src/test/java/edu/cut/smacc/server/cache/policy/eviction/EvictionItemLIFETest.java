@@ -13,20 +13,26 @@ import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLIFE;
 import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
 import edu.cut.smacc.server.cache.policy.eviction.trigger.EvictionTriggerPolicy;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 public class EvictionItemLIFETest {
 
+    @TempDir
+    Path folder;
+
     @Test
     void testEvict() throws IOException {
         // Creating a memory file with no parent
         String bucket = "test-bucket";
-        String mainFolder = "";
-        String stateFolder = "";
+        String mainFolder = folder + File.separator;
+        String stateFolder = folder + File.separator;
         UsageStats usageStats = new UsageStats(1124);
         StoreSettings settings = new StoreSettings(mainFolder, stateFolder, usageStats);
 
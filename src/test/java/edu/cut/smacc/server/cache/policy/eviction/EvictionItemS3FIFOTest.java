@@ -0,0 +1,95 @@
+package edu.cut.smacc.server.cache.policy.eviction;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemS3FIFO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EvictionItemS3FIFOTest {
+
+    @Test
+    void testEvict() {
+        EvictionItemPolicy policy = new EvictionItemS3FIFO();
+        policy.initialize(new Configuration());
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+        assert policy.isAccessThreadSafe();
+
+        CacheFile file1 = manager.create("bucket", "key1");
+        CacheFile file2 = manager.create("bucket", "key2");
+        CacheFile file3 = manager.create("bucket", "key3");
+        notifier.notifyItemAddition(file1, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAddition(file2, StoreOptionType.MEMORY_ONLY);
+        notifier.notifyItemAddition(file3, StoreOptionType.MEMORY_ONLY);
+
+        // key1 was accessed while in the small queue, so it moves to main and key2 is evicted
+        notifier.notifyItemAccess(file1, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file2;
+        // The victim stays the same until it is deleted
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file2;
+        notifier.notifyItemDeletion(file2, StoreOptionType.MEMORY_ONLY);
+
+        // key2 is a ghost now: cached again it goes to main, behind key1
+        CacheFile file2Again = manager.create("bucket", "key2");
+        notifier.notifyItemAddition(file2Again, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file3;
+        notifier.notifyItemDeletion(file3, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file1;
+        notifier.notifyItemDeletion(file1, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file2Again;
+
+        notifier.notifyPolicyReset();
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+        assert policy.getItemToEvict(StoreOptionType.DISK_ONLY) == null;
+
+        System.out.println("EvictionItemS3FIFOTest.testEvict() passed");
+    }
+
+    @Test
+    void testConcurrentHits() throws InterruptedException {
+        EvictionItemPolicy policy = new EvictionItemS3FIFO();
+        policy.initialize(new Configuration());
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+
+        CacheFile[] files = new CacheFile[100];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = manager.create("bucket", "key" + i);
+            notifier.notifyItemAddition(files[i], StoreOptionType.MEMORY_ONLY);
+        }
+
+        // Hits run without the policy monitor while the items are evicted
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++)
+                    notifier.notifyItemAccess(files[i % files.length], StoreOptionType.MEMORY_ONLY);
+            });
+            threads[t].start();
+        }
+        int evicted = 0;
+        while (true) {
+            CacheFile victim;
+            synchronized (policy) { // as the eviction manager does
+                victim = policy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
+            }
+            if (victim == null)
+                break;
+            notifier.notifyItemDeletion(victim, StoreOptionType.MEMORY_ONLY);
+            evicted++;
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assert evicted == files.length;
+
+        System.out.println("EvictionItemS3FIFOTest.testConcurrentHits() passed");
+    }
+}
@@ -0,0 +1,106 @@
+package edu.cut.smacc.server.cache.policy.eviction;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.CacheFile;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRU;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemPolicy;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemWTinyLFU;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class EvictionItemWTinyLFUTest {
+
+    private static final int CAPACITY = 10;
+
+    @Test
+    void testScanResistance() {
+        EvictionItemPolicy tinyLfu = new EvictionItemWTinyLFU();
+        tinyLfu.initialize(new Configuration());
+        EvictionItemPolicy lru = new EvictionItemLRU();
+        lru.initialize(new Configuration());
+
+        // The hot files survive a scan of files requested once with W-TinyLFU but not with LRU
+        assert runScan(tinyLfu) == 5;
+        assert runScan(lru) == 0;
+
+        System.out.println("EvictionItemWTinyLFUTest.testScanResistance() passed");
+    }
+
+    @Test
+    void testDeleteAndReset() {
+        EvictionItemPolicy policy = new EvictionItemWTinyLFU();
+        policy.initialize(new Configuration());
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+
+        CacheFile file1 = manager.create("bucket", "key1");
+        CacheFile file2 = manager.create("bucket", "key2");
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+
+        policy.onItemAdd(file1, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == file1;
+        assert policy.getItemToEvict(StoreOptionType.DISK_ONLY) == null;
+
+        policy.onItemAdd(file2, StoreOptionType.MEMORY_ONLY);
+        policy.onItemDelete(file1, StoreOptionType.MEMORY_ONLY);
+        policy.onItemDelete(file2, StoreOptionType.MEMORY_ONLY);
+        assert policy.getItemToEvict(StoreOptionType.MEMORY_ONLY) == null;
+
+        policy.onItemAdd(file1, StoreOptionType.DISK_ONLY);
+        policy.reset();
+        assert policy.getItemToEvict(StoreOptionType.DISK_ONLY) == null;
+
+        System.out.println("EvictionItemWTinyLFUTest.testDeleteAndReset() passed");
+    }
+
+    /**
+     * Cache 5 hot files accessed often, then scan 100 files with a cache of 10 items
+     *
+     * @return the number of hot files still cached after the scan
+     */
+    private int runScan(EvictionItemPolicy policy) {
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(List.of(policy));
+        MemoryManager manager = new MemoryManager(new StoreSettings("test", "test", new UsageStats()), notifier);
+        Set<CacheFile> cached = new HashSet<>();
+
+        CacheFile[] hot = new CacheFile[5];
+        for (int i = 0; i < hot.length; i++) {
+            hot[i] = manager.create("bucket", "hot-" + i);
+            request(policy, cached, hot[i]);
+        }
+        for (int round = 0; round < 5; round++)
+            for (CacheFile file : hot)
+                request(policy, cached, file);
+
+        for (int i = 0; i < 100; i++)
+            request(policy, cached, manager.create("bucket", "scan-" + i));
+
+        int survivors = 0;
+        for (CacheFile file : hot)
+            if (cached.contains(file))
+                survivors++;
+        return survivors;
+    }
+
+    private void request(EvictionItemPolicy policy, Set<CacheFile> cached, CacheFile file) {
+        if (cached.contains(file)) {
+            policy.onItemAccess(file, StoreOptionType.MEMORY_ONLY);
+            return;
+        }
+        policy.onItemAdd(file, StoreOptionType.MEMORY_ONLY);
+        cached.add(file);
+        while (cached.size() > CAPACITY) {
+            CacheFile victim = policy.getItemToEvict(StoreOptionType.MEMORY_ONLY);
+            policy.onItemDelete(victim, StoreOptionType.MEMORY_ONLY);
+            cached.remove(victim);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.cut.smacc.server.cache.policy.eviction;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cache.common.StoreOptionType;
+import edu.cut.smacc.server.cache.common.io.UsageListener;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.policy.eviction.trigger.ThresholdPercentageTrigger;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThresholdPercentageTriggerTest {
+
+    @Test
+    void testWatermarks() {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY, 90);
+        configuration.addProperty(ServerConfigurations.EVICTION_TRIGGER_POLICY_LOW_THRESHOLD_KEY, 70);
+        configuration.addProperty(ServerConfigurations.EVICTION_TRIGGER_POLICY_THRESHOLD_KEY + ".disk", 95);
+
+        ThresholdPercentageTrigger trigger = new ThresholdPercentageTrigger();
+        trigger.initialize(configuration);
+
+        UsageStats stats = new UsageStats(100);
+        stats.increment(80);
+        assert !trigger.triggerEviction(stats, null, StoreOptionType.MEMORY_ONLY);
+        assert trigger.continueEviction(stats, null, StoreOptionType.MEMORY_ONLY);
+
+        stats.increment(12);
+        assert trigger.triggerEviction(stats, null, StoreOptionType.MEMORY_ONLY);
+        assert !trigger.triggerEviction(stats, null, StoreOptionType.DISK_ONLY);
+
+        stats.decrement(25, 25);
+        assert !trigger.continueEviction(stats, null, StoreOptionType.MEMORY_ONLY);
+
+        System.out.println("ThresholdPercentageTriggerTest.testWatermarks() passed");
+    }
+
+    @Test
+    void testAllocationListener() throws InterruptedException {
+        UsageStats stats = new UsageStats(100);
+        AtomicInteger allocations = new AtomicInteger(0);
+        stats.setListener(usage -> allocations.incrementAndGet());
+
+        stats.increment(10);
+        stats.increment(10);
+        assert allocations.get() == 2;
+
+        // A waiting writer pokes the listener and is released by a decrement
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            stats.decrement(10, 10);
+        });
+        releaser.start();
+        long begin = System.currentTimeMillis();
+        stats.awaitRelease(5000);
+        assert System.currentTimeMillis() - begin < 5000;
+        assert allocations.get() == 3;
+        releaser.join();
+
+        System.out.println("ThresholdPercentageTriggerTest.testAllocationListener() passed");
+    }
+}
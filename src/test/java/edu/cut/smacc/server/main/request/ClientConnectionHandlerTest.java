@@ -0,0 +1,63 @@
+package edu.cut.smacc.server.main.request;
+
+import edu.cut.smacc.server.protocol.PutWindow;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+public class ClientConnectionHandlerTest {
+
+    private static final int CHUNK = 64 * 1024;
+    private static final int CHUNKS = 32;
+
+    @Test
+    void testWindowedGoingManualAck() throws Exception {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(listener.getInetAddress(), listener.getLocalPort())) {
+            Socket server = listener.accept();
+            server.setSoTimeout(10000);
+            client.setSoTimeout(10000);
+            ClientConnectionHandler handler = new ClientConnectionHandler(server, null, null, 1);
+
+            // The server goes manual after the first chunk while the client keeps sending its window
+            Thread serverThread = new Thread(() -> {
+                try {
+                    DataInputStream sin = new DataInputStream(server.getInputStream());
+                    int length = sin.readInt();
+                    sin.readInt();
+                    sin.readFully(new byte[length]);
+                    PutWindow.writeAck(new DataOutputStream(server.getOutputStream()), 1, length);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                handler.closeConnectionAfterDrain();
+            });
+            serverThread.start();
+
+            DataOutputStream cout = new DataOutputStream(client.getOutputStream());
+            byte[] chunk = new byte[CHUNK];
+            for (int i = 0; i < CHUNKS; i++) {
+                PutWindow.writeChunkHeader(cout, CHUNK, CHUNKS - i - 1);
+                cout.write(chunk);
+            }
+            cout.flush();
+
+            // The chunks in flight are discarded, and the client reads the ack to resend them
+            DataInputStream cin = new DataInputStream(client.getInputStream());
+            assert cin.read() == 1;
+            assert cin.readLong() == CHUNK;
+            assert cin.read() == -1;
+
+            client.close();
+            serverThread.join(10000);
+            assert !serverThread.isAlive();
+            assert server.isClosed();
+        }
+
+        System.out.println("ClientConnectionHandlerTest.testWindowedGoingManualAck() passed");
+    }
+}
@@ -0,0 +1,67 @@
+package edu.cut.smacc.server.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class PutWindowTest {
+
+    @Test
+    void testAckCadence() {
+        // A window of 8 is acked every 4 chunks while the client has credits left
+        PutWindow window = new PutWindow(8);
+        boolean[] expected = {false, false, false, true, false, false, false, true};
+        for (boolean ack : expected)
+            assert window.chunkReceived(4) == ack;
+
+        // The chunk after which the client waits is acked at once
+        assert !window.chunkReceived(7);
+        assert window.chunkReceived(0);
+        assert !window.chunkReceived(7);
+
+        // An out of band ack restarts the count
+        window.acked();
+        assert !window.chunkReceived(7) && !window.chunkReceived(6) && !window.chunkReceived(5);
+        assert window.chunkReceived(4);
+
+        // A window of 1 acks every chunk
+        PutWindow single = new PutWindow(0);
+        assert single.getWindow() == 1;
+        assert single.chunkReceived(1) && single.chunkReceived(1);
+
+        System.out.println("PutWindowTest.testAckCadence() passed");
+    }
+
+    @Test
+    void testCumulativeAcks() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        PutWindow window = new PutWindow(4);
+
+        // The client sends 5 chunks of 100 bytes with the credits left after each one, the last one waits
+        long received = 0;
+        int[] credits = {3, 2, 1, 0, 0};
+        for (int c : credits) {
+            received += 100;
+            if (window.chunkReceived(c))
+                PutWindow.writeAck(out, 0, received);
+        }
+        PutWindow.writeAck(out, 1, received);
+        assert bytes.size() == 4 * (Byte.BYTES + Long.BYTES);
+
+        // Each ack covers all the bytes received before it
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        long[] acked = {200, 400, 500};
+        for (long a : acked) {
+            assert in.readByte() == 0;
+            assert in.readLong() == a;
+        }
+        assert in.readByte() == 1 && in.readLong() == 500;
+
+        System.out.println("PutWindowTest.testCumulativeAcks() passed");
+    }
+}
@@ -0,0 +1,198 @@
+package edu.cut.smacc.server.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SessionFrameTest {
+
+    private static DataInputStream frames(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    void testRequestFrames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream connectionOut = new DataOutputStream(bytes);
+        byte[] data = new byte[SessionFrame.MAX_PAYLOAD * 2 + 100];
+        new Random(1).nextBytes(data);
+
+        SessionFrameOutputStream out = new SessionFrameOutputStream(connectionOut, 7, false);
+        out.write(data, 0, 10);
+        out.write(data, 10, data.length - 10);
+        out.close();
+
+        // The first frame opens the request, the request stream has no END frame
+        DataInputStream in = frames(bytes);
+        SessionFrameInputStream request = new SessionFrameInputStream(null, 0);
+        SessionFrame frame = SessionFrame.read(in);
+        assert frame.getRequestId() == 7 && frame.getType() == SessionFrame.OPEN;
+        request.offer(frame.getPayload());
+        int frameCount = 1;
+        while (in.available() > 0) {
+            frame = SessionFrame.read(in);
+            assert frame.getType() == SessionFrame.DATA;
+            assert frame.getPayload().length <= SessionFrame.MAX_PAYLOAD;
+            request.offer(frame.getPayload());
+            frameCount++;
+        }
+        assert frameCount == 3;
+        request.end(null);
+        assert request.available() == data.length;
+        assert Arrays.equals(request.readAllBytes(), data);
+
+        try {
+            out.write(1);
+            assert false;
+        } catch (IOException expected) {
+        }
+
+        System.out.println("SessionFrameTest.testRequestFrames() passed");
+    }
+
+    @Test
+    void testResponseFrames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SessionFrameOutputStream out = new SessionFrameOutputStream(new DataOutputStream(bytes), 3, true);
+        out.write(42);
+        out.close();
+
+        DataInputStream in = frames(bytes);
+        SessionFrame frame = SessionFrame.read(in);
+        assert frame.getType() == SessionFrame.DATA && frame.getPayload().length == 1;
+        assert SessionFrame.read(in).getType() == SessionFrame.END;
+
+        // An abandoned response sends nothing more
+        bytes.reset();
+        out = new SessionFrameOutputStream(new DataOutputStream(bytes), 4, true);
+        out.abandon();
+        out.close();
+        assert bytes.size() == 0;
+
+        System.out.println("SessionFrameTest.testResponseFrames() passed");
+    }
+
+    @Test
+    void testEndOfStream() throws IOException {
+        // A paired output stream is flushed before the input stream waits
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SessionFrameOutputStream out = new SessionFrameOutputStream(new DataOutputStream(bytes), 1, false);
+        SessionFrameInputStream in = new SessionFrameInputStream(out, 10);
+        out.write(new byte[] { 1, 2, 3 });
+        try {
+            in.read();
+            assert false;
+        } catch (java.net.SocketTimeoutException expected) {
+        }
+        assert bytes.size() > 0 && !out.hasPending();
+
+        // The session lost while the request waits
+        in.offer(new byte[] { 5 });
+        in.end("Session lost");
+        assert in.read() == 5;
+        try {
+            in.read();
+            assert false;
+        } catch (IOException expected) {
+            assert expected.getMessage().equals("Session lost");
+        }
+
+        try {
+            SessionFrame.read(new DataInputStream(new ByteArrayInputStream(new byte[3])));
+            assert false;
+        } catch (EOFException expected) {
+        }
+
+        System.out.println("SessionFrameTest.testEndOfStream() passed");
+    }
+
+    @Test
+    void testWindowReturned() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SessionFrameOutputStream out = new SessionFrameOutputStream(new DataOutputStream(bytes), 5, true);
+        SessionFrameInputStream in = new SessionFrameInputStream(out, 0);
+        for (int i = 0; i < SessionFrameInputStream.MAX_BUFFERED_FRAMES; i++)
+            in.offer(new byte[] { (byte) i });
+
+        // Half a window read is returned to the sender
+        for (int i = 0; i < SessionFrameInputStream.MAX_BUFFERED_FRAMES / 2; i++)
+            assert in.read() == i;
+        SessionFrame frame = SessionFrame.read(frames(bytes));
+        assert frame.getRequestId() == 5 && frame.getType() == SessionFrame.WINDOW;
+        assert frame.getWindowFrames() == SessionFrameInputStream.MAX_BUFFERED_FRAMES / 2;
+
+        // A closed stream returns the frames it drops, buffered or late
+        bytes.reset();
+        in.close();
+        in.offer(new byte[] { 1 });
+        DataInputStream returned = frames(bytes);
+        assert SessionFrame.read(returned).getWindowFrames() == SessionFrameInputStream.MAX_BUFFERED_FRAMES / 2;
+        assert SessionFrame.read(returned).getWindowFrames() == 1;
+        assert in.available() == 0 && in.read() == -1;
+
+        System.out.println("SessionFrameTest.testWindowReturned() passed");
+    }
+
+    @Test
+    void testWindowOverrun() throws IOException {
+        // The reader of the session never waits: a sender beyond the window fails its own stream
+        SessionFrameInputStream in = new SessionFrameInputStream(null, 0);
+        for (int i = 0; i <= SessionFrameInputStream.MAX_BUFFERED_FRAMES; i++)
+            in.offer(new byte[] { (byte) i });
+        in.offer(new byte[] { 100 });
+        try {
+            in.read();
+            assert false;
+        } catch (IOException expected) {
+            assert expected.getMessage().equals("Session flow control violated");
+        }
+
+        System.out.println("SessionFrameTest.testWindowOverrun() passed");
+    }
+
+    @Test
+    void testSenderWaitsForWindow() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SessionFrameOutputStream out = new SessionFrameOutputStream(new DataOutputStream(bytes), 2, false);
+        byte[] frame = new byte[SessionFrame.MAX_PAYLOAD];
+        for (int i = 0; i < SessionFrame.WINDOW_FRAMES; i++)
+            out.write(frame);
+
+        // The writer of the request waits until the other side returns a frame of the window
+        Thread writer = new Thread(() -> {
+            try {
+                out.write(frame);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        writer.join(300);
+        assert writer.isAlive();
+        out.grant(1);
+        writer.join(5000);
+        assert !writer.isAlive();
+
+        // An abandoned request fails the waiting writer
+        Thread abandoned = new Thread(() -> {
+            try {
+                out.write(frame);
+                assert false;
+            } catch (IOException expected) {
+            }
+        });
+        abandoned.start();
+        out.abandon();
+        abandoned.join(5000);
+        assert !abandoned.isAlive();
+
+        System.out.println("SessionFrameTest.testSenderWaitsForWindow() passed");
+    }
+}
@@ -13,11 +13,13 @@ import edu.cut.smacc.server.statistics.type.performance.PerformanceStatistics;
 import edu.cut.smacc.server.statistics.type.general.TierGeneralStatistics;
 import edu.cut.smacc.utils.BasicGlobalTimer;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
@@ -168,6 +170,33 @@ public class StatisticsManagerTest {
         System.out.println("StatisticsManagerTest.testCollectStatisticsBeforeOutput() passed");
     }
 
+    @Test
+    void testStatisticsFileWithOtherColumns(@TempDir Path folder) throws IOException {
+        // A file written with other columns is set aside instead of appended to
+        Path statsFile = folder.resolve("statistics.tsv");
+        Files.writeString(statsFile, "TIMESTAMP\tOLD_COLUMN\n1\t2\n");
+        Configuration configuration = new Configuration();
+        StatisticsManager manager = new StatisticsManager(configuration, new TierGeneralStatistics(), null,
+                new PerformanceStatistics(), statsFile.toString());
+        assert !manager.outputStatistics();
+        assert manager.outputStatistics();
+
+        List<String> lines = Files.readAllLines(statsFile);
+        assert lines.size() == 2;
+        assert lines.get(0).startsWith("TIMESTAMP\t") && lines.get(0).contains("_P99(us)");
+        assert lines.get(0).split("\t").length == lines.get(1).split("\t").length;
+        try (var rotated = Files.list(folder)) {
+            assert rotated.filter(file -> !file.equals(statsFile))
+                    .anyMatch(file -> file.getFileName().toString().startsWith("statistics.tsv."));
+        }
+
+        // The same columns are appended
+        assert manager.outputStatistics();
+        assert Files.readAllLines(statsFile).size() == 3;
+
+        System.out.println("StatisticsManagerTest.testStatisticsFileWithOtherColumns() passed");
+    }
+
     private void deleteFile() {
         try {
             Files.delete(Paths.get("statistics_test.tsv"));
@@ -146,4 +146,36 @@ public class TierGeneralStatisticsTest {
         System.out.println("TierStatisticsTest.testResetStats() passed.");
     }
 
+    @Test
+    void testConcurrentResetStats() throws InterruptedException {
+        TierGeneralStatistics statistics = new TierGeneralStatistics();
+        int threads = 4;
+        int increments = 100000;
+
+        // Reset the stats while other threads increment them; no increment should be lost
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < increments; i++)
+                    statistics.incrementStat(StatisticType.HIT_COUNT);
+            });
+            writers[t].start();
+        }
+        long counted = 0;
+        for (int r = 0; r < 100; r++) {
+            counted += statistics.getStat(StatisticType.HIT_COUNT).longValue();
+            statistics.resetStats();
+            counted -= statistics.getStat(StatisticType.HIT_COUNT).longValue();
+        }
+        for (Thread writer : writers)
+            writer.join();
+        counted += statistics.getStat(StatisticType.HIT_COUNT).longValue();
+
+        assert statistics.getTotalStat(StatisticType.HIT_COUNT) == (long) threads * increments;
+        // The increments between reading a value and resetting it are in the next interval
+        assert counted <= statistics.getTotalStat(StatisticType.HIT_COUNT);
+
+        System.out.println("TierStatisticsTest.testConcurrentResetStats() passed.");
+    }
+
 }
@@ -0,0 +1,34 @@
+package edu.cut.smacc.server.statistics.latency;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramsTest {
+
+    @Test
+    void testSnapshot() {
+        LatencyHistograms.reset();
+        // 1..1000 microseconds
+        for (int i = 1; i <= 1000; i++)
+            LatencyHistograms.record(LatencyType.GET_MEMORY_HIT, i * 1000L);
+        LatencyHistograms.record(LatencyType.CLOUD_GET, -1); // ignored
+
+        LatencySnapshot snapshot = LatencyHistograms.snapshot();
+        assert snapshot.getCount(LatencyType.GET_MEMORY_HIT) == 1000;
+        assert snapshot.getCount(LatencyType.CLOUD_GET) == 0;
+        assert Math.abs(snapshot.getPercentileMicros(LatencyType.GET_MEMORY_HIT, 50) - 500) < 1;
+        assert Math.abs(snapshot.getPercentileMicros(LatencyType.GET_MEMORY_HIT, 99) - 990) < 1;
+        assert Math.abs(snapshot.getMaxMicros(LatencyType.GET_MEMORY_HIT) - 1000) < 1;
+        assert snapshot.getPercentileMicros(LatencyType.CLOUD_GET, 99) == 0;
+        assert snapshot.row().size() == LatencySnapshot.header().size();
+        assert snapshot.toString().contains("GET_MEMORY_HIT");
+        assert !snapshot.toString().contains("CLOUD_GET");
+
+        // The next snapshot only has the latencies of its own interval
+        LatencyHistograms.record(LatencyType.PUT, 5000);
+        snapshot = LatencyHistograms.snapshot();
+        assert snapshot.getCount(LatencyType.GET_MEMORY_HIT) == 0;
+        assert snapshot.getCount(LatencyType.PUT) == 1;
+
+        System.out.println("LatencyHistogramsTest.testSnapshot() passed");
+    }
+}
@@ -0,0 +1,74 @@
+package edu.cut.smacc.server.statistics.metrics;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.server.cache.common.StoreSettings;
+import edu.cut.smacc.server.cache.common.io.UsageStats;
+import edu.cut.smacc.server.cache.memory.MemoryManager;
+import edu.cut.smacc.server.cache.policy.CachePolicyNotifier;
+import edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRU;
+import edu.cut.smacc.server.statistics.StatisticsManager;
+import edu.cut.smacc.server.statistics.latency.LatencyHistograms;
+import edu.cut.smacc.server.statistics.latency.LatencyType;
+import edu.cut.smacc.server.statistics.type.StatisticType;
+import edu.cut.smacc.server.statistics.type.general.TierGeneralStatistics;
+import edu.cut.smacc.server.statistics.type.performance.PerformanceStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class OpenMetricsExporterTest {
+
+    @Test
+    void testCountersSurviveOutput() throws IOException {
+        Configuration configuration = new Configuration();
+        CachePolicyNotifier notifier = CachePolicyNotifier.createNotifierFromPoliciesList(
+                List.of(new EvictionItemLRU()));
+        MemoryManager memoryManager = new MemoryManager(
+                new StoreSettings("test", "test", new UsageStats(1124)), notifier);
+        StatisticsManager manager = new StatisticsManager(configuration, memoryManager.getTierStatistics(), null,
+                new PerformanceStatistics(), "statistics_metrics_test.tsv");
+
+        TierGeneralStatistics memoryStatistics = memoryManager.getTierStatistics();
+        memoryStatistics.incrementStat(StatisticType.HIT_COUNT);
+        memoryStatistics.incrementStatBy(StatisticType.GET_BYTES, 1024);
+        manager.getS3Statistics().incrementStatBy(StatisticType.GET_BYTES, 100);
+        manager.outputStatisticsOnClientRequest();
+        // The interval statistics are reset but the totals are not
+        assert memoryStatistics.getStat(StatisticType.HIT_COUNT).longValue() == 0;
+        memoryStatistics.incrementStat(StatisticType.HIT_COUNT);
+
+        StringBuilder sb = new StringBuilder();
+        OpenMetricsExporter.writeStatistics(sb, manager.getTotalStatistics());
+        String metrics = sb.toString();
+        assert metrics.contains("# TYPE smacc_hit_count counter\n");
+        assert metrics.contains("smacc_hit_count_total{source=\"memory\"} 2\n");
+        assert metrics.contains("smacc_get_bytes_total{source=\"memory\"} 1024\n");
+        assert metrics.contains("smacc_get_bytes_total{source=\"s3\"} 100\n");
+        assert metrics.contains("smacc_get_bytes_total{source=\"all\"} 1124\n");
+        // The cache files and bytes are gauges, without the _total suffix
+        assert metrics.contains("# TYPE smacc_cache_bytes gauge\n");
+        assert metrics.contains("smacc_cache_bytes{source=\"memory\"} 0\n");
+
+        Files.deleteIfExists(Paths.get("statistics_metrics_test.tsv"));
+        System.out.println("OpenMetricsExporterTest.testCountersSurviveOutput() passed");
+    }
+
+    @Test
+    void testLatencyPercentiles() {
+        LatencyHistograms.snapshot();   // start a new interval
+        LatencyHistograms.record(LatencyType.CLOUD_HEAD, 2_000_000);
+
+        StringBuilder sb = new StringBuilder();
+        OpenMetricsExporter.writeLatencies(sb, LatencyHistograms.snapshot());
+        String metrics = sb.toString();
+        assert metrics.contains("# TYPE smacc_latency_seconds gauge\n");
+        assert metrics.contains("smacc_latency_seconds{op=\"cloud_head\",percentile=\"50\"} 0.002");
+        assert metrics.contains("smacc_latency_seconds{op=\"cloud_head\",percentile=\"99.9\"} 0.002");
+        assert !metrics.contains("quantile");
+
+        System.out.println("OpenMetricsExporterTest.testLatencyPercentiles() passed");
+    }
+}
@@ -62,4 +62,24 @@ public class StatisticsOutputOperationCountBasedTest {
         System.out.println("StatisticsOutputOperationCountBasedTest.testShouldOutputStatistics() passed.");
     }
 
+    @Test
+    public void testShouldOutputStatisticsForOperations() {
+        Configuration configuration = new Configuration();
+        configuration.addProperty(ServerConfigurations.STATISTICS_OUTPUT_INVOKE_POLICY_KEY,
+                StatisticsOutputOperationCountBased.class.getName());
+        configuration.addProperty(ServerConfigurations.STATISTICS_OUTPUT_INVOKE_POLICY_METRIC_KEY, 3);
+        StatisticsOutputInvokePolicy policy = StatisticsOutputInvokePolicy.getInstance(configuration);
+        // The same decisions as one call per operation: operations 0..2, then 3..3, then 4..9
+        assert !policy.shouldOutputStatistics(3);
+        assert policy.shouldOutputStatistics(1);
+        assert policy.shouldOutputStatistics(6);
+        assert !policy.shouldOutputStatistics(0);
+        // Operations 10..11 do not reach the interval, but the client request does
+        policy.outputStatisticsOnRequest();
+        assert policy.shouldOutputStatistics(2);
+        assert policy.shouldOutputStatistics(1);
+
+        System.out.println("StatisticsOutputOperationCountBasedTest.testShouldOutputStatisticsForOperations() passed.");
+    }
+
 }
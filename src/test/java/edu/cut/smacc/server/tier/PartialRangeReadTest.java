@@ -0,0 +1,177 @@
+package edu.cut.smacc.server.tier;
+
+import edu.cut.smacc.configuration.BaseConfigurations;
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.server.cloud.CloudFile;
+import edu.cut.smacc.server.cloud.CloudFileReader;
+import edu.cut.smacc.server.cloud.CloudFileWriter;
+import edu.cut.smacc.server.cloud.CloudInfo;
+import edu.cut.smacc.server.cloud.CloudStoreManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PartialRangeReadTest {
+
+    private static final int SIZE = 40000;
+    private static final byte[] DATA = new byte[SIZE];
+
+    @TempDir
+    static Path folder;
+
+    private static MemoryCloudStore cloud;
+    private static TierManager tier;
+
+    @BeforeAll
+    static void setUp() {
+        for (int i = 0; i < SIZE; i++)
+            DATA[i] = (byte) (i % 251);
+
+        Configuration conf = new Configuration();
+        conf.addProperty(BaseConfigurations.S3_TIER_MASTER_ACCESS_KEY_KEY, "access");
+        conf.addProperty(BaseConfigurations.S3_TIER_MASTER_SECRET_KEY_KEY, "secret");
+        conf.addProperty(BaseConfigurations.S3_DEFAULT_REGION_KEY, "region");
+        conf.addProperty(BaseConfigurations.S3_DEFAULT_BUCKET_KEY, "bucket");
+        conf.addProperty(ServerConfigurations.CACHE_MEMORY_STATE_KEY, folder.toString());
+        conf.addProperty(ServerConfigurations.CACHE_DISK_VOLUMES_SIZE_KEY, 0);
+        conf.addProperty(ServerConfigurations.READ_PARTIAL_MIN_SEGMENT_SIZE_KEY, 0);
+        cloud = new MemoryCloudStore();
+        tier = new TierManager(conf, cloud);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        tier.shutdown();
+    }
+
+    private static byte[] read(String key, long start, long stop) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = tier.read("bucket", key, start, stop, null).getInputStream()) {
+            in.transferTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean matches(byte[] data, int start, int stop) {
+        return Arrays.equals(data, Arrays.copyOfRange(DATA, start, stop + 1));
+    }
+
+    @Test
+    void testGapsStitchedBetweenCachedBlocks() throws IOException {
+        assert matches(read("stitched", 0, 9999), 0, 9999);
+        assert matches(read("stitched", 20000, 29999), 20000, 29999);
+        cloud.requests.clear();
+
+        // Only the gaps are fetched from the cloud
+        assert matches(read("stitched", 5000, 34999), 5000, 34999);
+        assert cloud.requests.size() == 2;
+        assert cloud.requests.get(0)[0] == 10000 && cloud.requests.get(0)[1] == 19999;
+        assert cloud.requests.get(1)[0] == 30000 && cloud.requests.get(1)[1] == 34999;
+
+        // The gaps were cached into the same file
+        assert matches(read("stitched", 0, 34999), 0, 34999);
+        assert cloud.requests.size() == 2;
+
+        System.out.println("PartialRangeReadTest.testGapsStitchedBetweenCachedBlocks() passed");
+    }
+
+    @Test
+    void testConcurrentReadersFillSameGap() throws Exception {
+        assert matches(read("shared", 0, 9999), 0, 9999);
+        assert matches(read("shared", 30000, 39999), 30000, 39999);
+
+        // Both readers fetch the gap before either of them caches it
+        cloud.gapBarrier = new CyclicBarrier(2);
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++)
+                results.add(readers.submit(() -> read("shared", 0, SIZE - 1)));
+            for (Future<byte[]> result : results)
+                assert matches(result.get(10, TimeUnit.SECONDS), 0, SIZE - 1);
+        } finally {
+            cloud.gapBarrier = null;
+            readers.shutdownNow();
+        }
+
+        cloud.requests.clear();
+        assert matches(read("shared", 0, SIZE - 1), 0, SIZE - 1);
+        assert cloud.requests.isEmpty();
+
+        System.out.println("PartialRangeReadTest.testConcurrentReadersFillSameGap() passed");
+    }
+
+    /**
+     * A cloud store that serves DATA for every key and records the ranges read
+     */
+    private static class MemoryCloudStore extends CloudStoreManager {
+        final List<long[]> requests = Collections.synchronizedList(new ArrayList<>());
+        volatile CyclicBarrier gapBarrier = null;   // awaited by the reads of the gap [10000, 29999]
+
+        public CloudFileWriter create(boolean async, String bucket, String key, Long length, CloudInfo cloudInfo)
+                throws IOException {
+            throw new IOException("Read only store");
+        }
+
+        public CloudFileReader read(String bucket, String key, CloudInfo cloudInfo) {
+            return read(bucket, key, 0, SIZE - 1, cloudInfo);
+        }
+
+        public CloudFileReader read(String bucket, String key, long start, long stop, CloudInfo cloudInfo) {
+            requests.add(new long[]{start, stop});
+            CyclicBarrier barrier = gapBarrier;
+            if (barrier != null && start == 10000 && stop == 29999) {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Readers did not fetch the gap together", e);
+                }
+            }
+            CloudFile file = new CloudFile(bucket, key, SIZE, 1000, true);
+            InputStream in = new ByteArrayInputStream(DATA, (int) start, (int) (stop - start + 1));
+            return new CloudFileReader() {
+                public CloudFile getCloudFile() {
+                    return file;
+                }
+
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        public CloudFile statFile(String bucket, String key, CloudInfo cloudInfo) {
+            return new CloudFile(bucket, key, SIZE, 1000, true);
+        }
+
+        public List<CloudFile> list(String bucket, String prefix, CloudInfo cloudInfo) {
+            return new ArrayList<>();
+        }
+
+        public boolean delete(String bucket, String key, CloudInfo cloudInfo) {
+            return false;
+        }
+    }
+
+}
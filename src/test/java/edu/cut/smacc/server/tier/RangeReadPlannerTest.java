@@ -0,0 +1,65 @@
+package edu.cut.smacc.server.tier;
+
+import edu.cut.smacc.server.cache.common.BlockRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RangeReadPlannerTest {
+
+    private static boolean matches(RangeReadPlanner.Segment segment, long start, long stop, boolean cached) {
+        return segment.getStart() == start && segment.getStop() == stop && segment.isCached() == cached;
+    }
+
+    @Test
+    void testSegmentsAndGaps() {
+        List<BlockRange> cached = List.of(new BlockRange(300, 399), new BlockRange(100, 199));
+        List<RangeReadPlanner.Segment> plan = RangeReadPlanner.plan(cached, 50, 449, 0);
+
+        assert plan.size() == 5;
+        assert matches(plan.get(0), 50, 99, false);
+        assert matches(plan.get(1), 100, 199, true);
+        assert matches(plan.get(2), 200, 299, false);
+        assert matches(plan.get(3), 300, 399, true);
+        assert matches(plan.get(4), 400, 449, false);
+        assert RangeReadPlanner.cachedBytes(plan) == 200;
+
+        System.out.println("RangeReadPlannerTest.testSegmentsAndGaps() passed");
+    }
+
+    @Test
+    void testOverlappingAndOutsideRanges() {
+        // Duplicate, adjacent and out of range blocks
+        List<BlockRange> cached = List.of(new BlockRange(0, 99), new BlockRange(0, 99), new BlockRange(100, 149),
+                new BlockRange(500, 599));
+        List<RangeReadPlanner.Segment> plan = RangeReadPlanner.plan(cached, 20, 199, 0);
+
+        assert plan.size() == 2;
+        assert matches(plan.get(0), 20, 149, true);
+        assert matches(plan.get(1), 150, 199, false);
+
+        // Fully cached and not cached at all
+        assert matches(RangeReadPlanner.plan(cached, 10, 30, 0).get(0), 10, 30, true);
+        List<RangeReadPlanner.Segment> missing = RangeReadPlanner.plan(cached, 200, 299, 0);
+        assert missing.size() == 1 && matches(missing.get(0), 200, 299, false);
+        assert RangeReadPlanner.cachedBytes(missing) == 0;
+
+        System.out.println("RangeReadPlannerTest.testOverlappingAndOutsideRanges() passed");
+    }
+
+    @Test
+    void testShortCachedSegmentsAreFetched() {
+        List<BlockRange> cached = List.of(new BlockRange(0, 99), new BlockRange(200, 209), new BlockRange(400, 499));
+        List<RangeReadPlanner.Segment> plan = RangeReadPlanner.plan(cached, 0, 599, 50);
+
+        // The short segment between the two gaps is fetched, the one at the edge is kept
+        assert plan.size() == 4;
+        assert matches(plan.get(0), 0, 99, true);
+        assert matches(plan.get(1), 100, 399, false);
+        assert matches(plan.get(2), 400, 499, true);
+        assert matches(plan.get(3), 500, 599, false);
+
+        System.out.println("RangeReadPlannerTest.testShortCachedSegmentsAreFetched() passed");
+    }
+
+}
@@ -0,0 +1,85 @@
+package edu.cut.smacc.server.tier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+public class ReadAheadPrefetcherTest {
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assert System.currentTimeMillis() < deadline;
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testPrefetchSequentialReads() throws InterruptedException {
+        List<long[]> fetched = Collections.synchronizedList(new ArrayList<>());
+        ReadAheadPrefetcher prefetcher = new ReadAheadPrefetcher(
+                (bucket, key, start, stop, cloudInfo) -> fetched.add(new long[]{start, stop}), 800, 10000, 1);
+
+        prefetcher.onRead("bucket", "key", 0, 99, 1000, null);
+        prefetcher.onRead("bucket", "key", 100, 199, 1000, null);
+        await(() -> prefetcher.getPrefetches() == 1);
+        assert fetched.get(0)[0] == 200 && fetched.get(0)[1] == 399;
+
+        // Refilled when half of the window is read
+        prefetcher.onRead("bucket", "key", 200, 299, 1000, null);
+        await(() -> prefetcher.getPrefetches() == 2);
+        assert fetched.get(1)[0] == 400 && fetched.get(1)[1] == 499;
+
+        // A random read starts over
+        prefetcher.onRead("bucket", "key", 700, 749, 1000, null);
+        prefetcher.onRead("bucket", "key", 750, 799, 1000, null);
+        await(() -> prefetcher.getPrefetches() == 3);
+        assert fetched.get(2)[0] == 800 && fetched.get(2)[1] == 899;
+
+        // The window doubles when the reader catches up and stops at the end of the object
+        prefetcher.onRead("bucket", "key", 800, 899, 1000, null);
+        await(() -> prefetcher.getPrefetches() == 4);
+        assert fetched.get(3)[0] == 900 && fetched.get(3)[1] == 999;
+        prefetcher.onRead("bucket", "key", 900, 999, 1000, null);
+        Thread.sleep(50);
+        assert fetched.size() == 4;
+        assert prefetcher.getPrefetchedBytes() == 200 + 100 + 100 + 100;
+        prefetcher.shutdown();
+
+        System.out.println("ReadAheadPrefetcherTest.testPrefetchSequentialReads() passed");
+    }
+
+    @Test
+    void testLimitBytesInProgress() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        ReadAheadPrefetcher prefetcher = new ReadAheadPrefetcher((bucket, key, start, stop, cloudInfo) -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }, 1000, 300, 2);
+
+        prefetcher.onRead("bucket", "first", 0, 99, 10000, null);
+        prefetcher.onRead("bucket", "first", 100, 199, 10000, null);
+        prefetcher.onRead("bucket", "second", 0, 99, 10000, null);
+        prefetcher.onRead("bucket", "second", 100, 199, 10000, null);
+        assert prefetcher.getSkippedPrefetches() == 1;
+
+        // An object with a prefetch in progress waits for it
+        prefetcher.onRead("bucket", "first", 200, 299, 10000, null);
+        release.countDown();
+        await(() -> prefetcher.getPrefetches() == 1);
+        assert prefetcher.getSkippedPrefetches() == 1;
+
+        // The budget is released
+        prefetcher.onRead("bucket", "second", 200, 299, 10000, null);
+        await(() -> prefetcher.getPrefetches() == 2);
+        prefetcher.shutdown();
+
+        System.out.println("ReadAheadPrefetcherTest.testLimitBytesInProgress() passed");
+    }
+}
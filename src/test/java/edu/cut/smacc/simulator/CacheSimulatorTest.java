@@ -0,0 +1,63 @@
+package edu.cut.smacc.simulator;
+
+import edu.cut.smacc.configuration.Configuration;
+import edu.cut.smacc.configuration.ServerConfigurations;
+import edu.cut.smacc.simulator.TraceRecord.Operation;
+import edu.cut.smacc.utils.PolicyClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CacheSimulatorTest {
+
+    @Test
+    void testLoop() {
+        Configuration conf = new Configuration();
+        conf.addProperty(ServerConfigurations.EVICTION_ITEM_POLICY_KEY,
+                "edu.cut.smacc.server.cache.policy.eviction.item.EvictionItemLRU");
+        CacheSimulator simulator = new CacheSimulator(conf, 100 * 1024, 0);
+
+        // 50 objects of 1KB fit in memory: only the first requests miss
+        List<TraceRecord> small = TraceGenerator.toTrace(TraceGenerator.loop(50, 1000),
+                TraceGenerator.fixedSizes(50, 1024), 10);
+        SimulationReport report = simulator.run(small);
+        assert report.getRequests() == 1000;
+        assert report.getHits() == 950 : report;
+        assert report.getBackendReadBytes() == 50 * 1024;
+        assert report.getSimulatedMillis() == 999 * 10;
+        assert PolicyClock.currentTimeMillis() > 999 * 10; // back to the system time
+
+        // 200 objects do not fit: LRU never hits a loop
+        List<TraceRecord> large = TraceGenerator.toTrace(TraceGenerator.loop(200, 1000),
+                TraceGenerator.fixedSizes(200, 1024), 10);
+        report = simulator.run(large);
+        assert report.getHits() == 0 : report;
+        assert report.getMemoryEvictions() > 0;
+
+        System.out.println("CacheSimulatorTest.testLoop() passed");
+    }
+
+    @Test
+    void testRanges() {
+        CacheSimulator simulator = new CacheSimulator(new Configuration(), 1024 * 1024, 1024 * 1024);
+        List<TraceRecord> trace = List.of(
+                TraceRecord.parse("0,GET,bucket,key,1000,0-499"),
+                TraceRecord.parse("10,GET,bucket,key,1000,250-749"),  // 250 bytes from the backend
+                TraceRecord.parse("20,GET,bucket,key,1000,100-700"),  // hit
+                new TraceRecord(30, Operation.PUT, "bucket", "key", 1000),
+                new TraceRecord(40, Operation.GET, "bucket", "key", 1000),  // hit
+                new TraceRecord(50, Operation.DEL, "bucket", "key", 1000),
+                new TraceRecord(60, Operation.GET, "bucket", "key", 1000));
+        SimulationReport report = simulator.run(trace);
+        assert report.getRequests() == 5;
+        assert report.getHits() == 2 : report;
+        assert report.getBackendReadBytes() == 500 + 250 + 1000 : report;
+        assert report.getBackendWriteBytes() == 1000;
+
+        TraceRecord record = TraceRecord.parse("5,get,b,k,10,2-3");
+        assert TraceRecord.parse(record.toCsv()).equals(record);
+        assert record.length() == 2;
+
+        System.out.println("CacheSimulatorTest.testRanges() passed");
+    }
+}